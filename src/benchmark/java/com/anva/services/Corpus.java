@@ -0,0 +1,107 @@
+package com.anva.services;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Deterministic generator of benchmark texts whose word frequencies follow a Zipf distribution.
+ * <p>
+ * Word {@code k} (0-based rank) of the vocabulary is drawn with probability proportional to {@code 1 / (k + 1)^skew},
+ * so a skew of 0 gives uniformly distributed words and a skew around 1 resembles natural language. Words are 2-12
+ * lowercase letters, capitalized now and then, separated by spaces and occasional punctuation.
+ */
+final class Corpus {
+
+    private final String[] vocabulary;
+    private final double[] cumulative;
+
+    Corpus(int vocabularySize, double skew, long seed) {
+        Random random = new Random(seed);
+        this.vocabulary = new String[vocabularySize];
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            vocabulary[rank] = word(rank, random);
+        }
+
+        this.cumulative = new double[vocabularySize];
+        double total = 0;
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            total += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    /**
+     * Parses sizes like {@code 1KB}, {@code 16MB} or {@code 1GB} into bytes (binary units).
+     */
+    static int parseSize(String size) {
+        String upper = size.trim().toUpperCase();
+        long multiplier = 1;
+        if (upper.endsWith("KB")) {
+            multiplier = 1L << 10;
+        } else if (upper.endsWith("MB")) {
+            multiplier = 1L << 20;
+        } else if (upper.endsWith("GB")) {
+            multiplier = 1L << 30;
+        }
+        String digits = multiplier == 1 ? upper : upper.substring(0, upper.length() - 2);
+        return Math.toIntExact(Long.parseLong(digits.trim()) * multiplier);
+    }
+
+    /**
+     * Generates a text of exactly {@code length} characters.
+     */
+    String text(int length, long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            String word = vocabulary[sample(random)];
+            if (random.nextInt(20) == 0) {
+                text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                text.append(word);
+            }
+            int separator = random.nextInt(16);
+            text.append(separator == 0 ? ", " : separator == 1 ? ".\n" : " ");
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+
+    /**
+     * Returns the word of the given frequency rank.
+     */
+    String word(int rank) {
+        return vocabulary[rank];
+    }
+
+    int vocabularySize() {
+        return vocabulary.length;
+    }
+
+    private int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, vocabulary.length - 1);
+    }
+
+    /**
+     * Builds a distinct word for every rank: its base-25 digits ({@code a-y}), terminated by {@code z} and padded with
+     * random letters to a random length. The terminator makes the digits a prefix code, so no two ranks collide.
+     */
+    private static String word(int rank, Random random) {
+        StringBuilder word = new StringBuilder();
+        int value = rank;
+        do {
+            word.append((char) ('a' + value % 25));
+            value /= 25;
+        } while (value > 0);
+        word.append('z');
+        int length = 2 + random.nextInt(11);
+        while (word.length() < length) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,301 @@
+package com.anva.services;
+
+import com.anva.ApplicationBoot;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of the {@code /documents} endpoints over HTTP.
+ * <p>
+ * Starts {@link ApplicationBoot} on a free local port (or targets a running instance given by {@code url=}) and sends
+ * an open-loop workload: requests are scheduled as a Poisson process at a fixed {@code rate}, independently of how fast
+ * responses come back, and each latency is measured from the time the request was scheduled rather than sent. When the
+ * server falls behind, the queueing delay therefore shows up in the percentiles instead of silently lowering the load
+ * (coordinated omission). At most {@code max-in-flight} requests are outstanding; beyond that the generator waits,
+ * which is again charged to the requests it delays.
+ * <p>
+ * Each request picks an endpoint and a document size by weight; documents are {@link Corpus} texts, several distinct
+ * ones per size, and the frequency table cache is disabled unless a {@code --anva.analysis.cache.max-bytes} argument
+ * is given, so every request counts its text. Latencies are recorded per endpoint and size in HdrHistograms after the
+ * warm-up; the report lists throughput and p50/p99/p99.9 latency and writes each distribution as a {@code .hgrm} file.
+ * <p>
+ * Arguments are {@code key=value} options (see {@link #main}); arguments starting with {@code --} are passed to the
+ * application, e.g. {@code --anva.scheduler.max-concurrent=4}.
+ */
+public final class LoadTest {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("url", "");
+        DEFAULTS.put("rate", "200");
+        DEFAULTS.put("warmup", "10");
+        DEFAULTS.put("duration", "30");
+        DEFAULTS.put("max-in-flight", "256");
+        DEFAULTS.put("endpoints", "highest-frequency:3,word-frequency:2,most-frequent-words:3,analyze:2");
+        DEFAULTS.put("sizes", "1KB:60,64KB:30,1MB:10");
+        DEFAULTS.put("texts", "16");
+        DEFAULTS.put("vocabulary", "100000");
+        DEFAULTS.put("skew", "1.0");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("output", "target/loadtest");
+    }
+
+    // Latencies are recorded in microseconds, up to an hour.
+    private static final long HIGHEST_LATENCY = TimeUnit.HOURS.toMicros(1);
+
+    private final Map<String, String> options;
+    private final List<Operation> operations = new ArrayList<>();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    /**
+     * Options:
+     * <ul>
+     *     <li>{@code url}: base URL of a running instance; empty starts one in this JVM</li>
+     *     <li>{@code rate}: requests per second; {@code warmup} and {@code duration}: seconds of load before and
+     *     while latencies are recorded</li>
+     *     <li>{@code max-in-flight}: outstanding requests at most, which bounds the client's connections</li>
+     *     <li>{@code endpoints}: weighted endpoints, out of {@code highest-frequency}, {@code word-frequency},
+     *     {@code word-frequencies}, {@code most-frequent-words}, {@code analyze} and
+     *     {@code approximate/most-frequent-words}</li>
+     *     <li>{@code sizes}: weighted document sizes, e.g. {@code 1KB:60,1MB:10}; {@code texts}: distinct documents per
+     *     size; {@code vocabulary}, {@code skew}, {@code seed}: shape of the generated texts</li>
+     *     <li>{@code output}: directory for the {@code .hgrm} latency distributions</li>
+     * </ul>
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+            } else if (!arg.isBlank()) {
+                int separator = arg.indexOf('=');
+                if (separator < 0 || !DEFAULTS.containsKey(arg.substring(0, separator))) {
+                    throw new IllegalArgumentException("Unknown option: " + arg + " (expected one of "
+                            + DEFAULTS.keySet() + ")");
+                }
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+
+        String url = options.get("url");
+        ConfigurableApplicationContext application = null;
+        if (url.isEmpty()) {
+            applicationArgs.add("--server.port=0");
+            if (applicationArgs.stream().noneMatch(arg -> arg.startsWith("--anva.analysis.cache.max-bytes="))) {
+                applicationArgs.add("--anva.analysis.cache.max-bytes=0");
+            }
+            application = SpringApplication.run(ApplicationBoot.class, applicationArgs.toArray(String[]::new));
+            url = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            LoadTest test = new LoadTest(options);
+            test.prepare(url);
+            test.run();
+            test.report(System.out);
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private void prepare(String url) {
+        Random random = new Random(Long.parseLong(options.get("seed")));
+        Corpus corpus = new Corpus(Integer.parseInt(options.get("vocabulary")), Double.parseDouble(options.get("skew")),
+                random.nextLong());
+        int texts = Integer.parseInt(options.get("texts"));
+        // A word of middling frequency, so that lookups neither always nor never match.
+        String word = corpus.word(corpus.vocabularySize() / 10);
+
+        Map<String, Integer> sizes = weights(options.get("sizes"));
+        Map<String, Integer> endpoints = weights(options.get("endpoints"));
+        Map<String, byte[][]> documents = new LinkedHashMap<>();
+        for (String size : sizes.keySet()) {
+            byte[][] bodies = new byte[texts][];
+            for (int i = 0; i < texts; i++) {
+                bodies[i] = corpus.text(Corpus.parseSize(size), random.nextLong()).getBytes(StandardCharsets.UTF_8);
+            }
+            documents.put(size, bodies);
+        }
+
+        for (Map.Entry<String, Integer> endpoint : endpoints.entrySet()) {
+            URI uri = URI.create(url + "/documents/" + endpoint.getKey() + query(endpoint.getKey(), word));
+            for (Map.Entry<String, Integer> size : sizes.entrySet()) {
+                operations.add(new Operation(endpoint.getKey() + " " + size.getKey(), uri,
+                        documents.get(size.getKey()), endpoint.getValue() * size.getValue()));
+            }
+        }
+    }
+
+    private static String query(String endpoint, String word) {
+        String encoded = URLEncoder.encode(word, StandardCharsets.UTF_8);
+        return switch (endpoint) {
+            case "highest-frequency" -> "";
+            case "word-frequency" -> "?word=" + encoded;
+            case "word-frequencies" -> "?words=" + encoded + "&words=the";
+            case "most-frequent-words", "approximate/most-frequent-words" -> "?n=10";
+            case "analyze" -> "?highestFrequency=true&n=10&words=" + encoded;
+            default -> throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+        };
+    }
+
+    /**
+     * Parses {@code name:weight,...}; the weight defaults to 1.
+     */
+    private static Map<String, Integer> weights(String list) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String item : list.split(",")) {
+            String[] parts = item.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weights must be positive: " + item);
+            }
+            weights.put(parts[0].trim(), weight);
+        }
+        return weights;
+    }
+
+    private void run() throws InterruptedException {
+        Random random = new Random(Long.parseLong(options.get("seed")));
+        double rate = Double.parseDouble(options.get("rate"));
+        int maxInFlight = Integer.parseInt(options.get("max-in-flight"));
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        long start = System.nanoTime();
+        long recordFrom = start + TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("warmup")));
+        long end = recordFrom + TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("duration")));
+        // Intended send time of the next request; exponential gaps make the arrivals a Poisson process.
+        double next = start;
+        while (next < end) {
+            long intended = (long) next;
+            long delay;
+            while ((delay = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            inFlight.acquire();
+
+            Operation operation = pick(random, totalWeight);
+            HttpRequest request = HttpRequest.newBuilder(operation.uri())
+                    .header("Content-Type", "text/plain; charset=UTF-8")
+                    .timeout(Duration.ofMinutes(5))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(
+                            operation.documents()[random.nextInt(operation.documents().length)]))
+                    .build();
+            boolean recorded = intended >= recordFrom;
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                if (recorded) {
+                    operation.record(response != null && response.statusCode() == 200, latency);
+                }
+                inFlight.release();
+            });
+            next += -Math.log(1 - random.nextDouble()) / rate * 1e9;
+        }
+        if (!inFlight.tryAcquire(maxInFlight, 5, TimeUnit.MINUTES)) {
+            System.err.println("Gave up waiting for " + (maxInFlight - inFlight.availablePermits())
+                    + " outstanding requests");
+        }
+    }
+
+    private Operation pick(Random random, int totalWeight) {
+        int value = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            value -= operation.weight();
+            if (value < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private void report(PrintStream out) throws IOException {
+        double seconds = Double.parseDouble(options.get("duration"));
+        Path output = Path.of(options.get("output"));
+        Files.createDirectories(output);
+
+        out.printf("%nOpen-loop load of %s requests/s for %s s after a %s s warm-up (latency in ms)%n",
+                options.get("rate"), options.get("duration"), options.get("warmup"));
+        out.printf("%-44s %9s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "ok", "errors", "ok/s", "p50", "p99", "p99.9", "max");
+        Histogram all = new Histogram(HIGHEST_LATENCY, 3);
+        long allErrors = 0;
+        for (Operation operation : operations) {
+            all.add(operation.latencies());
+            allErrors += operation.errors().sum();
+            print(out, operation.name(), operation.latencies(), operation.errors().sum(), seconds);
+            write(output.resolve(operation.name().replaceAll("[^A-Za-z0-9]+", "-") + ".hgrm"),
+                    operation.latencies());
+        }
+        print(out, "all", all, allErrors, seconds);
+        write(output.resolve("all.hgrm"), all);
+        out.println("Latency distributions written to " + output.toAbsolutePath());
+    }
+
+    private static void print(PrintStream out, String name, Histogram latencies, long errors, double seconds) {
+        out.printf("%-44s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name, latencies.getTotalCount(), errors,
+                latencies.getTotalCount() / seconds,
+                latencies.getValueAtPercentile(50) / 1000.0,
+                latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getValueAtPercentile(99.9) / 1000.0,
+                latencies.getMaxValue() / 1000.0);
+    }
+
+    private static void write(Path file, Histogram latencies) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            // Scaled to milliseconds, the unit HdrHistogram's plotter expects.
+            latencies.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    /**
+     * One endpoint with one document size, and the latencies of its successful requests.
+     */
+    private record Operation(String name, URI uri, byte[][] documents, int weight, Histogram latencies,
+                             LongAdder errors) {
+
+        Operation(String name, URI uri, byte[][] documents, int weight) {
+            this(name, uri, documents, weight, new ConcurrentHistogram(HIGHEST_LATENCY, 3), new LongAdder());
+        }
+
+        void record(boolean ok, long latency) {
+            if (ok) {
+                latencies.recordValue(Math.min(latency, HIGHEST_LATENCY));
+            } else {
+                errors.increment();
+            }
+        }
+    }
+}
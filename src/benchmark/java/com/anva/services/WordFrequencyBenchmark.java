@@ -0,0 +1,105 @@
+package com.anva.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@link WordFrequencyAnalyzerImpl} operations on generated corpora.
+ * <p>
+ * The corpus size ranges from 1 KB to 500 MB; the vocabulary size and the Zipf skew of the word distribution vary the
+ * shape of the frequency table. {@code parallelism} is the size of the analysis pool: 1 counts every text
+ * sequentially on the calling thread, 0 uses one worker per processor, so comparing the two shows where parallel
+ * counting starts to pay off. Run with {@code -prof gc} (the default in the benchmark profile) for allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WordFrequencyBenchmark {
+
+    @Param({"1KB", "64KB", "1MB", "16MB", "128MB", "500MB"})
+    public String size;
+
+    @Param({"1000", "100000"})
+    public int vocabulary;
+
+    @Param({"0.8", "1.2"})
+    public double skew;
+
+    @Param({"1", "0"})
+    public int parallelism;
+
+    @Param({"10"})
+    public int n;
+
+    @Param({"0", "65536"})
+    public int dictionary;
+
+    private ForkJoinPool pool;
+    private WordFrequencyAnalyzerImpl analyzer;
+    private String text;
+    private String word;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Corpus corpus = new Corpus(vocabulary, skew, 42);
+        text = corpus.text(Corpus.parseSize(size), 7);
+        // A word of middling frequency, so that lookups neither always nor never match.
+        word = corpus.word(corpus.vocabularySize() / 10);
+
+        // Half of the dictionary holds the words of earlier traffic, as in a service that has been up for a while, so
+        // the words of this text get high ids. Corpus words never start with z, so these are all different from them.
+        WordDictionary words = new WordDictionary(dictionary);
+        Corpus earlier = new Corpus(Math.max(1, dictionary / 2), skew, 43);
+        for (int rank = 0; rank < dictionary / 2; rank++) {
+            byte[] word = ("z" + earlier.word(rank)).getBytes(StandardCharsets.US_ASCII);
+            words.intern(word, word.length, WordHash.hash(word, word.length));
+        }
+
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        WordCountEngine engine = new WordCountEngine(WordCountEngine.DEFAULT_PARALLEL_THRESHOLD,
+                StreamWordScanner.DEFAULT_BUFFER_SIZE, false, TokenizerType.ASCII, words,
+                AnalysisScheduler.unbounded(pool), AnalysisMetrics.disabled());
+        // Without a cache, every invocation counts the text.
+        analyzer = new WordFrequencyAnalyzerImpl(engine, new FrequencyTableCache(0),
+                new WatchListCache(WatchListCache.DEFAULT_MAX_ENTRIES));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public int highestFrequency() {
+        return analyzer.calculateHighestFrequency(text);
+    }
+
+    @Benchmark
+    public int frequencyForWord() {
+        return analyzer.calculateFrequencyForWord(text, word);
+    }
+
+    @Benchmark
+    public List<?> mostFrequentNWords() {
+        return analyzer.calculateMostFrequentNWords(text, n);
+    }
+}
@@ -0,0 +1,38 @@
+package com.anva.controllers;
+
+import com.anva.services.interfaces.AnalysisCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for inspecting and clearing the cache of computed frequency tables.
+ */
+@RestController
+@RequestMapping("documents/cache")
+public class AnalysisCacheController {
+
+    @Autowired
+    private AnalysisCache analysisCache;
+
+    /**
+     * API to return the cache statistics.
+     *
+     * @return The hit, miss, coalescing and eviction counts and the current size of the cache
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<?> getStatistics() {
+        return ResponseEntity.ok(analysisCache.getStatistics());
+    }
+
+    /**
+     * API to remove every cached table.
+     *
+     * @return No content
+     */
+    @DeleteMapping
+    public ResponseEntity<?> clear() {
+        analysisCache.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
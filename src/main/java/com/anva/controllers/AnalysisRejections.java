@@ -0,0 +1,40 @@
+package com.anva.controllers;
+
+import com.anva.services.interfaces.AnalysisRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Maps analyses rejected by admission control to responses: 429 when the queue was full, 503 when the wait for
+ * capacity timed out, both with a {@code Retry-After} header.
+ */
+final class AnalysisRejections {
+
+    private AnalysisRejections() {
+    }
+
+    static ResponseEntity<?> toResponse(AnalysisRejectedException e) {
+        HttpStatus status = e.getReason() == AnalysisRejectedException.Reason.QUEUE_FULL
+                ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, Integer.toString(e.getRetryAfterSeconds()))
+                .body("Error: Server is busy - " + e.getMessage());
+    }
+
+    /**
+     * Returns the same response with a streamed text body, for handler methods that must declare a streaming body type.
+     */
+    static ResponseEntity<StreamingResponseBody> toStreamingResponse(AnalysisRejectedException e) {
+        ResponseEntity<?> response = toResponse(e);
+        byte[] message = String.valueOf(response.getBody()).getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message));
+    }
+}
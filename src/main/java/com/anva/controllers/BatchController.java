@@ -0,0 +1,262 @@
+package com.anva.controllers;
+
+import com.anva.models.AnalysisSpecImpl;
+import com.anva.models.BatchDocumentImpl;
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.models.interfaces.BatchDocument;
+import com.anva.services.interfaces.BatchAnalyzer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * REST controller for analyzing many small documents in one request.
+ * <p>
+ * The response is newline-delimited JSON: one line per document, written as soon as that document has been analyzed
+ * (so in completion order, identified by {@code index} and {@code id}), followed by an {@code aggregate} line for the
+ * whole batch if requested.
+ */
+@RestController
+@RequestMapping("documents/batch")
+public class BatchController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private BatchAnalyzer batchAnalyzer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * API to analyze a batch of documents sent as newline-delimited JSON, one {@code {"id": ..., "text": ...}} object per
+     * line. The body is read while the documents are analyzed.
+     *
+     * @param request          The request whose body is the batch
+     * @param highestFrequency Whether to compute the highest frequency of any word
+     * @param n                The number of most frequent words to return, if any
+     * @param words            The words whose frequencies should be returned, if any
+     * @param aggregate        Whether to also return the results for the whole batch
+     * @param tokenizer        The tokenizer to count with ({@code ascii} or {@code unicode}), if not the configured one
+     * @return The results, streamed as newline-delimited JSON
+     */
+    @PostMapping(consumes = NDJSON, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> analyzeNdjson(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "false") boolean highestFrequency,
+            @RequestParam(defaultValue = "0") int n,
+            @RequestParam(required = false) List<String> words,
+            @RequestParam(defaultValue = "false") boolean aggregate,
+            @RequestParam(required = false) String tokenizer) {
+        AnalysisSpec spec;
+        try {
+            spec = new AnalysisSpecImpl(highestFrequency, n, words, tokenizer);
+        } catch (IllegalArgumentException e) {
+            return error("Error: Invalid input - " + e.getMessage());
+        }
+        if (isEmpty(spec)) {
+            return nothingToAnalyze();
+        }
+        return stream(spec, aggregate, () -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), bodyCharset(request)));
+            return new NdjsonDocuments(reader);
+        });
+    }
+
+    /**
+     * API to analyze a batch of documents sent as multipart form data, one document per part. A document is identified
+     * by the file name of its part, or else by the part name.
+     *
+     * @param request          The multipart request
+     * @param highestFrequency Whether to compute the highest frequency of any word
+     * @param n                The number of most frequent words to return, if any
+     * @param words            The words whose frequencies should be returned, if any
+     * @param aggregate        Whether to also return the results for the whole batch
+     * @param tokenizer        The tokenizer to count with ({@code ascii} or {@code unicode}), if not the configured one
+     * @return The results, streamed as newline-delimited JSON
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> analyzeMultipart(
+            MultipartHttpServletRequest request,
+            @RequestParam(defaultValue = "false") boolean highestFrequency,
+            @RequestParam(defaultValue = "0") int n,
+            @RequestParam(required = false) List<String> words,
+            @RequestParam(defaultValue = "false") boolean aggregate,
+            @RequestParam(required = false) String tokenizer) {
+        AnalysisSpec spec;
+        try {
+            spec = new AnalysisSpecImpl(highestFrequency, n, words, tokenizer);
+        } catch (IllegalArgumentException e) {
+            return error("Error: Invalid input - " + e.getMessage());
+        }
+        if (isEmpty(spec)) {
+            return nothingToAnalyze();
+        }
+        List<MultipartFile> parts = request.getMultiFileMap().values().stream()
+                .flatMap(List::stream)
+                .toList();
+        return stream(spec, aggregate, () -> new PartDocuments(parts.iterator()));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(AnalysisSpec spec, boolean aggregate, DocumentSource source) {
+        StreamingResponseBody body = out -> {
+            try {
+                AnalysisResult total = batchAnalyzer.analyze(source.open(), spec, aggregate, result -> writeLine(out, result));
+                if (total != null) {
+                    writeLine(out, Map.of("aggregate", total));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Batch analysis was interrupted", e);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isEmpty(AnalysisSpec spec) {
+        return !spec.isHighestFrequency() && spec.getMostFrequentWords() == 0 && spec.getWords().isEmpty();
+    }
+
+    private static ResponseEntity<StreamingResponseBody> nothingToAnalyze() {
+        return error("Error: Nothing to analyze - request highestFrequency, n and/or words");
+    }
+
+    /**
+     * Returns a bad request; the body is a stream too, as the handler methods must declare a single body type.
+     */
+    private static ResponseEntity<StreamingResponseBody> error(String message) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Charset bodyCharset(HttpServletRequest request) {
+        String encoding = request.getCharacterEncoding();
+        return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+    }
+
+    private static Charset partCharset(MultipartFile part) {
+        if (part.getContentType() == null) {
+            return StandardCharsets.UTF_8;
+        }
+        Charset charset = MediaType.parseMediaType(part.getContentType()).getCharset();
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    @FunctionalInterface
+    private interface DocumentSource {
+        Iterator<? extends BatchDocument> open() throws IOException;
+    }
+
+    /**
+     * Reads one document per non-blank line; a line that is not a JSON object with a {@code text} becomes a document
+     * without text, which is reported as an error.
+     */
+    private final class NdjsonDocuments implements Iterator<BatchDocument> {
+        private final BufferedReader reader;
+        private String line;
+        private int index;
+
+        NdjsonDocuments(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (line == null) {
+                    line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    if (line.isBlank()) {
+                        line = null;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public BatchDocument next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String current = line;
+            line = null;
+            try {
+                JsonNode document = objectMapper.readTree(current);
+                JsonNode id = document.get("id");
+                JsonNode text = document.get("text");
+                return new BatchDocumentImpl(index++, id == null ? null : id.asText(),
+                        text == null || !text.isTextual() ? null : text.asText());
+            } catch (IOException e) {
+                return new BatchDocumentImpl(index++, null, null);
+            }
+        }
+    }
+
+    private static final class PartDocuments implements Iterator<BatchDocument> {
+        private final Iterator<MultipartFile> parts;
+        private int index;
+
+        PartDocuments(Iterator<MultipartFile> parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return parts.hasNext();
+        }
+
+        @Override
+        public BatchDocument next() {
+            MultipartFile part = parts.next();
+            String fileName = part.getOriginalFilename();
+            String id = fileName != null && !fileName.isEmpty() ? fileName : part.getName();
+            try (InputStream in = part.getInputStream()) {
+                return new BatchDocumentImpl(index++, id, new String(in.readAllBytes(), partCharset(part)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
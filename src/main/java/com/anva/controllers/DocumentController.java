@@ -1,35 +1,94 @@
 package com.anva.controllers;
 
+import com.anva.models.AnalysisSpecImpl;
+import com.anva.models.interfaces.AnalysisSpec;
 import com.anva.models.interfaces.WordFrequency;
+import com.anva.services.interfaces.AnalysisRejectedException;
+import com.anva.services.interfaces.RankedWords;
 import com.anva.services.interfaces.WordFrequencyAnalyzer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST controller for handling document-related operations.
+ * <p>
+ * Request bodies up to {@code anva.documents.buffered-body-limit} bytes are read into memory and handed to the analyzer
+ * as UTF-8 bytes, which it scans without decoding them (a block of bytes at a time with the vectorized ASCII
+ * tokenizer). Larger bodies, and bodies sent with chunked transfer encoding (no Content-Length), are streamed into the
+ * analyzer, which counts the words while reading; they are never held in memory as a whole.
+ * <p>
+ * Reading a buffered body is timed as the {@code anva.request.read} stage; a streamed body is read while it is counted,
+ * so its reading is part of the {@code anva.analysis.count} stage.
  */
 @RestController
 @RequestMapping("documents")
 public class DocumentController {
 
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     @Autowired
     private WordFrequencyAnalyzer wordFrequencyAnalyzer;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${anva.documents.buffered-body-limit:1048576}")
+    private long bufferedBodyLimit;
+
+    private Timer readTimer;
+    private DistributionSummary bodySize;
+
+    @Autowired
+    void registerMeters(MeterRegistry registry) {
+        this.readTimer = Timer.builder("anva.request.read")
+                .description("Time spent reading a buffered request body")
+                .register(registry);
+        this.bodySize = DistributionSummary.builder("anva.request.body")
+                .description("Size of buffered request bodies")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
     /**
      * API to calculate the highest frequency of any word in the given text.
      *
-     * @param text The input text to analyze
+     * @param request The request whose body is the input text to analyze
      * @return The highest frequency of any word in the text
      */
     @PostMapping("/highest-frequency")
-    public ResponseEntity<?> calculateHighestFrequency(@RequestBody(required = false) String text) {
+    public ResponseEntity<?> calculateHighestFrequency(HttpServletRequest request) {
         try {
+            if (isStreamed(request)) {
+                return ResponseEntity.ok(wordFrequencyAnalyzer.calculateHighestFrequency(openBody(request)));
+            }
+
+            ByteBuffer text = readBody(request);
+
             // Input validation
-            if (text == null || text.trim().isEmpty()) {
+            if (isBlank(text)) {
                 // Return 0 for empty input, as expected by tests
                 return ResponseEntity.ok(0);
             }
@@ -40,6 +99,8 @@ public class DocumentController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body("Error: Invalid input - " + e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
@@ -49,24 +110,35 @@ public class DocumentController {
     /**
      * API to calculate the frequency of a specific word in the given text.
      *
-     * @param text The input text to analyze
-     * @param word The word whose frequency is to be calculated
+     * @param request The request whose body is the input text to analyze
+     * @param word    The word whose frequency is to be calculated
      * @return The frequency of the specified word in the text
      */
     @PostMapping("/word-frequency")
     public ResponseEntity<?> calculateFrequencyForWord(
-            @RequestBody String text,
+            HttpServletRequest request,
             @RequestParam String word) {
         try {
-            // Input validation
-            if (text == null || text.trim().isEmpty()) {
+            if (word == null || word.trim().isEmpty()) {
                 return ResponseEntity.badRequest()
-                        .body("Error: Input text cannot be null or empty");
+                        .body("Error: Word parameter cannot be null or empty");
             }
 
-            if (word == null || word.trim().isEmpty()) {
+            if (isStreamed(request)) {
+                Reader text = skipLeadingWhitespace(openBody(request));
+                if (text == null) {
+                    return ResponseEntity.badRequest()
+                            .body("Error: Input text cannot be null or empty");
+                }
+                return ResponseEntity.ok(wordFrequencyAnalyzer.calculateFrequencyForWord(text, word));
+            }
+
+            ByteBuffer text = readBody(request);
+
+            // Input validation
+            if (isBlank(text)) {
                 return ResponseEntity.badRequest()
-                        .body("Error: Word parameter cannot be null or empty");
+                        .body("Error: Input text cannot be null or empty");
             }
 
             int frequency = wordFrequencyAnalyzer.calculateFrequencyForWord(text, word);
@@ -75,6 +147,42 @@ public class DocumentController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body("Error: Invalid input - " + e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+
+    /**
+     * API to calculate the frequencies of several words in the given text in a single pass.
+     *
+     * @param request The request whose body is the input text to analyze
+     * @param words   The words whose frequencies are to be calculated
+     * @return The frequency of each word, keyed by the word as requested
+     */
+    @PostMapping("/word-frequencies")
+    public ResponseEntity<?> calculateFrequenciesForWords(
+            HttpServletRequest request,
+            @RequestParam List<String> words) {
+        try {
+            if (words.isEmpty() || words.stream().anyMatch(word -> word.trim().isEmpty())) {
+                return ResponseEntity.badRequest()
+                        .body("Error: Words parameter cannot contain null or empty words");
+            }
+
+            if (isStreamed(request)) {
+                return ResponseEntity.ok(wordFrequencyAnalyzer.calculateFrequenciesForWords(openBody(request), words));
+            }
+
+            Map<String, Integer> frequencies = wordFrequencyAnalyzer.calculateFrequenciesForWords(readBody(request), words);
+            return ResponseEntity.ok(frequencies);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Invalid input - " + e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
@@ -84,15 +192,25 @@ public class DocumentController {
     /**
      * API to calculate the most frequent N words in the given text.
      *
-     * @param text The input text to analyze
-     * @param n    The number of most frequent words to return
+     * @param request The request whose body is the input text to analyze
+     * @param n       The number of most frequent words to return
      * @return A list of WordFrequency objects representing the most frequent N words
      */
     @PostMapping("/most-frequent-words")
-    public ResponseEntity<?> calculateMostFrequentNWords(@RequestBody(required = false) String text, @RequestParam int n) {
+    public ResponseEntity<?> calculateMostFrequentNWords(HttpServletRequest request, @RequestParam int n) {
         try {
-            if (text == null || text.trim().isEmpty() || n <= 0) {
-                // Return empty list for empty input or n <= 0, as expected by tests
+            if (n <= 0) {
+                // Return empty list for n <= 0, as expected by tests
+                return ResponseEntity.ok(List.of());
+            }
+
+            if (isStreamed(request)) {
+                return ResponseEntity.ok(wordFrequencyAnalyzer.calculateMostFrequentNWords(openBody(request), n));
+            }
+
+            ByteBuffer text = readBody(request);
+            if (isBlank(text)) {
+                // Return empty list for empty input, as expected by tests
                 return ResponseEntity.ok(List.of());
             }
             List<WordFrequency> result = wordFrequencyAnalyzer.calculateMostFrequentNWords(text, n);
@@ -100,9 +218,284 @@ public class DocumentController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body("Error: Invalid input - " + e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+
+    /**
+     * API to stream the most frequent N words in the given text in a length-prefixed binary format, selected with
+     * {@code Accept: application/vnd.anva.word-frequencies}.
+     *
+     * @param request The request whose body is the input text to analyze
+     * @param n       The number of most frequent words to return
+     * @return The most frequent N words, written entry by entry
+     */
+    @PostMapping(value = "/most-frequent-words", produces = RankedWordsEncodings.BINARY)
+    public ResponseEntity<StreamingResponseBody> streamMostFrequentNWordsBinary(HttpServletRequest request,
+                                                                                @RequestParam int n) {
+        return streamMostFrequentNWords(request, n, RankedWordsEncodings.BINARY, RankedWordsEncodings::writeBinary);
+    }
+
+    /**
+     * API to stream the most frequent N words in the given text as newline-delimited JSON, selected with
+     * {@code Accept: application/x-ndjson}.
+     *
+     * @param request The request whose body is the input text to analyze
+     * @param n       The number of most frequent words to return
+     * @return The most frequent N words, one {@code {"word", "frequency"}} object per line
+     */
+    @PostMapping(value = "/most-frequent-words", produces = RankedWordsEncodings.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamMostFrequentNWordsNdjson(HttpServletRequest request,
+                                                                                @RequestParam int n) {
+        return streamMostFrequentNWords(request, n, RankedWordsEncodings.NDJSON,
+                (words, out) -> RankedWordsEncodings.writeNdjson(words, objectMapper.getFactory(), out));
+    }
+
+    /**
+     * API to compute several results for the given text from a single upload and counting pass.
+     *
+     * @param request          The request whose body is the input text to analyze
+     * @param highestFrequency Whether to compute the highest frequency of any word
+     * @param n                The number of most frequent words to return, if any
+     * @param words            The words whose frequencies should be returned, if any
+     * @param tokenizer        The tokenizer to count with ({@code ascii} or {@code unicode}), if not the configured one
+     * @return The requested results
+     */
+    @PostMapping("/analyze")
+    public ResponseEntity<?> analyze(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "false") boolean highestFrequency,
+            @RequestParam(defaultValue = "0") int n,
+            @RequestParam(required = false) List<String> words,
+            @RequestParam(required = false) String tokenizer) {
+        try {
+            AnalysisSpec spec = new AnalysisSpecImpl(highestFrequency, n, words, tokenizer);
+            if (!spec.isHighestFrequency() && spec.getMostFrequentWords() == 0 && spec.getWords().isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body("Error: Nothing to analyze - request highestFrequency, n and/or words");
+            }
+
+            if (isStreamed(request)) {
+                return ResponseEntity.ok(wordFrequencyAnalyzer.analyze(openBody(request), spec));
+            }
+            return ResponseEntity.ok(wordFrequencyAnalyzer.analyze(readBody(request), spec));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Invalid input - " + e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+
+    /**
+     * API to estimate the highest frequency of any word in the given text, in memory bounded by the requested accuracy.
+     *
+     * @param request The request whose body is the input text to analyze
+     * @param epsilon The largest overestimation allowed, as a fraction of the number of words
+     * @return The estimated highest frequency and its error guarantees
+     */
+    @PostMapping("/approximate/highest-frequency")
+    public ResponseEntity<?> estimateHighestFrequency(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "${anva.analysis.approximate.epsilon:0.0001}") double epsilon) {
+        return estimateMostFrequentNWords(request, 0, epsilon);
+    }
+
+    /**
+     * API to estimate the most frequent N words in the given text, in memory bounded by the requested accuracy.
+     *
+     * @param request The request whose body is the input text to analyze
+     * @param n       The number of most frequent words to return
+     * @param epsilon The largest overestimation allowed, as a fraction of the number of words
+     * @return The estimated most frequent words and their error guarantees
+     */
+    @PostMapping("/approximate/most-frequent-words")
+    public ResponseEntity<?> estimateMostFrequentNWords(
+            HttpServletRequest request,
+            @RequestParam int n,
+            @RequestParam(defaultValue = "${anva.analysis.approximate.epsilon:0.0001}") double epsilon) {
+        try {
+            if (isStreamed(request)) {
+                return ResponseEntity.ok(wordFrequencyAnalyzer.estimateMostFrequentNWords(openBody(request), n, epsilon));
+            }
+            return ResponseEntity.ok(wordFrequencyAnalyzer.estimateMostFrequentNWords(readBody(request), n, epsilon));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Invalid input - " + e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+
+    /**
+     * API to calculate the highest frequency of any n-gram (run of consecutive words) in the given text.
+     *
+     * @param request          The request whose body is the input text to analyze
+     * @param length           The number of words per n-gram
+     * @param excludeStopWords Whether to skip n-grams containing one of the configured stop words
+     * @return The highest frequency of any n-gram in the text
+     */
+    @PostMapping("/ngrams/highest-frequency")
+    public ResponseEntity<?> calculateHighestNGramFrequency(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "2") int length,
+            @RequestParam(defaultValue = "false") boolean excludeStopWords) {
+        try {
+            if (isStreamed(request)) {
+                return ResponseEntity.ok(wordFrequencyAnalyzer.calculateHighestNGramFrequency(openBody(request), length,
+                        excludeStopWords));
+            }
+            return ResponseEntity.ok(wordFrequencyAnalyzer.calculateHighestNGramFrequency(readBody(request), length,
+                    excludeStopWords));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Invalid input - " + e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+
+    /**
+     * API to calculate the most frequent N n-grams in the given text.
+     *
+     * @param request          The request whose body is the input text to analyze
+     * @param length           The number of words per n-gram
+     * @param n                The number of most frequent n-grams to return
+     * @param excludeStopWords Whether to skip n-grams containing one of the configured stop words
+     * @return A list of WordFrequency objects whose words are the n-grams, separated by single spaces
+     */
+    @PostMapping("/ngrams/most-frequent")
+    public ResponseEntity<?> calculateMostFrequentNGrams(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "2") int length,
+            @RequestParam int n,
+            @RequestParam(defaultValue = "false") boolean excludeStopWords) {
+        try {
+            if (isStreamed(request)) {
+                return ResponseEntity.ok(wordFrequencyAnalyzer.calculateMostFrequentNGrams(openBody(request), length, n,
+                        excludeStopWords));
+            }
+            return ResponseEntity.ok(wordFrequencyAnalyzer.calculateMostFrequentNGrams(readBody(request), length, n,
+                    excludeStopWords));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Invalid input - " + e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Ranks the words before the response starts, so that failures still get a status code, then encodes the ranking
+     * while the response is written.
+     */
+    private ResponseEntity<StreamingResponseBody> streamMostFrequentNWords(HttpServletRequest request, int n,
+                                                                           String mediaType, RankingEncoder encoder) {
+        try {
+            RankedWords words = isStreamed(request)
+                    ? wordFrequencyAnalyzer.rankMostFrequentNWords(openBody(request), n)
+                    : wordFrequencyAnalyzer.rankMostFrequentNWords(readBody(request), n);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(mediaType))
+                    .body(out -> encoder.write(words, out));
+        } catch (IllegalArgumentException e) {
+            return streamedError(HttpStatus.BAD_REQUEST, "Error: Invalid input - " + e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toStreamingResponse(e);
+        } catch (Exception e) {
+            return streamedError(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamedError(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Returns whether the body is too large (or of unknown size) to be buffered, and must be streamed instead.
+     */
+    private boolean isStreamed(HttpServletRequest request) {
+        long contentLength = request.getContentLengthLong();
+        return contentLength < 0 || contentLength > bufferedBodyLimit;
+    }
+
+    /**
+     * Reads a buffered body as UTF-8 bytes, which the analyzer scans without decoding them into a String; a body in
+     * another charset is transcoded first.
+     */
+    private ByteBuffer readBody(HttpServletRequest request) throws IOException {
+        long start = System.nanoTime();
+        byte[] body = request.getInputStream().readAllBytes();
+        Charset charset = bodyCharset(request);
+        ByteBuffer text = ByteBuffer.wrap(charset.equals(StandardCharsets.UTF_8)
+                ? body : new String(body, charset).getBytes(StandardCharsets.UTF_8));
+        readTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        bodySize.record(body.length);
+        return text;
+    }
+
+    /**
+     * Returns whether a UTF-8 text is empty or only whitespace, as {@link String#trim()} defines it: every character up
+     * to U+0020 is a single byte in UTF-8, and no byte of another character is in that range.
+     */
+    private static boolean isBlank(ByteBuffer text) {
+        for (int i = 0; i < text.limit(); i++) {
+            if ((text.get(i) & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Reader openBody(HttpServletRequest request) throws IOException {
+        return new BufferedReader(new InputStreamReader(request.getInputStream(), bodyCharset(request)), STREAM_BUFFER_SIZE);
+    }
+
+    private static Charset bodyCharset(HttpServletRequest request) {
+        String encoding = request.getCharacterEncoding();
+        return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Consumes leading whitespace (as {@link String#trim()} defines it) from a streamed body.
+     *
+     * @return A reader positioned at the first non-whitespace character, or {@code null} if the body is blank.
+     */
+    private static Reader skipLeadingWhitespace(Reader reader) throws IOException {
+        PushbackReader pushbackReader = new PushbackReader(reader);
+        int c;
+        do {
+            c = pushbackReader.read();
+        } while (c != -1 && c <= ' ');
+
+        if (c == -1) {
+            return null;
+        }
+        pushbackReader.unread(c);
+        return pushbackReader;
+    }
+
+    @FunctionalInterface
+    private interface RankingEncoder {
+        void write(RankedWords words, OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,125 @@
+package com.anva.controllers;
+
+import com.anva.models.AnalysisSpecImpl;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.models.interfaces.JobStatus;
+import com.anva.services.interfaces.AnalysisRejectedException;
+import com.anva.services.interfaces.AsyncAnalyzer;
+import com.anva.services.interfaces.TextTooLargeException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+
+/**
+ * REST controller for analyses that run in the background: a job is submitted, polled for its progress, and its
+ * results are fetched once it has succeeded.
+ */
+@RestController
+@RequestMapping("documents/jobs")
+public class JobController {
+
+    @Autowired
+    private AsyncAnalyzer asyncAnalyzer;
+
+    /**
+     * API to submit a text for analysis in the background. The body is saved before the response is sent, but not
+     * analyzed.
+     *
+     * @param request          The request whose body is the input text to analyze
+     * @param highestFrequency Whether to compute the highest frequency of any word
+     * @param n                The number of most frequent words to return, if any
+     * @param words            The words whose frequencies should be returned, if any
+     * @param tokenizer        The tokenizer to count with ({@code ascii} or {@code unicode}), if not the configured one
+     * @return The status of the new job, or 413 Content Too Large if the body exceeds the configured limit
+     */
+    @PostMapping
+    public ResponseEntity<?> submit(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "false") boolean highestFrequency,
+            @RequestParam(defaultValue = "0") int n,
+            @RequestParam(required = false) List<String> words,
+            @RequestParam(required = false) String tokenizer) {
+        try {
+            AnalysisSpec spec = new AnalysisSpecImpl(highestFrequency, n, words, tokenizer);
+            if (!spec.isHighestFrequency() && spec.getMostFrequentWords() == 0 && spec.getWords().isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body("Error: Nothing to analyze - request highestFrequency, n and/or words");
+            }
+
+            String encoding = request.getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            JobStatus status = asyncAnalyzer.submit(request.getInputStream(), charset, spec);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/documents/jobs/" + status.getId()))
+                    .body(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Invalid input - " + e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
+        } catch (TextTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body("Error: Text too large - " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+
+    /**
+     * API to get the state and progress of a job.
+     *
+     * @param id The ID of the job
+     * @return The status of the job
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getStatus(@PathVariable String id) {
+        return respond(() -> asyncAnalyzer.getStatus(id));
+    }
+
+    /**
+     * API to get the results of a job that has succeeded.
+     *
+     * @param id The ID of the job
+     * @return The requested results, or 409 Conflict if the job has not succeeded
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<?> getResult(@PathVariable String id) {
+        return respond(() -> asyncAnalyzer.getResult(id));
+    }
+
+    /**
+     * API to cancel a job; its counting stops shortly after.
+     *
+     * @param id The ID of the job
+     * @return The status of the job after the cancellation
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<?> cancel(@PathVariable String id) {
+        return respond(() -> asyncAnalyzer.cancel(id));
+    }
+
+    private ResponseEntity<?> respond(Callable<?> call) {
+        try {
+            return ResponseEntity.ok(call.call());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Error: Job not found - " + e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+}
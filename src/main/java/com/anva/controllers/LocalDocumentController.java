@@ -0,0 +1,81 @@
+package com.anva.controllers;
+
+import com.anva.services.interfaces.AnalysisRejectedException;
+import com.anva.services.interfaces.LocalDocumentAnalyzer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.Callable;
+
+/**
+ * REST controller for analyzing documents stored on the analysis host, under the configured document root.
+ */
+@RestController
+@RequestMapping("documents/files")
+public class LocalDocumentController {
+
+    @Autowired
+    private LocalDocumentAnalyzer localDocumentAnalyzer;
+
+    /**
+     * API to calculate the highest frequency of any word in a local document.
+     *
+     * @param path The path of the document, relative to the document root
+     * @return The highest frequency of any word in the document
+     */
+    @GetMapping("/highest-frequency")
+    public ResponseEntity<?> calculateHighestFrequency(@RequestParam String path) {
+        return respond(() -> localDocumentAnalyzer.calculateHighestFrequency(path));
+    }
+
+    /**
+     * API to calculate the frequency of a specific word in a local document.
+     *
+     * @param path The path of the document, relative to the document root
+     * @param word The word whose frequency is to be calculated
+     * @return The frequency of the specified word in the document
+     */
+    @GetMapping("/word-frequency")
+    public ResponseEntity<?> calculateFrequencyForWord(@RequestParam String path, @RequestParam String word) {
+        if (word.trim().isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Word parameter cannot be null or empty");
+        }
+        return respond(() -> localDocumentAnalyzer.calculateFrequencyForWord(path, word));
+    }
+
+    /**
+     * API to calculate the most frequent N words in a local document.
+     *
+     * @param path The path of the document, relative to the document root
+     * @param n    The number of most frequent words to return
+     * @return A list of WordFrequency objects representing the most frequent N words
+     */
+    @GetMapping("/most-frequent-words")
+    public ResponseEntity<?> calculateMostFrequentNWords(@RequestParam String path, @RequestParam int n) {
+        return respond(() -> localDocumentAnalyzer.calculateMostFrequentNWords(path, n));
+    }
+
+    private static ResponseEntity<?> respond(Callable<?> analysis) {
+        try {
+            return ResponseEntity.ok(analysis.call());
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Error: Document not found - " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Invalid input - " + e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.anva.controllers;
+
+import com.anva.services.interfaces.RankedWords;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streaming encodings of {@link RankedWords}, which write one entry at a time straight from the frequency table, so
+ * neither a list of results nor the encoded response is held in memory.
+ */
+final class RankedWordsEncodings {
+
+    /**
+     * Length-prefixed binary format: the number of entries, then per entry the length of the word, the word bytes
+     * (lower-case UTF-8) and the frequency; all numbers are big-endian 32-bit integers.
+     */
+    static final String BINARY = "application/vnd.anva.word-frequencies";
+
+    /**
+     * Newline-delimited JSON: one {@code {"word": ..., "frequency": ...}} object per line.
+     */
+    static final String NDJSON = "application/x-ndjson";
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private RankedWordsEncodings() {
+    }
+
+    static void writeBinary(RankedWords words, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        data.writeInt(words.size());
+        byte[] word = new byte[64];
+        for (int rank = 0; rank < words.size(); rank++) {
+            int length = words.wordLengthAt(rank);
+            if (word.length < length) {
+                word = new byte[Math.max(length, word.length * 2)];
+            }
+            words.copyWordAt(rank, word);
+            data.writeInt(length);
+            data.write(word, 0, length);
+            data.writeInt(words.frequencyAt(rank));
+        }
+        data.flush();
+    }
+
+    static void writeNdjson(RankedWords words, JsonFactory factory, OutputStream out) throws IOException {
+        try (JsonGenerator json = factory.createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            byte[] word = new byte[64];
+            for (int rank = 0; rank < words.size(); rank++) {
+                int length = words.wordLengthAt(rank);
+                if (word.length < length) {
+                    word = new byte[Math.max(length, word.length * 2)];
+                }
+                words.copyWordAt(rank, word);
+                json.writeStartObject();
+                json.writeFieldName("word");
+                json.writeUTF8String(word, 0, length);
+                json.writeNumberField("frequency", words.frequencyAt(rank));
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.anva.controllers;
+
+import com.anva.services.interfaces.AnalysisRejectedException;
+import com.anva.services.interfaces.SessionAnalyzer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+
+/**
+ * REST controller for analysis sessions: texts that are sent in appended pieces and can be queried at any point.
+ */
+@RestController
+@RequestMapping("documents/sessions")
+public class SessionController {
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private SessionAnalyzer sessionAnalyzer;
+
+    /**
+     * API to open a new, empty session.
+     *
+     * @return The ID of the session, or 429 Too Many Requests if too many sessions are open
+     */
+    @PostMapping
+    public ResponseEntity<?> createSession() {
+        try {
+            String id = sessionAnalyzer.createSession();
+            return ResponseEntity.created(URI.create("/documents/sessions/" + id))
+                    .body(Map.of("id", id));
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
+        }
+    }
+
+    /**
+     * API to append text to a session. The counts are updated incrementally; a word split across appends is counted
+     * once.
+     *
+     * @param id      The ID of the session
+     * @param request The request whose body is the text to append
+     * @return No content
+     */
+    @PostMapping("/{id}/append")
+    public ResponseEntity<?> append(@PathVariable String id, HttpServletRequest request) {
+        return respond(() -> {
+            String encoding = request.getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            sessionAnalyzer.append(id,
+                    new BufferedReader(new InputStreamReader(request.getInputStream(), charset), STREAM_BUFFER_SIZE));
+            return null;
+        }, HttpStatus.NO_CONTENT);
+    }
+
+    /**
+     * API to calculate the highest frequency of any word in the text of a session.
+     *
+     * @param id The ID of the session
+     * @return The highest frequency of any word in the text
+     */
+    @GetMapping("/{id}/highest-frequency")
+    public ResponseEntity<?> calculateHighestFrequency(@PathVariable String id) {
+        return respond(() -> sessionAnalyzer.calculateHighestFrequency(id));
+    }
+
+    /**
+     * API to calculate the frequency of a specific word in the text of a session.
+     *
+     * @param id   The ID of the session
+     * @param word The word whose frequency is to be calculated
+     * @return The frequency of the specified word in the text
+     */
+    @GetMapping("/{id}/word-frequency")
+    public ResponseEntity<?> calculateFrequencyForWord(@PathVariable String id, @RequestParam String word) {
+        if (word.trim().isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Word parameter cannot be null or empty");
+        }
+        return respond(() -> sessionAnalyzer.calculateFrequencyForWord(id, word));
+    }
+
+    /**
+     * API to calculate the most frequent N words in the text of a session.
+     *
+     * @param id The ID of the session
+     * @param n  The number of most frequent words to return
+     * @return A list of WordFrequency objects representing the most frequent N words
+     */
+    @GetMapping("/{id}/most-frequent-words")
+    public ResponseEntity<?> calculateMostFrequentNWords(@PathVariable String id, @RequestParam int n) {
+        return respond(() -> sessionAnalyzer.calculateMostFrequentNWords(id, n));
+    }
+
+    /**
+     * API to close a session.
+     *
+     * @param id The ID of the session
+     * @return No content
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> closeSession(@PathVariable String id) {
+        return respond(() -> {
+            sessionAnalyzer.closeSession(id);
+            return null;
+        }, HttpStatus.NO_CONTENT);
+    }
+
+    private static ResponseEntity<?> respond(Callable<?> query) {
+        return respond(query, HttpStatus.OK);
+    }
+
+    private static ResponseEntity<?> respond(Callable<?> query, HttpStatus status) {
+        try {
+            return ResponseEntity.status(status).body(query.call());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Error: Session not found - " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Invalid input - " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+}
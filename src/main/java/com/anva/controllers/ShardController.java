@@ -0,0 +1,155 @@
+package com.anva.controllers;
+
+import com.anva.models.AnalysisSpecImpl;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.services.interfaces.AnalysisRejectedException;
+import com.anva.services.interfaces.ShardAnalyzer;
+import com.anva.services.interfaces.ShardAnalyzer.PartialTable;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StreamCorruptedException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * REST controller for counting a corpus sharded across several instances.
+ * <p>
+ * Every instance counts shards into partial tables ({@code /table}); any instance merges partial tables into final
+ * results ({@code /merge}), or coordinates the whole run by sending the shards of a text to its peers
+ * ({@code /analyze}).
+ */
+@RestController
+@RequestMapping("documents/shards")
+public class ShardController {
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private ShardAnalyzer shardAnalyzer;
+
+    /**
+     * API to count the words of a shard into a partial table, in the binary format merged by {@code /merge}.
+     *
+     * @param request The request whose body is the text of the shard
+     * @return The partial table
+     */
+    @PostMapping(value = "/table", produces = ShardAnalyzer.TABLE_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> countTable(HttpServletRequest request) {
+        try {
+            // Counted before responding, so that failures are still reported with a status code.
+            PartialTable table = shardAnalyzer.countTable(openBody(request));
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(ShardAnalyzer.TABLE_MEDIA_TYPE))
+                    .body(table::writeTo);
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toStreamingResponse(e);
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+
+    /**
+     * API to merge partial tables and compute several results for the combined counts.
+     *
+     * @param request          The request whose body is one or more partial tables, concatenated
+     * @param highestFrequency Whether to compute the highest frequency of any word
+     * @param n                The number of most frequent words to return, if any
+     * @param words            The words whose frequencies should be returned, if any
+     * @return The requested results
+     */
+    @PostMapping(value = "/merge", consumes = ShardAnalyzer.TABLE_MEDIA_TYPE)
+    public ResponseEntity<?> mergeTables(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "false") boolean highestFrequency,
+            @RequestParam(defaultValue = "0") int n,
+            @RequestParam(required = false) List<String> words) {
+        try {
+            AnalysisSpec spec = new AnalysisSpecImpl(highestFrequency, n, words);
+            if (isEmpty(spec)) {
+                return nothingToAnalyze();
+            }
+            return ResponseEntity.ok(shardAnalyzer.mergeTables(request.getInputStream(), spec));
+        } catch (IllegalArgumentException | StreamCorruptedException | EOFException e) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Invalid input - " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+
+    /**
+     * API to analyze a text by sending its shards to peer instances and merging their partial tables.
+     *
+     * @param request          The request whose body is the input text to analyze
+     * @param highestFrequency Whether to compute the highest frequency of any word
+     * @param n                The number of most frequent words to return, if any
+     * @param words            The words whose frequencies should be returned, if any
+     * @param peers            Base URLs of the peers counting the shards, among the configured ones; all of them if none
+     * @return The requested results
+     */
+    @PostMapping("/analyze")
+    public ResponseEntity<?> analyzeSharded(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "false") boolean highestFrequency,
+            @RequestParam(defaultValue = "0") int n,
+            @RequestParam(required = false) List<String> words,
+            @RequestParam(required = false) List<String> peers) {
+        try {
+            AnalysisSpec spec = new AnalysisSpecImpl(highestFrequency, n, words);
+            if (isEmpty(spec)) {
+                return nothingToAnalyze();
+            }
+            List<URI> peerUris = peers == null ? List.of() : peers.stream().map(URI::create).toList();
+            return ResponseEntity.ok(shardAnalyzer.analyzeSharded(openBody(request), peerUris, spec));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Invalid input - " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Error: Sharded analysis was interrupted");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                    .body("Error: Counting the shards failed - " + e.getMessage());
+        }
+    }
+
+    private static Reader openBody(HttpServletRequest request) throws IOException {
+        String encoding = request.getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(request.getInputStream(), charset), STREAM_BUFFER_SIZE);
+    }
+
+    private static boolean isEmpty(AnalysisSpec spec) {
+        return !spec.isHighestFrequency() && spec.getMostFrequentWords() == 0 && spec.getWords().isEmpty();
+    }
+
+    private static ResponseEntity<?> nothingToAnalyze() {
+        return ResponseEntity.badRequest()
+                .body("Error: Nothing to analyze - request highestFrequency, n and/or words");
+    }
+
+    /**
+     * Returns an error; the body is a stream too, as the handler method must declare a single body type.
+     */
+    private static ResponseEntity<StreamingResponseBody> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,177 @@
+package com.anva.controllers;
+
+import com.anva.models.AnalysisSpecImpl;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.services.interfaces.AnalysisRejectedException;
+import com.anva.services.interfaces.DocumentStore;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * REST controller for storing documents once and analyzing them by ID afterwards.
+ */
+@RestController
+@RequestMapping("documents/store")
+public class StoredDocumentController {
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private DocumentStore documentStore;
+
+    /**
+     * API to store a document. The body is streamed to disk, so its size is not limited by memory.
+     *
+     * @param request The request whose body is the text of the document
+     * @return The ID of the stored document
+     */
+    @PostMapping
+    public ResponseEntity<?> store(HttpServletRequest request) {
+        try {
+            String encoding = request.getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            Reader text = new BufferedReader(new InputStreamReader(request.getInputStream(), charset), STREAM_BUFFER_SIZE);
+
+            String id = documentStore.store(text);
+            return ResponseEntity.created(URI.create("/documents/store/" + id))
+                    .body(Map.of("id", id));
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+
+    /**
+     * API to calculate the highest frequency of any word in a stored document.
+     *
+     * @param id The ID of the document
+     * @return The highest frequency of any word in the document
+     */
+    @GetMapping("/{id}/highest-frequency")
+    public ResponseEntity<?> calculateHighestFrequency(@PathVariable String id) {
+        return respond(() -> documentStore.calculateHighestFrequency(id));
+    }
+
+    /**
+     * API to calculate the frequency of a specific word in a stored document.
+     *
+     * @param id   The ID of the document
+     * @param word The word whose frequency is to be calculated
+     * @return The frequency of the specified word in the document
+     */
+    @GetMapping("/{id}/word-frequency")
+    public ResponseEntity<?> calculateFrequencyForWord(@PathVariable String id, @RequestParam String word) {
+        if (word.trim().isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Word parameter cannot be null or empty");
+        }
+        return respond(() -> documentStore.calculateFrequencyForWord(id, word));
+    }
+
+    /**
+     * API to calculate the most frequent N words in a stored document.
+     *
+     * @param id The ID of the document
+     * @param n  The number of most frequent words to return
+     * @return A list of WordFrequency objects representing the most frequent N words
+     */
+    @GetMapping("/{id}/most-frequent-words")
+    public ResponseEntity<?> calculateMostFrequentNWords(@PathVariable String id, @RequestParam int n) {
+        return respond(() -> documentStore.calculateMostFrequentNWords(id, n));
+    }
+
+    /**
+     * API to compute several results for a stored document at once.
+     *
+     * @param id               The ID of the document
+     * @param highestFrequency Whether to compute the highest frequency of any word
+     * @param n                The number of most frequent words to return, if any
+     * @param words            The words whose frequencies should be returned, if any
+     * @return The requested results
+     */
+    @GetMapping("/{id}/analyze")
+    public ResponseEntity<?> analyze(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "false") boolean highestFrequency,
+            @RequestParam(defaultValue = "0") int n,
+            @RequestParam(required = false) List<String> words) {
+        AnalysisSpec spec = new AnalysisSpecImpl(highestFrequency, n, words);
+        if (!spec.isHighestFrequency() && spec.getMostFrequentWords() == 0 && spec.getWords().isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Nothing to analyze - request highestFrequency, n and/or words");
+        }
+        return respond(() -> documentStore.analyze(id, spec));
+    }
+
+    /**
+     * API to find the stored documents that contain a word.
+     *
+     * @param word The word to look up
+     * @return The IDs of the documents containing the word with its frequency in each, most frequent first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> findDocuments(@RequestParam String word) {
+        if (word.trim().isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Word parameter cannot be null or empty");
+        }
+        return respond(() -> documentStore.findDocuments(word));
+    }
+
+    /**
+     * API to delete a stored document.
+     *
+     * @param id The ID of the document
+     * @return No content
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable String id) {
+        return respond(() -> {
+            documentStore.delete(id);
+            return null;
+        }, HttpStatus.NO_CONTENT);
+    }
+
+    private static ResponseEntity<?> respond(Callable<?> query) {
+        return respond(query, HttpStatus.OK);
+    }
+
+    private static ResponseEntity<?> respond(Callable<?> query, HttpStatus status) {
+        try {
+            return ResponseEntity.status(status).body(query.call());
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Error: Document not found - " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Invalid input - " + e.getMessage());
+        } catch (AnalysisRejectedException e) {
+            return AnalysisRejections.toResponse(e);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+}
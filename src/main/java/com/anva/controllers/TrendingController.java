@@ -0,0 +1,52 @@
+package com.anva.controllers;
+
+import com.anva.services.interfaces.TrendingWords;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the words trending across all analyzed documents.
+ */
+@RestController
+@RequestMapping("documents/trending")
+public class TrendingController {
+
+    @Autowired
+    private TrendingWords trendingWords;
+
+    /**
+     * API to list the time windows that trending words can be queried for.
+     *
+     * @return The names of the windows, shortest first
+     */
+    @GetMapping("/windows")
+    public ResponseEntity<?> getWindows() {
+        return ResponseEntity.ok(trendingWords.getWindows());
+    }
+
+    /**
+     * API to return the most frequent words of the documents analyzed within a time window.
+     *
+     * @param window The name of the window, e.g. {@code 1h}
+     * @param n      The number of words to return
+     * @return The estimated most frequent words of the window, with their error guarantees
+     */
+    @GetMapping
+    public ResponseEntity<?> getTrendingWords(@RequestParam(defaultValue = "1h") String window,
+                                              @RequestParam(defaultValue = "10") int n) {
+        try {
+            return ResponseEntity.ok(trendingWords.mostFrequentNWords(window, n));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body("Error: Invalid input - " + e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: An unexpected error occurred while processing the request - " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.anva.models;
+
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.WordFrequency;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of the AnalysisResult interface.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalysisResultImpl implements AnalysisResult {
+    private final Integer highestFrequency;
+    private final List<WordFrequency> mostFrequentWords;
+    private final Map<String, Integer> wordFrequencies;
+
+    /**
+     * Default constructor.
+     */
+    public AnalysisResultImpl(Integer highestFrequency, List<WordFrequency> mostFrequentWords,
+                              Map<String, Integer> wordFrequencies) {
+        this.highestFrequency = highestFrequency;
+        this.mostFrequentWords = mostFrequentWords;
+        this.wordFrequencies = wordFrequencies;
+    }
+
+    @Override
+    public Integer getHighestFrequency() {
+        return this.highestFrequency;
+    }
+
+    @Override
+    public List<WordFrequency> getMostFrequentWords() {
+        return this.mostFrequentWords;
+    }
+
+    @Override
+    public Map<String, Integer> getWordFrequencies() {
+        return this.wordFrequencies;
+    }
+}
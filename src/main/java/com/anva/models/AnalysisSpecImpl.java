@@ -0,0 +1,63 @@
+package com.anva.models;
+
+import com.anva.models.interfaces.AnalysisSpec;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Implementation of the AnalysisSpec interface.
+ */
+public class AnalysisSpecImpl implements AnalysisSpec {
+    /**
+     * The names of the tokenizers a spec may choose.
+     */
+    public static final List<String> TOKENIZERS = List.of("ascii", "unicode");
+
+    private final boolean highestFrequency;
+    private final int mostFrequentWords;
+    private final List<String> words;
+    private final String tokenizer;
+
+    /**
+     * Default constructor, counting with the configured tokenizer.
+     */
+    public AnalysisSpecImpl(boolean highestFrequency, int mostFrequentWords, List<String> words) {
+        this(highestFrequency, mostFrequentWords, words, null);
+    }
+
+    /**
+     * Constructor choosing the tokenizer by name, or the configured one if {@code tokenizer} is null or blank.
+     *
+     * @throws IllegalArgumentException If the tokenizer is not one of {@link #TOKENIZERS}.
+     */
+    public AnalysisSpecImpl(boolean highestFrequency, int mostFrequentWords, List<String> words, String tokenizer) {
+        this.highestFrequency = highestFrequency;
+        this.mostFrequentWords = Math.max(0, mostFrequentWords);
+        this.words = words == null ? List.of() : List.copyOf(words);
+        this.tokenizer = tokenizer == null || tokenizer.isBlank() ? null : tokenizer.trim().toLowerCase(Locale.ROOT);
+        if (this.tokenizer != null && !TOKENIZERS.contains(this.tokenizer)) {
+            throw new IllegalArgumentException("Unknown tokenizer: " + tokenizer + " (expected ascii or unicode)");
+        }
+    }
+
+    @Override
+    public boolean isHighestFrequency() {
+        return this.highestFrequency;
+    }
+
+    @Override
+    public int getMostFrequentWords() {
+        return this.mostFrequentWords;
+    }
+
+    @Override
+    public List<String> getWords() {
+        return this.words;
+    }
+
+    @Override
+    public String getTokenizer() {
+        return this.tokenizer;
+    }
+}
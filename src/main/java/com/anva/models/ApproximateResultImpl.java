@@ -0,0 +1,61 @@
+package com.anva.models;
+
+import com.anva.models.interfaces.ApproximateResult;
+import com.anva.models.interfaces.ApproximateWordFrequency;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Implementation of the ApproximateResult interface.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ApproximateResultImpl implements ApproximateResult {
+    private final int highestFrequency;
+    private final List<ApproximateWordFrequency> mostFrequentWords;
+    private final long totalWords;
+    private final int counters;
+    private final int maxError;
+
+    /**
+     * Default constructor.
+     */
+    public ApproximateResultImpl(int highestFrequency, List<ApproximateWordFrequency> mostFrequentWords,
+                                 long totalWords, int counters, int maxError) {
+        this.highestFrequency = highestFrequency;
+        this.mostFrequentWords = mostFrequentWords;
+        this.totalWords = totalWords;
+        this.counters = counters;
+        this.maxError = maxError;
+    }
+
+    @Override
+    public int getHighestFrequency() {
+        return this.highestFrequency;
+    }
+
+    @Override
+    public List<ApproximateWordFrequency> getMostFrequentWords() {
+        return this.mostFrequentWords;
+    }
+
+    @Override
+    public long getTotalWords() {
+        return this.totalWords;
+    }
+
+    @Override
+    public int getCounters() {
+        return this.counters;
+    }
+
+    @Override
+    public int getMaxError() {
+        return this.maxError;
+    }
+
+    @Override
+    public boolean isExact() {
+        return this.maxError == 0;
+    }
+}
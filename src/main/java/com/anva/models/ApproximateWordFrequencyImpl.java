@@ -0,0 +1,23 @@
+package com.anva.models;
+
+import com.anva.models.interfaces.ApproximateWordFrequency;
+
+/**
+ * Implementation of the ApproximateWordFrequency interface.
+ */
+public class ApproximateWordFrequencyImpl extends WordFrequencyImpl implements ApproximateWordFrequency {
+    private final int minFrequency;
+
+    /**
+     * Default constructor.
+     */
+    public ApproximateWordFrequencyImpl(String word, int frequency, int minFrequency) {
+        super(word, frequency);
+        this.minFrequency = minFrequency;
+    }
+
+    @Override
+    public int getMinFrequency() {
+        return this.minFrequency;
+    }
+}
@@ -0,0 +1,36 @@
+package com.anva.models;
+
+import com.anva.models.interfaces.BatchDocument;
+
+/**
+ * Implementation of the BatchDocument interface.
+ */
+public class BatchDocumentImpl implements BatchDocument {
+    private final int index;
+    private final String id;
+    private final String text;
+
+    /**
+     * Default constructor.
+     */
+    public BatchDocumentImpl(int index, String id, String text) {
+        this.index = index;
+        this.id = id;
+        this.text = text;
+    }
+
+    @Override
+    public int getIndex() {
+        return this.index;
+    }
+
+    @Override
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public String getText() {
+        return this.text;
+    }
+}
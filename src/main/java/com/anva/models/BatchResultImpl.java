@@ -0,0 +1,46 @@
+package com.anva.models;
+
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.BatchResult;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Implementation of the BatchResult interface.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResultImpl implements BatchResult {
+    private final int index;
+    private final String id;
+    private final AnalysisResult result;
+    private final String error;
+
+    /**
+     * Default constructor.
+     */
+    public BatchResultImpl(int index, String id, AnalysisResult result, String error) {
+        this.index = index;
+        this.id = id;
+        this.result = result;
+        this.error = error;
+    }
+
+    @Override
+    public int getIndex() {
+        return this.index;
+    }
+
+    @Override
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public AnalysisResult getResult() {
+        return this.result;
+    }
+
+    @Override
+    public String getError() {
+        return this.error;
+    }
+}
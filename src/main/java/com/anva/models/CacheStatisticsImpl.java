@@ -0,0 +1,65 @@
+package com.anva.models;
+
+import com.anva.models.interfaces.CacheStatistics;
+
+/**
+ * Implementation of the CacheStatistics interface.
+ */
+public class CacheStatisticsImpl implements CacheStatistics {
+    private final long hits;
+    private final long misses;
+    private final long coalesced;
+    private final long evictions;
+    private final int entries;
+    private final long estimatedBytes;
+    private final long maxBytes;
+
+    /**
+     * Default constructor.
+     */
+    public CacheStatisticsImpl(long hits, long misses, long coalesced, long evictions, int entries,
+                               long estimatedBytes, long maxBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.coalesced = coalesced;
+        this.evictions = evictions;
+        this.entries = entries;
+        this.estimatedBytes = estimatedBytes;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public long getHits() {
+        return this.hits;
+    }
+
+    @Override
+    public long getMisses() {
+        return this.misses;
+    }
+
+    @Override
+    public long getCoalesced() {
+        return this.coalesced;
+    }
+
+    @Override
+    public long getEvictions() {
+        return this.evictions;
+    }
+
+    @Override
+    public int getEntries() {
+        return this.entries;
+    }
+
+    @Override
+    public long getEstimatedBytes() {
+        return this.estimatedBytes;
+    }
+
+    @Override
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+}
@@ -0,0 +1,29 @@
+package com.anva.models;
+
+import com.anva.models.interfaces.DocumentFrequency;
+
+/**
+ * Implementation of the DocumentFrequency interface.
+ */
+public class DocumentFrequencyImpl implements DocumentFrequency {
+    private final String documentId;
+    private final int frequency;
+
+    /**
+     * Default constructor.
+     */
+    public DocumentFrequencyImpl(String documentId, int frequency) {
+        this.documentId = documentId;
+        this.frequency = frequency;
+    }
+
+    @Override
+    public String getDocumentId() {
+        return this.documentId;
+    }
+
+    @Override
+    public int getFrequency() {
+        return this.frequency;
+    }
+}
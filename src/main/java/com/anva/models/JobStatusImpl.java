@@ -0,0 +1,60 @@
+package com.anva.models;
+
+import com.anva.models.interfaces.JobStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Implementation of the JobStatus interface.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobStatusImpl implements JobStatus {
+    private final String id;
+    private final State state;
+    private final long totalBytes;
+    private final long processedBytes;
+    private final long processedTokens;
+    private final String error;
+
+    /**
+     * Default constructor.
+     */
+    public JobStatusImpl(String id, State state, long totalBytes, long processedBytes, long processedTokens,
+                         String error) {
+        this.id = id;
+        this.state = state;
+        this.totalBytes = totalBytes;
+        this.processedBytes = processedBytes;
+        this.processedTokens = processedTokens;
+        this.error = error;
+    }
+
+    @Override
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public State getState() {
+        return this.state;
+    }
+
+    @Override
+    public long getTotalBytes() {
+        return this.totalBytes;
+    }
+
+    @Override
+    public long getProcessedBytes() {
+        return this.processedBytes;
+    }
+
+    @Override
+    public long getProcessedTokens() {
+        return this.processedTokens;
+    }
+
+    @Override
+    public String getError() {
+        return this.error;
+    }
+}
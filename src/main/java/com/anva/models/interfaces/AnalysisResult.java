@@ -0,0 +1,18 @@
+package com.anva.models.interfaces;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interface representing the results of a combined analysis. Results that were not requested are {@code null}.
+ */
+public interface AnalysisResult {
+    Integer getHighestFrequency();
+
+    List<WordFrequency> getMostFrequentWords();
+
+    /**
+     * @return The frequency of each requested word, keyed by the word as requested.
+     */
+    Map<String, Integer> getWordFrequencies();
+}
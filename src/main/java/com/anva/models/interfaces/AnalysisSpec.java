@@ -0,0 +1,25 @@
+package com.anva.models.interfaces;
+
+import java.util.List;
+
+/**
+ * Interface describing which results a combined analysis should compute.
+ */
+public interface AnalysisSpec {
+    boolean isHighestFrequency();
+
+    /**
+     * @return The number of most frequent words to compute, or 0 for none.
+     */
+    int getMostFrequentWords();
+
+    /**
+     * @return The words whose frequencies should be computed; empty for none.
+     */
+    List<String> getWords();
+
+    /**
+     * @return The name of the tokenizer to count with ({@code ascii} or {@code unicode}), or null for the configured one.
+     */
+    String getTokenizer();
+}
@@ -0,0 +1,42 @@
+package com.anva.models.interfaces;
+
+import java.util.List;
+
+/**
+ * Interface representing the results of an approximate analysis, together with their error guarantees.
+ * <p>
+ * Frequencies are never underestimated, and overestimated by at most {@link #getMaxError()}, which is at most
+ * {@link #getTotalWords()} divided by {@link #getCounters()}. A word missing from the results occurs at most
+ * {@link #getMaxError()} times.
+ */
+public interface ApproximateResult {
+    /**
+     * @return The estimated highest frequency of any word.
+     */
+    int getHighestFrequency();
+
+    /**
+     * @return The estimated most frequent words, or {@code null} if they were not requested.
+     */
+    List<ApproximateWordFrequency> getMostFrequentWords();
+
+    /**
+     * @return The number of words in the text.
+     */
+    long getTotalWords();
+
+    /**
+     * @return The number of counters the estimate was computed with.
+     */
+    int getCounters();
+
+    /**
+     * @return The most any reported frequency may be too high.
+     */
+    int getMaxError();
+
+    /**
+     * @return Whether every word of the text had a counter, so that all frequencies are exact.
+     */
+    boolean isExact();
+}
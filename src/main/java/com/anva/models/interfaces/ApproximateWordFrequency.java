@@ -0,0 +1,12 @@
+package com.anva.models.interfaces;
+
+/**
+ * Interface representing a word and its estimated frequency. The true frequency lies between
+ * {@link #getMinFrequency()} and {@link #getFrequency()}.
+ */
+public interface ApproximateWordFrequency extends WordFrequency {
+    /**
+     * @return The lowest frequency the word may have.
+     */
+    int getMinFrequency();
+}
@@ -0,0 +1,18 @@
+package com.anva.models.interfaces;
+
+/**
+ * Interface representing one document of a batch.
+ */
+public interface BatchDocument {
+    /**
+     * @return The position of the document in the batch, starting at 0.
+     */
+    int getIndex();
+
+    /**
+     * @return The ID given by the client, or {@code null}.
+     */
+    String getId();
+
+    String getText();
+}
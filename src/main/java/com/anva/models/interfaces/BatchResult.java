@@ -0,0 +1,14 @@
+package com.anva.models.interfaces;
+
+/**
+ * Interface representing the outcome of analyzing one document of a batch: either a result or an error.
+ */
+public interface BatchResult {
+    int getIndex();
+
+    String getId();
+
+    AnalysisResult getResult();
+
+    String getError();
+}
@@ -0,0 +1,35 @@
+package com.anva.models.interfaces;
+
+/**
+ * Interface representing a snapshot of the frequency-table cache statistics.
+ */
+public interface CacheStatistics {
+    /**
+     * @return The number of lookups answered from a completed cache entry.
+     */
+    long getHits();
+
+    /**
+     * @return The number of lookups that had to count the text.
+     */
+    long getMisses();
+
+    /**
+     * @return The number of lookups that joined an identical computation already in flight.
+     */
+    long getCoalesced();
+
+    /**
+     * @return The number of entries removed to stay within the byte budget.
+     */
+    long getEvictions();
+
+    int getEntries();
+
+    /**
+     * @return The estimated memory held by the cached tables, in bytes.
+     */
+    long getEstimatedBytes();
+
+    long getMaxBytes();
+}
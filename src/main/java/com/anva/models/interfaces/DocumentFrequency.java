@@ -0,0 +1,10 @@
+package com.anva.models.interfaces;
+
+/**
+ * Interface representing the frequency of a word in a stored document.
+ */
+public interface DocumentFrequency {
+    String getDocumentId();
+
+    int getFrequency();
+}
@@ -0,0 +1,42 @@
+package com.anva.models.interfaces;
+
+/**
+ * Interface representing the state and progress of an asynchronous analysis job.
+ */
+public interface JobStatus {
+
+    /**
+     * The life cycle of a job: it is queued, runs, and ends in exactly one of the last three states.
+     */
+    enum State {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED
+    }
+
+    String getId();
+
+    State getState();
+
+    /**
+     * @return The size of the uploaded text, in UTF-8 bytes.
+     */
+    long getTotalBytes();
+
+    /**
+     * @return The number of bytes counted so far.
+     */
+    long getProcessedBytes();
+
+    /**
+     * @return The number of words counted so far.
+     */
+    long getProcessedTokens();
+
+    /**
+     * @return Why the job failed, or {@code null} unless it failed.
+     */
+    String getError();
+}
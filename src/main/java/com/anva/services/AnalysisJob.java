@@ -0,0 +1,164 @@
+package com.anva.services;
+
+import com.anva.models.JobStatusImpl;
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.JobStatus;
+import com.anva.models.interfaces.JobStatus.State;
+import com.anva.models.interfaces.WordFrequency;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * One background analysis of a spooled text: its state, its progress and, once it has succeeded, its results.
+ * <p>
+ * A job moves from {@link State#QUEUED} to {@link State#RUNNING} and then to exactly one final state; every transition
+ * and query is synchronized on the job. Thread-safe.
+ */
+final class AnalysisJob {
+
+    // Rough heap cost of a result and of each of its entries, beyond the chars of the words.
+    private static final long RESULT_OVERHEAD = 256;
+    private static final long ENTRY_OVERHEAD = 96;
+
+    private final String id;
+    private final Path file;
+    private final long totalBytes;
+    private final AnalysisProgress progress = new AnalysisProgress();
+    private State state = State.QUEUED;
+    private AnalysisResult result;
+    private long resultBytes;
+    private String error;
+    private long completedAt;
+    private Future<?> future;
+
+    AnalysisJob(String id, Path file, long totalBytes) {
+        this.id = id;
+        this.file = file;
+        this.totalBytes = totalBytes;
+    }
+
+    String id() {
+        return id;
+    }
+
+    /**
+     * Returns the spooled text.
+     */
+    Path file() {
+        return file;
+    }
+
+    AnalysisProgress progress() {
+        return progress;
+    }
+
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * Moves a queued job to running.
+     *
+     * @return False if the job was cancelled before it started.
+     */
+    synchronized boolean start() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        state = State.RUNNING;
+        return true;
+    }
+
+    synchronized void succeed(AnalysisResult result, long resultBytes) {
+        this.result = result;
+        this.resultBytes = resultBytes;
+        finish(State.SUCCEEDED);
+    }
+
+    synchronized void fail(String error) {
+        this.error = error;
+        finish(State.FAILED);
+    }
+
+    /**
+     * Records that a running job stopped because it was cancelled.
+     */
+    synchronized void markCancelled() {
+        finish(State.CANCELLED);
+    }
+
+    /**
+     * Asks the job to stop: a queued job is cancelled at once (it still passes through the executor, which cleans up
+     * after it), a running one when its counting tasks notice. The thread running the job is interrupted too, in case
+     * it is still waiting for analysis capacity.
+     */
+    synchronized void cancel() {
+        if (isDone()) {
+            return;
+        }
+        progress.cancel();
+        if (state == State.QUEUED) {
+            finish(State.CANCELLED);
+        } else if (future != null) {
+            future.cancel(true);
+        }
+    }
+
+    synchronized boolean isDone() {
+        return state != State.QUEUED && state != State.RUNNING;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which the job finished.
+     */
+    synchronized long completedAt() {
+        return completedAt;
+    }
+
+    /**
+     * Returns the estimated heap size of the results held by the job.
+     */
+    synchronized long resultBytes() {
+        return resultBytes;
+    }
+
+    synchronized JobStatus status() {
+        long processed = state == State.SUCCEEDED ? totalBytes : Math.min(totalBytes, progress.scanned());
+        return new JobStatusImpl(id, state, totalBytes, processed, progress.tokens(), error);
+    }
+
+    /**
+     * @throws IllegalStateException If the job has not succeeded.
+     */
+    synchronized AnalysisResult result() {
+        if (state != State.SUCCEEDED) {
+            throw new IllegalStateException("Job " + id + " is " + state + (error != null ? ": " + error : ""));
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the heap size of a result, from the number and length of its words.
+     */
+    static long estimateBytes(AnalysisResult result) {
+        long bytes = RESULT_OVERHEAD;
+        if (result.getMostFrequentWords() != null) {
+            for (WordFrequency frequency : result.getMostFrequentWords()) {
+                bytes += ENTRY_OVERHEAD + frequency.getWord().length();
+            }
+        }
+        if (result.getWordFrequencies() != null) {
+            for (Map.Entry<String, Integer> entry : result.getWordFrequencies().entrySet()) {
+                bytes += ENTRY_OVERHEAD + entry.getKey().length();
+            }
+        }
+        return bytes;
+    }
+
+    private void finish(State state) {
+        this.state = state;
+        this.completedAt = System.nanoTime();
+    }
+}
@@ -0,0 +1,77 @@
+package com.anva.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the state of the analysis scheduler, of the frequency table cache, of the word dictionary and of the trending
+ * words tracker as meters. The values are read when the registry is scraped, so they cost nothing while analyzing.
+ */
+@Component
+class AnalysisMeterBinder implements MeterBinder {
+
+    private final AnalysisScheduler scheduler;
+    private final FrequencyTableCache cache;
+    private final WordDictionary dictionary;
+    private final TrendingWordsTracker trending;
+
+    AnalysisMeterBinder(AnalysisScheduler scheduler, FrequencyTableCache cache, WordDictionary dictionary,
+                        TrendingWordsTracker trending) {
+        this.scheduler = scheduler;
+        this.cache = cache;
+        this.dictionary = dictionary;
+        this.trending = trending;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("anva.scheduler.running", scheduler, AnalysisScheduler::running)
+                .description("Analyses currently running")
+                .register(registry);
+        Gauge.builder("anva.scheduler.queued", scheduler, AnalysisScheduler::queued)
+                .description("Analyses waiting for capacity")
+                .register(registry);
+        Gauge.builder("anva.scheduler.pool.active", scheduler, s -> s.pool().getActiveThreadCount())
+                .description("Worker threads of the analysis pool currently busy")
+                .register(registry);
+
+        FunctionCounter.builder("anva.cache.requests", cache, c -> c.getStatistics().getHits())
+                .description("Frequency table cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("anva.cache.requests", cache, c -> c.getStatistics().getMisses())
+                .description("Frequency table cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("anva.cache.requests", cache, c -> c.getStatistics().getCoalesced())
+                .description("Frequency table cache lookups")
+                .tag("result", "coalesced")
+                .register(registry);
+        FunctionCounter.builder("anva.cache.evictions", cache, c -> c.getStatistics().getEvictions())
+                .description("Frequency tables evicted from the cache")
+                .register(registry);
+        Gauge.builder("anva.cache.size", cache, c -> c.getStatistics().getEstimatedBytes())
+                .description("Estimated size of the cached frequency tables")
+                .baseUnit("bytes")
+                .register(registry);
+
+        Gauge.builder("anva.dictionary.size", dictionary, WordDictionary::size)
+                .description("Words admitted to the shared word dictionary")
+                .register(registry);
+
+        FunctionCounter.builder("anva.trending.documents", trending, TrendingWordsTracker::recorded)
+                .description("Document tables handed to the trending words tracker")
+                .tag("result", "recorded")
+                .register(registry);
+        FunctionCounter.builder("anva.trending.documents", trending, TrendingWordsTracker::dropped)
+                .description("Document tables handed to the trending words tracker")
+                .tag("result", "dropped")
+                .register(registry);
+    }
+}
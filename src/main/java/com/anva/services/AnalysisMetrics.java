@@ -0,0 +1,102 @@
+package com.anva.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the analysis pipeline.
+ * <p>
+ * Every meter is registered once, up front, so recording a measurement is a few atomic updates: nothing is looked up
+ * or allocated per analysis, and nothing at all per word. Words are counted by the tokenizer as a plain field
+ * increment and reported once per scanned chunk, which keeps the instrumentation cheap enough to stay on in production.
+ */
+@Component
+class AnalysisMetrics {
+
+    /**
+     * How a text was scanned.
+     */
+    enum Mode {
+        SEQUENTIAL, PARALLEL, STREAMED;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final Timer[] countTimers = new Timer[Mode.values().length];
+    private final Timer selectTimer;
+    private final Counter input;
+    private final Counter tokens;
+    private final DistributionSummary throughput;
+    private final DistributionSummary vocabulary;
+
+    AnalysisMetrics(MeterRegistry registry) {
+        for (Mode mode : Mode.values()) {
+            countTimers[mode.ordinal()] = Timer.builder("anva.analysis.count")
+                    .description("Time spent tokenizing and counting a text, by execution mode")
+                    .tag("mode", mode.tag)
+                    .register(registry);
+        }
+        this.selectTimer = Timer.builder("anva.analysis.select")
+                .description("Time spent selecting the most frequent words of a frequency table")
+                .register(registry);
+        this.input = Counter.builder("anva.analysis.input")
+                .description("Characters scanned (bytes for UTF-8 byte input)")
+                .register(registry);
+        this.tokens = Counter.builder("anva.analysis.tokens")
+                .description("Words scanned")
+                .register(registry);
+        this.throughput = DistributionSummary.builder("anva.analysis.throughput")
+                .description("Words scanned per second of counting, per text")
+                .baseUnit("words.per.second")
+                .register(registry);
+        this.vocabulary = DistributionSummary.builder("anva.analysis.vocabulary")
+                .description("Distinct words of each counted text")
+                .baseUnit("words")
+                .register(registry);
+    }
+
+    /**
+     * Returns meters that record nothing, for components created outside of the application context.
+     */
+    static AnalysisMetrics disabled() {
+        return new AnalysisMetrics(new CompositeMeterRegistry());
+    }
+
+    /**
+     * Records the scan of a text.
+     *
+     * @param mode        How the text was scanned.
+     * @param nanos       Time spent scanning, in nanoseconds.
+     * @param inputLength Length of the text, in characters or bytes.
+     * @param tokenCount  Number of words scanned.
+     */
+    void recordCount(Mode mode, long nanos, long inputLength, long tokenCount) {
+        countTimers[mode.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        input.increment(inputLength);
+        tokens.increment(tokenCount);
+        if (nanos > 0) {
+            throughput.record(tokenCount * 1e9 / nanos);
+        }
+    }
+
+    /**
+     * Records the number of distinct words of a counted text.
+     */
+    void recordVocabulary(int size) {
+        vocabulary.record(size);
+    }
+
+    /**
+     * Records the selection of the most frequent words of a table.
+     */
+    void recordSelect(long nanos) {
+        selectTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
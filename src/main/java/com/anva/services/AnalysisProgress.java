@@ -0,0 +1,57 @@
+package com.anva.services;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of a count that reports as it goes, and the flag to stop it.
+ * <p>
+ * The {@link WordCountEngine} scans such a count in slices of {@link WordCountEngine#PROGRESS_SLICE} chars or bytes:
+ * every task adds each slice to the totals once it is scanned and checks the flag before the next one, so the tasks
+ * of a cancelled count stop within a slice, wherever they are running. Thread-safe.
+ */
+final class AnalysisProgress {
+
+    private final LongAdder scanned = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private volatile boolean cancelled;
+
+    /**
+     * Asks the count to stop; its tasks throw a {@link CancellationException} at their next slice.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @throws CancellationException If the count was cancelled.
+     */
+    void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Analysis was cancelled");
+        }
+    }
+
+    void add(long length, long words) {
+        scanned.add(length);
+        tokens.add(words);
+    }
+
+    /**
+     * Returns the number of chars or bytes scanned so far.
+     */
+    long scanned() {
+        return scanned.sum();
+    }
+
+    /**
+     * Returns the number of words scanned so far.
+     */
+    long tokens() {
+        return tokens.sum();
+    }
+}
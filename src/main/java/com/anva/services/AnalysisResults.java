@@ -0,0 +1,88 @@
+package com.anva.services;
+
+import com.anva.models.AnalysisResultImpl;
+import com.anva.models.ApproximateResultImpl;
+import com.anva.models.ApproximateWordFrequencyImpl;
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.models.interfaces.ApproximateResult;
+import com.anva.models.interfaces.ApproximateWordFrequency;
+import com.anva.models.interfaces.WordFrequency;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers an {@link AnalysisSpec} from a counted {@link WordCountTable}, so that all results share one counting pass,
+ * and builds the results of approximate counts.
+ */
+final class AnalysisResults {
+
+    private AnalysisResults() {
+    }
+
+    /**
+     * Returns the engine to count for a spec with: the given one, or one using the tokenizer the spec asks for.
+     *
+     * @throws IllegalArgumentException If the spec names an unknown tokenizer.
+     */
+    static WordCountEngine engineFor(WordCountEngine engine, AnalysisSpec spec) {
+        return spec.getTokenizer() == null ? engine : engine.withTokenizer(TokenizerType.of(spec.getTokenizer()));
+    }
+
+    /**
+     * Computes the results for a table counted by {@code engine}, whose tokenizer also normalizes the requested words.
+     */
+    static AnalysisResult of(WordCountEngine engine, WordCountTable table, AnalysisSpec spec) {
+        Integer highestFrequency = spec.isHighestFrequency() ? table.maxCount() : null;
+
+        List<WordFrequency> mostFrequentWords = null;
+        if (spec.getMostFrequentWords() > 0) {
+            mostFrequentWords = TopWords.toWordFrequencies(table, engine.topWords(table, spec.getMostFrequentWords()));
+        }
+
+        Map<String, Integer> wordFrequencies = null;
+        if (!spec.getWords().isEmpty()) {
+            wordFrequencies = new LinkedHashMap<>();
+            for (String word : spec.getWords()) {
+                wordFrequencies.put(word, frequencyOf(engine.tokenizer(), table, word));
+            }
+        }
+
+        return new AnalysisResultImpl(highestFrequency, mostFrequentWords, wordFrequencies);
+    }
+
+    /**
+     * Builds the result of a {@link SpaceSaving} summary.
+     *
+     * @param table The words of the summary, from {@link SpaceSaving#toTable()}.
+     * @param ids   The ids of the most frequent words, best first, or null if they were not requested.
+     */
+    static ApproximateResult approximate(SpaceSaving summary, WordCountTable table, int[] ids) {
+        List<ApproximateWordFrequency> mostFrequentWords = null;
+        if (ids != null) {
+            mostFrequentWords = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                // Table ids equal the summary's slots.
+                mostFrequentWords.add(new ApproximateWordFrequencyImpl(table.wordAt(id), summary.countAt(id),
+                        summary.countAt(id) - summary.errorAt(id)));
+            }
+        }
+        return new ApproximateResultImpl(table.maxCount(), mostFrequentWords, summary.total(), summary.capacity(),
+                summary.maxError());
+    }
+
+    /**
+     * Looks up a word the way {@code calculateFrequencyForWord} matches it: case-insensitively, and only if the
+     * tokenizer could produce it.
+     */
+    static int frequencyOf(TokenizerType tokenizer, WordCountTable table, String word) {
+        byte[] normalized = tokenizer.normalize(word);
+        if (normalized == null) {
+            return 0;
+        }
+        return table.get(normalized, normalized.length, WordHash.hash(normalized, normalized.length));
+    }
+}
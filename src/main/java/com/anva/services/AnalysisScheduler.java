@@ -0,0 +1,152 @@
+package com.anva.services;
+
+import com.anva.services.interfaces.AnalysisRejectedException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs analyses on a dedicated fork/join pool and decides how many of them may run at once, and with how much
+ * parallelism each.
+ * <p>
+ * At most {@code anva.scheduler.max-concurrent} analyses run at a time. Further analyses wait, in arrival order, for up
+ * to {@code anva.scheduler.queue-timeout-ms}; once {@code anva.scheduler.max-queued} are waiting, new ones are rejected
+ * immediately. Both rejections carry a retry delay, so that at saturation requests fail fast instead of piling up
+ * behind each other.
+ * <p>
+ * The parallelism budget of an analysis is the pool's parallelism divided by the number of running analyses, taken when
+ * the analysis splits its text: a single large text gets every core, while under load each analysis gets its share and
+ * small analyses are not stuck behind the chunks of a huge one.
+ */
+@Component
+class AnalysisScheduler {
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutMillis;
+    private final int retryAfterSeconds;
+    private final Semaphore running;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    @Autowired
+    AnalysisScheduler(@Value("${anva.scheduler.parallelism:0}") int parallelism,
+                      @Value("${anva.scheduler.max-concurrent:0}") int maxConcurrent,
+                      @Value("${anva.scheduler.max-queued:0}") int maxQueued,
+                      @Value("${anva.scheduler.queue-timeout-ms:2000}") long queueTimeoutMillis,
+                      @Value("${anva.scheduler.retry-after-seconds:1}") int retryAfterSeconds) {
+        this(newPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors()), true,
+                maxConcurrent, maxQueued, queueTimeoutMillis, retryAfterSeconds);
+    }
+
+    private AnalysisScheduler(ForkJoinPool pool, boolean ownsPool, int maxConcurrent, int maxQueued,
+                              long queueTimeoutMillis, int retryAfterSeconds) {
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent : pool.getParallelism() * 2;
+        this.maxQueued = maxQueued > 0 ? maxQueued : (int) Math.min(Integer.MAX_VALUE, this.maxConcurrent * 4L);
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.running = new Semaphore(this.maxConcurrent, true);
+    }
+
+    /**
+     * Returns a scheduler that admits every analysis, running them on the given pool.
+     */
+    static AnalysisScheduler unbounded(ForkJoinPool pool) {
+        return new AnalysisScheduler(pool, false, Integer.MAX_VALUE, Integer.MAX_VALUE, 0, 0);
+    }
+
+    /**
+     * Returns a scheduler with the given limits, running analyses on the given pool.
+     */
+    static AnalysisScheduler bounded(ForkJoinPool pool, int maxConcurrent, int maxQueued, long queueTimeoutMillis,
+                                     int retryAfterSeconds) {
+        return new AnalysisScheduler(pool, false, maxConcurrent, maxQueued, queueTimeoutMillis, retryAfterSeconds);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ownsPool) {
+            pool.shutdownNow();
+        }
+    }
+
+    ForkJoinPool pool() {
+        return pool;
+    }
+
+    /**
+     * Waits until the analysis may run.
+     *
+     * @return The permit to close when the analysis has completed.
+     * @throws AnalysisRejectedException If too many analyses are waiting, or the wait timed out.
+     */
+    Permit admit() {
+        if (running.tryAcquire()) {
+            return running::release;
+        }
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw new AnalysisRejectedException(AnalysisRejectedException.Reason.QUEUE_FULL, retryAfterSeconds,
+                    "Too many analyses are waiting");
+        }
+        try {
+            if (!running.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new AnalysisRejectedException(AnalysisRejectedException.Reason.QUEUE_TIMEOUT, retryAfterSeconds,
+                        "No analysis capacity became available within " + queueTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisRejectedException(AnalysisRejectedException.Reason.QUEUE_TIMEOUT, retryAfterSeconds,
+                    "Interrupted while waiting for analysis capacity");
+        } finally {
+            queued.decrementAndGet();
+        }
+        return running::release;
+    }
+
+    /**
+     * Returns the number of workers an analysis may occupy right now: an equal share of the pool among the running
+     * analyses, at least 1.
+     */
+    int parallelismBudget() {
+        int active = Math.max(1, maxConcurrent - running.availablePermits());
+        return Math.max(1, pool.getParallelism() / active);
+    }
+
+    int running() {
+        return maxConcurrent - running.availablePermits();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    private static ForkJoinPool newPool(int parallelism) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("anva-analysis-" + threadNumber.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Admission of one analysis; closing it lets the next one run.
+     */
+    @FunctionalInterface
+    interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
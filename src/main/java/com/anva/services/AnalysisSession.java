@@ -0,0 +1,116 @@
+package com.anva.services;
+
+import com.anva.models.interfaces.WordFrequency;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The word counts of a text that grows by appended pieces.
+ * <p>
+ * Each piece is fed through a {@link StreamWordScanner}, so a word split across pieces is counted once, and the counts
+ * are kept ranked by a {@link FrequencyRanking} as they change. The text held back by the scanner (usually the start of
+ * a word that the next piece may continue) is counted provisionally after every append, so queries always see the
+ * text as it stands; the provisional counts are taken back before the next piece is scanned.
+ * <p>
+ * Appending costs time proportional to the piece, and queries never look at the whole vocabulary. Instances are
+ * thread-safe; appends and queries on one session are serialized.
+ */
+final class AnalysisSession {
+
+    private final WordCountTable table;
+    private final FrequencyRanking ranking = new FrequencyRanking();
+    private final TokenizerType tokenizer;
+    private final StreamWordScanner scanner;
+    private final char[] readBuffer;
+    private final WordSink provisionalSink = this::countProvisionally;
+    private int[] provisional = new int[4];
+    private int provisionalCount;
+    // Receives the words of the current append, if requested.
+    private WordCountTable appended;
+    private volatile long lastAccess;
+
+    AnalysisSession(WordCountTable table, int bufferSize, TokenizerType tokenizer) {
+        this.table = table;
+        this.tokenizer = tokenizer;
+        this.scanner = new StreamWordScanner(this::count, bufferSize, tokenizer);
+        this.readBuffer = new char[Math.max(2, bufferSize)];
+        this.lastAccess = System.nanoTime();
+    }
+
+    /**
+     * Appends a piece of text and updates the counts.
+     *
+     * @param piece    The piece; it is read to its end but not closed.
+     * @param appended A table that the words completed by this piece are also added to, or null. A word held back at
+     *                 the end of the piece is added by the append that completes it.
+     */
+    synchronized void append(Reader piece, WordCountTable appended) throws IOException {
+        touch();
+        retractProvisional();
+        this.appended = appended;
+        try {
+            int read;
+            while ((read = piece.read(readBuffer)) != -1) {
+                scanner.append(CharBuffer.wrap(readBuffer, 0, read));
+            }
+        } finally {
+            // Whatever was read before a failure stays appended.
+            this.appended = null;
+            scanner.scanPending(provisionalSink);
+        }
+    }
+
+    synchronized int highestFrequency() {
+        touch();
+        return ranking.maxCount();
+    }
+
+    synchronized int frequencyOf(String word) {
+        touch();
+        return AnalysisResults.frequencyOf(tokenizer, table, word);
+    }
+
+    synchronized List<WordFrequency> mostFrequentWords(int n) {
+        touch();
+        return TopWords.toWordFrequencies(table, ranking.top(table, n));
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} of the last append or query.
+     */
+    long lastAccess() {
+        return lastAccess;
+    }
+
+    private void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    private void count(byte[] word, int length, int hash) {
+        ranking.increment(table.add(word, length, hash, 1));
+        if (appended != null) {
+            appended.add(word, length, hash, 1);
+        }
+    }
+
+    private void countProvisionally(byte[] word, int length, int hash) {
+        int id = table.add(word, length, hash, 1);
+        ranking.increment(id);
+        if (provisionalCount == provisional.length) {
+            provisional = Arrays.copyOf(provisional, provisionalCount * 2);
+        }
+        provisional[provisionalCount++] = id;
+    }
+
+    private void retractProvisional() {
+        for (int i = 0; i < provisionalCount; i++) {
+            table.adjust(provisional[i], -1);
+            ranking.decrement(provisional[i]);
+        }
+        provisionalCount = 0;
+    }
+}
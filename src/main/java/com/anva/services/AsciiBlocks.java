@@ -0,0 +1,29 @@
+package com.anva.services;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Classifies blocks of {@link #SIZE} bytes at once into a bit mask of the ASCII letters among them, so that the
+ * tokenizer can skip separators and find the end of a word without testing every byte.
+ * <p>
+ * The classification uses the Vector API ({@code jdk.incubator.vector}) and is only available when the JVM was started
+ * with {@code --add-modules jdk.incubator.vector}; otherwise {@link #VECTORIZED} is false and the tokenizer keeps its
+ * byte-by-byte loop, so the incubator module is never loaded.
+ */
+final class AsciiBlocks {
+
+    static final int SIZE = 64;
+
+    static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private AsciiBlocks() {
+    }
+
+    /**
+     * Returns a mask with bit {@code i} set if {@code bytes[offset + i]} is an ASCII letter; {@code offset + SIZE} must
+     * not exceed the limit. Only called when {@link #VECTORIZED} is true.
+     */
+    static long letterMask(ByteBuffer bytes, int offset) {
+        return VectorAsciiBlocks.letterMask(bytes, offset);
+    }
+}
@@ -0,0 +1,353 @@
+package com.anva.services;
+
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.models.interfaces.JobStatus;
+import com.anva.services.interfaces.AnalysisRejectedException;
+import com.anva.services.interfaces.AsyncAnalyzer;
+import com.anva.services.interfaces.TextTooLargeException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the AsyncAnalyzer interface.
+ * <p>
+ * A submitted text is spooled to a UTF-8 file in {@code anva.jobs.spool-dir} (the system temp directory by default),
+ * so the request ends as soon as the upload does, and the job is queued on its own small executor
+ * ({@code anva.jobs.max-running} threads). A running job maps the file and counts it through the
+ * {@link WordCountEngine} like any other analysis, admitted by the {@link AnalysisScheduler} (it waits and retries
+ * instead of failing when it is turned away), while reporting to an {@link AnalysisProgress}; cancelling the job
+ * cancels that progress, which stops its counting tasks. The file is deleted as soon as the job ends, and the table of
+ * a counted text is recorded for the trending words.
+ * <p>
+ * At most {@code anva.jobs.max-pending} jobs are queued or running; further submissions are rejected, and so is a
+ * body longer than {@code anva.jobs.max-body-bytes}, whose partial file is deleted. Finished jobs are kept for
+ * {@code anva.jobs.result-ttl-seconds}, and the oldest are dropped early when their results exceed
+ * {@code anva.jobs.result-max-bytes}; a single result larger than that fails its job. Expired jobs are dropped by a
+ * periodic sweep, so they do not stay in memory when no jobs are submitted or polled, and an expired job that is
+ * looked up before the sweep is dropped at once.
+ */
+@Service
+class AsyncAnalyzerImpl implements AsyncAnalyzer {
+
+    private final WordCountEngine engine;
+    private final Path spoolDirectory;
+    private final int maxPending;
+    private final long maxBodyBytes;
+    private final long resultTtlNanos;
+    private final long maxResultBytes;
+    private final int retryAfterSeconds;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService evictor;
+    private final TrendingWordsTracker trending;
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    @Autowired
+    AsyncAnalyzerImpl(WordCountEngine engine,
+                      @Value("${anva.jobs.spool-dir:}") String spoolDirectory,
+                      @Value("${anva.jobs.max-running:2}") int maxRunning,
+                      @Value("${anva.jobs.max-pending:16}") int maxPending,
+                      @Value("${anva.jobs.max-body-bytes:1073741824}") long maxBodyBytes,
+                      @Value("${anva.jobs.result-ttl-seconds:3600}") long resultTtlSeconds,
+                      @Value("${anva.jobs.result-max-bytes:67108864}") long maxResultBytes,
+                      @Value("${anva.scheduler.retry-after-seconds:1}") int retryAfterSeconds,
+                      TrendingWordsTracker trending) throws IOException {
+        this(engine, spoolDirectory.isBlank() ? Path.of(System.getProperty("java.io.tmpdir")) : Path.of(spoolDirectory),
+                maxRunning, maxPending, maxBodyBytes, TimeUnit.SECONDS.toNanos(resultTtlSeconds), maxResultBytes,
+                retryAfterSeconds, trending);
+    }
+
+    AsyncAnalyzerImpl(WordCountEngine engine, Path spoolDirectory, int maxRunning, int maxPending, long maxBodyBytes,
+                      long resultTtlNanos, long maxResultBytes, int retryAfterSeconds) throws IOException {
+        this(engine, spoolDirectory, maxRunning, maxPending, maxBodyBytes, resultTtlNanos, maxResultBytes,
+                retryAfterSeconds, TrendingWordsTracker.disabled());
+    }
+
+    AsyncAnalyzerImpl(WordCountEngine engine, Path spoolDirectory, int maxRunning, int maxPending, long maxBodyBytes,
+                      long resultTtlNanos, long maxResultBytes, int retryAfterSeconds, TrendingWordsTracker trending)
+            throws IOException {
+        this.engine = engine;
+        this.trending = trending;
+        this.spoolDirectory = Files.createDirectories(spoolDirectory.toAbsolutePath().normalize());
+        this.maxPending = maxPending;
+        this.maxBodyBytes = maxBodyBytes;
+        this.resultTtlNanos = resultTtlNanos;
+        this.maxResultBytes = maxResultBytes;
+        this.retryAfterSeconds = retryAfterSeconds;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, maxRunning), task -> {
+            Thread thread = new Thread(task, "anva-job-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "anva-job-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Sweep a few times per TTL, but neither more than once a second nor less than once a minute.
+        long sweepNanos = Math.min(Math.max(resultTtlNanos / 4, TimeUnit.SECONDS.toNanos(1)),
+                TimeUnit.MINUTES.toNanos(1));
+        evictor.scheduleWithFixedDelay(this::evict, sweepNanos, sweepNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        evictor.shutdownNow();
+        jobs.values().forEach(AnalysisJob::cancel);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public JobStatus submit(InputStream text, Charset charset, AnalysisSpec spec) throws IOException {
+        WordCountEngine engine = AnalysisResults.engineFor(this.engine, spec);
+        evict();
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new AnalysisRejectedException(AnalysisRejectedException.Reason.QUEUE_FULL, retryAfterSeconds,
+                    "Too many analysis jobs are queued or running");
+        }
+
+        Path file = null;
+        AnalysisJob job = null;
+        try {
+            file = Files.createTempFile(spoolDirectory, "anva-job-", ".txt");
+            spool(text, charset, file, maxBodyBytes);
+            job = new AnalysisJob(UUID.randomUUID().toString(), file, Files.size(file));
+            jobs.put(job.id(), job);
+            AnalysisJob submitted = job;
+            job.setFuture(executor.submit(() -> run(submitted, engine, spec)));
+            return job.status();
+        } catch (IOException | RuntimeException e) {
+            // E.g. the body was too long, or the executor rejected the job after shutdown: it would never finish.
+            pending.decrementAndGet();
+            if (job != null) {
+                jobs.remove(job.id());
+            }
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public JobStatus getStatus(String id) {
+        return job(id).status();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public AnalysisResult getResult(String id) {
+        return job(id).result();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public JobStatus cancel(String id) {
+        AnalysisJob job = job(id);
+        job.cancel();
+        return job.status();
+    }
+
+    /**
+     * Returns the number of jobs kept, whether pending or finished.
+     */
+    int jobCount() {
+        return jobs.size();
+    }
+
+    private void run(AnalysisJob job, WordCountEngine engine, AnalysisSpec spec) {
+        try {
+            if (!job.start()) {
+                return;
+            }
+            WordCountTable table = count(engine, MappedRegions.map(job.file(), MappedRegions.MAX_REGION_SIZE),
+                    job.progress());
+            trending.record(table);
+            AnalysisResult result = AnalysisResults.of(engine, table, spec);
+            long resultBytes = AnalysisJob.estimateBytes(result);
+            if (resultBytes > maxResultBytes) {
+                job.fail("The result exceeds the result memory budget of " + maxResultBytes + " bytes");
+            } else {
+                job.succeed(result, resultBytes);
+            }
+        } catch (CancellationException e) {
+            job.markCancelled();
+        } catch (Exception e) {
+            // A job cancelled while it waited for capacity or mapped its file stops with whatever was interrupted.
+            if (job.progress().isCancelled()) {
+                job.markCancelled();
+            } else {
+                job.fail(e.getMessage());
+            }
+        } finally {
+            pending.decrementAndGet();
+            try {
+                Files.deleteIfExists(job.file());
+            } catch (IOException e) {
+                // The spool directory is temporary; a leftover file does no harm.
+            }
+            evict();
+        }
+    }
+
+    /**
+     * Counts a job's text; a job has no client waiting on it, so when admission control turns it away it waits and
+     * tries again rather than failing.
+     */
+    private WordCountTable count(WordCountEngine engine, List<ScanSource> regions, AnalysisProgress progress)
+            throws InterruptedException {
+        while (true) {
+            try {
+                return engine.countWords(regions, progress);
+            } catch (AnalysisRejectedException e) {
+                progress.checkCancelled();
+                Thread.sleep(TimeUnit.SECONDS.toMillis(Math.max(1, retryAfterSeconds)));
+            }
+        }
+    }
+
+    /**
+     * Drops finished jobs past their TTL, then the oldest finished jobs while their results exceed the budget.
+     */
+    private synchronized void evict() {
+        long now = System.nanoTime();
+        jobs.values().removeIf(job -> isExpired(job, now));
+
+        List<AnalysisJob> finished = new ArrayList<>();
+        long retained = 0;
+        for (AnalysisJob job : jobs.values()) {
+            if (job.isDone()) {
+                finished.add(job);
+                retained += job.resultBytes();
+            }
+        }
+        if (retained <= maxResultBytes) {
+            return;
+        }
+        finished.sort(Comparator.comparingLong(AnalysisJob::completedAt));
+        for (AnalysisJob job : finished) {
+            if (retained <= maxResultBytes) {
+                break;
+            }
+            jobs.remove(job.id());
+            retained -= job.resultBytes();
+        }
+    }
+
+    private boolean isExpired(AnalysisJob job, long now) {
+        return job.isDone() && now - job.completedAt() > resultTtlNanos;
+    }
+
+    private AnalysisJob job(String id) {
+        AnalysisJob job = id == null ? null : jobs.get(id);
+        if (job != null && isExpired(job, System.nanoTime())) {
+            jobs.remove(id, job);
+            job = null;
+        }
+        if (job == null) {
+            throw new NoSuchElementException(id);
+        }
+        return job;
+    }
+
+    /**
+     * Copies the text to the file as UTF-8; UTF-8 input is copied byte for byte without decoding it. At most
+     * {@code maxBytes} bytes of the text are read: a longer text fails the copy once its limit is passed.
+     */
+    private static void spool(InputStream text, Charset charset, Path file, long maxBytes) throws IOException {
+        InputStream limited = new LimitedInputStream(text, maxBytes);
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                limited.transferTo(out);
+            }
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            new InputStreamReader(limited, charset).transferTo(writer);
+        }
+    }
+
+    /**
+     * An input stream that throws a {@link TextTooLargeException} as soon as more than its limit has been read from
+     * it. Closing it does not close the stream it reads.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long read;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = in.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // The request body belongs to the caller.
+        }
+
+        private void count(int n) {
+            read += n;
+            if (read > maxBytes) {
+                throw new TextTooLargeException(maxBytes, "The text exceeds the limit of " + maxBytes + " bytes");
+            }
+        }
+    }
+}
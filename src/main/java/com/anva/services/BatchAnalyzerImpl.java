@@ -0,0 +1,156 @@
+package com.anva.services;
+
+import com.anva.models.BatchResultImpl;
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.models.interfaces.BatchDocument;
+import com.anva.models.interfaces.BatchResult;
+import com.anva.services.interfaces.AnalysisRejectedException;
+import com.anva.services.interfaces.BatchAnalyzer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of the BatchAnalyzer interface.
+ * <p>
+ * Documents are analyzed on a fixed pool of {@code anva.batch.concurrency} worker threads shared by all batches. Each
+ * batch keeps at most twice that many documents in flight: the thread reading the batch blocks until a document has
+ * been analyzed, so a fast client cannot queue an unbounded batch in memory. Small documents are counted sequentially
+ * by the {@link WordCountEngine}, so a batch pays for one fork/join setup per large document only.
+ * <p>
+ * For the aggregate, every worker folds its document tables into a partial table it takes from a per-batch queue and
+ * puts back afterwards, so partials are never shared between threads and at most one exists per concurrent worker;
+ * they are merged once the batch is complete. Every document table is also recorded for the trending words.
+ */
+@Service
+class BatchAnalyzerImpl implements BatchAnalyzer {
+
+    private final WordCountEngine engine;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final TrendingWordsTracker trending;
+
+    BatchAnalyzerImpl(WordCountEngine engine, int concurrency) {
+        this(engine, concurrency, TrendingWordsTracker.disabled());
+    }
+
+    @Autowired
+    BatchAnalyzerImpl(WordCountEngine engine, @Value("${anva.batch.concurrency:0}") int concurrency,
+                      TrendingWordsTracker trending) {
+        this.engine = engine;
+        this.trending = trending;
+        int threads = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        this.maxInFlight = threads * 2;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "anva-batch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public AnalysisResult analyze(Iterator<? extends BatchDocument> documents, AnalysisSpec spec, boolean aggregate,
+                                  Consumer<BatchResult> results) throws InterruptedException {
+        WordCountEngine engine = AnalysisResults.engineFor(this.engine, spec);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Queue<WordCountTable> partials = new ConcurrentLinkedQueue<>();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Object reporterLock = new Object();
+        Consumer<BatchResult> reporter = result -> {
+            synchronized (reporterLock) {
+                results.accept(result);
+            }
+        };
+
+        try {
+            while (failure.get() == null && documents.hasNext()) {
+                BatchDocument document = documents.next();
+                inFlight.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            reporter.accept(analyze(engine, document, spec, aggregate ? partials : null));
+                        } catch (RuntimeException e) {
+                            // The results can no longer be delivered (e.g. the client went away); stop the batch.
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+        } finally {
+            // Wait for the documents in flight, also when reading the batch failed.
+            inFlight.acquire(maxInFlight);
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        if (!aggregate) {
+            return null;
+        }
+
+        WordCountTable total = engine.newTable();
+        for (WordCountTable partial : partials) {
+            total = WordCountEngine.mergeTables(total, partial);
+        }
+        return AnalysisResults.of(engine, total, spec);
+    }
+
+    private BatchResult analyze(WordCountEngine engine, BatchDocument document, AnalysisSpec spec,
+                                Queue<WordCountTable> partials) {
+        if (document.getText() == null) {
+            return new BatchResultImpl(document.getIndex(), document.getId(), null, "Document has no text or could not be parsed");
+        }
+
+        WordCountTable table;
+        AnalysisResult result;
+        try {
+            table = engine.countWords(document.getText());
+            result = AnalysisResults.of(engine, table, spec);
+        } catch (IllegalArgumentException | IllegalStateException | AnalysisRejectedException e) {
+            return new BatchResultImpl(document.getIndex(), document.getId(), null, e.getMessage());
+        }
+        trending.record(table);
+
+        if (partials != null) {
+            WordCountTable partial = partials.poll();
+            if (partial == null) {
+                partial = engine.newTable();
+            }
+            partial.addAll(table);
+            partials.add(partial);
+        }
+        return new BatchResultImpl(document.getIndex(), document.getId(), result, null);
+    }
+}
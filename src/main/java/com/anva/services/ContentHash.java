@@ -0,0 +1,129 @@
+package com.anva.services;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 128-bit content hash of a text (MurmurHash3 x64/128 over its UTF-16 code units, or over its bytes for UTF-8 text),
+ * used as a cache key.
+ * <p>
+ * The text is read four chars per 64-bit block straight from the {@link CharSequence}, or eight bytes per block from
+ * the {@link ByteBuffer}, so hashing neither encodes nor copies it. Together with the length, 128 bits make an
+ * accidental collision between two different documents vanishingly unlikely. A text and its UTF-8 bytes hash
+ * differently, which only costs a cache miss when the same document arrives in both forms.
+ */
+record ContentHash(long high, long low, int length) {
+
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    static ContentHash of(CharSequence text) {
+        int length = text.length();
+        long h1 = 0;
+        long h2 = 0;
+
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            long k1 = block(text, i);
+            long k2 = block(text, i + 4);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52DCE729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495AB5;
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            if (shift < 64) {
+                k1 |= (long) text.charAt(i) << shift;
+            } else {
+                k2 |= (long) text.charAt(i) << (shift - 64);
+            }
+        }
+        return finish(h1, h2, k1, k2, length);
+    }
+
+    /**
+     * Hashes the bytes in {@code [0, limit)} of a buffer.
+     */
+    static ContentHash of(ByteBuffer text) {
+        ByteBuffer bytes = text.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int length = bytes.limit();
+        long h1 = 0;
+        long h2 = 0;
+
+        int i = 0;
+        for (; i + 16 <= length; i += 16) {
+            h1 ^= mixK1(bytes.getLong(i));
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52DCE729;
+
+            h2 ^= mixK2(bytes.getLong(i + 8));
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495AB5;
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        for (int shift = 0; i < length; i++, shift += 8) {
+            if (shift < 64) {
+                k1 |= (bytes.get(i) & 0xFFL) << shift;
+            } else {
+                k2 |= (bytes.get(i) & 0xFFL) << (shift - 64);
+            }
+        }
+        return finish(h1, h2, k1, k2, length);
+    }
+
+    private static ContentHash finish(long h1, long h2, long k1, long k2, int length) {
+        h1 ^= mixK1(k1);
+        h2 ^= mixK2(k2);
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        return new ContentHash(h1, h2, length);
+    }
+
+    private static long block(CharSequence text, int index) {
+        return text.charAt(index)
+                | (long) text.charAt(index + 1) << 16
+                | (long) text.charAt(index + 2) << 32
+                | (long) text.charAt(index + 3) << 48;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
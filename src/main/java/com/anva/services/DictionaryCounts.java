@@ -0,0 +1,233 @@
+package com.anva.services;
+
+import java.util.Arrays;
+
+/**
+ * Word counts of one chunk of text, kept by {@link WordDictionary} id for the words the dictionary knows, and in a
+ * {@link WordCountTable} for the others.
+ * <p>
+ * A dictionary word costs one lookup in the shared index and an increment in a small open-addressing table of
+ * (id, count) pairs: its bytes are never copied, and the chunk pays for the ids it sees, not for the size of the
+ * dictionary. When the ids seen are dense enough that an {@code int[]} indexed by id would be no larger than that
+ * table, as for a large text or the merged counts of its chunks, the counts switch to one, and back again should a much
+ * higher id come along. Merging the counts of two chunks folds the smaller counts into the larger, and only the rare
+ * words go through a table merge. {@link #toTable()} turns the result into the table the rest of the pipeline works
+ * with, once per text, and offers its rare words to the dictionary for admission. Not thread-safe.
+ */
+final class DictionaryCounts implements WordSink {
+
+    private static final int INITIAL_SLOTS = 64;
+
+    private final WordDictionary dictionary;
+    private WordCountTable rare;
+
+    // Sparse counts: open-addressing table of id + 1 (0 for a free slot) and the count of each slot; null while the
+    // counts are dense.
+    private int[] ids = new int[INITIAL_SLOTS];
+    private int[] slotCounts = new int[INITIAL_SLOTS];
+    // Dense counts by id; null while the counts are sparse.
+    private int[] dense;
+    // Number of ids counted, and the highest of them.
+    private int distinct;
+    private int maxId = -1;
+
+    /**
+     * @param rare An empty table for the words the dictionary does not hold; {@link #toTable()} returns it.
+     */
+    DictionaryCounts(WordDictionary dictionary, WordCountTable rare) {
+        this.dictionary = dictionary;
+        this.rare = rare;
+    }
+
+    @Override
+    public void onWord(byte[] word, int length, int hash) {
+        int id = dictionary.find(word, length, hash);
+        if (id < 0) {
+            rare.add(word, length, hash, 1);
+            return;
+        }
+        if (dense != null && id < dense.length) {
+            if (dense[id]++ == 0) {
+                distinct++;
+                maxId = Math.max(maxId, id);
+            }
+            return;
+        }
+        add(id, 1);
+    }
+
+    /**
+     * Merges the counts of another chunk into these, folding the smaller counts and table into the larger ones.
+     *
+     * @return These counts.
+     */
+    DictionaryCounts merge(DictionaryCounts other) {
+        if (other.distinct > distinct) {
+            // Keep the larger counts, and fold the smaller ones into them.
+            swapCounts(other);
+        }
+        if (other.dense != null) {
+            for (int id = 0; id <= other.maxId; id++) {
+                if (other.dense[id] != 0) {
+                    add(id, other.dense[id]);
+                }
+            }
+        } else {
+            for (int slot = 0; slot < other.ids.length; slot++) {
+                if (other.ids[slot] != 0) {
+                    add(other.ids[slot] - 1, other.slotCounts[slot]);
+                }
+            }
+        }
+        rare = WordCountEngine.mergeTables(rare, other.rare);
+        return this;
+    }
+
+    /**
+     * Adds the dictionary words to the table of rare words and returns it, offering the rare words to the dictionary
+     * first. Counting must be finished, and the counts are not used afterwards.
+     */
+    WordCountTable toTable() {
+        dictionary.offer(rare);
+        if (dense != null) {
+            for (int id = 0; id <= maxId; id++) {
+                if (dense[id] != 0) {
+                    addToTable(id, dense[id]);
+                }
+            }
+        } else {
+            for (int slot = 0; slot < ids.length; slot++) {
+                if (ids[slot] != 0) {
+                    addToTable(ids[slot] - 1, slotCounts[slot]);
+                }
+            }
+        }
+        return rare;
+    }
+
+    private void addToTable(int id, int count) {
+        byte[] word = dictionary.wordAt(id);
+        rare.add(word, word.length, dictionary.hashAt(id), count);
+    }
+
+    private void add(int id, int count) {
+        if (dense != null) {
+            if (id >= dense.length) {
+                int length = Math.max(id + 1, Math.min(dense.length * 2, dictionary.size()));
+                if (length > 4 * sparseSize(distinct + 1)) {
+                    // Far above the ids seen so far: a table of them is much smaller than the array would be.
+                    toSparse();
+                    add(id, count);
+                    return;
+                }
+                dense = Arrays.copyOf(dense, length);
+            }
+            if (dense[id] == 0) {
+                distinct++;
+                maxId = Math.max(maxId, id);
+            }
+            dense[id] += count;
+            return;
+        }
+        int mask = ids.length - 1;
+        int slot = mix(id) & mask;
+        int entry;
+        while ((entry = ids[slot]) != 0) {
+            if (entry == id + 1) {
+                slotCounts[slot] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        ids[slot] = id + 1;
+        slotCounts[slot] = count;
+        maxId = Math.max(maxId, id);
+        if (++distinct * 2 > ids.length) {
+            if (maxId + 1 <= 8 * ids.length) {
+                // An array up to the highest id is at most twice the size of the doubled table, and saves growing it
+                // again.
+                toDense();
+            } else {
+                resize(ids.length * 2);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of ints a sparse table of the given number of ids takes.
+     */
+    private static int sparseSize(int distinct) {
+        return 2 * slotsFor(distinct);
+    }
+
+    private static int slotsFor(int distinct) {
+        return Math.max(INITIAL_SLOTS, Integer.highestOneBit(Math.max(1, distinct * 2 - 1)) << 1);
+    }
+
+    private void resize(int slots) {
+        int[] oldIds = ids;
+        int[] oldCounts = slotCounts;
+        ids = new int[slots];
+        slotCounts = new int[slots];
+        int mask = slots - 1;
+        for (int old = 0; old < oldIds.length; old++) {
+            if (oldIds[old] != 0) {
+                int slot = mix(oldIds[old] - 1) & mask;
+                while (ids[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                ids[slot] = oldIds[old];
+                slotCounts[slot] = oldCounts[old];
+            }
+        }
+    }
+
+    private void toDense() {
+        // Room for the ids the dictionary holds, if that is within the bound, so that the array need not grow again.
+        dense = new int[Math.max(maxId + 1, Math.min(8 * ids.length, dictionary.size()))];
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (ids[slot] != 0) {
+                dense[ids[slot] - 1] = slotCounts[slot];
+            }
+        }
+        ids = null;
+        slotCounts = null;
+    }
+
+    private void toSparse() {
+        int[] counts = dense;
+        int highest = maxId;
+        dense = null;
+        ids = new int[slotsFor(distinct + 1)];
+        slotCounts = new int[ids.length];
+        distinct = 0;
+        for (int id = 0; id <= highest; id++) {
+            if (counts[id] != 0) {
+                add(id, counts[id]);
+            }
+        }
+    }
+
+    private void swapCounts(DictionaryCounts other) {
+        int[] ids = this.ids;
+        int[] slotCounts = this.slotCounts;
+        int[] dense = this.dense;
+        int distinct = this.distinct;
+        int maxId = this.maxId;
+        this.ids = other.ids;
+        this.slotCounts = other.slotCounts;
+        this.dense = other.dense;
+        this.distinct = other.distinct;
+        this.maxId = other.maxId;
+        other.ids = ids;
+        other.slotCounts = slotCounts;
+        other.dense = dense;
+        other.distinct = distinct;
+        other.maxId = maxId;
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,232 @@
+package com.anva.services;
+
+import com.anva.models.AnalysisResultImpl;
+import com.anva.models.DocumentFrequencyImpl;
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.models.interfaces.DocumentFrequency;
+import com.anva.models.interfaces.WordFrequency;
+import com.anva.services.interfaces.DocumentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the DocumentStore interface.
+ * <p>
+ * Each document is kept in the store directory as its UTF-8 text ({@code <id>.txt}) and a {@link WordSegment}
+ * ({@code <id>.seg}). Storing streams the text to disk, counts it through a memory mapping and writes the segment;
+ * on startup the segments are memory-mapped again, so the index survives restarts without re-parsing any text; a
+ * segment that cannot be read is logged and left out, so it does not keep the application from starting.
+ * Queries across documents probe the sorted dictionary of every segment. Stored documents are recorded for the
+ * trending words; documents loaded on startup are not.
+ */
+@Service
+class DocumentStoreImpl implements DocumentStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentStoreImpl.class);
+
+    private static final String TEXT_SUFFIX = ".txt";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final WordCountEngine engine;
+    private final Path directory;
+    private final Map<String, WordSegment> segments = new ConcurrentHashMap<>();
+    private final TrendingWordsTracker trending;
+
+    @Autowired
+    DocumentStoreImpl(WordCountEngine engine, @Value("${anva.documents.store-dir:}") String directory,
+                      TrendingWordsTracker trending) throws IOException {
+        this(engine, directory.isBlank() ? null : Path.of(directory), trending);
+    }
+
+    DocumentStoreImpl(WordCountEngine engine, String directory) throws IOException {
+        this(engine, directory, TrendingWordsTracker.disabled());
+    }
+
+    DocumentStoreImpl(WordCountEngine engine, Path directory) throws IOException {
+        this(engine, directory, TrendingWordsTracker.disabled());
+    }
+
+    DocumentStoreImpl(WordCountEngine engine, Path directory, TrendingWordsTracker trending) throws IOException {
+        this.engine = engine;
+        this.trending = trending;
+        this.directory = directory == null ? null : directory.toAbsolutePath().normalize();
+        if (this.directory != null) {
+            Files.createDirectories(this.directory);
+            load();
+        }
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public String store(Reader text) throws IOException {
+        checkEnabled();
+        String id = UUID.randomUUID().toString();
+        Path textFile = directory.resolve(id + TEXT_SUFFIX);
+        Path segmentFile = directory.resolve(id + SEGMENT_SUFFIX);
+        try {
+            try (Writer writer = Files.newBufferedWriter(textFile, StandardCharsets.UTF_8)) {
+                text.transferTo(writer);
+            }
+
+            WordCountTable table = engine.countWords(MappedRegions.map(textFile, MappedRegions.MAX_REGION_SIZE));
+            WordSegment.write(table, engine.topWords(table, table.size()), segmentFile);
+            segments.put(id, WordSegment.open(segmentFile));
+            trending.record(table);
+            return id;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(segmentFile);
+            Files.deleteIfExists(textFile);
+            throw e;
+        }
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateHighestFrequency(String id) throws IOException {
+        return segment(id).maxCount();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateFrequencyForWord(String id, String word) throws IOException {
+        WordSegment segment = segment(id);
+        byte[] target = engine.tokenizer().normalize(word);
+        return target == null ? 0 : segment.frequency(target);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public List<WordFrequency> calculateMostFrequentNWords(String id, int n) throws IOException {
+        return segment(id).topWords(n);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public AnalysisResult analyze(String id, AnalysisSpec spec) throws IOException {
+        if (AnalysisResults.engineFor(engine, spec) != engine) {
+            throw new IllegalArgumentException("Stored documents are indexed with the configured tokenizer");
+        }
+        WordSegment segment = segment(id);
+        Integer highestFrequency = spec.isHighestFrequency() ? segment.maxCount() : null;
+        List<WordFrequency> mostFrequentWords = spec.getMostFrequentWords() > 0
+                ? segment.topWords(spec.getMostFrequentWords()) : null;
+
+        Map<String, Integer> wordFrequencies = null;
+        if (!spec.getWords().isEmpty()) {
+            wordFrequencies = new LinkedHashMap<>();
+            for (String word : spec.getWords()) {
+                byte[] target = engine.tokenizer().normalize(word);
+                wordFrequencies.put(word, target == null ? 0 : segment.frequency(target));
+            }
+        }
+        return new AnalysisResultImpl(highestFrequency, mostFrequentWords, wordFrequencies);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public List<DocumentFrequency> findDocuments(String word) {
+        checkEnabled();
+        byte[] target = engine.tokenizer().normalize(word);
+        if (target == null) {
+            return List.of();
+        }
+
+        List<DocumentFrequency> documents = new ArrayList<>();
+        segments.forEach((id, segment) -> {
+            int frequency = segment.frequency(target);
+            if (frequency > 0) {
+                documents.add(new DocumentFrequencyImpl(id, frequency));
+            }
+        });
+        documents.sort(Comparator.comparingInt(DocumentFrequency::getFrequency).reversed()
+                .thenComparing(DocumentFrequency::getDocumentId));
+        return documents;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void delete(String id) throws IOException {
+        segment(id);
+        segments.remove(id);
+        // Existing mappings of the segment stay readable until they are garbage collected.
+        Files.deleteIfExists(directory.resolve(id + SEGMENT_SUFFIX));
+        Files.deleteIfExists(directory.resolve(id + TEXT_SUFFIX));
+    }
+
+    private WordSegment segment(String id) throws NoSuchFileException {
+        checkEnabled();
+        validateId(id);
+        WordSegment segment = segments.get(id);
+        if (segment == null) {
+            throw new NoSuchFileException("Unknown document ID: " + id);
+        }
+        return segment;
+    }
+
+    private void checkEnabled() {
+        if (directory == null) {
+            throw new IllegalStateException("The document store is disabled; set anva.documents.store-dir");
+        }
+    }
+
+    /**
+     * Rejects anything but the canonical form of a random UUID, so an ID can never address another file.
+     */
+    private static void validateId(String id) {
+        try {
+            if (id != null && UUID.fromString(id).toString().equals(id)) {
+                return;
+            }
+        } catch (IllegalArgumentException e) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException("Invalid document ID: " + id);
+    }
+
+    private void load() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.put(name.substring(0, name.length() - SEGMENT_SUFFIX.length()), WordSegment.open(file));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Skipping unreadable word segment {}", file, e);
+                }
+            }
+        }
+    }
+}
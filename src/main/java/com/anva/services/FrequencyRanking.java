@@ -0,0 +1,259 @@
+package com.anva.services;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the entries of a {@link WordCountTable} ordered by count while they are being counted, so that the highest
+ * frequency and the top N words can be read at any time without looking at the rest of the vocabulary.
+ * <p>
+ * The entry ids are held in one array sorted by count, descending. Entries with the same count form a contiguous
+ * bucket, and the buckets are linked in order. Changing a count by one only moves the entry to the edge of its bucket
+ * and shifts that edge into the neighbouring bucket, so {@link #increment(int)} and {@link #decrement(int)} take
+ * constant time and allocate nothing (bucket slots are recycled).
+ * <p>
+ * Within a bucket entries are unordered, so {@link #top(WordCountTable, int)} sorts the whole buckets it returns, and
+ * picks the alphabetically first entries of the bucket that does not fit completely with a bounded heap. Its cost
+ * is O(n log n + m) for the m entries of that last bucket, independent of the size of the vocabulary.
+ * <p>
+ * Counts must stay in step with the table: the ranking is told about every change of an entry's count. Not
+ * thread-safe.
+ */
+final class FrequencyRanking {
+
+    private static final int NONE = -1;
+
+    private int[] order = new int[256];
+    private int[] position = new int[256];
+    private int[] bucketOf = new int[256];
+    private int size;
+
+    // Buckets, linked from the highest count (head) to the lowest (tail); unused slots form a free list through next.
+    private int[] bucketCount = new int[16];
+    private int[] bucketStart = new int[16];
+    private int[] bucketPrevious = new int[16];
+    private int[] bucketNext = new int[16];
+    private int bucketSlots;
+    private int freeBucket = NONE;
+    private int head = NONE;
+    private int tail = NONE;
+
+    /**
+     * Adds one to the count of an entry. An id equal to the number of entries seen so far adds a new entry.
+     */
+    void increment(int id) {
+        if (id == size) {
+            append(id);
+        }
+        int bucket = bucketOf[id];
+        int start = bucketStart[bucket];
+        swap(position[id], start);
+
+        int previous = bucketPrevious[bucket];
+        int target;
+        if (previous != NONE && bucketCount[previous] == bucketCount[bucket] + 1) {
+            target = previous;
+        } else {
+            target = newBucket(bucketCount[bucket] + 1, start);
+            link(target, previous, bucket);
+        }
+        bucketOf[id] = target;
+        bucketStart[bucket] = start + 1;
+        if (bucketStart[bucket] == end(bucket)) {
+            release(bucket);
+        }
+    }
+
+    /**
+     * Subtracts one from the count of an entry. Entries whose count drops to zero are kept, and never ranked.
+     */
+    void decrement(int id) {
+        int bucket = bucketOf[id];
+        int last = end(bucket) - 1;
+        swap(position[id], last);
+
+        int next = bucketNext[bucket];
+        int target;
+        if (next != NONE && bucketCount[next] == bucketCount[bucket] - 1) {
+            target = next;
+            bucketStart[next] = last;
+        } else {
+            target = newBucket(bucketCount[bucket] - 1, last);
+            link(target, bucket, next);
+        }
+        bucketOf[id] = target;
+        if (bucketStart[bucket] == last) {
+            release(bucket);
+        }
+    }
+
+    /**
+     * Returns the highest count of any entry, or 0 if there is none.
+     */
+    int maxCount() {
+        return head == NONE ? 0 : Math.max(0, bucketCount[head]);
+    }
+
+    /**
+     * Returns the ids of the {@code n} most frequent entries, ordered by count descending, then word ascending.
+     */
+    int[] top(WordCountTable table, int n) {
+        int[] result = new int[Math.max(0, Math.min(n, size))];
+        int filled = 0;
+        int bucket = head;
+        while (bucket != NONE && bucketCount[bucket] > 0 && filled + end(bucket) - bucketStart[bucket] <= result.length) {
+            int start = bucketStart[bucket];
+            System.arraycopy(order, start, result, filled, end(bucket) - start);
+            filled += end(bucket) - start;
+            bucket = bucketNext[bucket];
+        }
+        TopWords.sort(table, result, 0, filled - 1);
+
+        if (bucket != NONE && bucketCount[bucket] > 0 && filled < result.length) {
+            filled = selectFirstWords(table, bucketStart[bucket], end(bucket) - bucketStart[bucket], result, filled);
+        }
+        return filled == result.length ? result : Arrays.copyOf(result, filled);
+    }
+
+    private void append(int id) {
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size * 2);
+            position = Arrays.copyOf(position, size * 2);
+            bucketOf = Arrays.copyOf(bucketOf, size * 2);
+        }
+        order[size] = id;
+        position[id] = size;
+        if (tail != NONE && bucketCount[tail] == 0) {
+            bucketOf[id] = tail;
+        } else {
+            int bucket = newBucket(0, size);
+            link(bucket, tail, NONE);
+            bucketOf[id] = bucket;
+        }
+        size++;
+    }
+
+    private int end(int bucket) {
+        int next = bucketNext[bucket];
+        return next == NONE ? size : bucketStart[next];
+    }
+
+    private void swap(int i, int j) {
+        int a = order[i];
+        int b = order[j];
+        order[i] = b;
+        order[j] = a;
+        position[a] = j;
+        position[b] = i;
+    }
+
+    private int newBucket(int count, int start) {
+        int bucket = freeBucket;
+        if (bucket != NONE) {
+            freeBucket = bucketNext[bucket];
+        } else {
+            if (bucketSlots == bucketCount.length) {
+                int capacity = bucketSlots * 2;
+                bucketCount = Arrays.copyOf(bucketCount, capacity);
+                bucketStart = Arrays.copyOf(bucketStart, capacity);
+                bucketPrevious = Arrays.copyOf(bucketPrevious, capacity);
+                bucketNext = Arrays.copyOf(bucketNext, capacity);
+            }
+            bucket = bucketSlots++;
+        }
+        bucketCount[bucket] = count;
+        bucketStart[bucket] = start;
+        return bucket;
+    }
+
+    private void link(int bucket, int previous, int next) {
+        bucketPrevious[bucket] = previous;
+        bucketNext[bucket] = next;
+        if (previous == NONE) {
+            head = bucket;
+        } else {
+            bucketNext[previous] = bucket;
+        }
+        if (next == NONE) {
+            tail = bucket;
+        } else {
+            bucketPrevious[next] = bucket;
+        }
+    }
+
+    private void release(int bucket) {
+        int previous = bucketPrevious[bucket];
+        int next = bucketNext[bucket];
+        if (previous == NONE) {
+            head = next;
+        } else {
+            bucketNext[previous] = next;
+        }
+        if (next == NONE) {
+            tail = previous;
+        } else {
+            bucketPrevious[next] = previous;
+        }
+        bucketNext[bucket] = freeBucket;
+        freeBucket = bucket;
+    }
+
+    /**
+     * Fills the rest of {@code result} with the alphabetically first ids of {@code order[start, start + length)},
+     * using a max-heap (on word) of the best ones seen so far.
+     *
+     * @return The new number of filled slots, i.e. {@code result.length}.
+     */
+    private int selectFirstWords(WordCountTable table, int start, int length, int[] result, int filled) {
+        int k = result.length - filled;
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int i = start; i < start + length; i++) {
+            int id = order[i];
+            if (heapSize < k) {
+                heap[heapSize] = id;
+                int child = heapSize++;
+                while (child > 0) {
+                    int parent = (child - 1) >>> 1;
+                    if (table.compareWords(heap[parent], heap[child]) >= 0) {
+                        break;
+                    }
+                    int swap = heap[parent];
+                    heap[parent] = heap[child];
+                    heap[child] = swap;
+                    child = parent;
+                }
+            } else if (table.compareWords(id, heap[0]) < 0) {
+                heap[0] = id;
+                siftDown(table, heap, heapSize);
+            }
+        }
+        for (int i = heapSize - 1; i >= 0; i--) {
+            result[filled + i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(table, heap, i);
+        }
+        return filled + heapSize;
+    }
+
+    private static void siftDown(WordCountTable table, int[] heap, int heapSize) {
+        int parent = 0;
+        while (true) {
+            int largest = parent;
+            int left = 2 * parent + 1;
+            int right = left + 1;
+            if (left < heapSize && table.compareWords(heap[left], heap[largest]) > 0) {
+                largest = left;
+            }
+            if (right < heapSize && table.compareWords(heap[right], heap[largest]) > 0) {
+                largest = right;
+            }
+            if (largest == parent) {
+                return;
+            }
+            int swap = heap[parent];
+            heap[parent] = heap[largest];
+            heap[largest] = swap;
+            parent = largest;
+        }
+    }
+}
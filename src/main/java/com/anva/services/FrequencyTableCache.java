@@ -0,0 +1,170 @@
+package com.anva.services;
+
+import com.anva.models.CacheStatisticsImpl;
+import com.anva.models.interfaces.CacheStatistics;
+import com.anva.services.interfaces.AnalysisCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Content-addressed cache of counted {@link WordCountTable}s, keyed by the {@link ContentHash} of the text.
+ * <p>
+ * The cache is bounded by the estimated memory of the tables it holds rather than by their number, since a single
+ * large document can outweigh thousands of small ones; least recently used tables are evicted first. The lock only
+ * guards the bookkeeping: counting happens outside of it, and concurrent requests for the same text while it is being
+ * counted wait for that one computation instead of repeating it.
+ * <p>
+ * Cached tables are shared between requests and must not be modified. A budget of 0 bytes disables the cache.
+ */
+@Component
+class FrequencyTableCache implements AnalysisCache {
+
+    static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    // Rough cost of the key, the map node and the future that accompany each table.
+    private static final long ENTRY_OVERHEAD = 160;
+
+    private final long maxBytes;
+
+    // Access-ordered, so iteration starts at the least recently used entry.
+    private final LinkedHashMap<ContentHash, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long estimatedBytes;
+    private long hits;
+    private long misses;
+    private long coalesced;
+    private long evictions;
+
+    FrequencyTableCache(@Value("${anva.analysis.cache.max-bytes:" + DEFAULT_MAX_BYTES + "}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * Returns the table of the text, counting it with {@code counter} unless it is cached or already being counted.
+     */
+    WordCountTable get(CharSequence text, Function<CharSequence, WordCountTable> counter) {
+        return isEnabled() ? get(ContentHash.of(text), text, counter) : counter.apply(text);
+    }
+
+    /**
+     * Returns the table of a UTF-8 text in {@code [0, limit)} of a buffer, like {@link #get(CharSequence, Function)}.
+     */
+    WordCountTable get(ByteBuffer text, Function<ByteBuffer, WordCountTable> counter) {
+        return isEnabled() ? get(ContentHash.of(text), text, counter) : counter.apply(text);
+    }
+
+    private <T> WordCountTable get(ContentHash key, T text, Function<T, WordCountTable> counter) {
+        Entry entry;
+        boolean owner = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null) {
+                if (entry.table.isDone()) {
+                    hits++;
+                } else {
+                    coalesced++;
+                }
+            } else {
+                entry = new Entry();
+                entries.put(key, entry);
+                misses++;
+                owner = true;
+            }
+        }
+
+        if (!owner) {
+            return await(entry.table);
+        }
+
+        WordCountTable table;
+        try {
+            table = counter.apply(text);
+        } catch (RuntimeException | Error e) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            entry.table.completeExceptionally(e);
+            throw e;
+        }
+        entry.table.complete(table);
+        admit(key, entry, table.estimatedBytes() + ENTRY_OVERHEAD);
+        return table;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public CacheStatistics getStatistics() {
+        synchronized (entries) {
+            return new CacheStatisticsImpl(hits, misses, coalesced, evictions, entries.size(), estimatedBytes, maxBytes);
+        }
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            estimatedBytes = 0;
+        }
+    }
+
+    private void admit(ContentHash key, Entry entry, long bytes) {
+        synchronized (entries) {
+            if (entries.get(key) != entry) {
+                // Cleared while counting.
+                return;
+            }
+            if (bytes > maxBytes) {
+                entries.remove(key);
+                return;
+            }
+
+            entry.bytes = bytes;
+            estimatedBytes += bytes;
+            Iterator<Map.Entry<ContentHash, Entry>> iterator = entries.entrySet().iterator();
+            while (estimatedBytes > maxBytes && iterator.hasNext()) {
+                Entry eldest = iterator.next().getValue();
+                // Tables still being counted have no size yet; they are accounted for when they complete.
+                if (eldest != entry && eldest.table.isDone()) {
+                    iterator.remove();
+                    estimatedBytes -= eldest.bytes;
+                    evictions++;
+                }
+            }
+        }
+    }
+
+    private static WordCountTable await(CompletableFuture<WordCountTable> table) {
+        try {
+            return table.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+        final CompletableFuture<WordCountTable> table = new CompletableFuture<>();
+        long bytes;
+    }
+}
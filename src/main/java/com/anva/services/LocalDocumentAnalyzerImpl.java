@@ -0,0 +1,104 @@
+package com.anva.services;
+
+import com.anva.models.interfaces.WordFrequency;
+import com.anva.services.interfaces.LocalDocumentAnalyzer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Implementation of the LocalDocumentAnalyzer interface.
+ * <p>
+ * Documents are memory-mapped and their bytes are scanned in place, without copying them onto the heap or decoding
+ * them into chars; repeated analyses of the same file are served from the OS page cache. Files larger than 2 GB are
+ * mapped as several regions (see {@link MappedRegions}), which are counted in parallel.
+ */
+@Service
+class LocalDocumentAnalyzerImpl implements LocalDocumentAnalyzer {
+
+    private final WordCountEngine engine;
+    private final Path root;
+    private final long maxRegionSize;
+
+    @Autowired
+    LocalDocumentAnalyzerImpl(WordCountEngine engine, @Value("${anva.documents.local-root:}") String root) {
+        this(engine, root.isBlank() ? null : Path.of(root), MappedRegions.MAX_REGION_SIZE);
+    }
+
+    LocalDocumentAnalyzerImpl(WordCountEngine engine, Path root, long maxRegionSize) {
+        this.engine = engine;
+        this.root = root == null ? null : root.toAbsolutePath().normalize();
+        this.maxRegionSize = maxRegionSize;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateHighestFrequency(String path) throws IOException {
+        return engine.countWords(mapRegions(resolve(path))).maxCount();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateFrequencyForWord(String path, String word) throws IOException {
+        List<ScanSource> regions = mapRegions(resolve(path));
+        byte[] target = engine.tokenizer().normalize(word);
+        if (target == null) {
+            return 0;
+        }
+
+        SingleWordCounter counter = new SingleWordCounter(target);
+        return engine.count(regions, counter::newCounter, SingleWordCounter::merge).frequency();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public List<WordFrequency> calculateMostFrequentNWords(String path, int n) throws IOException {
+        List<ScanSource> regions = mapRegions(resolve(path));
+        if (n <= 0) {
+            return List.of();
+        }
+
+        WordCountTable table = engine.countWords(regions);
+        return TopWords.toWordFrequencies(table, engine.topWords(table, n));
+    }
+
+    /**
+     * Resolves a path against the document root, rejecting anything that ends up outside of it (also via links).
+     */
+    private Path resolve(String path) throws IOException {
+        if (root == null) {
+            throw new IllegalStateException("Local document analysis is disabled; set anva.documents.local-root");
+        }
+        if (path == null || path.isBlank()) {
+            throw new IllegalArgumentException("Path cannot be null or empty");
+        }
+
+        Path file = root.resolve(path).normalize();
+        if (!file.startsWith(root)) {
+            throw new IllegalArgumentException("Path must be inside the document root: " + path);
+        }
+        Path realFile = file.toRealPath();
+        if (!realFile.startsWith(root.toRealPath())) {
+            throw new IllegalArgumentException("Path must be inside the document root: " + path);
+        }
+        if (!Files.isRegularFile(realFile)) {
+            throw new IllegalArgumentException("Path is not a regular file: " + path);
+        }
+        return realFile;
+    }
+
+    private List<ScanSource> mapRegions(Path file) throws IOException {
+        return MappedRegions.map(file, maxRegionSize);
+    }
+}
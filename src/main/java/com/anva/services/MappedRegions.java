@@ -0,0 +1,58 @@
+package com.anva.services;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps a UTF-8 file as {@link ScanSource}s, so its bytes are scanned in place without copying or decoding them.
+ * <p>
+ * A single mapping is limited to 2 GB, so larger files are mapped as several regions cut at word boundaries. Every
+ * region but the last ends with a byte that is not an ASCII letter, and the next region starts with that same byte, so
+ * no word is split and every region carries the context it needs for its first word.
+ */
+final class MappedRegions {
+
+    static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+    private MappedRegions() {
+    }
+
+    /**
+     * Maps the file as regions of at most {@code maxRegionSize} bytes.
+     */
+    static List<ScanSource> map(Path file, long maxRegionSize) throws IOException {
+        List<ScanSource> regions = new ArrayList<>();
+        // Mappings stay valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long remaining = size - position;
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(remaining, maxRegionSize));
+                if (remaining <= maxRegionSize) {
+                    regions.add(ScanSource.of(region));
+                    break;
+                }
+
+                int cut = region.capacity() - 1;
+                while (cut > 0 && (region.get(cut) < 0 || WordTokenizer.isAsciiLetter(region.get(cut)))) {
+                    cut--;
+                }
+                if (cut == 0) {
+                    throw new IllegalArgumentException("No word boundary found within " + maxRegionSize
+                            + " bytes at offset " + position + " of " + file.getFileName());
+                }
+                region.limit(cut + 1);
+                regions.add(ScanSource.of(region));
+                position += cut;
+            }
+        }
+        return regions;
+    }
+}
@@ -0,0 +1,297 @@
+package com.anva.services;
+
+/**
+ * Counts of the n-grams (runs of {@code length} consecutive words) of one chunk of text, keyed by packed ids instead of
+ * concatenated words.
+ * <p>
+ * Every word is interned once into a {@link WordCountTable}, which gives it an int id. A k-gram is then identified by
+ * the id of its first k-1 words and the id of its last word, packed into one {@code long} and interned into the
+ * {@link NGramTable} of length k: a bigram is {@code (word, word)}, a trigram {@code (bigram, word)}, and so on. While
+ * scanning, the ids of the grams ending at the previous word are kept in a small window, so each token costs one word
+ * lookup and one {@code long} lookup per length up to {@code length}, with no bytes copied and nothing allocated;
+ * phrases are only spelled out for the n-grams that can make it into a result (see {@link #toTable(int)}).
+ * <p>
+ * Stop words, if given, are matched against the tokens by a {@link WatchList} (one probe per token, no allocation) and
+ * break the window: only n-grams made of consecutive non-stop words are counted.
+ * <p>
+ * Counts of adjacent chunks are merged with {@link #merge}, which also counts the n-grams spanning the boundary: each
+ * chunk remembers its first {@code length - 1} words and the window at its end. Not thread-safe.
+ */
+final class NGramCounts implements WordSink {
+
+    /**
+     * Longest n-gram counted.
+     */
+    static final int MAX_LENGTH = 5;
+
+    // Window entry of a stop word.
+    private static final int STOP = -1;
+
+    private final int length;
+    private final WatchList stopWords;
+    private final WordCountTable words;
+    // levels[k] holds the k-grams, for 2 <= k <= length.
+    private final NGramTable[] levels;
+
+    // Number of consecutive non-stop words ending at the last token (at most length); grams[k] is the id of the k-gram
+    // ending there, for k <= run.
+    private int run;
+    private int[] grams;
+
+    // The first words of the chunk, up to length - 1 of them or up to the first stop word.
+    private int[] head;
+    private int headLength;
+    private boolean headClosed;
+
+    /**
+     * @param length    The number of words per n-gram, from 1 to {@link #MAX_LENGTH}.
+     * @param stopWords Words that no counted n-gram may contain, or null.
+     * @param words     An empty table that interns the words.
+     */
+    NGramCounts(int length, WatchList stopWords, WordCountTable words) {
+        this.length = length;
+        this.stopWords = stopWords;
+        this.words = words;
+        this.levels = new NGramTable[length + 1];
+        for (int k = 2; k <= length; k++) {
+            levels[k] = new NGramTable(256);
+        }
+        this.grams = new int[length + 1];
+        this.head = new int[length - 1];
+        this.headClosed = length == 1;
+    }
+
+    @Override
+    public void onWord(byte[] word, int length, int hash) {
+        int id = stopWords != null && stopWords.indexOf(word, length, hash) >= 0
+                ? STOP
+                : words.add(word, length, hash, this.length == 1 ? 1 : 0);
+        if (!headClosed) {
+            head[headLength++] = id;
+            headClosed = id == STOP || headLength == head.length;
+        }
+        advance(id);
+    }
+
+    /**
+     * Moves the window past a word and counts the n-gram it completes.
+     */
+    private void advance(int id) {
+        if (id == STOP) {
+            run = 0;
+            return;
+        }
+        int longest = Math.min(run + 1, length);
+        // Longest first: each gram extends the one a word shorter that ended at the previous word.
+        for (int k = longest; k >= 2; k--) {
+            grams[k] = levels[k].add(NGramTable.pack(grams[k - 1], id), k == length ? 1 : 0);
+        }
+        grams[1] = id;
+        run = longest;
+    }
+
+    /**
+     * Merges the counts of two adjacent chunks, {@code left} preceding {@code right}, folding the smaller into the
+     * larger.
+     *
+     * @return The merged counts (one of the arguments).
+     */
+    static NGramCounts merge(NGramCounts left, NGramCounts right) {
+        boolean intoLeft = left.size() >= right.size();
+        NGramCounts target = intoLeft ? left : right;
+        int[][] remap = target.addAll(intoLeft ? right : left);
+
+        int leftRun = left.run;
+        int[] leftGrams = left.gramsIn(intoLeft ? null : remap);
+        int[] leftHead = left.headIn(intoLeft ? null : remap);
+        int leftHeadLength = left.headLength;
+        boolean leftHeadClosed = left.headClosed;
+        int rightRun = right.run;
+        int[] rightGrams = right.gramsIn(intoLeft ? remap : null);
+        int[] rightHead = right.headIn(intoLeft ? remap : null);
+        int rightHeadLength = right.headLength;
+        boolean rightHeadClosed = right.headClosed;
+
+        // The n-grams spanning the boundary end within the head of the right chunk: continue the window of the left
+        // chunk over it. The right chunk counted none of them, as its own window was still too short.
+        target.run = leftRun;
+        target.grams = leftGrams;
+        for (int i = 0; i < rightHeadLength; i++) {
+            target.advance(rightHead[i]);
+        }
+        if (rightHeadClosed) {
+            // The window at the end lies within the right chunk.
+            target.run = rightRun;
+            target.grams = rightGrams;
+        }
+
+        for (int i = 0; !leftHeadClosed && i < rightHeadLength; i++) {
+            leftHead[leftHeadLength++] = rightHead[i];
+            leftHeadClosed = rightHead[i] == STOP || leftHeadLength == leftHead.length;
+        }
+        target.head = leftHead;
+        target.headLength = leftHeadLength;
+        target.headClosed = leftHeadClosed;
+        return target;
+    }
+
+    /**
+     * Adds the words and n-grams of another chunk to these counts, ignoring the boundary.
+     *
+     * @return Per length, the id here of every id of the other chunk.
+     */
+    private int[][] addAll(NGramCounts other) {
+        int[][] remap = new int[length + 1][];
+        remap[1] = new int[other.words.size()];
+        byte[] scratch = new byte[64];
+        for (int id = 0; id < remap[1].length; id++) {
+            int wordLength = other.words.lengthAt(id);
+            if (scratch.length < wordLength) {
+                scratch = new byte[Math.max(wordLength, scratch.length * 2)];
+            }
+            other.words.copyWord(id, scratch);
+            remap[1][id] = words.add(scratch, wordLength, other.words.hashAt(id), other.words.countAt(id));
+        }
+        // Shorter grams first, since a key holds the id of its prefix.
+        for (int k = 2; k <= length; k++) {
+            NGramTable grams = other.levels[k];
+            remap[k] = new int[grams.size()];
+            for (int id = 0; id < remap[k].length; id++) {
+                long key = grams.keyAt(id);
+                remap[k][id] = levels[k].add(NGramTable.pack(remap[k - 1][NGramTable.prefixOf(key)],
+                        remap[1][NGramTable.wordOf(key)]), grams.countAt(id));
+            }
+        }
+        return remap;
+    }
+
+    private int[] gramsIn(int[][] remap) {
+        int[] result = grams.clone();
+        if (remap != null) {
+            for (int k = 1; k <= run; k++) {
+                result[k] = remap[k][grams[k]];
+            }
+        }
+        return result;
+    }
+
+    private int[] headIn(int[][] remap) {
+        int[] result = head.clone();
+        if (remap != null) {
+            for (int i = 0; i < headLength; i++) {
+                result[i] = head[i] == STOP ? STOP : remap[1][head[i]];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of distinct n-grams.
+     */
+    int size() {
+        return length == 1 ? words.size() : levels[length].size();
+    }
+
+    /**
+     * Returns the highest count of any n-gram, or 0 if there is none.
+     */
+    int maxCount() {
+        return length == 1 ? words.maxCount() : levels[length].maxCount();
+    }
+
+    private int countAt(int id) {
+        return length == 1 ? words.countAt(id) : levels[length].countAt(id);
+    }
+
+    /**
+     * Spells out the n-grams that can rank among the {@code n} most frequent ones, i.e. those counted at least as often
+     * as the n-th most frequent, as phrases of words separated by single spaces. Ranking the returned table with
+     * {@link TopWords} orders phrases by count, then word by word, as a space sorts before any word byte.
+     */
+    WordCountTable toTable(int n) {
+        int size = size();
+        int minCount = n >= size ? 1 : nthHighestCount(n);
+        WordCountTable phrases = new WordCountTable(Math.min(size, Math.max(n, 16)));
+        int[] path = new int[length];
+        byte[] phrase = new byte[64];
+        byte[] scratch = new byte[64];
+        for (int id = 0; id < size; id++) {
+            int count = countAt(id);
+            if (count < minCount) {
+                continue;
+            }
+
+            // Walk down the prefixes to the word ids, last word first.
+            int gram = id;
+            for (int k = length; k >= 2; k--) {
+                long key = levels[k].keyAt(gram);
+                path[k - 1] = NGramTable.wordOf(key);
+                gram = NGramTable.prefixOf(key);
+            }
+            path[0] = gram;
+
+            int phraseLength = length - 1;
+            for (int word : path) {
+                phraseLength += words.lengthAt(word);
+            }
+            if (phrase.length < phraseLength) {
+                phrase = new byte[Math.max(phraseLength, phrase.length * 2)];
+            }
+            int position = 0;
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    phrase[position++] = ' ';
+                }
+                int wordLength = words.lengthAt(path[i]);
+                if (scratch.length < wordLength) {
+                    scratch = new byte[Math.max(wordLength, scratch.length * 2)];
+                }
+                words.copyWord(path[i], scratch);
+                System.arraycopy(scratch, 0, phrase, position, wordLength);
+                position += wordLength;
+            }
+            phrases.add(phrase, phraseLength, WordHash.hash(phrase, phraseLength), count);
+        }
+        return phrases;
+    }
+
+    /**
+     * Returns the n-th highest count ({@code 1 <= n < size()}), by quickselect over a copy of the counts.
+     */
+    private int nthHighestCount(int n) {
+        int[] counts = new int[size()];
+        for (int id = 0; id < counts.length; id++) {
+            counts[id] = countAt(id);
+        }
+        // The n-th highest is the (size - n)-th lowest, 0-based.
+        int k = counts.length - n;
+        int low = 0;
+        int high = counts.length - 1;
+        while (low < high) {
+            int pivot = counts[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (counts[i] < pivot) {
+                    i++;
+                }
+                while (counts[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = counts[i];
+                    counts[i++] = counts[j];
+                    counts[j--] = swap;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                break;
+            }
+        }
+        return counts[k];
+    }
+}
@@ -0,0 +1,123 @@
+package com.anva.services;
+
+import java.util.Arrays;
+
+/**
+ * Count table keyed by packed {@code long} n-gram keys (see {@link NGramCounts}).
+ * <p>
+ * Like {@link WordCountTable}, entries are stored densely (ids {@code 0..size-1}) in parallel primitive arrays behind an
+ * open-addressing index with linear probing, so adding an n-gram allocates nothing but the occasional array growth:
+ * a key is compared as one {@code long}, with no word bytes and no String. Not thread-safe.
+ */
+final class NGramTable {
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    // Open-addressing index: entry id + 1, or 0 for a free slot.
+    private int[] index;
+    private int mask;
+
+    NGramTable(int expectedSize) {
+        int capacity = Math.max(4, expectedSize);
+        this.keys = new long[capacity];
+        this.counts = new int[capacity];
+        int indexCapacity = Integer.highestOneBit(Math.max(8, capacity * 2 - 1)) << 1;
+        this.index = new int[indexCapacity];
+        this.mask = indexCapacity - 1;
+    }
+
+    /**
+     * Packs two ids into a key: the id of the (n-1)-gram prefix in the high half, the id of the last word in the low.
+     */
+    static long pack(int prefix, int word) {
+        return (long) prefix << 32 | (word & 0xFFFFFFFFL);
+    }
+
+    static int prefixOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int wordOf(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Adds {@code count} occurrences of a key (0 only makes sure it has an entry).
+     *
+     * @return The entry id of the key.
+     */
+    int add(long key, int count) {
+        int slot = slot(key, mask);
+        int entry;
+        while ((entry = index[slot]) != 0) {
+            int id = entry - 1;
+            if (keys[id] == key) {
+                counts[id] += count;
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        int id = size++;
+        keys[id] = key;
+        counts[id] = count;
+        index[slot] = id + 1;
+        if (size * 2 > index.length) {
+            rehash(index.length * 2);
+        }
+        return id;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long keyAt(int id) {
+        return keys[id];
+    }
+
+    int countAt(int id) {
+        return counts[id];
+    }
+
+    /**
+     * Returns the highest count of any key, or 0 if the table is empty.
+     */
+    int maxCount() {
+        int max = 0;
+        for (int id = 0; id < size; id++) {
+            max = Math.max(max, counts[id]);
+        }
+        return max;
+    }
+
+    /**
+     * Spreads the key bits (the finalizer of MurmurHash3's 64-bit variant), since word ids are small and dense.
+     */
+    private static int slot(long key, int mask) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    private void rehash(int indexCapacity) {
+        int[] newIndex = new int[indexCapacity];
+        int newMask = indexCapacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = slot(keys[id], newMask);
+            while (newIndex[slot] != 0) {
+                slot = (slot + 1) & newMask;
+            }
+            newIndex[slot] = id + 1;
+        }
+        index = newIndex;
+        mask = newMask;
+    }
+}
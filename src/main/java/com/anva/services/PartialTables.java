@@ -0,0 +1,144 @@
+package com.anva.services;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of a {@link WordCountTable}, used to ship the partial counts of a shard between instances.
+ * <p>
+ * Layout: the magic number {@code "ANVT"} (big-endian int), a version byte, the number of entries as a varint, then
+ * per entry the word length (varint), the lower-cased UTF-8 word bytes and the count (varint). Varints are unsigned
+ * LEB128, so a typical entry costs its word bytes plus two or three bytes. Encoded tables are self-delimiting and can
+ * be concatenated.
+ * <p>
+ * Decoding adds every entry to a target table, so any number of partial tables is merged while it is read, without
+ * materializing them. Malformed input (a wrong header, a word that the tokenizer could not have produced, a truncated
+ * stream) is rejected with a {@link StreamCorruptedException} or {@link EOFException}.
+ */
+final class PartialTables {
+
+    static final int MAGIC = 0x414E5654;
+    static final int VERSION = 1;
+
+    private PartialTables() {
+    }
+
+    /**
+     * Writes a table to the stream; the stream is neither flushed nor closed.
+     */
+    static void write(WordCountTable table, OutputStream out) throws IOException {
+        out.write(MAGIC >>> 24);
+        out.write(MAGIC >>> 16);
+        out.write(MAGIC >>> 8);
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeVarint(out, table.size());
+
+        byte[] word = new byte[64];
+        for (int id = 0; id < table.size(); id++) {
+            int length = table.lengthAt(id);
+            if (word.length < length) {
+                word = new byte[Math.max(length, word.length * 2)];
+            }
+            table.copyWord(id, word);
+            writeVarint(out, length);
+            out.write(word, 0, length);
+            writeVarint(out, table.countAt(id));
+        }
+    }
+
+    /**
+     * Reads every table in the stream, up to its end, and adds their entries to {@code target}.
+     *
+     * @return The number of tables read.
+     */
+    static int readAll(InputStream in, WordCountTable target) throws IOException {
+        int tables = 0;
+        byte[] word = new byte[64];
+        int first;
+        while ((first = in.read()) != -1) {
+            int magic = first << 24 | readByte(in) << 16 | readByte(in) << 8 | readByte(in);
+            if (magic != MAGIC) {
+                throw new StreamCorruptedException("Not a word count table");
+            }
+            int version = readByte(in);
+            if (version != VERSION) {
+                throw new StreamCorruptedException("Unsupported word count table version: " + version);
+            }
+
+            int size = readVarint(in);
+            for (int i = 0; i < size; i++) {
+                int length = readVarint(in);
+                if (length == 0) {
+                    throw new StreamCorruptedException("Malformed word count table: empty word");
+                }
+                word = readWord(in, word, length);
+                int count = readVarint(in);
+                target.add(word, length, WordHash.hash(word, length), count);
+            }
+            tables++;
+        }
+        return tables;
+    }
+
+    /**
+     * Reads a word into the buffer, growing it only as the bytes actually arrive, so that a corrupt length cannot
+     * allocate more than twice the size of the input.
+     */
+    private static byte[] readWord(InputStream in, byte[] buffer, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            if (read == buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(length, buffer.length * 2L));
+            }
+            int n = in.read(buffer, read, Math.min(length, buffer.length) - read);
+            if (n < 0) {
+                throw new EOFException("Truncated word count table");
+            }
+            read += n;
+        }
+        for (int i = 0; i < length; i++) {
+            int b = buffer[i];
+            // ASCII bytes must be letters; bytes of multi-byte sequences come from the Unicode tokenizer.
+            if (b >= 0 && (b < 'a' || b > 'z')) {
+                throw new StreamCorruptedException("Malformed word count table: invalid word byte " + b);
+            }
+        }
+        return buffer;
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte(in);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed word count table: invalid varint");
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Truncated word count table");
+        }
+        return b;
+    }
+}
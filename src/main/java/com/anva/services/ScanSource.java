@@ -0,0 +1,67 @@
+package com.anva.services;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A text that the {@link WordCountEngine} can cut into ranges and scan independently, either a {@link CharSequence} or
+ * UTF-8 bytes (e.g. a memory-mapped file region).
+ */
+interface ScanSource {
+
+    /**
+     * Returns the length of the text in chars or bytes.
+     */
+    int length();
+
+    /**
+     * Returns the first index at or after {@code index} where the text can be cut without splitting a word of the given
+     * tokenizer.
+     */
+    int nextBoundary(TokenizerType type, int index);
+
+    /**
+     * Scans the words starting in {@code [from, to)}; see {@link Tokenizer#tokenize(CharSequence, int, int, WordSink)}.
+     */
+    void tokenize(Tokenizer tokenizer, int from, int to, WordSink sink);
+
+    static ScanSource of(CharSequence text) {
+        return new ScanSource() {
+            @Override
+            public int length() {
+                return text.length();
+            }
+
+            @Override
+            public int nextBoundary(TokenizerType type, int index) {
+                return type.nextBoundary(text, index);
+            }
+
+            @Override
+            public void tokenize(Tokenizer tokenizer, int from, int to, WordSink sink) {
+                tokenizer.tokenize(text, from, to, sink);
+            }
+        };
+    }
+
+    /**
+     * Wraps a buffer holding UTF-8 text in {@code [0, limit)}.
+     */
+    static ScanSource of(ByteBuffer bytes) {
+        return new ScanSource() {
+            @Override
+            public int length() {
+                return bytes.limit();
+            }
+
+            @Override
+            public int nextBoundary(TokenizerType type, int index) {
+                return type.nextBoundary(bytes, index);
+            }
+
+            @Override
+            public void tokenize(Tokenizer tokenizer, int from, int to, WordSink sink) {
+                tokenizer.tokenize(bytes, from, to, sink);
+            }
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package com.anva.services;
+
+import com.anva.models.interfaces.WordFrequency;
+import com.anva.services.interfaces.AnalysisRejectedException;
+import com.anva.services.interfaces.SessionAnalyzer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the SessionAnalyzer interface.
+ * <p>
+ * Sessions are held in memory as {@link AnalysisSession}s. A session that has been neither appended to nor queried for
+ * {@code anva.sessions.idle-timeout-seconds} is closed by a periodic sweep, or as soon as it is used again, whichever
+ * comes first. At most {@code anva.sessions.max-sessions} sessions are open at once; further sessions are rejected
+ * until one is closed or expires.
+ */
+@Service
+class SessionAnalyzerImpl implements SessionAnalyzer {
+
+    private final WordCountEngine engine;
+    private final int bufferSize;
+    private final long idleTimeoutNanos;
+    private final int maxSessions;
+    private final int retryAfterSeconds;
+    private final TrendingWordsTracker trending;
+    private final ScheduledExecutorService evictor;
+    private final Map<String, AnalysisSession> sessions = new ConcurrentHashMap<>();
+
+    SessionAnalyzerImpl(WordCountEngine engine, int bufferSize, long idleTimeoutSeconds) {
+        this(engine, bufferSize, idleTimeoutSeconds, TrendingWordsTracker.disabled());
+    }
+
+    SessionAnalyzerImpl(WordCountEngine engine, int bufferSize, long idleTimeoutSeconds,
+                        TrendingWordsTracker trending) {
+        this(engine, bufferSize, idleTimeoutSeconds, Integer.MAX_VALUE, 1, trending);
+    }
+
+    @Autowired
+    SessionAnalyzerImpl(WordCountEngine engine,
+                        @Value("${anva.analysis.stream-buffer-size:" + StreamWordScanner.DEFAULT_BUFFER_SIZE + "}") int bufferSize,
+                        @Value("${anva.sessions.idle-timeout-seconds:3600}") long idleTimeoutSeconds,
+                        @Value("${anva.sessions.max-sessions:1024}") int maxSessions,
+                        @Value("${anva.scheduler.retry-after-seconds:1}") int retryAfterSeconds,
+                        TrendingWordsTracker trending) {
+        this.engine = engine;
+        this.trending = trending;
+        this.bufferSize = bufferSize;
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+        this.maxSessions = maxSessions;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "anva-session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Sweep a few times per timeout, but neither more than once a second nor less than once a minute.
+        long sweepNanos = Math.min(Math.max(idleTimeoutNanos / 4, TimeUnit.SECONDS.toNanos(1)),
+                TimeUnit.MINUTES.toNanos(1));
+        evictor.scheduleWithFixedDelay(this::evict, sweepNanos, sweepNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        evictor.shutdownNow();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public synchronized String createSession() {
+        evict();
+        if (sessions.size() >= maxSessions) {
+            throw new AnalysisRejectedException(AnalysisRejectedException.Reason.QUEUE_FULL, retryAfterSeconds,
+                    "Too many analysis sessions are open");
+        }
+
+        String id = UUID.randomUUID().toString();
+        sessions.put(id, new AnalysisSession(engine.newTable(), bufferSize, engine.tokenizer()));
+        return id;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void append(String id, Reader text) throws IOException {
+        // Each append is recorded for the trending words as a document of its own.
+        WordCountTable appended = trending.isEnabled() ? engine.newTable() : null;
+        session(id).append(text, appended);
+        if (appended != null) {
+            trending.record(appended);
+        }
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateHighestFrequency(String id) {
+        return session(id).highestFrequency();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateFrequencyForWord(String id, String word) {
+        return session(id).frequencyOf(word);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public List<WordFrequency> calculateMostFrequentNWords(String id, int n) {
+        return session(id).mostFrequentWords(n);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public void closeSession(String id) {
+        if (sessions.remove(id) == null) {
+            throw new NoSuchElementException(id);
+        }
+    }
+
+    /**
+     * Returns the number of open sessions, including idle ones that were not swept yet.
+     */
+    int sessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Closes the sessions that have been idle for longer than the timeout.
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        sessions.values().removeIf(session -> isIdle(session, now));
+    }
+
+    private boolean isIdle(AnalysisSession session, long now) {
+        return now - session.lastAccess() > idleTimeoutNanos;
+    }
+
+    private AnalysisSession session(String id) {
+        AnalysisSession session = sessions.get(id);
+        if (session != null && isIdle(session, System.nanoTime())) {
+            sessions.remove(id, session);
+            session = null;
+        }
+        if (session == null) {
+            throw new NoSuchElementException(id);
+        }
+        return session;
+    }
+}
@@ -0,0 +1,292 @@
+package com.anva.services;
+
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.services.interfaces.ShardAnalyzer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Implementation of the ShardAnalyzer interface.
+ * <p>
+ * As coordinator, the text is read in pieces of {@code anva.shards.piece-size} characters, each cut right before an
+ * ASCII separator so that no word is split, and the pieces are sent round-robin to the peers. At most two pieces per
+ * peer are in flight, which bounds the memory of the coordinator whatever the size of the text. Each returned table is
+ * merged into the total as soon as it arrives.
+ * <p>
+ * Shards are only ever sent to the configured {@code anva.shards.peers}; a request may pick a subset of them, but never
+ * name another host. Every shard must be answered within {@code anva.shards.request-timeout-ms}. The first failed
+ * shard ends the analysis: no further pieces are sent and the requests still in flight are cancelled.
+ */
+@Service
+class ShardAnalyzerImpl implements ShardAnalyzer {
+
+    static final int DEFAULT_PIECE_SIZE = 1 << 20;
+
+    static final long DEFAULT_REQUEST_TIMEOUT_MS = 60_000;
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    private final WordCountEngine engine;
+    private final List<URI> configuredPeers;
+    private final int pieceSize;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+
+    ShardAnalyzerImpl(WordCountEngine engine, String peers, int pieceSize) {
+        this(engine, peers, pieceSize, DEFAULT_REQUEST_TIMEOUT_MS);
+    }
+
+    @Autowired
+    ShardAnalyzerImpl(WordCountEngine engine,
+                      @Value("${anva.shards.peers:}") String peers,
+                      @Value("${anva.shards.piece-size:" + DEFAULT_PIECE_SIZE + "}") int pieceSize,
+                      @Value("${anva.shards.request-timeout-ms:" + DEFAULT_REQUEST_TIMEOUT_MS + "}")
+                      long requestTimeoutMs) {
+        this.engine = engine;
+        this.configuredPeers = Arrays.stream(peers.split(","))
+                .map(String::trim)
+                .filter(peer -> !peer.isEmpty())
+                .map(ShardAnalyzerImpl::normalize)
+                .toList();
+        this.pieceSize = Math.max(1, pieceSize);
+        this.requestTimeout = Duration.ofMillis(Math.max(1, requestTimeoutMs));
+        this.httpClient = HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public PartialTable countTable(String text) {
+        return new EncodedTable(engine.countWords(text));
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public PartialTable countTable(Reader text) throws IOException {
+        return new EncodedTable(engine.countWords(text));
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public AnalysisResult mergeTables(InputStream tables, AnalysisSpec spec) throws IOException {
+        checkTokenizer(spec);
+        WordCountTable total = engine.newTable();
+        if (PartialTables.readAll(tables, total) == 0) {
+            throw new IllegalArgumentException("No word count tables to merge");
+        }
+        return AnalysisResults.of(engine, total, spec);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public AnalysisResult analyzeSharded(Reader text, List<URI> peers, AnalysisSpec spec)
+            throws IOException, InterruptedException {
+        checkTokenizer(spec);
+        List<URI> targets = selectPeers(peers);
+
+        WordCountTable total = engine.newTable();
+        Semaphore inFlight = new Semaphore(targets.size() * 2);
+        // Completed exceptionally by the first shard that fails.
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        List<CompletableFuture<HttpResponse<byte[]>>> requests = new ArrayList<>();
+        List<CompletableFuture<Void>> shards = new ArrayList<>();
+        Pieces pieces = new Pieces(text, pieceSize);
+        try {
+            String piece;
+            while (!failed.isDone() && (piece = pieces.next()) != null) {
+                inFlight.acquire();
+                if (failed.isDone()) {
+                    break;
+                }
+                URI target = targets.get(shards.size() % targets.size()).resolve(TABLE_PATH);
+                HttpRequest request = HttpRequest.newBuilder(target)
+                        .timeout(requestTimeout)
+                        .header("Content-Type", "text/plain; charset=UTF-8")
+                        .POST(HttpRequest.BodyPublishers.ofString(piece, StandardCharsets.UTF_8))
+                        .build();
+                CompletableFuture<HttpResponse<byte[]>> sent =
+                        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+                requests.add(sent);
+                shards.add(sent.thenAccept(response -> merge(target, response, total))
+                        .whenComplete((ignored, failure) -> {
+                            if (failure != null) {
+                                failed.completeExceptionally(failure);
+                            }
+                            inFlight.release();
+                        }));
+            }
+
+            CompletableFuture.anyOf(failed, CompletableFuture.allOf(shards.toArray(CompletableFuture[]::new))).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while ((cause instanceof CompletionException || cause instanceof UncheckedIOException)
+                    && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Counting a shard failed", cause);
+        } finally {
+            // Nothing more is merged once the analysis has failed; the requests still in flight are abandoned.
+            requests.forEach(request -> request.cancel(true));
+        }
+        return AnalysisResults.of(engine, total, spec);
+    }
+
+    /**
+     * Returns the peers a request asked for, which must all be configured, or the configured peers if it asked for
+     * none; shards are never sent to any other host.
+     */
+    private List<URI> selectPeers(List<URI> peers) {
+        if (configuredPeers.isEmpty()) {
+            throw new IllegalArgumentException("No peers to count the shards - set anva.shards.peers");
+        }
+        if (peers.isEmpty()) {
+            return configuredPeers;
+        }
+        List<URI> selected = new ArrayList<>(peers.size());
+        for (URI peer : peers) {
+            URI normalized = normalize(peer.toString());
+            if (!configuredPeers.contains(normalized)) {
+                throw new IllegalArgumentException("Peer is not configured in anva.shards.peers: " + peer);
+            }
+            selected.add(normalized);
+        }
+        return selected;
+    }
+
+    /**
+     * Parses the base URI of a peer, ignoring a trailing slash and the case of the scheme and host.
+     */
+    private static URI normalize(String peer) {
+        URI uri = URI.create(peer.endsWith("/") ? peer.substring(0, peer.length() - 1) : peer).normalize();
+        if (uri.getScheme() == null || uri.getHost() == null) {
+            throw new IllegalArgumentException("Peer must be an absolute http(s) URL: " + peer);
+        }
+        try {
+            return new URI(uri.getScheme().toLowerCase(Locale.ROOT), uri.getUserInfo(),
+                    uri.getHost().toLowerCase(Locale.ROOT), uri.getPort(), uri.getPath(), null, null);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Peer must be an absolute http(s) URL: " + peer, e);
+        }
+    }
+
+    /**
+     * Peers count with their configured tokenizer, which is assumed to be the same on every instance.
+     */
+    private void checkTokenizer(AnalysisSpec spec) {
+        if (AnalysisResults.engineFor(engine, spec) != engine) {
+            throw new IllegalArgumentException("Sharded analyses use the configured tokenizer");
+        }
+    }
+
+    private static void merge(URI peer, HttpResponse<byte[]> response, WordCountTable total) {
+        if (response.statusCode() != 200) {
+            // The body of the error is not passed on: it is the peer's business, not the client's.
+            throw new UncheckedIOException(new IOException("Peer " + peer + " answered " + response.statusCode()));
+        }
+        try {
+            synchronized (total) {
+                PartialTables.readAll(new ByteArrayInputStream(response.body()), total);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record EncodedTable(WordCountTable table) implements PartialTable {
+        @Override
+        public int size() {
+            return table.size();
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            PartialTables.write(table, out);
+        }
+    }
+
+    /**
+     * Reads a text in pieces that end right before an ASCII separator (or at the end of the text), so that scanning the
+     * pieces separately finds the words of the whole text. A piece without any separator grows until it has one.
+     */
+    static final class Pieces {
+        private final Reader reader;
+        private char[] buffer;
+        private int filled;
+        private boolean end;
+
+        Pieces(Reader reader, int size) {
+            this.reader = reader;
+            this.buffer = new char[size];
+        }
+
+        /**
+         * Returns the next piece, or null at the end of the text.
+         */
+        String next() throws IOException {
+            while (true) {
+                while (!end && filled < buffer.length) {
+                    int read = reader.read(buffer, filled, buffer.length - filled);
+                    if (read < 0) {
+                        end = true;
+                    } else {
+                        filled += read;
+                    }
+                }
+                if (filled == 0) {
+                    return null;
+                }
+
+                int cut = filled;
+                if (!end) {
+                    // The separator itself starts the next piece.
+                    cut = filled - 1;
+                    while (cut > 0 && !WordTokenizer.isAsciiSeparator(buffer[cut])) {
+                        cut--;
+                    }
+                    if (cut == 0) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                        continue;
+                    }
+                }
+                String piece = new String(buffer, 0, cut);
+                System.arraycopy(buffer, cut, buffer, 0, filled - cut);
+                filled -= cut;
+                return piece;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.anva.services;
+
+import java.util.Arrays;
+
+/**
+ * Counts the occurrences of a single normalized word by comparing each token in place; no table is needed.
+ */
+final class SingleWordCounter implements WordSink {
+    private final byte[] target;
+    private final int targetHash;
+    private int frequency;
+
+    SingleWordCounter(byte[] target) {
+        this(target, WordHash.hash(target, target.length));
+    }
+
+    private SingleWordCounter(byte[] target, int targetHash) {
+        this.target = target;
+        this.targetHash = targetHash;
+    }
+
+    @Override
+    public void onWord(byte[] word, int length, int hash) {
+        if (hash == targetHash && length == target.length && Arrays.equals(word, 0, length, target, 0, length)) {
+            frequency++;
+        }
+    }
+
+    /**
+     * Returns an empty counter for the same word, e.g. for another chunk of the text.
+     */
+    SingleWordCounter newCounter() {
+        return new SingleWordCounter(target, targetHash);
+    }
+
+    SingleWordCounter merge(SingleWordCounter other) {
+        frequency += other.frequency;
+        return this;
+    }
+
+    int frequency() {
+        return frequency;
+    }
+}
@@ -0,0 +1,365 @@
+package com.anva.services;
+
+import java.util.Arrays;
+
+/**
+ * Space-Saving summary (Metwally et al.): approximate word counts in a fixed number of counters, whatever the size of
+ * the vocabulary.
+ * <p>
+ * A word that has a counter is counted exactly from then on. A new word takes over the counter with the lowest count
+ * {@code min}, starting at {@code min + 1} and remembering {@code min} as its possible overestimation. With {@code k}
+ * counters after {@code N} words, every count is at most {@code N / k} too high, never too low, and every word that
+ * occurs more than {@code N / k} times has a counter. While the vocabulary fits into the counters, the counts are exact.
+ * <p>
+ * The counter with the lowest count is found through a min-heap, and words are found through an open-addressing
+ * index, so a word costs one probe and, for a hit, a short sift. Each counter keeps its word bytes in a reused array,
+ * so counting allocates nothing once the counters are filled. The counters are allocated as words arrive, doubling up
+ * to the capacity, so a summary of a text with a small vocabulary stays small whatever its capacity.
+ * <p>
+ * Summaries of disjoint parts of a text are merged (Agarwal et al., "Mergeable Summaries"): a word missing from one
+ * summary is assumed to occur there as often as it may without a counter (its lowest count, or 0 while it is exact),
+ * and the {@code k} highest of the combined counts are kept. The merged summary keeps the {@code N / k} bound for the
+ * combined text, so the parts can be counted in parallel. Not thread-safe.
+ */
+final class SpaceSaving implements WordSink {
+
+    /**
+     * Upper limit on the number of counters, which bounds the memory of one summary.
+     */
+    static final int MAX_CAPACITY = 1 << 20;
+
+    // Counters allocated up front; more are allocated as words arrive.
+    private static final int INITIAL_SLOTS = 64;
+
+    private final int capacity;
+    private byte[][] words;
+    private int[] lengths;
+    private int[] hashes;
+    private int[] counts;
+    private int[] errors;
+    private int size;
+    private long total;
+    // Whether a word ever lost its counter; until then every count is exact.
+    private boolean overflowed;
+
+    // Min-heap of slots by count, and the heap position of each slot.
+    private int[] heap;
+    private int[] heapIndex;
+
+    // Open-addressing index: slot + 1, or 0 for a free position.
+    private int[] index;
+    private int mask;
+
+    SpaceSaving(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Counters must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        this.capacity = capacity;
+        int slots = Math.min(capacity, INITIAL_SLOTS);
+        this.words = new byte[slots][];
+        this.lengths = new int[slots];
+        this.hashes = new int[slots];
+        this.counts = new int[slots];
+        this.errors = new int[slots];
+        this.heap = new int[slots];
+        this.heapIndex = new int[slots];
+        resizeIndex(slots);
+    }
+
+    /**
+     * Returns the number of counters needed to overestimate no count by more than {@code epsilon} times the number of
+     * words.
+     *
+     * @throws IllegalArgumentException If {@code epsilon} is not in (0, 1) or needs more than {@link #MAX_CAPACITY}
+     *                                  counters.
+     */
+    static int capacityFor(double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("Epsilon must be between 0 and 1: " + epsilon);
+        }
+        double capacity = Math.ceil(1 / epsilon);
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Epsilon must be at least " + 1.0 / MAX_CAPACITY + ": " + epsilon);
+        }
+        return (int) capacity;
+    }
+
+    @Override
+    public void onWord(byte[] word, int length, int hash) {
+        add(word, length, hash, 1);
+    }
+
+    /**
+     * Counts {@code count} occurrences of a word at once (weighted Space-Saving): a word without a counter takes over
+     * the lowest one like a single occurrence does, starting at {@code min + count}. The error bound is the same as for
+     * adding the occurrences one by one.
+     */
+    void add(byte[] word, int length, int hash, int count) {
+        total += count;
+        int slot = find(word, length, hash);
+        if (slot >= 0) {
+            counts[slot] += count;
+            siftDown(heapIndex[slot]);
+            return;
+        }
+
+        if (size < capacity) {
+            ensureSlots(size + 1);
+            slot = size++;
+            store(slot, word, length, hash, count, 0);
+            heap[slot] = slot;
+            heapIndex[slot] = slot;
+            siftUp(slot);
+        } else {
+            // Take over the counter with the lowest count.
+            slot = heap[0];
+            int min = counts[slot];
+            overflowed = true;
+            removeFromIndex(slot);
+            store(slot, word, length, hash, min + count, min);
+            siftDown(0);
+        }
+        insertIntoIndex(slot);
+    }
+
+    /**
+     * Merges another summary into this one.
+     *
+     * @return This summary.
+     */
+    SpaceSaving merge(SpaceSaving other) {
+        // The most a word without a counter may occur in each summary.
+        int minThis = maxError();
+        int minOther = other.maxError();
+
+        int candidates = size + other.size;
+        byte[][] candidateWords = new byte[candidates][];
+        int[] candidateLengths = new int[candidates];
+        int[] candidateHashes = new int[candidates];
+        int[] candidateCounts = new int[candidates];
+        int[] candidateErrors = new int[candidates];
+        int n = 0;
+        for (int slot = 0; slot < size; slot++) {
+            int match = other.find(words[slot], lengths[slot], hashes[slot]);
+            candidateWords[n] = words[slot];
+            candidateLengths[n] = lengths[slot];
+            candidateHashes[n] = hashes[slot];
+            candidateCounts[n] = counts[slot] + (match >= 0 ? other.counts[match] : minOther);
+            candidateErrors[n++] = errors[slot] + (match >= 0 ? other.errors[match] : minOther);
+        }
+        for (int slot = 0; slot < other.size; slot++) {
+            if (find(other.words[slot], other.lengths[slot], other.hashes[slot]) < 0) {
+                candidateWords[n] = other.words[slot];
+                candidateLengths[n] = other.lengths[slot];
+                candidateHashes[n] = other.hashes[slot];
+                candidateCounts[n] = other.counts[slot] + minThis;
+                candidateErrors[n++] = other.errors[slot] + minThis;
+            }
+        }
+
+        // Keep the highest counts: sort (count, candidate) pairs packed into longs.
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = ((long) candidateCounts[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        ensureSlots(Math.min(n, capacity));
+        Arrays.fill(index, 0);
+        Arrays.fill(words, null);
+        size = 0;
+        for (int i = n - 1; i >= 0 && size < capacity; i--) {
+            int candidate = (int) order[i];
+            int slot = size++;
+            store(slot, candidateWords[candidate], candidateLengths[candidate], candidateHashes[candidate],
+                    candidateCounts[candidate], candidateErrors[candidate]);
+            insertIntoIndex(slot);
+        }
+        // Slots were filled by descending count, so reversing them yields a valid min-heap.
+        for (int i = 0; i < size; i++) {
+            heap[i] = size - 1 - i;
+            heapIndex[size - 1 - i] = i;
+        }
+        total += other.total;
+        overflowed |= other.overflowed || n > capacity;
+        return this;
+    }
+
+    /**
+     * Returns the number of words counted.
+     */
+    long total() {
+        return total;
+    }
+
+    /**
+     * Returns the number of counters.
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of counters in use.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the most any count may be too high, which is also the most often a word without a counter may occur:
+     * the lowest count once a word has lost its counter, and 0 while all counts are exact.
+     */
+    int maxError() {
+        return overflowed ? counts[heap[0]] : 0;
+    }
+
+    int countAt(int slot) {
+        return counts[slot];
+    }
+
+    /**
+     * Returns how much the count of a slot may be too high.
+     */
+    int errorAt(int slot) {
+        return errors[slot];
+    }
+
+    /**
+     * Copies the counted words into a table, in slot order, so that entry ids equal slots.
+     */
+    WordCountTable toTable() {
+        WordCountTable table = new WordCountTable(size);
+        for (int slot = 0; slot < size; slot++) {
+            table.add(words[slot], lengths[slot], hashes[slot], counts[slot]);
+        }
+        return table;
+    }
+
+    private int find(byte[] word, int length, int hash) {
+        int position = hash & mask;
+        int entry;
+        while ((entry = index[position]) != 0) {
+            int slot = entry - 1;
+            if (hashes[slot] == hash && lengths[slot] == length
+                    && Arrays.equals(words[slot], 0, length, word, 0, length)) {
+                return slot;
+            }
+            position = (position + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void store(int slot, byte[] word, int length, int hash, int count, int error) {
+        byte[] bytes = words[slot];
+        if (bytes == null || bytes.length < length) {
+            bytes = words[slot] = new byte[Math.max(16, length)];
+        }
+        System.arraycopy(word, 0, bytes, 0, length);
+        lengths[slot] = length;
+        hashes[slot] = hash;
+        counts[slot] = count;
+        errors[slot] = error;
+    }
+
+    /**
+     * Makes room for at least {@code slots} counters, doubling the arrays (up to the capacity) and rebuilding the index.
+     */
+    private void ensureSlots(int slots) {
+        if (slots <= counts.length) {
+            return;
+        }
+        int grown = (int) Math.min(capacity, Math.max(slots, 2L * counts.length));
+        words = Arrays.copyOf(words, grown);
+        lengths = Arrays.copyOf(lengths, grown);
+        hashes = Arrays.copyOf(hashes, grown);
+        counts = Arrays.copyOf(counts, grown);
+        errors = Arrays.copyOf(errors, grown);
+        heap = Arrays.copyOf(heap, grown);
+        heapIndex = Arrays.copyOf(heapIndex, grown);
+        resizeIndex(grown);
+        for (int slot = 0; slot < size; slot++) {
+            insertIntoIndex(slot);
+        }
+    }
+
+    /**
+     * Allocates an empty index with at least twice as many positions as {@code slots}, so probe sequences stay short.
+     */
+    private void resizeIndex(int slots) {
+        int indexCapacity = Integer.highestOneBit(Math.max(4, slots) * 2 - 1) << 1;
+        index = new int[indexCapacity];
+        mask = indexCapacity - 1;
+    }
+
+    private void insertIntoIndex(int slot) {
+        int position = hashes[slot] & mask;
+        while (index[position] != 0) {
+            position = (position + 1) & mask;
+        }
+        index[position] = slot + 1;
+    }
+
+    /**
+     * Removes a slot from the index, shifting later entries of its probe sequence back so that no lookup stops early.
+     */
+    private void removeFromIndex(int slot) {
+        int hole = hashes[slot] & mask;
+        while (index[hole] != slot + 1) {
+            hole = (hole + 1) & mask;
+        }
+        int position = hole;
+        while (true) {
+            position = (position + 1) & mask;
+            int entry = index[position];
+            if (entry == 0) {
+                break;
+            }
+            int home = hashes[entry - 1] & mask;
+            // Move the entry into the hole unless its home lies cyclically within (hole, position].
+            boolean reachable = hole <= position ? home > hole && home <= position : home > hole || home <= position;
+            if (!reachable) {
+                index[hole] = entry;
+                hole = position;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    private void siftUp(int position) {
+        int slot = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[slot]) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(slot, position);
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[heap[child]] >= counts[slot]) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(slot, position);
+    }
+
+    private void place(int slot, int position) {
+        heap[position] = slot;
+        heapIndex[slot] = position;
+    }
+}
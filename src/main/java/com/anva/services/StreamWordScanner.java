@@ -0,0 +1,134 @@
+package com.anva.services;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Feeds a text that arrives in pieces (a {@link Reader}, or appended chunks) through a {@link Tokenizer} using a
+ * bounded buffer, so memory does not grow with the size of the text.
+ * <p>
+ * Whenever the buffer is drained, only the prefix up to the last "safe" character is tokenized: a character that no
+ * word of the tokenizer can continue through (see {@link TokenizerType#isStreamCut(char)}). Such a character decides
+ * on its own whether it is a word boundary, so every word before it can be completed, and it is kept at the front of
+ * the buffer as left context for the words after it. A word split across pieces is therefore counted once, exactly as
+ * in the unsplit text.
+ * <p>
+ * The buffer only grows when it holds no safe character at all, i.e. for a single word longer than the buffer.
+ */
+final class StreamWordScanner {
+
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final TokenizerType type;
+    private final Tokenizer tokenizer;
+    private final WordSink sink;
+    private char[] buffer;
+    private int filled;
+    private long length;
+
+    StreamWordScanner(WordSink sink, int bufferSize) {
+        this(sink, bufferSize, TokenizerType.ASCII);
+    }
+
+    StreamWordScanner(WordSink sink, int bufferSize, TokenizerType type) {
+        this.type = type;
+        this.tokenizer = type.newTokenizer();
+        this.sink = sink;
+        this.buffer = new char[Math.max(2, bufferSize)];
+    }
+
+    /**
+     * Reads the reader to its end and tokenizes everything, including the final word.
+     * <p>
+     * Only the tokenizing of each full buffer is admitted by the scheduler, never the reads: a reader fed by a slow
+     * client blocks without holding analysis capacity, and releases it after every buffer.
+     */
+    @SuppressWarnings("try") // The permit is only held, never referenced.
+    void scan(Reader reader, AnalysisScheduler scheduler) throws IOException {
+        int read;
+        while ((read = reader.read(buffer, filled, buffer.length - filled)) != -1) {
+            filled += read;
+            length += read;
+            if (filled == buffer.length) {
+                try (AnalysisScheduler.Permit permit = scheduler.admit()) {
+                    drain();
+                }
+            }
+        }
+        try (AnalysisScheduler.Permit permit = scheduler.admit()) {
+            finish();
+        }
+    }
+
+    /**
+     * Appends a piece of text. Every word that can no longer be changed by what follows is reported to the sink; a
+     * trailing word is held back until the next piece (or {@link #finish()}) shows where it ends.
+     */
+    void append(CharSequence chunk) {
+        int offset = 0;
+        int length = chunk.length();
+        while (offset < length) {
+            int count = Math.min(length - offset, buffer.length - filled);
+            for (int i = 0; i < count; i++) {
+                buffer[filled + i] = chunk.charAt(offset + i);
+            }
+            filled += count;
+            offset += count;
+            this.length += count;
+            if (filled == buffer.length) {
+                drain();
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Tokenizes whatever is left as the end of the text.
+     */
+    void finish() {
+        tokenizer.tokenize(CharBuffer.wrap(buffer, 0, filled), 0, filled, sink);
+        filled = 0;
+    }
+
+    /**
+     * Reports the words of the text held back so far to {@code sink}, as if the text ended here, but keeps that text:
+     * the next piece may still extend its last word.
+     */
+    void scanPending(WordSink sink) {
+        tokenizer.tokenize(CharBuffer.wrap(buffer, 0, filled), 0, filled, sink);
+    }
+
+    /**
+     * Returns the number of characters scanned so far.
+     */
+    long length() {
+        return length;
+    }
+
+    /**
+     * Returns the number of words reported to the sink so far.
+     */
+    long tokens() {
+        return tokenizer.tokens();
+    }
+
+    private void drain() {
+        int cut = filled - 1;
+        while (cut > 0 && !type.isStreamCut(buffer[cut])) {
+            cut--;
+        }
+
+        if (cut < 1) {
+            if (filled == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            return;
+        }
+
+        tokenizer.tokenize(CharBuffer.wrap(buffer, 0, filled), 0, cut, sink);
+        System.arraycopy(buffer, cut, buffer, 0, filled - cut);
+        filled -= cut;
+    }
+}
@@ -0,0 +1,40 @@
+package com.anva.services;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Finds the words of a text and reports them, normalized and hashed, to a {@link WordSink}.
+ * <p>
+ * A range {@code [from, to)} reports every word that starts in it: boundaries are evaluated against the whole text, so
+ * a word starting before {@code to} is reported in full even if it runs past {@code to}, and the tail of a word that
+ * started before {@code from} is skipped. Callers can therefore cut a text at the boundaries of its
+ * {@link TokenizerType} and scan the parts independently without losing or duplicating words.
+ * <p>
+ * Words are reported as their UTF-8 bytes. Implementations keep a reusable word buffer and a count of the words they
+ * reported, so an instance must not be shared between threads; each scan creates its own through
+ * {@link TokenizerType#newTokenizer()}.
+ */
+interface Tokenizer {
+
+    /**
+     * Scans {@code text[from, to)} and reports every word that starts in that range.
+     *
+     * @param text The text to scan.
+     * @param from Start index, inclusive.
+     * @param to   End index, exclusive.
+     * @param sink Receiver of the words found.
+     */
+    void tokenize(CharSequence text, int from, int to, WordSink sink);
+
+    /**
+     * Scans {@code bytes[from, to)} of a UTF-8 encoded text, with the same range semantics as
+     * {@link #tokenize(CharSequence, int, int, WordSink)}. The text is the buffer from index 0 to its limit; the buffer's
+     * position is ignored and left unchanged.
+     */
+    void tokenize(ByteBuffer bytes, int from, int to, WordSink sink);
+
+    /**
+     * Returns the number of words reported to sinks by this instance so far.
+     */
+    long tokens();
+}
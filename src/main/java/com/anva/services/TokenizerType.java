@@ -0,0 +1,124 @@
+package com.anva.services;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * The built-in {@link Tokenizer}s, and the rules that depend on which words a tokenizer can produce: how requested
+ * words are normalized, and where a text may be cut for parallel or streamed scanning.
+ * <p>
+ * A tokenizer is chosen with {@code anva.analysis.tokenizer}, or per request by its {@link #of(String) name}.
+ */
+enum TokenizerType {
+
+    /**
+     * Runs of ASCII letters with the word boundaries of the {@code \b[a-zA-Z]+\b} regex (see {@link WordTokenizer}).
+     * The default, and the fastest: byte input is classified in blocks with the Vector API when it is available.
+     */
+    ASCII {
+        @Override
+        Tokenizer newTokenizer() {
+            return new WordTokenizer();
+        }
+
+        @Override
+        byte[] normalize(String word) {
+            return WordTokenizer.normalize(word);
+        }
+
+        @Override
+        int nextBoundary(CharSequence text, int index) {
+            return WordTokenizer.nextBoundary(text, index);
+        }
+
+        @Override
+        int nextBoundary(ByteBuffer bytes, int index) {
+            return WordTokenizer.nextBoundary(bytes, index);
+        }
+
+        @Override
+        boolean isStreamCut(char c) {
+            if (c < 0x80) {
+                return !WordTokenizer.isAsciiLetter(c);
+            }
+            return !Character.isSurrogate(c) && Character.getType(c) != Character.NON_SPACING_MARK;
+        }
+    },
+
+    /**
+     * Runs of Unicode letters and combining marks, lower-cased per code point (see {@link UnicodeWordTokenizer}), so
+     * that words such as "café" or "straße" are counted whole instead of being split or dropped.
+     */
+    UNICODE {
+        @Override
+        Tokenizer newTokenizer() {
+            return new UnicodeWordTokenizer();
+        }
+
+        @Override
+        byte[] normalize(String word) {
+            return UnicodeWordTokenizer.normalize(word);
+        }
+
+        @Override
+        int nextBoundary(CharSequence text, int index) {
+            return UnicodeWordTokenizer.nextBoundary(text, index);
+        }
+
+        @Override
+        int nextBoundary(ByteBuffer bytes, int index) {
+            return UnicodeWordTokenizer.nextBoundary(bytes, index);
+        }
+
+        @Override
+        boolean isStreamCut(char c) {
+            if (c < 0x80) {
+                return !WordTokenizer.isAsciiLetter(c);
+            }
+            return !Character.isSurrogate(c) && !UnicodeWordTokenizer.isRunChar(c);
+        }
+    };
+
+    /**
+     * Creates a tokenizer for one thread.
+     */
+    abstract Tokenizer newTokenizer();
+
+    /**
+     * Converts a word into the form this tokenizer reports it in.
+     *
+     * @return The normalized UTF-8 bytes of the word, or {@code null} if the tokenizer could never produce it.
+     */
+    abstract byte[] normalize(String word);
+
+    /**
+     * Returns the first index at or after {@code index} where the text can be cut without splitting a word.
+     */
+    abstract int nextBoundary(CharSequence text, int index);
+
+    /**
+     * Byte counterpart of {@link #nextBoundary(CharSequence, int)} for UTF-8 text.
+     */
+    abstract int nextBoundary(ByteBuffer bytes, int index);
+
+    /**
+     * Returns whether a streamed text may be cut right before this character, keeping it as the left context of what
+     * follows: the character decides on its own that no word continues through it.
+     */
+    abstract boolean isStreamCut(char c);
+
+    /**
+     * Returns the tokenizer with the given name, case-insensitively.
+     *
+     * @throws IllegalArgumentException If there is no such tokenizer.
+     */
+    static TokenizerType of(String name) {
+        for (TokenizerType type : values()) {
+            if (type.name().equalsIgnoreCase(name.trim())) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown tokenizer: " + name + " (expected "
+                + ASCII.name().toLowerCase(Locale.ROOT) + " or " + UNICODE.name().toLowerCase(Locale.ROOT) + ")");
+    }
+}
@@ -0,0 +1,310 @@
+package com.anva.services;
+
+import com.anva.models.WordFrequencyImpl;
+import com.anva.models.interfaces.WordFrequency;
+import com.anva.services.interfaces.RankedWords;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Selects the most frequent words of a {@link WordCountTable}, ordered by frequency descending, then word ascending.
+ * <p>
+ * Selection works on entry ids and never sorts the whole vocabulary: for small {@code n} a bounded min-heap of size
+ * {@code n} keeps the best entries seen so far (O(V log n)); when {@code n} is large relative to the vocabulary,
+ * quickselect partitions the ids around the n-th entry in O(V) and only those {@code n} ids are sorted. Large
+ * vocabularies are split into id ranges that are selected in parallel; since the ranges hold disjoint words, merging
+ * their partial top-N lists gives the exact result.
+ */
+final class TopWords {
+
+    static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+    // Quickselect is used once n exceeds this fraction of the candidates; below it the heap does less work.
+    private static final int QUICKSELECT_RATIO = 8;
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private TopWords() {
+    }
+
+    /**
+     * Returns the ids of the {@code n} most frequent words, best first.
+     *
+     * @param table             The table to select from.
+     * @param n                 The number of words to select.
+     * @param pool              The pool used for large vocabularies.
+     * @param parallelThreshold The vocabulary size from which the selection runs in parallel.
+     */
+    static int[] select(WordCountTable table, int n, ForkJoinPool pool, int parallelThreshold) {
+        int size = table.size();
+        if (n <= 0 || size == 0) {
+            return new int[0];
+        }
+        if (size < parallelThreshold) {
+            return selectRange(table, 0, size, n);
+        }
+
+        int rangeSize = Math.max(parallelThreshold / 2, size / (pool.getParallelism() * 4));
+        return pool.invoke(new SelectTask(table, 0, size, n, rangeSize));
+    }
+
+    /**
+     * Creates the result objects for the selected ids; this is the only place word strings are materialized.
+     */
+    static List<WordFrequency> toWordFrequencies(WordCountTable table, int[] ids) {
+        List<WordFrequency> wordFrequencies = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            wordFrequencies.add(new WordFrequencyImpl(table.wordAt(id), table.countAt(id)));
+        }
+        return wordFrequencies;
+    }
+
+    /**
+     * Wraps the selected ids without materializing any word.
+     */
+    static RankedWords toRankedWords(WordCountTable table, int[] ids) {
+        return new Ranking(table, ids);
+    }
+
+    /**
+     * Returns whether entry {@code a} ranks before entry {@code b}.
+     */
+    private static boolean ranksBefore(WordCountTable table, int a, int b) {
+        int countA = table.countAt(a);
+        int countB = table.countAt(b);
+        return countA != countB ? countA > countB : table.compareWords(a, b) < 0;
+    }
+
+    /**
+     * Selects the best {@code n} ids within {@code [from, to)}, best first.
+     */
+    private static int[] selectRange(WordCountTable table, int from, int to, int n) {
+        int candidates = to - from;
+        if ((long) n * QUICKSELECT_RATIO >= candidates) {
+            return quickselect(table, from, to, Math.min(n, candidates));
+        }
+        return heapSelect(table, from, to, n);
+    }
+
+    private static int[] heapSelect(WordCountTable table, int from, int to, int n) {
+        // Min-heap on rank: the root is the worst of the best n seen so far.
+        int[] heap = new int[n];
+        int size = 0;
+        for (int id = from; id < to; id++) {
+            if (size < n) {
+                heap[size] = id;
+                siftUp(table, heap, size++);
+            } else if (ranksBefore(table, id, heap[0])) {
+                heap[0] = id;
+                siftDown(table, heap, 0, size);
+            }
+        }
+
+        // Pop the worst repeatedly to fill the result from the back.
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(table, heap, 0, i);
+        }
+        return result;
+    }
+
+    private static void siftUp(WordCountTable table, int[] heap, int index) {
+        int id = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(table, heap[parent], id)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = id;
+    }
+
+    private static void siftDown(WordCountTable table, int[] heap, int index, int size) {
+        int id = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && ranksBefore(table, heap[child], heap[right])) {
+                child = right;
+            }
+            if (!ranksBefore(table, id, heap[child])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = id;
+    }
+
+    private static int[] quickselect(WordCountTable table, int from, int to, int n) {
+        int[] ids = new int[to - from];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = from + i;
+        }
+        if (n == ids.length) {
+            sort(table, ids, 0, n - 1);
+            return ids;
+        }
+
+        // Partition until ids[0, n) holds the best n entries (in any order).
+        int low = 0;
+        int high = ids.length - 1;
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            int pivot = partition(table, ids, low, high);
+            if (pivot == n || pivot == n - 1) {
+                break;
+            } else if (pivot < n) {
+                low = pivot + 1;
+            } else {
+                high = pivot - 1;
+            }
+        }
+        if (high - low <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(table, ids, low, high);
+        }
+
+        int[] result = Arrays.copyOf(ids, n);
+        sort(table, result, 0, n - 1);
+        return result;
+    }
+
+    /**
+     * Lomuto partition around the median of three; returns the final index of the pivot.
+     */
+    private static int partition(WordCountTable table, int[] ids, int low, int high) {
+        int middle = (low + high) >>> 1;
+        if (ranksBefore(table, ids[middle], ids[low])) {
+            swap(ids, low, middle);
+        }
+        if (ranksBefore(table, ids[high], ids[low])) {
+            swap(ids, low, high);
+        }
+        if (ranksBefore(table, ids[middle], ids[high])) {
+            swap(ids, middle, high);
+        }
+        int pivot = ids[high];
+        int store = low;
+        for (int i = low; i < high; i++) {
+            if (ranksBefore(table, ids[i], pivot)) {
+                swap(ids, i, store++);
+            }
+        }
+        swap(ids, store, high);
+        return store;
+    }
+
+    /**
+     * Sorts {@code ids[low..high]} (inclusive) best first.
+     */
+    static void sort(WordCountTable table, int[] ids, int low, int high) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            int pivot = partition(table, ids, low, high);
+            // Recurse into the smaller side to bound the stack depth.
+            if (pivot - low < high - pivot) {
+                sort(table, ids, low, pivot - 1);
+                low = pivot + 1;
+            } else {
+                sort(table, ids, pivot + 1, high);
+                high = pivot - 1;
+            }
+        }
+        insertionSort(table, ids, low, high);
+    }
+
+    private static void insertionSort(WordCountTable table, int[] ids, int low, int high) {
+        for (int i = low + 1; i <= high; i++) {
+            int id = ids[i];
+            int j = i - 1;
+            while (j >= low && ranksBefore(table, id, ids[j])) {
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = id;
+        }
+    }
+
+    private static void swap(int[] ids, int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+
+    /**
+     * Merges two ranked id lists, keeping at most {@code n}.
+     */
+    private static int[] merge(WordCountTable table, int[] left, int[] right, int n) {
+        int[] result = new int[Math.min(n, left.length + right.length)];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < result.length; k++) {
+            if (j == right.length || (i < left.length && ranksBefore(table, left[i], right[j]))) {
+                result[k] = left[i++];
+            } else {
+                result[k] = right[j++];
+            }
+        }
+        return result;
+    }
+
+    private static final class SelectTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final WordCountTable table;
+        private final int from;
+        private final int to;
+        private final int n;
+        private final int rangeSize;
+
+        SelectTask(WordCountTable table, int from, int to, int n, int rangeSize) {
+            this.table = table;
+            this.from = from;
+            this.to = to;
+            this.n = n;
+            this.rangeSize = rangeSize;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= rangeSize) {
+                return selectRange(table, from, to, n);
+            }
+            int middle = (from + to) >>> 1;
+            SelectTask left = new SelectTask(table, from, middle, n, rangeSize);
+            SelectTask right = new SelectTask(table, middle, to, n, rangeSize);
+            left.fork();
+            int[] rightResult = right.compute();
+            return merge(table, left.join(), rightResult, n);
+        }
+    }
+
+    private record Ranking(WordCountTable table, int[] ids) implements RankedWords {
+        @Override
+        public int size() {
+            return ids.length;
+        }
+
+        @Override
+        public int frequencyAt(int rank) {
+            return table.countAt(ids[rank]);
+        }
+
+        @Override
+        public int wordLengthAt(int rank) {
+            return table.lengthAt(ids[rank]);
+        }
+
+        @Override
+        public void copyWordAt(int rank, byte[] target) {
+            table.copyWord(ids[rank], target);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.anva.services;
+
+import com.anva.models.interfaces.ApproximateResult;
+import com.anva.services.interfaces.TrendingWords;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of the TrendingWords interface.
+ * <p>
+ * Every window ({@code anva.trending.windows}, e.g. {@code 1m,1h,1d}) is a ring of {@code anva.trending.buckets} time
+ * buckets, each a {@link SpaceSaving} summary of {@code anva.trending.bucket-counters} counters, so the memory of a
+ * window is bounded whatever the vocabulary. A bucket covers a fixed slice of time (a minute of a one-hour window with
+ * 60 buckets) and is reset when the ring comes round to it again, so old documents fall out of a window a bucket at a
+ * time: counts decay in steps of {@code window / buckets}. A query merges the live buckets of its window into one
+ * summary, which keeps the error bound of the Space-Saving merge.
+ * <p>
+ * {@link #record} only hands the frequency table of a document to a single aggregator thread, through a queue of
+ * {@code anva.trending.queue-size} tables; the aggregator adds each table to the current bucket of every window as
+ * weighted counts. A table with more words than a bucket has counters is first reduced, on the analyzing thread, to a
+ * summary of that many counters, which the aggregator merges into the buckets; so every queued document holds at most
+ * {@code anva.trending.bucket-counters} words, however large its vocabulary. The analyzing thread never waits: when the
+ * aggregator falls behind, further tables are dropped and counted as such. Setting
+ * {@code anva.trending.bucket-counters} to 0 disables tracking.
+ */
+@Service
+class TrendingWordsTracker implements TrendingWords {
+
+    private static final Pattern WINDOW = Pattern.compile("(\\d+)([smhd])");
+
+    private final List<Window> windows;
+    private final int counters;
+    private final LongSupplier clock;
+    private final ExecutorService aggregator;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @Autowired
+    TrendingWordsTracker(@Value("${anva.trending.windows:1m,1h,1d}") String windows,
+                         @Value("${anva.trending.buckets:60}") int buckets,
+                         @Value("${anva.trending.bucket-counters:1024}") int counters,
+                         @Value("${anva.trending.queue-size:64}") int queueSize) {
+        this(windows, buckets, counters, queueSize, System::nanoTime);
+    }
+
+    TrendingWordsTracker(String windows, int buckets, int counters, int queueSize, LongSupplier clock) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("Buckets must be at least 1: " + buckets);
+        }
+        this.counters = counters;
+        this.clock = clock;
+        this.windows = Arrays.stream(windows.split(","))
+                .map(String::trim)
+                .filter(window -> !window.isEmpty())
+                .map(window -> new Window(window, buckets))
+                .sorted(Comparator.comparingLong(window -> window.bucketNanos))
+                .toList();
+        if (!isEnabled()) {
+            this.aggregator = null;
+            return;
+        }
+        if (counters > SpaceSaving.MAX_CAPACITY) {
+            throw new IllegalArgumentException("Bucket counters must be at most " + SpaceSaving.MAX_CAPACITY + ": "
+                    + counters);
+        }
+        this.aggregator = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), task -> {
+                    Thread thread = new Thread(task, "anva-trending");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Returns a tracker that records nothing, for analyzers created outside of Spring.
+     */
+    static TrendingWordsTracker disabled() {
+        return new TrendingWordsTracker("", 1, 0, 1, System::nanoTime);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (aggregator != null) {
+            aggregator.shutdownNow();
+        }
+    }
+
+    boolean isEnabled() {
+        return counters > 0 && !windows.isEmpty();
+    }
+
+    /**
+     * Queues the frequency table of an analyzed document for the windows, or drops it if the aggregator is behind. The
+     * table must not change afterwards; it is read by the aggregator thread.
+     */
+    void record(WordCountTable table) {
+        if (!isEnabled() || table.size() == 0) {
+            return;
+        }
+        long time = clock.getAsLong();
+        // A small table is queued as it is; a larger one is reduced to the size of a bucket before it is queued, so the
+        // queue holds at most as many words per document as a bucket.
+        Runnable task;
+        if (table.size() <= counters) {
+            task = () -> add(table, time);
+        } else {
+            SpaceSaving summary = summarize(table);
+            task = () -> merge(summary, time);
+        }
+        try {
+            aggregator.execute(task);
+            recorded.increment();
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Waits until the tables recorded so far have been added to the windows.
+     */
+    void flush() throws InterruptedException {
+        if (!isEnabled()) {
+            return;
+        }
+        while (true) {
+            try {
+                aggregator.submit(() -> { }).get();
+                return;
+            } catch (RejectedExecutionException e) {
+                // The queue is full; wait for the aggregator to take a table.
+                Thread.sleep(1);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tables queued for the windows.
+     */
+    long recorded() {
+        return recorded.sum();
+    }
+
+    /**
+     * Returns the number of tables dropped because the aggregator was behind.
+     */
+    long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public List<String> getWindows() {
+        return windows.stream().map(window -> window.name).toList();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public ApproximateResult mostFrequentNWords(String window, int n) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Trending words are disabled; set anva.trending.bucket-counters");
+        }
+        Window target = windows.stream()
+                .filter(w -> w.name.equals(window))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown window: " + window + " (expected one of "
+                        + String.join(", ", getWindows()) + ")"));
+
+        SpaceSaving summary = new SpaceSaving(counters);
+        long now = clock.getAsLong();
+        synchronized (this) {
+            target.mergeLiveInto(summary, now);
+        }
+        // The merged table holds at most one entry per counter, so it is ranked on the calling thread.
+        WordCountTable table = summary.toTable();
+        int[] ids = n > 0 ? TopWords.select(table, n, ForkJoinPool.commonPool(), Integer.MAX_VALUE) : null;
+        return AnalysisResults.approximate(summary, table, ids);
+    }
+
+    /**
+     * Counts a table into a summary of as many counters as a bucket, as weighted counts.
+     */
+    private SpaceSaving summarize(WordCountTable table) {
+        SpaceSaving summary = new SpaceSaving(counters);
+        addTo(List.of(summary), table);
+        return summary;
+    }
+
+    /**
+     * Adds the counts of a table to the bucket of every window that covers the given time. Runs on the aggregator
+     * thread only.
+     */
+    private void add(WordCountTable table, long time) {
+        synchronized (this) {
+            addTo(bucketsAt(time), table);
+        }
+    }
+
+    /**
+     * Merges the summary of a reduced table into the bucket of every window that covers the given time, which keeps
+     * the error bound of the reduction in the bucket's. Runs on the aggregator thread only.
+     */
+    private void merge(SpaceSaving summary, long time) {
+        synchronized (this) {
+            for (SpaceSaving bucket : bucketsAt(time)) {
+                bucket.merge(summary);
+            }
+        }
+    }
+
+    private List<SpaceSaving> bucketsAt(long time) {
+        List<SpaceSaving> targets = new ArrayList<>(windows.size());
+        for (Window window : windows) {
+            SpaceSaving bucket = window.bucketAt(time, counters);
+            if (bucket != null) {
+                targets.add(bucket);
+            }
+        }
+        return targets;
+    }
+
+    private static void addTo(List<SpaceSaving> targets, WordCountTable table) {
+        byte[] word = new byte[64];
+        for (int id = 0; id < table.size(); id++) {
+            int length = table.lengthAt(id);
+            if (word.length < length) {
+                word = new byte[Math.max(length, word.length * 2)];
+            }
+            table.copyWord(id, word);
+            for (SpaceSaving bucket : targets) {
+                bucket.add(word, length, table.hashAt(id), table.countAt(id));
+            }
+        }
+    }
+
+    /**
+     * A ring of time buckets; the bucket of epoch {@code e} (time divided by the bucket length) is slot
+     * {@code e mod buckets}, and holds counts of that epoch only.
+     */
+    private static final class Window {
+
+        private final String name;
+        private final long bucketNanos;
+        private final SpaceSaving[] buckets;
+        private final long[] epochs;
+
+        Window(String name, int buckets) {
+            Matcher matcher = WINDOW.matcher(name);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Window must be a number followed by s, m, h or d: " + name);
+            }
+            TimeUnit unit = switch (matcher.group(2)) {
+                case "s" -> TimeUnit.SECONDS;
+                case "m" -> TimeUnit.MINUTES;
+                case "h" -> TimeUnit.HOURS;
+                default -> TimeUnit.DAYS;
+            };
+            long nanos = unit.toNanos(Long.parseLong(matcher.group(1)));
+            if (nanos < buckets) {
+                throw new IllegalArgumentException("Window is too short for " + buckets + " buckets: " + name);
+            }
+            this.name = name;
+            this.bucketNanos = nanos / buckets;
+            this.buckets = new SpaceSaving[buckets];
+            this.epochs = new long[buckets];
+            Arrays.fill(epochs, Long.MIN_VALUE);
+        }
+
+        /**
+         * Returns the bucket of a time, reset first if it still holds an earlier epoch, or null if it already holds a
+         * later one (the time has left the window).
+         */
+        SpaceSaving bucketAt(long time, int counters) {
+            long epoch = Math.floorDiv(time, bucketNanos);
+            int slot = (int) Math.floorMod(epoch, (long) buckets.length);
+            if (epochs[slot] > epoch) {
+                return null;
+            }
+            if (epochs[slot] < epoch) {
+                // Allocated on first use, so that a window nobody analyzes documents in costs no counters.
+                buckets[slot] = new SpaceSaving(counters);
+                epochs[slot] = epoch;
+            }
+            return buckets[slot];
+        }
+
+        /**
+         * Merges the buckets of the last {@code buckets} epochs up to the given time into a summary.
+         */
+        void mergeLiveInto(SpaceSaving summary, long time) {
+            long current = Math.floorDiv(time, bucketNanos);
+            for (int slot = 0; slot < buckets.length; slot++) {
+                if (buckets[slot] != null && epochs[slot] > current - buckets.length && epochs[slot] <= current) {
+                    summary.merge(buckets[slot]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.anva.services;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Word scanner for text in any script: a word is a run of Unicode letters and combining marks that starts with a
+ * letter, lower-cased code point by code point and reported as UTF-8.
+ * <p>
+ * Word boundaries follow the same rule as the ASCII tokenizer, with every character class widened to Unicode: a run
+ * directly preceded or followed by a digit or {@code '_'} is not a word, so {@code "abc1"} yields nothing either way.
+ * For text that is pure ASCII, both tokenizers find exactly the same words.
+ * <p>
+ * ASCII characters take a fast path that classifies and lower-cases them inline, like the ASCII tokenizer does; only
+ * non-ASCII characters are decoded to code points and looked up in the Unicode tables. No objects are allocated per
+ * word. Not thread-safe.
+ */
+final class UnicodeWordTokenizer implements Tokenizer {
+
+    private static final int INITIAL_WORD_CAPACITY = 32;
+
+    private byte[] word = new byte[INITIAL_WORD_CAPACITY];
+    private int wordLength;
+    private int hash;
+    private long tokens;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tokenize(CharSequence text, int from, int to, WordSink sink) {
+        int length = text.length();
+        int i = from;
+
+        // Skip the tail of a word owned by the preceding range.
+        if (i > 0 && isRunChar(Character.codePointBefore(text, i))) {
+            while (i < to && isRunChar(Character.codePointAt(text, i))) {
+                i += Character.charCount(Character.codePointAt(text, i));
+            }
+        }
+
+        while (i < to) {
+            char c = text.charAt(i);
+            int ch = c < 0x80 ? c : Character.codePointAt(text, i);
+            if (!isRunChar(ch)) {
+                i += Character.charCount(ch);
+                continue;
+            }
+
+            int start = i;
+            boolean startsWithLetter = isLetter(ch);
+            wordLength = 0;
+            hash = WordHash.SEED;
+            do {
+                if (ch < 0x80) {
+                    appendByte(ch | 0x20);
+                    i++;
+                } else {
+                    appendCodePoint(ch);
+                    i += Character.charCount(ch);
+                }
+                if (i >= length) {
+                    break;
+                }
+                c = text.charAt(i);
+                ch = c < 0x80 ? c : Character.codePointAt(text, i);
+            } while (isRunChar(ch));
+
+            if (startsWithLetter && isBoundary(text, start, i)) {
+                sink.onWord(word, wordLength, WordHash.finish(hash));
+                tokens++;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tokenize(ByteBuffer bytes, int from, int to, WordSink sink) {
+        int length = bytes.limit();
+        int i = from;
+
+        if (i > 0 && isRunChar(codePointBefore(bytes, i))) {
+            while (i < to && isRunChar(codePointAt(bytes, i))) {
+                i += sequenceLength(bytes, i);
+            }
+        }
+
+        while (i < to) {
+            int b = bytes.get(i);
+            int ch = b >= 0 ? b : codePointAt(bytes, i);
+            if (!isRunChar(ch)) {
+                i += b >= 0 ? 1 : sequenceLength(bytes, i);
+                continue;
+            }
+
+            int start = i;
+            boolean startsWithLetter = isLetter(ch);
+            wordLength = 0;
+            hash = WordHash.SEED;
+            do {
+                if (b >= 0) {
+                    appendByte(b | 0x20);
+                    i++;
+                } else {
+                    appendCodePoint(ch);
+                    i += sequenceLength(bytes, i);
+                }
+                if (i >= length) {
+                    break;
+                }
+                b = bytes.get(i);
+                ch = b >= 0 ? b : codePointAt(bytes, i);
+            } while (isRunChar(ch));
+
+            if (startsWithLetter && isNotWordChar(start == 0 ? ' ' : codePointBefore(bytes, start))
+                    && isNotWordChar(i == length ? ' ' : ch)) {
+                sink.onWord(word, wordLength, WordHash.finish(hash));
+                tokens++;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long tokens() {
+        return tokens;
+    }
+
+    /**
+     * Converts a word into the normalized form produced by the tokenizer.
+     *
+     * @return The lower-cased UTF-8 bytes of the word, or {@code null} if the tokenizer could never produce it.
+     */
+    static byte[] normalize(String word) {
+        if (word == null || word.isEmpty() || !isLetter(word.codePointAt(0))) {
+            return null;
+        }
+        UnicodeWordTokenizer tokenizer = new UnicodeWordTokenizer();
+        for (int i = 0; i < word.length(); ) {
+            int ch = word.codePointAt(i);
+            if (!isRunChar(ch)) {
+                return null;
+            }
+            tokenizer.appendCodePoint(ch);
+            i += Character.charCount(ch);
+        }
+        return Arrays.copyOf(tokenizer.word, tokenizer.wordLength);
+    }
+
+    /**
+     * Returns the first index at or after {@code index} that is neither inside a run of letters and marks nor inside a
+     * surrogate pair, so that cutting the text there never splits a word.
+     */
+    static int nextBoundary(CharSequence text, int index) {
+        int length = text.length();
+        while (index > 0 && index < length && (Character.isLowSurrogate(text.charAt(index))
+                || isRunChar(Character.codePointBefore(text, index)) && isRunChar(Character.codePointAt(text, index)))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Byte counterpart of {@link #nextBoundary(CharSequence, int)}, which also never cuts inside a UTF-8 sequence.
+     */
+    static int nextBoundary(ByteBuffer bytes, int index) {
+        int length = bytes.limit();
+        while (index > 0 && index < length && ((bytes.get(index) & 0xC0) == 0x80
+                || isRunChar(codePointBefore(bytes, index)) && isRunChar(codePointAt(bytes, index)))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns whether a code point continues a word: a letter or a combining mark.
+     */
+    static boolean isRunChar(int ch) {
+        if (ch < 0x80) {
+            return WordTokenizer.isAsciiLetter(ch);
+        }
+        if (Character.isLetter(ch)) {
+            return true;
+        }
+        int type = Character.getType(ch);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+
+    private static boolean isLetter(int ch) {
+        return ch < 0x80 ? WordTokenizer.isAsciiLetter(ch) : Character.isLetter(ch);
+    }
+
+    /**
+     * Returns whether the run {@code text[start, end)} has a boundary on both sides.
+     */
+    private static boolean isBoundary(CharSequence text, int start, int end) {
+        return (start == 0 || isNotWordChar(Character.codePointBefore(text, start)))
+                && (end == text.length() || isNotWordChar(Character.codePointAt(text, end)));
+    }
+
+    /**
+     * Returns whether a code point next to a run leaves it a word. Letters and marks never border a run, as runs are
+     * maximal, so only digits and {@code '_'} remain to be checked.
+     */
+    private static boolean isNotWordChar(int ch) {
+        if (ch < 0x80) {
+            return !(ch >= '0' && ch <= '9' || ch == '_');
+        }
+        return !Character.isDigit(ch);
+    }
+
+    private static int codePointAt(ByteBuffer bytes, int index) {
+        int b = bytes.get(index);
+        if (b >= 0) {
+            return b;
+        }
+        return WordTokenizer.decodeUtf8(bytes, index, index + sequenceLength(bytes, index));
+    }
+
+    private static int codePointBefore(ByteBuffer bytes, int index) {
+        int b = bytes.get(index - 1);
+        if (b >= 0) {
+            return b;
+        }
+        return WordTokenizer.decodeUtf8(bytes, WordTokenizer.utf8SequenceStart(bytes, index), index);
+    }
+
+    /**
+     * Returns the length of the UTF-8 sequence at {@code index}, or 1 for a malformed one, so that scanning always
+     * advances.
+     */
+    private static int sequenceLength(ByteBuffer bytes, int index) {
+        int length = Math.min(bytes.limit() - index, WordTokenizer.utf8SequenceLength(bytes.get(index)));
+        for (int i = 1; i < length; i++) {
+            if ((bytes.get(index + i) & 0xC0) != 0x80) {
+                return 1;
+            }
+        }
+        return length;
+    }
+
+    private void appendByte(int b) {
+        if (wordLength == word.length) {
+            word = Arrays.copyOf(word, word.length * 2);
+        }
+        word[wordLength++] = (byte) b;
+        // Hashed as a signed byte, like WordHash.hash() does for stored words.
+        hash = WordHash.step(hash, (byte) b);
+    }
+
+    private void appendCodePoint(int ch) {
+        int lower = Character.toLowerCase(ch);
+        if (lower < 0x80) {
+            appendByte(lower);
+        } else if (lower < 0x800) {
+            appendByte(0xC0 | lower >>> 6);
+            appendByte(0x80 | lower & 0x3F);
+        } else if (lower < 0x10000) {
+            appendByte(0xE0 | lower >>> 12);
+            appendByte(0x80 | lower >>> 6 & 0x3F);
+            appendByte(0x80 | lower & 0x3F);
+        } else {
+            appendByte(0xF0 | lower >>> 18);
+            appendByte(0x80 | lower >>> 12 & 0x3F);
+            appendByte(0x80 | lower >>> 6 & 0x3F);
+            appendByte(0x80 | lower & 0x3F);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.anva.services;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Vector API implementation of {@link AsciiBlocks#letterMask(ByteBuffer, int)}: setting bit 5 folds upper into lower
+ * case, and two lane-wise comparisons against {@code 'a'} and {@code 'z'} classify a whole vector of bytes. Bytes of
+ * multi-byte UTF-8 sequences are negative and never match. Only loaded when the incubator module is present.
+ * <p>
+ * The preferred species is used unless it has more lanes than a block has bytes (e.g. 2048-bit SVE), whose masks would
+ * not fit the 64-bit block mask; the 512-bit species, of exactly one block, is used then.
+ */
+final class VectorAsciiBlocks {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED.length() <= AsciiBlocks.SIZE
+            ? ByteVector.SPECIES_PREFERRED : ByteVector.SPECIES_512;
+
+    private VectorAsciiBlocks() {
+    }
+
+    static long letterMask(ByteBuffer bytes, int offset) {
+        long mask = 0;
+        for (int i = 0; i < AsciiBlocks.SIZE; i += SPECIES.length()) {
+            ByteVector lower = ByteVector.fromByteBuffer(SPECIES, bytes, offset + i, ByteOrder.nativeOrder())
+                    .or((byte) 0x20);
+            VectorMask<Byte> letters = lower.compare(VectorOperators.GE, (byte) 'a')
+                    .and(lower.compare(VectorOperators.LE, (byte) 'z'));
+            mask |= letters.toLong() << i;
+        }
+        return mask;
+    }
+}
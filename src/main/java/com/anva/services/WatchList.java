@@ -0,0 +1,129 @@
+package com.anva.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled list of words whose frequencies are counted together in one pass over a text.
+ * <p>
+ * The tokenizer already finds every word boundary exactly as {@code \b} defines it and hashes each token while
+ * scanning, so matching a whole list of words needs no automaton over the characters: each token is looked up in a
+ * small open-addressing table of the normalized targets by its precomputed hash, i.e. one probe per token regardless of
+ * the length of the list. Words that differ only in case share one target. A compiled list is immutable and can be
+ * shared; counting happens in {@link Counter}s, one per chunk of the text.
+ */
+final class WatchList {
+
+    private final List<String> words;
+    // Target of each requested word, or -1 if the word can never be produced by the tokenizer.
+    private final int[] targetOf;
+    private final byte[][] targets;
+    private final int[] targetHashes;
+    // Open-addressing index: target + 1, or 0 for a free slot.
+    private final int[] index;
+    private final int mask;
+
+    private WatchList(List<String> words, int[] targetOf, byte[][] targets, int[] targetHashes) {
+        this.words = words;
+        this.targetOf = targetOf;
+        this.targets = targets;
+        this.targetHashes = targetHashes;
+        int indexCapacity = Integer.highestOneBit(Math.max(4, targets.length * 2 - 1)) << 1;
+        this.index = new int[indexCapacity];
+        this.mask = indexCapacity - 1;
+        for (int target = 0; target < targets.length; target++) {
+            int slot = targetHashes[target] & mask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = target + 1;
+        }
+    }
+
+    /**
+     * Compiles a list of words for the given tokenizer; case and duplicates do not matter.
+     */
+    static WatchList compile(List<String> words, TokenizerType tokenizer) {
+        List<String> requested = List.copyOf(words);
+        int[] targetOf = new int[requested.size()];
+        byte[][] targets = new byte[requested.size()][];
+        int[] targetHashes = new int[requested.size()];
+        Map<String, Integer> distinct = new HashMap<>();
+        int size = 0;
+
+        for (int i = 0; i < requested.size(); i++) {
+            byte[] target = tokenizer.normalize(requested.get(i));
+            targetOf[i] = -1;
+            if (target == null) {
+                continue;
+            }
+            Integer existing = distinct.putIfAbsent(new String(target, StandardCharsets.UTF_8), size);
+            if (existing != null) {
+                targetOf[i] = existing;
+                continue;
+            }
+            targets[size] = target;
+            targetHashes[size] = WordHash.hash(target, target.length);
+            targetOf[i] = size++;
+        }
+        return new WatchList(requested, targetOf, Arrays.copyOf(targets, size), Arrays.copyOf(targetHashes, size));
+    }
+
+    /**
+     * Returns the target matching a token, or -1 if the token is not in the list. Allocates nothing.
+     */
+    int indexOf(byte[] word, int length, int hash) {
+        int slot = hash & mask;
+        int entry;
+        while ((entry = index[slot]) != 0) {
+            int target = entry - 1;
+            if (targetHashes[target] == hash && targets[target].length == length
+                    && Arrays.equals(word, 0, length, targets[target], 0, length)) {
+                return target;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    Counter newCounter() {
+        return new Counter();
+    }
+
+    /**
+     * Returns the frequency of each requested word, keyed by the word as requested, in request order.
+     */
+    Map<String, Integer> frequencies(Counter counter) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (int i = 0; i < words.size(); i++) {
+            frequencies.put(words.get(i), targetOf[i] < 0 ? 0 : counter.counts[targetOf[i]]);
+        }
+        return frequencies;
+    }
+
+    /**
+     * Counts the tokens that match one of the targets; not thread-safe.
+     */
+    final class Counter implements WordSink {
+        private final int[] counts = new int[targets.length];
+
+        @Override
+        public void onWord(byte[] word, int length, int hash) {
+            int target = indexOf(word, length, hash);
+            if (target >= 0) {
+                counts[target]++;
+            }
+        }
+
+        Counter merge(Counter other) {
+            for (int target = 0; target < counts.length; target++) {
+                counts[target] += other.counts[target];
+            }
+            return this;
+        }
+    }
+}
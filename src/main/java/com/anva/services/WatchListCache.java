@@ -0,0 +1,49 @@
+package com.anva.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the most recently used compiled {@link WatchList}s, so recurring word lists are not compiled on every request.
+ * Lists are keyed by their tokenizer and their words as requested, in order.
+ */
+@Component
+class WatchListCache {
+
+    static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final Map<Key, WatchList> watchLists;
+
+    WatchListCache(@Value("${anva.analysis.watch-list-cache-size:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries) {
+        this.watchLists = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, WatchList> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    WatchList get(List<String> words, TokenizerType tokenizer) {
+        Key key = new Key(tokenizer, List.copyOf(words));
+        synchronized (watchLists) {
+            WatchList watchList = watchLists.get(key);
+            if (watchList != null) {
+                return watchList;
+            }
+        }
+
+        // Compiling is cheap compared to counting; a rare duplicate compilation is harmless.
+        WatchList watchList = WatchList.compile(key.words(), tokenizer);
+        synchronized (watchLists) {
+            watchLists.put(key, watchList);
+        }
+        return watchList;
+    }
+
+    private record Key(TokenizerType tokenizer, List<String> words) {
+    }
+}
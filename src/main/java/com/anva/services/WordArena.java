@@ -0,0 +1,163 @@
+package com.anva.services;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only, contiguous storage for the bytes of the words of a {@link WordCountTable}.
+ * <p>
+ * Words are addressed by offset and length only; the arena itself keeps no per-word objects. The heap variant is
+ * backed by a {@code byte[]}, the off-heap variant by a direct {@link ByteBuffer}, which keeps large vocabularies out of
+ * the Java heap (and out of GC marking) at the cost of slower allocation; it suits long-lived tables.
+ */
+abstract class WordArena {
+
+    private static final int INITIAL_CAPACITY = 4096;
+
+    protected int size;
+
+    static WordArena onHeap() {
+        return new Heap();
+    }
+
+    static WordArena offHeap() {
+        return new OffHeap();
+    }
+
+    /**
+     * Appends a word and returns its offset.
+     */
+    abstract int append(byte[] word, int length);
+
+    /**
+     * Returns whether the stored word at {@code offset} equals {@code word[0, length)}; both must have that length.
+     */
+    abstract boolean matches(int offset, byte[] word, int length);
+
+    abstract byte get(int offset);
+
+    /**
+     * Copies a stored word into {@code target}, which must be large enough.
+     */
+    abstract void copy(int offset, int length, byte[] target);
+
+    /**
+     * Returns the number of bytes reserved by the arena.
+     */
+    abstract long capacity();
+
+    /**
+     * Returns the number of bytes in use.
+     */
+    int size() {
+        return size;
+    }
+
+    int compare(int offset, int length, int otherOffset, int otherLength) {
+        int common = Math.min(length, otherLength);
+        for (int i = 0; i < common; i++) {
+            int difference = (get(offset + i) & 0xFF) - (get(otherOffset + i) & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - otherLength;
+    }
+
+    String toString(int offset, int length) {
+        byte[] word = new byte[length];
+        copy(offset, length, word);
+        return new String(word, StandardCharsets.UTF_8);
+    }
+
+    static int grownCapacity(int capacity, int required) {
+        if (required < 0) {
+            throw new IllegalStateException("Word arena exceeds 2 GB");
+        }
+        long grown = Math.max((long) capacity * 2, required);
+        return (int) Math.min(grown, Integer.MAX_VALUE - 8);
+    }
+
+    private static final class Heap extends WordArena {
+        private byte[] bytes = new byte[INITIAL_CAPACITY];
+
+        @Override
+        int append(byte[] word, int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, grownCapacity(bytes.length, size + length));
+            }
+            System.arraycopy(word, 0, bytes, size, length);
+            int offset = size;
+            size += length;
+            return offset;
+        }
+
+        @Override
+        boolean matches(int offset, byte[] word, int length) {
+            return Arrays.equals(bytes, offset, offset + length, word, 0, length);
+        }
+
+        @Override
+        byte get(int offset) {
+            return bytes[offset];
+        }
+
+        @Override
+        void copy(int offset, int length, byte[] target) {
+            System.arraycopy(bytes, offset, target, 0, length);
+        }
+
+        @Override
+        int compare(int offset, int length, int otherOffset, int otherLength) {
+            return Arrays.compareUnsigned(bytes, offset, offset + length, bytes, otherOffset, otherOffset + otherLength);
+        }
+
+        @Override
+        long capacity() {
+            return bytes.length;
+        }
+    }
+
+    private static final class OffHeap extends WordArena {
+        private ByteBuffer bytes = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+
+        @Override
+        int append(byte[] word, int length) {
+            if (size + length > bytes.capacity()) {
+                ByteBuffer grown = ByteBuffer.allocateDirect(grownCapacity(bytes.capacity(), size + length));
+                grown.put(0, bytes, 0, size);
+                bytes = grown;
+            }
+            bytes.put(size, word, 0, length);
+            int offset = size;
+            size += length;
+            return offset;
+        }
+
+        @Override
+        boolean matches(int offset, byte[] word, int length) {
+            for (int i = 0; i < length; i++) {
+                if (bytes.get(offset + i) != word[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        byte get(int offset) {
+            return bytes.get(offset);
+        }
+
+        @Override
+        void copy(int offset, int length, byte[] target) {
+            bytes.get(offset, target, 0, length);
+        }
+
+        @Override
+        long capacity() {
+            return bytes.capacity();
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.anva.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Execution engine that runs the tokenizer over a text and collects the words into sinks.
+ * <p>
+ * Texts shorter than the configured threshold are scanned sequentially into a single sink. Longer texts are cut into
+ * chunks at word boundaries; each chunk is scanned by a fork/join task into its own private, unsynchronized sink, and
+ * the sinks are merged pairwise as the tasks join. No state is shared between tasks while counting, so the speedup is
+ * limited only by the number of cores and the final merge.
+ * <p>
+ * Streamed texts are scanned sequentially through a bounded buffer (see {@link StreamWordScanner}), so their memory
+ * footprint depends on the vocabulary and not on the size of the text.
+ * <p>
+ * Every scan is admitted by the {@link AnalysisScheduler} first. Texts counted in chunks run on its pool; sequential
+ * scans (below the threshold, or with a budget of one worker) run on the calling thread. When several scans run at
+ * once, a text is cut into only as many chunks as its parallelism budget, so it cannot occupy more workers than its
+ * share. Streamed texts are also scanned on the calling thread, and admitted per buffer rather than for the whole read,
+ * so a slowly arriving body holds no capacity while it waits for the network.
+ * <p>
+ * Words are found by the configured {@link TokenizerType} ({@code anva.analysis.tokenizer}); {@link #withTokenizer}
+ * derives an engine that shares everything else but uses another one, for requests that choose their own.
+ * <p>
+ * Full frequency tables are counted through the shared {@link WordDictionary} when it is enabled: the words it knows
+ * are counted by id (see {@link DictionaryCounts}), and only the others in per-chunk tables, which makes chunk tables
+ * small and their merges cheap.
+ * <p>
+ * Each scan is recorded in {@link AnalysisMetrics}: its duration by execution mode, the characters and words scanned,
+ * and the size of the resulting vocabulary.
+ */
+@Component
+class WordCountEngine {
+
+    static final int DEFAULT_PARALLEL_THRESHOLD = 256 * 1024;
+
+    // Below this size the fork/join bookkeeping costs more than the scan it would split off.
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    // Several chunks per worker, so that a slow chunk does not leave the other workers idle.
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    /**
+     * Chars or bytes scanned between two progress reports (and cancellation checks) of a count with
+     * {@link AnalysisProgress}.
+     */
+    static final int PROGRESS_SLICE = 1 << 20;
+
+    private final int parallelThreshold;
+    private final int streamBufferSize;
+    private final boolean offHeapWordArena;
+    private final AnalysisScheduler scheduler;
+    private final ForkJoinPool pool;
+    private final AnalysisMetrics metrics;
+    private final TokenizerType tokenizer;
+    private final WordDictionary dictionary;
+
+    @Autowired
+    WordCountEngine(@Value("${anva.analysis.parallel-threshold:" + DEFAULT_PARALLEL_THRESHOLD + "}") int parallelThreshold,
+                    @Value("${anva.analysis.stream-buffer-size:" + StreamWordScanner.DEFAULT_BUFFER_SIZE + "}") int streamBufferSize,
+                    @Value("${anva.analysis.off-heap-word-arena:false}") boolean offHeapWordArena,
+                    @Value("${anva.analysis.tokenizer:ascii}") String tokenizer,
+                    WordDictionary dictionary,
+                    AnalysisScheduler scheduler,
+                    AnalysisMetrics metrics) {
+        this(parallelThreshold, streamBufferSize, offHeapWordArena, TokenizerType.of(tokenizer), dictionary, scheduler,
+                metrics);
+    }
+
+    WordCountEngine(int parallelThreshold, int streamBufferSize, boolean offHeapWordArena, AnalysisScheduler scheduler,
+                    AnalysisMetrics metrics) {
+        this(parallelThreshold, streamBufferSize, offHeapWordArena, TokenizerType.ASCII, new WordDictionary(0), scheduler,
+                metrics);
+    }
+
+    WordCountEngine(int parallelThreshold, int streamBufferSize, boolean offHeapWordArena, TokenizerType tokenizer,
+                    WordDictionary dictionary, AnalysisScheduler scheduler, AnalysisMetrics metrics) {
+        this.parallelThreshold = parallelThreshold;
+        this.streamBufferSize = streamBufferSize;
+        this.offHeapWordArena = offHeapWordArena;
+        this.tokenizer = tokenizer;
+        this.dictionary = dictionary;
+        this.scheduler = scheduler;
+        this.pool = scheduler.pool();
+        this.metrics = metrics;
+    }
+
+    WordCountEngine(int parallelThreshold, int streamBufferSize) {
+        this(parallelThreshold, streamBufferSize, false, ForkJoinPool.commonPool());
+    }
+
+    WordCountEngine(int parallelThreshold, int streamBufferSize, boolean offHeapWordArena, ForkJoinPool pool) {
+        this(parallelThreshold, streamBufferSize, offHeapWordArena, AnalysisScheduler.unbounded(pool));
+    }
+
+    WordCountEngine(int parallelThreshold, int streamBufferSize, boolean offHeapWordArena, AnalysisScheduler scheduler) {
+        this(parallelThreshold, streamBufferSize, offHeapWordArena, scheduler, AnalysisMetrics.disabled());
+    }
+
+    /**
+     * Returns the tokenizer this engine scans with.
+     */
+    TokenizerType tokenizer() {
+        return tokenizer;
+    }
+
+    /**
+     * Returns an engine that scans with the given tokenizer, sharing the dictionary, the scheduler, the metrics and the
+     * configuration of this one.
+     */
+    WordCountEngine withTokenizer(TokenizerType type) {
+        if (type == tokenizer) {
+            return this;
+        }
+        return new WordCountEngine(parallelThreshold, streamBufferSize, offHeapWordArena, type, dictionary, scheduler,
+                metrics);
+    }
+
+    /**
+     * Scans the text and collects all words, sequentially or in parallel depending on its size.
+     *
+     * @param text        The text to scan.
+     * @param sinkFactory Creates an empty sink; called once per chunk.
+     * @param merger      Merges the sinks of two adjacent parts of the text, the earlier part first, and returns the
+     *                    result (which may be either argument).
+     * @return The sink holding the words of the whole text.
+     */
+    <S extends WordSink> S count(CharSequence text, Supplier<S> sinkFactory, BinaryOperator<S> merger) {
+        return count(List.of(ScanSource.of(text)), sinkFactory, merger);
+    }
+
+    /**
+     * Like {@link #count(CharSequence, Supplier, BinaryOperator)}, for UTF-8 text in {@code [0, limit)} of a buffer.
+     */
+    <S extends WordSink> S count(ByteBuffer text, Supplier<S> sinkFactory, BinaryOperator<S> merger) {
+        return count(List.of(ScanSource.of(text)), sinkFactory, merger);
+    }
+
+    /**
+     * Scans several independent parts of one text (e.g. the mapped regions of a large file) and collects all words.
+     * The parts are counted concurrently, each of them split further if it is large enough.
+     *
+     * @param sources     The parts of the text; they must be cut at word boundaries.
+     * @param sinkFactory Creates an empty sink; called once per chunk.
+     * @param merger      Merges the sinks of two adjacent parts of the text, the earlier part first, and returns the
+     *                    result (which may be either argument).
+     * @return The sink holding the words of all parts.
+     */
+    <S extends WordSink> S count(List<ScanSource> sources, Supplier<S> sinkFactory, BinaryOperator<S> merger) {
+        return count(sources, sinkFactory, merger, null);
+    }
+
+    /**
+     * Like {@link #count(List, Supplier, BinaryOperator)}, reporting to {@code progress} (if not null) as the text is
+     * scanned.
+     *
+     * @throws java.util.concurrent.CancellationException If the progress was cancelled; the tasks of the count stop
+     *                                                    within a slice.
+     */
+    @SuppressWarnings("try") // The permit is only held, never referenced.
+    <S extends WordSink> S count(List<ScanSource> sources, Supplier<S> sinkFactory, BinaryOperator<S> merger,
+                                 AnalysisProgress progress) {
+        long totalLength = 0;
+        for (ScanSource source : sources) {
+            totalLength += source.length();
+        }
+
+        try (AnalysisScheduler.Permit permit = scheduler.admit()) {
+            int budget = scheduler.parallelismBudget();
+            long start = System.nanoTime();
+            if (sources.isEmpty() || totalLength < parallelThreshold || budget == 1) {
+                S sink = sinkFactory.get();
+                Tokenizer scanner = tokenizer.newTokenizer();
+                for (ScanSource source : sources) {
+                    scanRange(source, tokenizer, scanner, 0, source.length(), sink, progress);
+                }
+                metrics.recordCount(AnalysisMetrics.Mode.SEQUENTIAL, System.nanoTime() - start, totalLength,
+                        scanner.tokens());
+                return sink;
+            }
+
+            // With the whole pool to itself, a text is cut into more chunks than workers for load balancing; with a
+            // smaller budget, into just that many, so that it cannot spread over the workers of other analyses.
+            int chunks = budget >= pool.getParallelism() ? budget * CHUNKS_PER_WORKER : budget;
+            long chunkSize = Math.max(MIN_CHUNK_SIZE, totalLength / chunks);
+            LongAdder tokens = new LongAdder();
+            List<CountTask<S>> tasks = new ArrayList<>(sources.size());
+            for (ScanSource source : sources) {
+                tasks.add(new CountTask<>(source, tokenizer, 0, source.length(),
+                        (int) Math.min(chunkSize, Integer.MAX_VALUE), sinkFactory, merger, tokens, progress));
+            }
+            S result = pool.invoke(new MergeTask<>(tasks, merger));
+            metrics.recordCount(AnalysisMetrics.Mode.PARALLEL, System.nanoTime() - start, totalLength, tokens.sum());
+            return result;
+        }
+    }
+
+    /**
+     * Reads the text to its end and collects all words into the sink.
+     *
+     * @param text The text to scan; it is not closed.
+     * @param sink Receiver of the words.
+     * @return The given sink.
+     * @throws com.anva.services.interfaces.AnalysisRejectedException If a buffer of the text is not admitted.
+     */
+    <S extends WordSink> S count(Reader text, S sink) throws IOException {
+        long start = System.nanoTime();
+        StreamWordScanner scanner = new StreamWordScanner(sink, streamBufferSize, tokenizer);
+        scanner.scan(text, scheduler);
+        metrics.recordCount(AnalysisMetrics.Mode.STREAMED, System.nanoTime() - start, scanner.length(),
+                scanner.tokens());
+        return sink;
+    }
+
+    /**
+     * Counts every word of the text into a {@link WordCountTable}.
+     */
+    WordCountTable countWords(CharSequence text) {
+        if (dictionary.isEnabled()) {
+            return recordVocabulary(count(text, this::newCounts, DictionaryCounts::merge).toTable());
+        }
+        return recordVocabulary(count(text, this::newTable, WordCountEngine::mergeTables));
+    }
+
+    /**
+     * Counts every word of a UTF-8 text in {@code [0, limit)} of a buffer into a {@link WordCountTable}.
+     */
+    WordCountTable countWords(ByteBuffer text) {
+        return countWords(List.of(ScanSource.of(text)));
+    }
+
+    /**
+     * Counts every word of a text made of several parts into a {@link WordCountTable}.
+     */
+    WordCountTable countWords(List<ScanSource> sources) {
+        if (dictionary.isEnabled()) {
+            return recordVocabulary(count(sources, this::newCounts, DictionaryCounts::merge).toTable());
+        }
+        return recordVocabulary(count(sources, this::newTable, WordCountEngine::mergeTables));
+    }
+
+    /**
+     * Counts every word of a text made of several parts into a {@link WordCountTable}, reporting to {@code progress}.
+     *
+     * @throws java.util.concurrent.CancellationException If the progress was cancelled.
+     */
+    WordCountTable countWords(List<ScanSource> sources, AnalysisProgress progress) {
+        if (dictionary.isEnabled()) {
+            return recordVocabulary(count(sources, this::newCounts, DictionaryCounts::merge, progress).toTable());
+        }
+        return recordVocabulary(count(sources, this::newTable, WordCountEngine::mergeTables, progress));
+    }
+
+    /**
+     * Counts every word of a streamed text into a {@link WordCountTable}.
+     */
+    WordCountTable countWords(Reader text) throws IOException {
+        if (dictionary.isEnabled()) {
+            return recordVocabulary(count(text, newCounts()).toTable());
+        }
+        return recordVocabulary(count(text, newTable()));
+    }
+
+    /**
+     * Creates an empty table, with its word bytes on or off the heap as configured.
+     */
+    WordCountTable newTable() {
+        return new WordCountTable(256, offHeapWordArena ? WordArena.offHeap() : WordArena.onHeap());
+    }
+
+    private DictionaryCounts newCounts() {
+        return new DictionaryCounts(dictionary, newTable());
+    }
+
+    /**
+     * Returns the ids of the {@code n} most frequent words of a table, best first (see {@link TopWords}).
+     */
+    int[] topWords(WordCountTable table, int n) {
+        long start = System.nanoTime();
+        int[] ids = TopWords.select(table, n, pool, TopWords.DEFAULT_PARALLEL_THRESHOLD);
+        metrics.recordSelect(System.nanoTime() - start);
+        return ids;
+    }
+
+    private WordCountTable recordVocabulary(WordCountTable table) {
+        metrics.recordVocabulary(table.size());
+        return table;
+    }
+
+    /**
+     * Scans {@code [from, to)} of a text, in slices that are reported to {@code progress} if there is one.
+     */
+    private static void scanRange(ScanSource text, TokenizerType type, Tokenizer tokenizer, int from, int to,
+                                  WordSink sink, AnalysisProgress progress) {
+        if (progress == null) {
+            text.tokenize(tokenizer, from, to, sink);
+            return;
+        }
+        int start = from;
+        while (start < to) {
+            progress.checkCancelled();
+            int end = to - start <= PROGRESS_SLICE ? to : Math.min(to, text.nextBoundary(type, start + PROGRESS_SLICE));
+            long tokens = tokenizer.tokens();
+            text.tokenize(tokenizer, start, end, sink);
+            progress.add(end - start, tokenizer.tokens() - tokens);
+            start = end;
+        }
+    }
+
+    static WordCountTable mergeTables(WordCountTable left, WordCountTable right) {
+        // Fold the smaller table into the larger one to minimize re-insertions.
+        if (left.size() < right.size()) {
+            right.addAll(left);
+            return right;
+        }
+        left.addAll(right);
+        return left;
+    }
+
+    /**
+     * Runs the count tasks of several sources and merges their results.
+     */
+    private static final class MergeTask<S extends WordSink> extends RecursiveTask<S> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<CountTask<S>> tasks;
+        private final BinaryOperator<S> merger;
+
+        MergeTask(List<CountTask<S>> tasks, BinaryOperator<S> merger) {
+            this.tasks = tasks;
+            this.merger = merger;
+        }
+
+        @Override
+        protected S compute() {
+            S result = null;
+            for (CountTask<S> task : invokeAll(tasks)) {
+                result = result == null ? task.join() : merger.apply(result, task.join());
+            }
+            return result;
+        }
+    }
+
+    private static final class CountTask<S extends WordSink> extends RecursiveTask<S> {
+        private static final long serialVersionUID = 1L;
+
+        private final ScanSource text;
+        private final TokenizerType type;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final Supplier<S> sinkFactory;
+        private final BinaryOperator<S> merger;
+        private final LongAdder tokens;
+        private final AnalysisProgress progress;
+
+        CountTask(ScanSource text, TokenizerType type, int from, int to, int chunkSize, Supplier<S> sinkFactory,
+                  BinaryOperator<S> merger, LongAdder tokens, AnalysisProgress progress) {
+            this.text = text;
+            this.type = type;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.sinkFactory = sinkFactory;
+            this.merger = merger;
+            this.tokens = tokens;
+            this.progress = progress;
+        }
+
+        @Override
+        protected S compute() {
+            if (to - from <= chunkSize) {
+                return scan();
+            }
+
+            int middle = text.nextBoundary(type, from + (to - from) / 2);
+            if (middle >= to) {
+                // One word spans the whole second half; nothing left to split.
+                return scan();
+            }
+
+            CountTask<S> left = new CountTask<>(text, type, from, middle, chunkSize, sinkFactory, merger, tokens,
+                    progress);
+            CountTask<S> right = new CountTask<>(text, type, middle, to, chunkSize, sinkFactory, merger, tokens,
+                    progress);
+            left.fork();
+            S rightResult = right.compute();
+            return merger.apply(left.join(), rightResult);
+        }
+
+        private S scan() {
+            S sink = sinkFactory.get();
+            Tokenizer tokenizer = type.newTokenizer();
+            scanRange(text, type, tokenizer, from, to, sink, progress);
+            tokens.add(tokenizer.tokens());
+            return sink;
+        }
+    }
+}
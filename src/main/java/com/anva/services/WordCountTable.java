@@ -0,0 +1,215 @@
+package com.anva.services;
+
+import java.util.Arrays;
+
+/**
+ * Word count table fed directly by the {@link WordTokenizer}.
+ * <p>
+ * Entries are stored densely (entry ids {@code 0..size-1}) in parallel primitive arrays, with the word bytes appended
+ * to a contiguous {@link WordArena}; entry {@code id} owns the arena bytes {@code [offsets[id], offsets[id + 1])}. An
+ * open-addressing index with linear probing maps word hashes to entry ids. Lookups reuse the hash computed by the
+ * tokenizer and compare the word bytes in place, so counting allocates nothing but the occasional array growth, and
+ * Strings are only created for the words that end up in a result.
+ * <p>
+ * Per distinct word this costs the word bytes plus 12 bytes of entry arrays and 8-16 bytes of index, instead of the
+ * String, value object and hash map node a {@code ConcurrentHashMap<String, WordFrequency>} needs (see the README for
+ * measurements). The table is not thread-safe.
+ */
+final class WordCountTable implements WordSink {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 256;
+
+    private final WordArena arena;
+    private int[] offsets;
+    private int[] hashes;
+    private int[] counts;
+    private int size;
+
+    // Open-addressing index: entry id + 1, or 0 for a free slot.
+    private int[] index;
+    private int mask;
+
+    // Scratch space for copying words out of another table's arena.
+    private byte[] scratch;
+
+    WordCountTable() {
+        this(DEFAULT_EXPECTED_SIZE, WordArena.onHeap());
+    }
+
+    WordCountTable(int expectedSize) {
+        this(expectedSize, WordArena.onHeap());
+    }
+
+    WordCountTable(int expectedSize, WordArena arena) {
+        int capacity = Math.max(4, expectedSize);
+        this.arena = arena;
+        this.offsets = new int[capacity + 1];
+        this.hashes = new int[capacity];
+        this.counts = new int[capacity];
+        int indexCapacity = Integer.highestOneBit(Math.max(8, capacity * 2 - 1)) << 1;
+        this.index = new int[indexCapacity];
+        this.mask = indexCapacity - 1;
+    }
+
+    @Override
+    public void onWord(byte[] word, int length, int hash) {
+        add(word, length, hash, 1);
+    }
+
+    /**
+     * Adds {@code count} occurrences of a word.
+     *
+     * @return The entry id of the word.
+     */
+    int add(byte[] word, int length, int hash, int count) {
+        int slot = hash & mask;
+        int entry;
+        while ((entry = index[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && matches(id, word, length)) {
+                counts[id] += count;
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == hashes.length) {
+            growEntries();
+        }
+        int id = size++;
+        arena.append(word, length);
+        offsets[id + 1] = arena.size();
+        hashes[id] = hash;
+        counts[id] = count;
+        index[slot] = id + 1;
+        if (size * 2 > index.length) {
+            rehash(index.length * 2);
+        }
+        return id;
+    }
+
+    /**
+     * Adds {@code delta} (which may be negative) to the count of an existing entry.
+     */
+    void adjust(int id, int delta) {
+        counts[id] += delta;
+    }
+
+    /**
+     * Returns the count of a word, or 0 if it was never added.
+     */
+    int get(byte[] word, int length, int hash) {
+        int id = find(word, length, hash);
+        return id < 0 ? 0 : counts[id];
+    }
+
+    /**
+     * Returns the entry id of a word, or -1 if it was never added.
+     */
+    int find(byte[] word, int length, int hash) {
+        int slot = hash & mask;
+        int entry;
+        while ((entry = index[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && matches(id, word, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds every entry of another table to this one.
+     */
+    void addAll(WordCountTable other) {
+        for (int id = 0; id < other.size; id++) {
+            int length = other.lengthAt(id);
+            if (scratch == null || scratch.length < length) {
+                scratch = new byte[Math.max(64, length)];
+            }
+            other.arena.copy(other.offsets[id], length, scratch);
+            add(scratch, length, other.hashes[id], other.counts[id]);
+        }
+    }
+
+    /**
+     * Returns the number of distinct words.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the highest count of any word, or 0 if the table is empty.
+     */
+    int maxCount() {
+        int max = 0;
+        for (int id = 0; id < size; id++) {
+            max = Math.max(max, counts[id]);
+        }
+        return max;
+    }
+
+    int countAt(int id) {
+        return counts[id];
+    }
+
+    int hashAt(int id) {
+        return hashes[id];
+    }
+
+    int lengthAt(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Copies the bytes of a word into {@code target}, which must hold at least {@link #lengthAt(int)} bytes.
+     */
+    void copyWord(int id, byte[] target) {
+        arena.copy(offsets[id], lengthAt(id), target);
+    }
+
+    String wordAt(int id) {
+        return arena.toString(offsets[id], lengthAt(id));
+    }
+
+    /**
+     * Compares the words of two entries by their unsigned bytes; for ASCII words this equals String order.
+     */
+    int compareWords(int id, int otherId) {
+        return arena.compare(offsets[id], lengthAt(id), offsets[otherId], lengthAt(otherId));
+    }
+
+    /**
+     * Returns an estimate of the memory held by this table, in bytes.
+     */
+    long estimatedBytes() {
+        return arena.capacity() + 4L * (offsets.length + hashes.length + counts.length + index.length);
+    }
+
+    private boolean matches(int id, byte[] word, int length) {
+        return lengthAt(id) == length && arena.matches(offsets[id], word, length);
+    }
+
+    private void growEntries() {
+        int capacity = hashes.length * 2;
+        offsets = Arrays.copyOf(offsets, capacity + 1);
+        hashes = Arrays.copyOf(hashes, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+    }
+
+    private void rehash(int indexCapacity) {
+        int[] newIndex = new int[indexCapacity];
+        int newMask = indexCapacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & newMask;
+            while (newIndex[slot] != 0) {
+                slot = (slot + 1) & newMask;
+            }
+            newIndex[slot] = id + 1;
+        }
+        index = newIndex;
+        mask = newMask;
+    }
+}
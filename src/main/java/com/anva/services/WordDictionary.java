@@ -0,0 +1,244 @@
+package com.anva.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide dictionary assigning dense int ids to words, shared by all analyses so that the common words of a
+ * language are stored and indexed once rather than once per request.
+ * <p>
+ * The dictionary is append-only and bounded: it holds at most {@code anva.analysis.dictionary.max-words} words, and
+ * an id never changes or goes away, so its slots go to words that have proven common rather than to whatever arrives
+ * first. Counting only looks words up; after a text is counted, its words the dictionary does not hold are
+ * {@linkplain #offer offered}, and a word is admitted once it has been offered by
+ * {@code anva.analysis.dictionary.min-documents} texts. The texts a word was seen in are counted approximately, in
+ * byte counters packed four to an int, {@code 16 * max-words} of them (1 MiB by default, and sized for at least 1024
+ * words): a word has two counters, indexed by two hashes, and its count is the lower one, which other words can only
+ * raise; a sighting only increments the counters at that minimum (conservative update). All counters are halved
+ * after every {@code 4 * max-words} sightings, which keeps collisions rare and lets only recent traffic make a word
+ * common. Words longer than {@link #MAX_WORD_LENGTH} bytes are never admitted; the caller counts the words the
+ * dictionary does not hold elsewhere (see {@link DictionaryCounts}).
+ * <p>
+ * All arrays are allocated up front for the maximum size, so lookups probe a fixed open-addressing index without
+ * locking: an entry is fully written before its index slot is published with a volatile write. Admissions are
+ * serialized, but each word is admitted only once per process, and offers stop once the dictionary is full.
+ * Thread-safe.
+ */
+@Component
+class WordDictionary {
+
+    static final int DEFAULT_MAX_WORDS = 65536;
+
+    static final int DEFAULT_MIN_DOCUMENTS = 3;
+
+    /**
+     * Longest word admitted, in bytes; longer words are rare and would mostly waste dictionary space.
+     */
+    static final int MAX_WORD_LENGTH = 32;
+
+    private final int maxWords;
+    private final int minDocuments;
+    private final byte[][] words;
+    private final int[] hashes;
+
+    // Open-addressing index: id + 1, or 0 for a free slot; published with volatile writes.
+    private final AtomicIntegerArray index;
+    private final int mask;
+    private volatile int size;
+
+    // Texts each word was offered by, approximately: two byte counters per word, four to an int, halved every
+    // resetSightings sightings.
+    private final AtomicIntegerArray sightings;
+    private final int counterMask;
+    private final long resetSightings;
+    private final AtomicLong sightingsSinceReset = new AtomicLong();
+
+    WordDictionary(int maxWords) {
+        this(maxWords, DEFAULT_MIN_DOCUMENTS);
+    }
+
+    @Autowired
+    WordDictionary(@Value("${anva.analysis.dictionary.max-words:" + DEFAULT_MAX_WORDS + "}") int maxWords,
+                   @Value("${anva.analysis.dictionary.min-documents:" + DEFAULT_MIN_DOCUMENTS + "}") int minDocuments) {
+        if (maxWords < 0) {
+            throw new IllegalArgumentException("Dictionary size must not be negative: " + maxWords);
+        }
+        if (minDocuments < 1) {
+            throw new IllegalArgumentException("Documents before admission must be at least 1: " + minDocuments);
+        }
+        this.maxWords = maxWords;
+        this.minDocuments = minDocuments;
+        this.words = new byte[maxWords][];
+        this.hashes = new int[maxWords];
+        int indexCapacity = Integer.highestOneBit(Math.max(4, maxWords) * 2 - 1) << 1;
+        this.index = new AtomicIntegerArray(indexCapacity);
+        this.mask = indexCapacity - 1;
+        // Sized for at least 1024 words, so that one text does not span several halvings of a small dictionary.
+        int sized = Math.max(maxWords, 1024);
+        int counters = maxWords > 0 ? Integer.highestOneBit(sized * 16 - 1) << 1 : 4;
+        this.sightings = new AtomicIntegerArray(counters / 4);
+        this.counterMask = counters - 1;
+        this.resetSightings = 4L * sized;
+    }
+
+    /**
+     * Returns whether words are ever admitted; a dictionary of size 0 disables it.
+     */
+    boolean isEnabled() {
+        return maxWords > 0;
+    }
+
+    /**
+     * Returns the id of a word, or -1 if it is not in the dictionary.
+     */
+    int find(byte[] word, int length, int hash) {
+        int slot = hash & mask;
+        int entry;
+        while ((entry = index.get(slot)) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && Arrays.equals(words[id], 0, words[id].length, word, 0, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Records that a text held the words of a table, and admits those that have now been offered by enough texts. The
+     * table must hold each word once, as a frequency table does.
+     */
+    void offer(WordCountTable table) {
+        if (size >= maxWords) {
+            return;
+        }
+        byte[] word = new byte[MAX_WORD_LENGTH];
+        for (int id = 0; id < table.size(); id++) {
+            int length = table.lengthAt(id);
+            if (length > MAX_WORD_LENGTH) {
+                continue;
+            }
+            int hash = table.hashAt(id);
+            if (sighted(hash) >= minDocuments) {
+                table.copyWord(id, word);
+                intern(word, length, hash);
+                if (size >= maxWords) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a sighting of a word and returns the (approximate) number of texts it has been seen in.
+     */
+    private int sighted(int hash) {
+        int first = hash & counterMask;
+        // A second counter, from a remix of the hash, so two words rarely share both counters.
+        int second = Integer.rotateRight(hash, 16) * 0x9E3779B9 >>> 7 & counterMask;
+        int min = Math.min(counterAt(first), counterAt(second));
+        if (counterAt(first) == min) {
+            increment(first);
+        }
+        if (second != first && counterAt(second) == min) {
+            increment(second);
+        }
+        if (sightingsSinceReset.incrementAndGet() >= resetSightings) {
+            age();
+        }
+        return min + 1;
+    }
+
+    private int counterAt(int counter) {
+        return sightings.get(counter >>> 2) >>> ((counter & 3) << 3) & 0xFF;
+    }
+
+    /**
+     * Increments a byte counter, unless it is saturated.
+     */
+    private void increment(int counter) {
+        int i = counter >>> 2;
+        int shift = (counter & 3) << 3;
+        while (true) {
+            int packed = sightings.get(i);
+            if ((packed >>> shift & 0xFF) == 0xFF || sightings.compareAndSet(i, packed, packed + (1 << shift))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Halves every sighting count, so words common long ago make way for words common now. Concurrent sightings may be
+     * halved or not; either only shifts an admission slightly.
+     */
+    private synchronized void age() {
+        if (sightingsSinceReset.get() < resetSightings) {
+            return;
+        }
+        for (int i = 0; i < sightings.length(); i++) {
+            // Halves the four byte counters of the int at once.
+            sightings.set(i, sightings.get(i) >>> 1 & 0x7F7F7F7F);
+        }
+        sightingsSinceReset.set(0);
+    }
+
+    /**
+     * Returns the id of a word, admitting it if there is room, however often it has been seen.
+     *
+     * @return The id, or -1 if the word is not in the dictionary and cannot be admitted.
+     */
+    int intern(byte[] word, int length, int hash) {
+        int id = find(word, length, hash);
+        if (id >= 0 || length > MAX_WORD_LENGTH || size >= maxWords) {
+            return id;
+        }
+        synchronized (this) {
+            // Another thread may have admitted the word, or filled the dictionary, since the lookup.
+            int slot = hash & mask;
+            int entry;
+            while ((entry = index.get(slot)) != 0) {
+                id = entry - 1;
+                if (hashes[id] == hash && Arrays.equals(words[id], 0, words[id].length, word, 0, length)) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size >= maxWords) {
+                return -1;
+            }
+            id = size;
+            words[id] = Arrays.copyOf(word, length);
+            hashes[id] = hash;
+            index.set(slot, id + 1);
+            size = id + 1;
+            return id;
+        }
+    }
+
+    /**
+     * Returns the number of words admitted so far; ids are {@code 0..size-1}.
+     */
+    int size() {
+        return size;
+    }
+
+    int maxWords() {
+        return maxWords;
+    }
+
+    /**
+     * Returns the bytes of a word; the array must not be modified.
+     */
+    byte[] wordAt(int id) {
+        return words[id];
+    }
+
+    int hashAt(int id) {
+        return hashes[id];
+    }
+}
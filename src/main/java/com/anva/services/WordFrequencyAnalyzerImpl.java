@@ -1,16 +1,23 @@
 package com.anva.services;
 
-import com.anva.models.WordFrequencyImpl;
+import com.anva.models.AnalysisResultImpl;
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.ApproximateResult;
+import com.anva.models.interfaces.AnalysisSpec;
 import com.anva.models.interfaces.WordFrequency;
+import com.anva.services.interfaces.RankedWords;
 import com.anva.services.interfaces.WordFrequencyAnalyzer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.LinkedList;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Implementation of the WordFrequencyAnalyzer interface.
@@ -18,61 +25,170 @@ import java.util.regex.Pattern;
 @Service
 class WordFrequencyAnalyzerImpl implements WordFrequencyAnalyzer {
 
-    final static Pattern ALL_WORDS_REGEX_PATTERN_MATCHER = Pattern.compile("\\b[a-zA-Z]+\\b");
+    /**
+     * Stop words used unless {@code anva.analysis.stop-words} is configured: the common English function words.
+     */
+    static final String DEFAULT_STOP_WORDS = "a,an,and,are,as,at,be,but,by,for,if,in,into,is,it,no,not,of,on,or,"
+            + "such,that,the,their,then,there,these,they,this,to,was,will,with";
+
+    /**
+     * Smallest epsilon of the approximate counts unless {@code anva.analysis.approximate.min-epsilon} is configured.
+     */
+    static final double DEFAULT_MIN_EPSILON = 0.00001;
+
+    private final WordCountEngine engine;
+    private final FrequencyTableCache cache;
+    private final WatchListCache watchLists;
+    private final List<String> stopWords;
+    private final TrendingWordsTracker trending;
+    private final double minEpsilon;
+
+    /**
+     * Default constructor, using the default parallelism threshold and the common fork/join pool, without a cache.
+     */
+    WordFrequencyAnalyzerImpl() {
+        this(new WordCountEngine(WordCountEngine.DEFAULT_PARALLEL_THRESHOLD, StreamWordScanner.DEFAULT_BUFFER_SIZE),
+                new FrequencyTableCache(0), new WatchListCache(WatchListCache.DEFAULT_MAX_ENTRIES));
+    }
+
+    WordFrequencyAnalyzerImpl(WordCountEngine engine, FrequencyTableCache cache, WatchListCache watchLists) {
+        this(engine, cache, watchLists, DEFAULT_STOP_WORDS);
+    }
+
+    WordFrequencyAnalyzerImpl(WordCountEngine engine, FrequencyTableCache cache, WatchListCache watchLists,
+                              String stopWords) {
+        this(engine, cache, watchLists, stopWords, TrendingWordsTracker.disabled());
+    }
+
+    WordFrequencyAnalyzerImpl(WordCountEngine engine, FrequencyTableCache cache, WatchListCache watchLists,
+                              String stopWords, TrendingWordsTracker trending) {
+        this(engine, cache, watchLists, stopWords, trending, DEFAULT_MIN_EPSILON);
+    }
+
+    @Autowired
+    WordFrequencyAnalyzerImpl(WordCountEngine engine, FrequencyTableCache cache, WatchListCache watchLists,
+                              @Value("${anva.analysis.stop-words:" + DEFAULT_STOP_WORDS + "}") String stopWords,
+                              TrendingWordsTracker trending,
+                              @Value("${anva.analysis.approximate.min-epsilon:" + DEFAULT_MIN_EPSILON + "}")
+                              double minEpsilon) {
+        // Fails for a floor that would need more counters than a summary may have.
+        SpaceSaving.capacityFor(minEpsilon);
+        this.minEpsilon = minEpsilon;
+        this.engine = engine;
+        this.cache = cache;
+        this.watchLists = watchLists;
+        this.trending = trending;
+        this.stopWords = Arrays.stream(stopWords.split(","))
+                .map(String::trim)
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
 
     /**
      * @inheritDoc
      */
     @Override
     public int calculateHighestFrequency(String text) {
-        if (text == null || text.trim().isEmpty()) {
+        if (text == null || text.isEmpty()) {
             return 0;
         }
 
-        // Parse tokens (words) using regular expression, and count in parallel for potential speedup on large inputs.
-        // However, the overhead of synchronization may outweigh the benefits on smaller inputs.
-        // In a heavily loaded system, keeping this to sequential processing might be better for overall thoroughput
-        // because the CPU might not be available to do parallel processing, and also the context switching is additional overhead.
+        // Small texts are counted sequentially; large ones in parallel chunks, each into a private table that is merged
+        // at the end, so tokens never contend on shared state.
+        return countWords(text).maxCount();
+    }
 
-        AtomicReference<WordFrequency> wordWithHighestFrequency = new AtomicReference<>(null);
-        ConcurrentHashMap<String, WordFrequency> wordFrequencyMap = new ConcurrentHashMap<>();
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateHighestFrequency(Reader text) throws IOException {
+        return countWords(text).maxCount();
+    }
 
-        ALL_WORDS_REGEX_PATTERN_MATCHER.matcher(text).results().parallel().forEach(token -> {
-            wordFrequencyMap.compute(token.group().toLowerCase(), (key, value) -> {
-                WordFrequency newFreq;
-                if (value == null) {
-                    newFreq = new WordFrequencyImpl(key, 1);
-                } else {
-                    newFreq = value.setFrequency(value.getFrequency() + 1);
-                }
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateHighestFrequency(ByteBuffer text) {
+        return countWords(text).maxCount();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateFrequencyForWord(String text, String word) {
+        byte[] target = engine.tokenizer().normalize(word);
+        if (text == null || target == null) {
+            // The word can never be produced by the tokenizer (empty, or contains non-letters).
+            return 0;
+        }
 
-                wordWithHighestFrequency.updateAndGet(current -> {
-                    if (current == null || newFreq.getFrequency() > current.getFrequency()) {
-                        return newFreq;
-                    }
-                    return current;
-                });
+        if (cache.isEnabled()) {
+            // Counting the whole table costs a little more than matching one word, but later requests reuse it. Like
+            // the uncached path, single-word queries are not recorded for the trending words.
+            return cache.get(text, engine::countWords).get(target, target.length, WordHash.hash(target, target.length));
+        }
 
-                return newFreq;
-            });
-        });
+        // Compare each token in place against the target; no table is needed for a single word.
+        SingleWordCounter counter = new SingleWordCounter(target);
+        return engine.count(text, counter::newCounter, SingleWordCounter::merge).frequency();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateFrequencyForWord(Reader text, String word) throws IOException {
+        byte[] target = engine.tokenizer().normalize(word);
+        if (target == null) {
+            return 0;
+        }
 
+        return engine.count(text, new SingleWordCounter(target)).frequency();
+    }
 
-        if (wordWithHighestFrequency.get() == null) {
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateFrequencyForWord(ByteBuffer text, String word) {
+        byte[] target = engine.tokenizer().normalize(word);
+        if (target == null) {
             return 0;
         }
-        return wordWithHighestFrequency.get().getFrequency();
+
+        if (cache.isEnabled()) {
+            return cache.get(text, engine::countWords).get(target, target.length, WordHash.hash(target, target.length));
+        }
+
+        SingleWordCounter counter = new SingleWordCounter(target);
+        return engine.count(text, counter::newCounter, SingleWordCounter::merge).frequency();
     }
 
     /**
      * @inheritDoc
      */
     @Override
-    public int calculateFrequencyForWord(String text, String word) {
-        Pattern wordPatternRegex = Pattern.compile("\\b" + word + "\\b");
-        AtomicInteger frequency = new AtomicInteger(0);
-        wordPatternRegex.matcher(text).results().parallel().forEach(it -> frequency.getAndIncrement());
-        return frequency.get();
+    public Map<String, Integer> calculateFrequenciesForWords(String text, List<String> words) {
+        return frequenciesForWords(engine, text, words);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public Map<String, Integer> calculateFrequenciesForWords(Reader text, List<String> words) throws IOException {
+        return frequenciesForWords(engine, text, words);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public Map<String, Integer> calculateFrequenciesForWords(ByteBuffer text, List<String> words) {
+        return frequenciesForWords(engine, text, words);
     }
 
     /**
@@ -80,30 +196,297 @@ class WordFrequencyAnalyzerImpl implements WordFrequencyAnalyzer {
      */
     @Override
     public List<WordFrequency> calculateMostFrequentNWords(String text, int n) {
-        // Map: normalized word -> mutable frequency holder (WordFrequencyImpl is used as value object here)
-        ConcurrentHashMap<String, WordFrequency> wordFrequencyMap = new ConcurrentHashMap<>();
-
-        // Parse token (words) using regular expression, and count in parallel for potential speedup on large inputs.
-        // However, the overhead of synchronization may outweigh the benefits on smaller inputs.
-        // In a heavily loaded system, keeping this to sequential processing might be better for overall thoroughput
-        // because the CPU might not be available to do parallel processing, and also the context switching is additional overhead.
-        ALL_WORDS_REGEX_PATTERN_MATCHER.matcher(text).results().parallel().forEach(it -> {
-            wordFrequencyMap.compute(it.group().toLowerCase(), (k, v) -> {
-                if (v == null) {
-                    return new WordFrequencyImpl(k, 1); // first occurrence
-                } else {
-                    return v.setFrequency(v.getFrequency() + 1); // increment existing
-                }
-            });
-        });
-
-        // Sort by frequency desc, then word asc; truncate to n results.
-        return wordFrequencyMap.values().stream()
-                .sorted((a, b) -> {
-                    int freqCompare = Integer.compare(b.getFrequency(), a.getFrequency());
-                    return freqCompare != 0 ? freqCompare : a.getWord().compareTo(b.getWord());
-                })
-                .limit(n)
-                .toList();
+        if (text == null || n <= 0) {
+            return List.of();
+        }
+
+        WordCountTable table = countWords(text);
+        return TopWords.toWordFrequencies(table, engine.topWords(table, n));
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public List<WordFrequency> calculateMostFrequentNWords(Reader text, int n) throws IOException {
+        if (n <= 0) {
+            return List.of();
+        }
+
+        WordCountTable table = countWords(text);
+        return TopWords.toWordFrequencies(table, engine.topWords(table, n));
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public List<WordFrequency> calculateMostFrequentNWords(ByteBuffer text, int n) {
+        if (n <= 0) {
+            return List.of();
+        }
+
+        WordCountTable table = countWords(text);
+        return TopWords.toWordFrequencies(table, engine.topWords(table, n));
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public RankedWords rankMostFrequentNWords(String text, int n) {
+        if (text == null || n <= 0) {
+            return TopWords.toRankedWords(engine.newTable(), new int[0]);
+        }
+
+        WordCountTable table = countWords(text);
+        return TopWords.toRankedWords(table, engine.topWords(table, n));
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public RankedWords rankMostFrequentNWords(Reader text, int n) throws IOException {
+        if (n <= 0) {
+            return TopWords.toRankedWords(engine.newTable(), new int[0]);
+        }
+
+        WordCountTable table = countWords(text);
+        return TopWords.toRankedWords(table, engine.topWords(table, n));
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public RankedWords rankMostFrequentNWords(ByteBuffer text, int n) {
+        if (n <= 0) {
+            return TopWords.toRankedWords(engine.newTable(), new int[0]);
+        }
+
+        WordCountTable table = countWords(text);
+        return TopWords.toRankedWords(table, engine.topWords(table, n));
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateHighestNGramFrequency(String text, int length, boolean excludeStopWords) {
+        Supplier<NGramCounts> factory = nGramCounts(length, excludeStopWords);
+        if (text == null) {
+            return 0;
+        }
+        // Chunks are counted in parallel like words; the merge also counts the n-grams spanning chunk boundaries.
+        return engine.count(text, factory, NGramCounts::merge).maxCount();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateHighestNGramFrequency(Reader text, int length, boolean excludeStopWords) throws IOException {
+        return engine.count(text, nGramCounts(length, excludeStopWords).get()).maxCount();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int calculateHighestNGramFrequency(ByteBuffer text, int length, boolean excludeStopWords) {
+        return engine.count(text, nGramCounts(length, excludeStopWords), NGramCounts::merge).maxCount();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public List<WordFrequency> calculateMostFrequentNGrams(String text, int length, int n, boolean excludeStopWords) {
+        Supplier<NGramCounts> factory = nGramCounts(length, excludeStopWords);
+        if (text == null || n <= 0) {
+            return List.of();
+        }
+        return mostFrequentNGrams(engine.count(text, factory, NGramCounts::merge), n);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public List<WordFrequency> calculateMostFrequentNGrams(Reader text, int length, int n, boolean excludeStopWords)
+            throws IOException {
+        Supplier<NGramCounts> factory = nGramCounts(length, excludeStopWords);
+        if (n <= 0) {
+            return List.of();
+        }
+        return mostFrequentNGrams(engine.count(text, factory.get()), n);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public List<WordFrequency> calculateMostFrequentNGrams(ByteBuffer text, int length, int n,
+                                                           boolean excludeStopWords) {
+        Supplier<NGramCounts> factory = nGramCounts(length, excludeStopWords);
+        if (n <= 0) {
+            return List.of();
+        }
+        return mostFrequentNGrams(engine.count(text, factory, NGramCounts::merge), n);
+    }
+
+    /**
+     * Checks the length and compiles the stop words (once per request), and returns a factory of empty counts.
+     */
+    private Supplier<NGramCounts> nGramCounts(int length, boolean excludeStopWords) {
+        if (length < 1 || length > NGramCounts.MAX_LENGTH) {
+            throw new IllegalArgumentException("N-gram length must be between 1 and " + NGramCounts.MAX_LENGTH
+                    + ": " + length);
+        }
+        WatchList stopList = excludeStopWords && !stopWords.isEmpty()
+                ? watchLists.get(stopWords, engine.tokenizer())
+                : null;
+        return () -> new NGramCounts(length, stopList, engine.newTable());
+    }
+
+    private List<WordFrequency> mostFrequentNGrams(NGramCounts counts, int n) {
+        // Only the n-grams that can make the top n are spelled out as phrases, and then ranked like words.
+        WordCountTable phrases = counts.toTable(n);
+        return TopWords.toWordFrequencies(phrases, engine.topWords(phrases, n));
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public AnalysisResult analyze(String text, AnalysisSpec spec) {
+        WordCountEngine engine = AnalysisResults.engineFor(this.engine, spec);
+        if (isWordsOnly(spec)) {
+            return new AnalysisResultImpl(null, null, frequenciesForWords(engine, text, spec.getWords()));
+        }
+        if (text == null) {
+            return AnalysisResults.of(engine, engine.newTable(), spec);
+        }
+        // Cached tables were counted with the configured tokenizer.
+        WordCountTable table = engine == this.engine ? countWords(text) : record(engine.countWords(text));
+        return AnalysisResults.of(engine, table, spec);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public AnalysisResult analyze(Reader text, AnalysisSpec spec) throws IOException {
+        WordCountEngine engine = AnalysisResults.engineFor(this.engine, spec);
+        if (isWordsOnly(spec)) {
+            return new AnalysisResultImpl(null, null, frequenciesForWords(engine, text, spec.getWords()));
+        }
+        return AnalysisResults.of(engine, record(engine.countWords(text)), spec);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public AnalysisResult analyze(ByteBuffer text, AnalysisSpec spec) {
+        WordCountEngine engine = AnalysisResults.engineFor(this.engine, spec);
+        if (isWordsOnly(spec)) {
+            return new AnalysisResultImpl(null, null, frequenciesForWords(engine, text, spec.getWords()));
+        }
+        WordCountTable table = engine == this.engine ? countWords(text) : record(engine.countWords(text));
+        return AnalysisResults.of(engine, table, spec);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public ApproximateResult estimateMostFrequentNWords(String text, int n, double epsilon) {
+        int capacity = capacityFor(epsilon);
+        if (text == null) {
+            return toApproximateResult(new SpaceSaving(capacity), n);
+        }
+        // Every chunk is summarized into its own counters, and the summaries are merged like tables.
+        return toApproximateResult(engine.count(text, () -> new SpaceSaving(capacity), SpaceSaving::merge), n);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public ApproximateResult estimateMostFrequentNWords(Reader text, int n, double epsilon) throws IOException {
+        return toApproximateResult(engine.count(text, new SpaceSaving(capacityFor(epsilon))), n);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public ApproximateResult estimateMostFrequentNWords(ByteBuffer text, int n, double epsilon) {
+        int capacity = capacityFor(epsilon);
+        return toApproximateResult(engine.count(text, () -> new SpaceSaving(capacity), SpaceSaving::merge), n);
+    }
+
+    /**
+     * Returns the counters for an epsilon, raising an epsilon below the configured floor to the floor, so a client
+     * cannot make every summary (one per chunk) as large as the most counters allowed. The result reports the counters
+     * used, and so the error bound actually guaranteed.
+     */
+    private int capacityFor(double epsilon) {
+        return SpaceSaving.capacityFor(epsilon > 0 ? Math.max(epsilon, minEpsilon) : epsilon);
+    }
+
+    private ApproximateResult toApproximateResult(SpaceSaving summary, int n) {
+        WordCountTable table = summary.toTable();
+        return AnalysisResults.approximate(summary, table, n > 0 ? engine.topWords(table, n) : null);
+    }
+
+    private static boolean isWordsOnly(AnalysisSpec spec) {
+        return !spec.isHighestFrequency() && spec.getMostFrequentWords() == 0 && !spec.getWords().isEmpty();
+    }
+
+    /**
+     * Returns the table of an in-memory text (a String or UTF-8 bytes), from the cache if the same text was counted
+     * before, and records it for the trending words. Streamed texts are never cached: their content hash is only known once they have been read.
+     */
+    private WordCountTable countWords(String text) {
+        return record(cache.get(text, engine::countWords));
+    }
+
+    private WordCountTable countWords(Reader text) throws IOException {
+        return record(engine.countWords(text));
+    }
+
+    private WordCountTable countWords(ByteBuffer text) {
+        return record(cache.get(text, engine::countWords));
+    }
+
+    /**
+     * Records the table of an analyzed document for the trending words, whichever tokenizer counted it.
+     */
+    private WordCountTable record(WordCountTable table) {
+        trending.record(table);
+        return table;
+    }
+
+    private Map<String, Integer> frequenciesForWords(WordCountEngine engine, String text, List<String> words) {
+        // Only the listed words are counted, in one pass; no frequency table is built.
+        WatchList watchList = watchLists.get(words, engine.tokenizer());
+        if (text == null) {
+            return watchList.frequencies(watchList.newCounter());
+        }
+        return watchList.frequencies(engine.count(text, watchList::newCounter, WatchList.Counter::merge));
+    }
+
+    private Map<String, Integer> frequenciesForWords(WordCountEngine engine, ByteBuffer text, List<String> words) {
+        WatchList watchList = watchLists.get(words, engine.tokenizer());
+        return watchList.frequencies(engine.count(text, watchList::newCounter, WatchList.Counter::merge));
+    }
+
+    private Map<String, Integer> frequenciesForWords(WordCountEngine engine, Reader text, List<String> words)
+            throws IOException {
+        WatchList watchList = watchLists.get(words, engine.tokenizer());
+        return watchList.frequencies(engine.count(text, watchList.newCounter()));
     }
-}
\ No newline at end of file
+}
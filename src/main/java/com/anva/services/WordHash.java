@@ -0,0 +1,45 @@
+package com.anva.services;
+
+/**
+ * Hash function shared by the tokenizer and the word count tables.
+ * <p>
+ * The tokenizer computes the hash incrementally while it scans a word, so the function is split into a per-byte
+ * {@link #step(int, int)} and a {@link #finish(int)} that spreads the bits for open addressing.
+ */
+final class WordHash {
+
+    static final int SEED = 0x811C9DC5;
+
+    private WordHash() {
+    }
+
+    /**
+     * FNV-1a step for one byte of a word.
+     */
+    static int step(int hash, int b) {
+        return (hash ^ b) * 0x01000193;
+    }
+
+    /**
+     * Murmur3 finalizer, so that the low bits used for table indexing depend on every byte of the word.
+     */
+    static int finish(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Hashes a whole word in one go; equivalent to what the tokenizer computes while scanning.
+     */
+    static int hash(byte[] word, int length) {
+        int hash = SEED;
+        for (int i = 0; i < length; i++) {
+            hash = step(hash, word[i]);
+        }
+        return finish(hash);
+    }
+}
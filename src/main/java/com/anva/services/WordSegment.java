@@ -0,0 +1,247 @@
+package com.anva.services;
+
+import com.anva.models.WordFrequencyImpl;
+import com.anva.models.interfaces.WordFrequency;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable, memory-mapped word count table of one document, stored as a segment file.
+ * <p>
+ * A segment holds the dictionary of the document sorted by word, so a word is looked up by binary search directly in
+ * the mapped file, together with the counts and the frequency ranking of the dictionary entries, so the top N words
+ * are simply its first N entries. Opening a segment maps it and checks its header; nothing is parsed or copied onto the
+ * heap. Layout (big-endian):
+ * <pre>
+ * int   magic, version, words (V), maxCount
+ * long  totalWords
+ * int   wordBytes
+ * int[] offsets[V + 1]   start of each word within the word bytes, in dictionary order
+ * int[] counts[V]        in dictionary order
+ * int[] ranking[V]       dictionary positions by frequency descending, then word ascending
+ * byte[] words[wordBytes]
+ * </pre>
+ */
+final class WordSegment {
+
+    private static final int MAGIC = 0x414E5653; // "ANVS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 28;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int maxCount;
+    private final long totalWords;
+    private final int offsetsStart;
+    private final int countsStart;
+    private final int rankingStart;
+    private final int wordsStart;
+
+    private WordSegment(ByteBuffer buffer, Path file) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a word segment: " + file.getFileName());
+        }
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+        this.maxCount = buffer.getInt(12);
+        this.totalWords = buffer.getLong(16);
+        int wordBytes = buffer.getInt(24);
+        this.offsetsStart = HEADER_SIZE;
+        this.countsStart = offsetsStart + 4 * (size + 1);
+        this.rankingStart = countsStart + 4 * size;
+        this.wordsStart = rankingStart + 4 * size;
+        if (size < 0 || wordBytes < 0 || (long) wordsStart + wordBytes != buffer.capacity()) {
+            throw new IOException("Truncated word segment: " + file.getFileName());
+        }
+    }
+
+    /**
+     * Maps a segment file.
+     */
+    static WordSegment open(Path file) throws IOException {
+        // The mapping stays valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Word segment exceeds 2 GB: " + file.getFileName());
+            }
+            return new WordSegment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file);
+        }
+    }
+
+    /**
+     * Writes a table as a segment file. The file is written next to its target and moved into place, so a segment is
+     * either complete or absent.
+     *
+     * @param table   The counted words of the document.
+     * @param ranking All entry ids of the table, by frequency descending, then word ascending.
+     * @param file    The segment file to create.
+     */
+    static void write(WordCountTable table, int[] ranking, Path file) throws IOException {
+        int size = table.size();
+        int[] dictionary = sortByWord(table);
+        int[] positions = new int[size];
+        for (int position = 0; position < size; position++) {
+            positions[dictionary[position]] = position;
+        }
+
+        long totalWords = 0;
+        int wordBytes = 0;
+        for (int id = 0; id < size; id++) {
+            totalWords += table.countAt(id);
+            wordBytes += table.lengthAt(id);
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeInt(table.maxCount());
+            out.writeLong(totalWords);
+            out.writeInt(wordBytes);
+
+            int offset = 0;
+            for (int id : dictionary) {
+                out.writeInt(offset);
+                offset += table.lengthAt(id);
+            }
+            out.writeInt(offset);
+            for (int id : dictionary) {
+                out.writeInt(table.countAt(id));
+            }
+            for (int id : ranking) {
+                out.writeInt(positions[id]);
+            }
+
+            byte[] word = new byte[64];
+            for (int id : dictionary) {
+                int length = table.lengthAt(id);
+                if (word.length < length) {
+                    word = new byte[length];
+                }
+                table.copyWord(id, word);
+                out.write(word, 0, length);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the number of distinct words.
+     */
+    int size() {
+        return size;
+    }
+
+    int maxCount() {
+        return maxCount;
+    }
+
+    long totalWords() {
+        return totalWords;
+    }
+
+    /**
+     * Returns the count of a normalized word, or 0 if the document does not contain it.
+     */
+    int frequency(byte[] word) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareWord(middle, word);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return countAt(middle);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the {@code n} most frequent words, best first.
+     */
+    List<WordFrequency> topWords(int n) {
+        int count = Math.max(0, Math.min(n, size));
+        List<WordFrequency> wordFrequencies = new ArrayList<>(count);
+        for (int rank = 0; rank < count; rank++) {
+            int position = buffer.getInt(rankingStart + 4 * rank);
+            wordFrequencies.add(new WordFrequencyImpl(wordAt(position), countAt(position)));
+        }
+        return wordFrequencies;
+    }
+
+    private int countAt(int position) {
+        return buffer.getInt(countsStart + 4 * position);
+    }
+
+    private int offsetAt(int position) {
+        return wordsStart + buffer.getInt(offsetsStart + 4 * position);
+    }
+
+    private String wordAt(int position) {
+        int offset = offsetAt(position);
+        byte[] word = new byte[offsetAt(position + 1) - offset];
+        buffer.get(offset, word);
+        return new String(word, StandardCharsets.UTF_8);
+    }
+
+    private int compareWord(int position, byte[] word) {
+        int offset = offsetAt(position);
+        int length = offsetAt(position + 1) - offset;
+        int common = Math.min(length, word.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (buffer.get(offset + i) & 0xFF) - (word[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - word.length;
+    }
+
+    /**
+     * Returns all entry ids of the table in word order (bottom-up merge sort).
+     */
+    private static int[] sortByWord(WordCountTable table) {
+        int size = table.size();
+        int[] ids = new int[size];
+        for (int id = 0; id < size; id++) {
+            ids[id] = id;
+        }
+
+        int[] scratch = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size; low += 2 * width) {
+                int middle = Math.min(low + width, size);
+                int high = Math.min(low + 2 * width, size);
+                int i = low;
+                int j = middle;
+                for (int k = low; k < high; k++) {
+                    if (j == high || (i < middle && table.compareWords(ids[i], ids[j]) <= 0)) {
+                        scratch[k] = ids[i++];
+                    } else {
+                        scratch[k] = ids[j++];
+                    }
+                }
+            }
+            int[] sorted = scratch;
+            scratch = ids;
+            ids = sorted;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,18 @@
+package com.anva.services;
+
+/**
+ * Callback receiving the words found by a {@link Tokenizer}.
+ */
+@FunctionalInterface
+interface WordSink {
+
+    /**
+     * Called once per word, in text order.
+     *
+     * @param word   Buffer holding the lower-cased word bytes. It is owned by the tokenizer and reused for the next
+     *               word, so implementations must copy whatever they want to keep.
+     * @param length The number of valid bytes in {@code word}.
+     * @param hash   The hash of the word, as computed by {@link WordHash}.
+     */
+    void onWord(byte[] word, int length, int hash);
+}
@@ -0,0 +1,394 @@
+package com.anva.services;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Hand-written word scanner with exactly the semantics of the {@code \b[a-zA-Z]+\b} regex, followed by lower-casing.
+ * <p>
+ * The scanner walks the text once, classifies ASCII letters and folds their case inline, and hashes every word while
+ * copying it into a reusable buffer. No objects are allocated per word. An instance keeps that buffer, and a count of
+ * the words it reported, between calls, so it must not be shared between threads.
+ * <p>
+ * A word is a maximal run of ASCII letters. The regex only matches a run when there is a word boundary on both sides,
+ * where Java regex considers letters, digits (Unicode-aware), '_' and non-spacing marks attached to a base character as
+ * word characters. For ASCII neighbours this is a simple table check; non-ASCII neighbours take a slow path that mirrors
+ * {@code java.util.regex.Pattern}.
+ * <p>
+ * Byte input (e.g. a memory-mapped file) is scanned without decoding: it is treated as UTF-8, and only the multi-byte
+ * sequences that border an ASCII letter run are decoded to check the boundary. Malformed sequences count as U+FFFD,
+ * as they would when decoding the bytes into a String. When the Vector API is available, byte input is classified in
+ * blocks (see {@link AsciiBlocks}): a block without letters is skipped at once, and the end of a word is found from
+ * the block's mask instead of by testing each byte.
+ */
+final class WordTokenizer implements Tokenizer {
+
+    private static final int INITIAL_WORD_CAPACITY = 32;
+
+    private byte[] word = new byte[INITIAL_WORD_CAPACITY];
+    private long tokens;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tokenize(CharSequence text, int from, int to, WordSink sink) {
+        int length = text.length();
+        int i = from;
+
+        // Skip the tail of a word owned by the preceding range.
+        if (i > 0 && isAsciiLetter(text.charAt(i - 1))) {
+            while (i < to && isAsciiLetter(text.charAt(i))) {
+                i++;
+            }
+        }
+
+        byte[] buffer = this.word;
+        while (i < to) {
+            char c = text.charAt(i);
+            if (!isAsciiLetter(c)) {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            int wordLength = 0;
+            int hash = WordHash.SEED;
+            do {
+                if (wordLength == buffer.length) {
+                    buffer = this.word = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int lower = c | 0x20;
+                buffer[wordLength++] = (byte) lower;
+                hash = WordHash.step(hash, lower);
+                i++;
+            } while (i < length && isAsciiLetter(c = text.charAt(i)));
+
+            if (isBoundaryBefore(text, start) && isBoundaryAfter(text, i)) {
+                sink.onWord(buffer, wordLength, WordHash.finish(hash));
+                tokens++;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tokenize(ByteBuffer bytes, int from, int to, WordSink sink) {
+        int length = bytes.limit();
+        int i = from;
+
+        if (i > 0 && isAsciiLetter(bytes.get(i - 1))) {
+            while (i < to && isAsciiLetter(bytes.get(i))) {
+                i++;
+            }
+        }
+
+        byte[] buffer = this.word;
+        while (i < to) {
+            if (AsciiBlocks.VECTORIZED && i + AsciiBlocks.SIZE <= length) {
+                i = tokenizeBlock(bytes, i, to, sink);
+                buffer = this.word;
+                continue;
+            }
+
+            int b = bytes.get(i);
+            if (!isAsciiLetter(b)) {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            int wordLength = 0;
+            int hash = WordHash.SEED;
+            do {
+                if (wordLength == buffer.length) {
+                    buffer = this.word = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int lower = b | 0x20;
+                buffer[wordLength++] = (byte) lower;
+                hash = WordHash.step(hash, lower);
+                i++;
+            } while (i < length && isAsciiLetter(b = bytes.get(i)));
+
+            if (isBoundaryBefore(bytes, start) && isBoundaryAfter(bytes, i)) {
+                sink.onWord(buffer, wordLength, WordHash.finish(hash));
+                tokens++;
+            }
+        }
+    }
+
+    /**
+     * Handles the block of {@link AsciiBlocks#SIZE} bytes at {@code i}: skips it if it holds no letter, and otherwise
+     * scans the first word in it, following the word through further blocks if it runs past this one.
+     *
+     * @return The index to continue at.
+     */
+    private int tokenizeBlock(ByteBuffer bytes, int i, int to, WordSink sink) {
+        long letters = AsciiBlocks.letterMask(bytes, i);
+        if (letters == 0) {
+            return i + AsciiBlocks.SIZE;
+        }
+        int skip = Long.numberOfTrailingZeros(letters);
+        int start = i + skip;
+        if (start >= to) {
+            return start;
+        }
+
+        // Shifting in zeros from the top ends the run at the block end at the latest.
+        int run = Long.numberOfTrailingZeros(~(letters >>> skip));
+        int end = start + run;
+        if (skip + run == AsciiBlocks.SIZE) {
+            end = endOfRun(bytes, end);
+        }
+
+        int wordLength = end - start;
+        byte[] buffer = this.word;
+        if (wordLength > buffer.length) {
+            buffer = this.word = Arrays.copyOf(buffer, Math.max(wordLength, buffer.length * 2));
+        }
+        int hash = WordHash.SEED;
+        for (int j = 0; j < wordLength; j++) {
+            int lower = bytes.get(start + j) | 0x20;
+            buffer[j] = (byte) lower;
+            hash = WordHash.step(hash, lower);
+        }
+
+        if (isBoundaryBefore(bytes, start) && isBoundaryAfter(bytes, end)) {
+            sink.onWord(buffer, wordLength, WordHash.finish(hash));
+            tokens++;
+        }
+        return end;
+    }
+
+    /**
+     * Returns the end of the run of ASCII letters that continues at {@code index}.
+     */
+    private static int endOfRun(ByteBuffer bytes, int index) {
+        int length = bytes.limit();
+        while (index + AsciiBlocks.SIZE <= length) {
+            int run = Long.numberOfTrailingZeros(~AsciiBlocks.letterMask(bytes, index));
+            index += run;
+            if (run < AsciiBlocks.SIZE) {
+                return index;
+            }
+        }
+        while (index < length && isAsciiLetter(bytes.get(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long tokens() {
+        return tokens;
+    }
+
+    /**
+     * Converts a word into the normalized form produced by the tokenizer.
+     *
+     * @param word The word to normalize.
+     * @return The lower-cased ASCII bytes of the word, or {@code null} if the tokenizer could never produce it.
+     */
+    static byte[] normalize(String word) {
+        if (word == null || word.isEmpty()) {
+            return null;
+        }
+        byte[] bytes = new byte[word.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            char c = word.charAt(i);
+            if (!isAsciiLetter(c)) {
+                return null;
+            }
+            bytes[i] = (byte) (c | 0x20);
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the first index at or after {@code index} that is not inside a run of ASCII letters, so that cutting the
+     * text there never splits a word.
+     */
+    static int nextBoundary(CharSequence text, int index) {
+        int length = text.length();
+        while (index > 0 && index < length && isAsciiLetter(text.charAt(index - 1)) && isAsciiLetter(text.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Byte counterpart of {@link #nextBoundary(CharSequence, int)}.
+     */
+    static int nextBoundary(ByteBuffer bytes, int index) {
+        int length = bytes.limit();
+        while (index > 0 && index < length && isAsciiLetter(bytes.get(index - 1)) && isAsciiLetter(bytes.get(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns whether a character is ASCII but not a word character. Cutting a text right before such a character, and
+     * scanning both parts as separate texts, finds exactly the words of the whole text.
+     */
+    static boolean isAsciiSeparator(char c) {
+        return c < 0x80 && !isAsciiWordChar(c);
+    }
+
+    static boolean isAsciiLetter(int c) {
+        return (char) ((c | 0x20) - 'a') < 26;
+    }
+
+    /**
+     * Returns whether the index precedes the start of a word, i.e. the character before it is not a word character.
+     */
+    private static boolean isBoundaryBefore(CharSequence text, int start) {
+        if (start == 0) {
+            return true;
+        }
+        char c = text.charAt(start - 1);
+        if (c < 0x80) {
+            return !isAsciiWordChar(c);
+        }
+        int ch = Character.codePointBefore(text, start);
+        return !(isRegexWordChar(ch)
+                || (Character.getType(ch) == Character.NON_SPACING_MARK && hasBaseCharacter(text, start - 1)));
+    }
+
+    /**
+     * Returns whether the index follows the end of a word, i.e. the character at it is not a word character.
+     */
+    private static boolean isBoundaryAfter(CharSequence text, int end) {
+        if (end == text.length()) {
+            return true;
+        }
+        char c = text.charAt(end);
+        if (c < 0x80) {
+            return !isAsciiWordChar(c);
+        }
+        int ch = Character.codePointAt(text, end);
+        return !(isRegexWordChar(ch)
+                || (Character.getType(ch) == Character.NON_SPACING_MARK && hasBaseCharacter(text, end)));
+    }
+
+    private static boolean isBoundaryBefore(ByteBuffer bytes, int start) {
+        if (start == 0) {
+            return true;
+        }
+        int b = bytes.get(start - 1);
+        if (b >= 0) {
+            return !isAsciiWordChar((char) b);
+        }
+
+        // Pattern walks back over UTF-16 chars: a supplementary code point is seen as its lone low surrogate, which
+        // is neither a word character nor a mark.
+        int end = start;
+        int sequenceStart = utf8SequenceStart(bytes, end);
+        int ch = decodeUtf8(bytes, sequenceStart, end);
+        if (isRegexWordChar(ch)) {
+            return false;
+        }
+        while (Character.isBmpCodePoint(ch) && Character.getType(ch) == Character.NON_SPACING_MARK && sequenceStart > 0) {
+            end = sequenceStart;
+            sequenceStart = utf8SequenceStart(bytes, end);
+            ch = decodeUtf8(bytes, sequenceStart, end);
+            if (Character.isBmpCodePoint(ch) && Character.isLetterOrDigit(ch)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBoundaryAfter(ByteBuffer bytes, int end) {
+        int length = bytes.limit();
+        if (end == length) {
+            return true;
+        }
+        int b = bytes.get(end);
+        if (b >= 0) {
+            return !isAsciiWordChar((char) b);
+        }
+
+        // The preceding ASCII letter is always a base character, so any non-spacing mark continues the word.
+        int sequenceEnd = Math.min(length, end + utf8SequenceLength(b));
+        int ch = decodeUtf8(bytes, end, sequenceEnd);
+        return !(isRegexWordChar(ch) || Character.getType(ch) == Character.NON_SPACING_MARK);
+    }
+
+    /**
+     * Returns the start of the UTF-8 sequence that ends just before {@code end}.
+     */
+    static int utf8SequenceStart(ByteBuffer bytes, int end) {
+        int start = end - 1;
+        while (start > 0 && end - start < 4 && (bytes.get(start) & 0xC0) == 0x80) {
+            start--;
+        }
+        return start;
+    }
+
+    static int utf8SequenceLength(int leadByte) {
+        if ((leadByte & 0xE0) == 0xC0) {
+            return 2;
+        }
+        if ((leadByte & 0xF0) == 0xE0) {
+            return 3;
+        }
+        if ((leadByte & 0xF8) == 0xF0) {
+            return 4;
+        }
+        return 1;
+    }
+
+    /**
+     * Decodes the single UTF-8 sequence {@code bytes[start, end)}, or returns U+FFFD if it is malformed.
+     */
+    static int decodeUtf8(ByteBuffer bytes, int start, int end) {
+        int lead = bytes.get(start) & 0xFF;
+        int length = utf8SequenceLength(lead);
+        if (lead < 0x80 || length == 1 || end - start != length) {
+            return lead < 0x80 ? lead : 0xFFFD;
+        }
+        int ch = lead & (0x7F >> length);
+        for (int i = start + 1; i < end; i++) {
+            int b = bytes.get(i);
+            if ((b & 0xC0) != 0x80) {
+                return 0xFFFD;
+            }
+            ch = (ch << 6) | (b & 0x3F);
+        }
+        boolean overlong = ch < (length == 2 ? 0x80 : length == 3 ? 0x800 : 0x10000);
+        if (overlong || ch > Character.MAX_CODE_POINT || Character.isSurrogate((char) ch) && ch <= 0xFFFF) {
+            return 0xFFFD;
+        }
+        return ch;
+    }
+
+    private static boolean isAsciiWordChar(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isRegexWordChar(int ch) {
+        return ch == '_' || Character.isLetterOrDigit(ch);
+    }
+
+    /**
+     * Same walk as {@code Pattern.hasBaseCharacter}: skips non-spacing marks backwards looking for a letter or digit.
+     */
+    private static boolean hasBaseCharacter(CharSequence text, int index) {
+        for (int x = index; x >= 0; x--) {
+            int ch = Character.codePointAt(text, x);
+            if (Character.isLetterOrDigit(ch)) {
+                return true;
+            }
+            if (Character.getType(ch) != Character.NON_SPACING_MARK) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
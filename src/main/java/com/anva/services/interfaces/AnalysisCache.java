@@ -0,0 +1,21 @@
+package com.anva.services.interfaces;
+
+import com.anva.models.interfaces.CacheStatistics;
+
+/**
+ * Interface for inspecting and clearing the cache of computed frequency tables shared by the analyzer methods.
+ */
+public interface AnalysisCache {
+
+    /**
+     * Returns a snapshot of the cache statistics.
+     *
+     * @return The hit, miss, coalescing and eviction counts and the current size of the cache.
+     */
+    CacheStatistics getStatistics();
+
+    /**
+     * Removes every cached table. Computations in flight complete normally but are not cached.
+     */
+    void clear();
+}
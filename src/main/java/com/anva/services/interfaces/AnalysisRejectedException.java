@@ -0,0 +1,42 @@
+package com.anva.services.interfaces;
+
+/**
+ * Thrown when an analysis is not admitted because the analysis capacity is exhausted. The client should retry after
+ * {@link #getRetryAfterSeconds()} seconds.
+ */
+public class AnalysisRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Why an analysis was rejected.
+     */
+    public enum Reason {
+        /**
+         * Too many analyses were already waiting; the analysis was rejected without waiting.
+         */
+        QUEUE_FULL,
+
+        /**
+         * The analysis waited for capacity longer than the configured queue timeout.
+         */
+        QUEUE_TIMEOUT
+    }
+
+    private final Reason reason;
+    private final int retryAfterSeconds;
+
+    public AnalysisRejectedException(Reason reason, int retryAfterSeconds, String message) {
+        super(message);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,58 @@
+package com.anva.services.interfaces;
+
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.models.interfaces.JobStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Interface for analyses that run in the background, for texts too large to analyze within one request.
+ * <p>
+ * Submitting a text returns at once with the ID of a job; the job reports how much of the text it has counted while it
+ * runs, and can be cancelled. Finished jobs are kept for a limited time. Unknown or expired job IDs cause a
+ * {@link java.util.NoSuchElementException}.
+ */
+public interface AsyncAnalyzer {
+
+    /**
+     * Saves a text and queues its analysis.
+     *
+     * @param text    The text to analyze; it is read to its end but not closed.
+     * @param charset The encoding of the text.
+     * @param spec    The results to compute.
+     * @return The status of the new job.
+     * @throws IOException               If the text cannot be read or saved.
+     * @throws AnalysisRejectedException If too many jobs are queued or running.
+     * @throws TextTooLargeException     If the text is longer than the configured limit; nothing of it is kept.
+     */
+    JobStatus submit(InputStream text, Charset charset, AnalysisSpec spec) throws IOException;
+
+    /**
+     * Returns the state and progress of a job.
+     *
+     * @param id The ID of the job.
+     * @return The status of the job.
+     */
+    JobStatus getStatus(String id);
+
+    /**
+     * Returns the results of a job that has succeeded.
+     *
+     * @param id The ID of the job.
+     * @return The requested results; results that were not requested are {@code null}.
+     * @throws IllegalStateException If the job has not succeeded (yet).
+     */
+    AnalysisResult getResult(String id);
+
+    /**
+     * Cancels a job. A queued job never starts; the counting tasks of a running job stop shortly after. Finished jobs
+     * are not affected.
+     *
+     * @param id The ID of the job.
+     * @return The status of the job after the cancellation.
+     */
+    JobStatus cancel(String id);
+}
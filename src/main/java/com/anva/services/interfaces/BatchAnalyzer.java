@@ -0,0 +1,31 @@
+package com.anva.services.interfaces;
+
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.models.interfaces.BatchDocument;
+import com.anva.models.interfaces.BatchResult;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Interface for analyzing many small documents concurrently.
+ */
+public interface BatchAnalyzer {
+
+    /**
+     * Analyzes every document of a batch and reports each result as soon as it is available, in completion order.
+     * <p>
+     * Documents are pulled from the iterator only as fast as they are analyzed, so a batch is never held in memory as a
+     * whole. A document that cannot be analyzed yields a result with an error; the rest of the batch continues.
+     *
+     * @param documents The documents of the batch.
+     * @param spec      The results to compute for every document.
+     * @param aggregate Whether to also compute the results for all documents together.
+     * @param results   Receives the result of each document; it is called from several threads, one call at a time.
+     * @return The results for all documents together, or {@code null} if no aggregate was requested.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the batch.
+     */
+    AnalysisResult analyze(Iterator<? extends BatchDocument> documents, AnalysisSpec spec, boolean aggregate,
+                           Consumer<BatchResult> results) throws InterruptedException;
+}
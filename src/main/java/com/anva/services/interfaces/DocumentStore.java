@@ -0,0 +1,83 @@
+package com.anva.services.interfaces;
+
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.models.interfaces.DocumentFrequency;
+import com.anva.models.interfaces.WordFrequency;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Interface for storing documents once and analyzing them by ID afterwards.
+ * <p>
+ * A stored document is counted once, when it is stored; all queries are answered from its persisted word count index,
+ * without reading its text again. Unknown IDs cause a {@link java.nio.file.NoSuchFileException}.
+ */
+public interface DocumentStore {
+
+    /**
+     * Stores a document and indexes its words.
+     *
+     * @param text The text of the document; it is read to its end but not closed.
+     * @return The ID of the stored document.
+     * @throws IOException If the text cannot be read or the document cannot be written.
+     */
+    String store(Reader text) throws IOException;
+
+    /**
+     * Calculates the highest frequency of any word in a stored document.
+     *
+     * @param id The ID of the document.
+     * @return The highest frequency of any word in the document.
+     * @throws IOException If the document does not exist.
+     */
+    int calculateHighestFrequency(String id) throws IOException;
+
+    /**
+     * Calculates the frequency of a specific word in a stored document.
+     *
+     * @param id   The ID of the document.
+     * @param word The word whose frequency is to be calculated.
+     * @return The frequency of the specified word in the document.
+     * @throws IOException If the document does not exist.
+     */
+    int calculateFrequencyForWord(String id, String word) throws IOException;
+
+    /**
+     * Calculates the most frequent N words in a stored document.
+     *
+     * @param id The ID of the document.
+     * @param n  The number of most frequent words to return.
+     * @return A list of WordFrequency objects representing the most frequent N words.
+     * @throws IOException If the document does not exist.
+     */
+    List<WordFrequency> calculateMostFrequentNWords(String id, int n) throws IOException;
+
+    /**
+     * Computes several results for a stored document at once.
+     *
+     * @param id   The ID of the document.
+     * @param spec The results to compute.
+     * @return The requested results; results that were not requested are {@code null}.
+     * @throws IOException If the document does not exist.
+     */
+    AnalysisResult analyze(String id, AnalysisSpec spec) throws IOException;
+
+    /**
+     * Finds the stored documents that contain a word.
+     *
+     * @param word The word to look up.
+     * @return The documents containing the word and its frequency in each, most frequent first.
+     */
+    List<DocumentFrequency> findDocuments(String word);
+
+    /**
+     * Deletes a stored document and its index.
+     *
+     * @param id The ID of the document.
+     * @throws IOException If the document does not exist or its files cannot be deleted.
+     */
+    void delete(String id) throws IOException;
+}
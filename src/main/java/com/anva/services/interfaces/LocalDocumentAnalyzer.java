@@ -0,0 +1,44 @@
+package com.anva.services.interfaces;
+
+import com.anva.models.interfaces.WordFrequency;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Interface for analyzing word frequencies in documents stored on the analysis host.
+ * <p>
+ * Paths are resolved against the configured document root, and paths leading outside of it are rejected. Files are
+ * read as UTF-8.
+ */
+public interface LocalDocumentAnalyzer {
+
+    /**
+     * Calculates the highest frequency of any word in a local document.
+     *
+     * @param path The path of the document, relative to the document root.
+     * @return The highest frequency of any word in the document.
+     * @throws IOException If the document does not exist or cannot be read.
+     */
+    int calculateHighestFrequency(String path) throws IOException;
+
+    /**
+     * Calculates the frequency of a specific word in a local document.
+     *
+     * @param path The path of the document, relative to the document root.
+     * @param word The word whose frequency is to be calculated.
+     * @return The frequency of the specified word in the document.
+     * @throws IOException If the document does not exist or cannot be read.
+     */
+    int calculateFrequencyForWord(String path, String word) throws IOException;
+
+    /**
+     * Calculates the most frequent N words in a local document.
+     *
+     * @param path The path of the document, relative to the document root.
+     * @param n    The number of most frequent words to return.
+     * @return A list of WordFrequency objects representing the most frequent N words.
+     * @throws IOException If the document does not exist or cannot be read.
+     */
+    List<WordFrequency> calculateMostFrequentNWords(String path, int n) throws IOException;
+}
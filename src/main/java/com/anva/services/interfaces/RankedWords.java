@@ -0,0 +1,31 @@
+package com.anva.services.interfaces;
+
+/**
+ * The most frequent words of a text, by rank, read from the frequency table they were counted into.
+ * <p>
+ * Unlike a list of {@link com.anva.models.interfaces.WordFrequency} objects, no word string exists until it is asked
+ * for, so large rankings can be encoded entry by entry. A word's bytes are its lower-cased UTF-8 encoding.
+ */
+public interface RankedWords {
+
+    /**
+     * @return The number of ranked words.
+     */
+    int size();
+
+    /**
+     * @return The frequency of the word at the given rank, starting at 0.
+     */
+    int frequencyAt(int rank);
+
+    /**
+     * @return The length in bytes of the word at the given rank.
+     */
+    int wordLengthAt(int rank);
+
+    /**
+     * Copies the bytes of the word at the given rank into {@code target}, which must hold at least
+     * {@link #wordLengthAt(int)} bytes.
+     */
+    void copyWordAt(int rank, byte[] target);
+}
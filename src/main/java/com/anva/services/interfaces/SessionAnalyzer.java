@@ -0,0 +1,67 @@
+package com.anva.services.interfaces;
+
+import com.anva.models.interfaces.WordFrequency;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Interface for analyzing texts that grow over time (log tails, transcripts) without re-sending them.
+ * <p>
+ * A session holds the word counts of everything appended to it so far, including words split across appended pieces.
+ * Queries reflect the text as it stands after the last append. Unknown or expired session IDs cause a
+ * {@link java.util.NoSuchElementException}.
+ */
+public interface SessionAnalyzer {
+
+    /**
+     * Opens a new, empty session.
+     *
+     * @return The ID of the session.
+     * @throws AnalysisRejectedException If too many sessions are open.
+     */
+    String createSession();
+
+    /**
+     * Appends a piece of text to a session.
+     *
+     * @param id   The ID of the session.
+     * @param text The text to append; it is read to its end but not closed.
+     * @throws IOException If the text cannot be read.
+     */
+    void append(String id, Reader text) throws IOException;
+
+    /**
+     * Calculates the highest frequency of any word in the text of a session.
+     *
+     * @param id The ID of the session.
+     * @return The highest frequency of any word in the text.
+     */
+    int calculateHighestFrequency(String id);
+
+    /**
+     * Calculates the frequency of a specific word in the text of a session.
+     *
+     * @param id   The ID of the session.
+     * @param word The word whose frequency is to be calculated.
+     * @return The frequency of the specified word in the text.
+     */
+    int calculateFrequencyForWord(String id, String word);
+
+    /**
+     * Calculates the most frequent N words in the text of a session.
+     *
+     * @param id The ID of the session.
+     * @param n  The number of most frequent words to return.
+     * @return A list of WordFrequency objects representing the most frequent N words.
+     */
+    List<WordFrequency> calculateMostFrequentNWords(String id, int n);
+
+    /**
+     * Closes a session and releases its counts.
+     *
+     * @param id The ID of the session.
+     */
+    void closeSession(String id);
+}
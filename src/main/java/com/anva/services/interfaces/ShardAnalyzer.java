@@ -0,0 +1,89 @@
+package com.anva.services.interfaces;
+
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.AnalysisSpec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Interface for counting a corpus sharded across several instances of the service.
+ * <p>
+ * Each instance can count a shard into a partial table, which is exchanged in a compact binary format; partial tables
+ * merge into exactly the counts of the whole corpus, from which the final results are computed. An instance can also
+ * act as coordinator: it cuts a text into shards, has its peers count them, and merges their tables.
+ */
+public interface ShardAnalyzer {
+
+    /**
+     * Media type of encoded partial tables.
+     */
+    String TABLE_MEDIA_TYPE = "application/vnd.anva.word-counts";
+
+    /**
+     * Path of the endpoint that counts a shard into a partial table, relative to the root of an instance.
+     */
+    String TABLE_PATH = "/documents/shards/table";
+
+    /**
+     * Counts the words of a shard.
+     *
+     * @param text The text of the shard.
+     * @return The partial table of the shard.
+     */
+    PartialTable countTable(String text);
+
+    /**
+     * Counts the words of a streamed shard.
+     *
+     * @param text The text of the shard; it is read to its end but not closed.
+     * @return The partial table of the shard.
+     * @throws IOException If reading the text fails.
+     */
+    PartialTable countTable(Reader text) throws IOException;
+
+    /**
+     * Merges encoded partial tables and computes the requested results for the combined counts.
+     *
+     * @param tables One or more encoded partial tables, concatenated; read to the end but not closed.
+     * @param spec   The results to compute.
+     * @return The requested results; the others are null.
+     * @throws IOException If the tables cannot be read; {@link java.io.StreamCorruptedException} or
+     *                     {@link java.io.EOFException} if they are malformed.
+     */
+    AnalysisResult mergeTables(InputStream tables, AnalysisSpec spec) throws IOException;
+
+    /**
+     * Cuts a text into shards at word boundaries, has the peers count them, and merges their partial tables.
+     *
+     * @param text  The text to analyze; it is read to its end but not closed.
+     * @param peers Base URIs of the instances counting the shards, a subset of the configured peers, or empty for all
+     *              of them.
+     * @param spec  The results to compute.
+     * @return The requested results; the others are null.
+     * @throws IllegalArgumentException If no peers are configured, or a peer is not one of them.
+     * @throws IOException              If reading the text or contacting a peer fails, a peer answers with an error, or
+     *                                  a peer does not answer in time.
+     * @throws InterruptedException If interrupted while waiting for the peers.
+     */
+    AnalysisResult analyzeSharded(Reader text, List<URI> peers, AnalysisSpec spec) throws IOException, InterruptedException;
+
+    /**
+     * The counts of one shard, ready to be encoded.
+     */
+    interface PartialTable {
+        /**
+         * @return The number of distinct words.
+         */
+        int size();
+
+        /**
+         * Writes the encoded table; the stream is neither flushed nor closed.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
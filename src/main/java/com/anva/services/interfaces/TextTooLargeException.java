@@ -0,0 +1,20 @@
+package com.anva.services.interfaces;
+
+/**
+ * Thrown when a text is larger than the configured limit for its kind of analysis; nothing of it is kept.
+ */
+public class TextTooLargeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long maxBytes;
+
+    public TextTooLargeException(long maxBytes, String message) {
+        super(message);
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,33 @@
+package com.anva.services.interfaces;
+
+import com.anva.models.interfaces.ApproximateResult;
+
+import java.util.List;
+
+/**
+ * Interface for the words trending across all analyzed documents.
+ * <p>
+ * The word counts of every analyzed document are added to the configured time windows in the background, so a
+ * document may take a moment to show up. Each window only holds the counts of its most recent documents (e.g. the last
+ * hour), and its counts are approximate, with the error guarantees of an {@link ApproximateResult}.
+ */
+public interface TrendingWords {
+
+    /**
+     * Returns the names of the configured windows, shortest first, e.g. {@code 1m}, {@code 1h} and {@code 1d}.
+     *
+     * @return The names of the windows.
+     */
+    List<String> getWindows();
+
+    /**
+     * Returns the most frequent words of the documents analyzed within a window.
+     *
+     * @param window The name of the window.
+     * @param n      The number of words to return.
+     * @return The estimated most frequent words of the window, with their error guarantees.
+     * @throws IllegalArgumentException If the window is not configured.
+     * @throws IllegalStateException    If trending words are disabled.
+     */
+    ApproximateResult mostFrequentNWords(String window, int n);
+}
@@ -1,11 +1,26 @@
 package com.anva.services.interfaces;
 
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.ApproximateResult;
+import com.anva.models.interfaces.AnalysisSpec;
 import com.anva.models.interfaces.WordFrequency;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface for analyzing word frequencies in a given text.
+ * <p>
+ * Every operation has an overload taking a {@link Reader}, which counts the words incrementally while reading, so
+ * memory scales with the vocabulary of the text rather than with its size. The reader is read to its end but not
+ * closed.
+ * <p>
+ * Every operation also has an overload taking a {@link ByteBuffer} of UTF-8 text from index 0 to its limit (e.g. a
+ * buffered request body), which is scanned without decoding it into a String; malformed bytes count as U+FFFD, as they
+ * would when decoding. The buffer is only read.
  */
 public interface WordFrequencyAnalyzer {
 
@@ -17,8 +32,28 @@ public interface WordFrequencyAnalyzer {
      */
     int calculateHighestFrequency(String text);
 
+    /**
+     * Calculates the highest frequency of any word in a streamed text.
+     *
+     * @param text The input text to analyze.
+     * @return The highest frequency of any word in the text.
+     * @throws IOException If reading the text fails.
+     */
+    int calculateHighestFrequency(Reader text) throws IOException;
+
+    /**
+     * Calculates the highest frequency of any word in a UTF-8 text.
+     *
+     * @param text The input text to analyze.
+     * @return The highest frequency of any word in the text.
+     */
+    int calculateHighestFrequency(ByteBuffer text);
+
     /**
      * Calculates the frequency of a specific word in the given text.
+     * <p>
+     * The word is matched case-insensitively against the same tokens the other methods count, so a word containing
+     * anything other than ASCII letters has a frequency of 0.
      *
      * @param text The input text to analyze.
      * @param word The word whose frequency is to be calculated.
@@ -26,6 +61,54 @@ public interface WordFrequencyAnalyzer {
      */
     int calculateFrequencyForWord(String text, String word);
 
+    /**
+     * Calculates the frequency of a specific word in a streamed text.
+     *
+     * @param text The input text to analyze.
+     * @param word The word whose frequency is to be calculated.
+     * @return The frequency of the specified word in the text.
+     * @throws IOException If reading the text fails.
+     */
+    int calculateFrequencyForWord(Reader text, String word) throws IOException;
+
+    /**
+     * Calculates the frequency of a specific word in a UTF-8 text.
+     *
+     * @param text The input text to analyze.
+     * @param word The word whose frequency is to be calculated.
+     * @return The frequency of the specified word in the text.
+     */
+    int calculateFrequencyForWord(ByteBuffer text, String word);
+
+    /**
+     * Calculates the frequencies of several words in the given text in a single pass, matching each word like
+     * {@link #calculateFrequencyForWord(String, String)} does.
+     *
+     * @param text  The input text to analyze.
+     * @param words The words whose frequencies are to be calculated.
+     * @return The frequency of each word, keyed by the word as given, in the given order.
+     */
+    Map<String, Integer> calculateFrequenciesForWords(String text, List<String> words);
+
+    /**
+     * Calculates the frequencies of several words in a streamed text in a single pass.
+     *
+     * @param text  The input text to analyze.
+     * @param words The words whose frequencies are to be calculated.
+     * @return The frequency of each word, keyed by the word as given, in the given order.
+     * @throws IOException If reading the text fails.
+     */
+    Map<String, Integer> calculateFrequenciesForWords(Reader text, List<String> words) throws IOException;
+
+    /**
+     * Calculates the frequencies of several words in a UTF-8 text in a single pass.
+     *
+     * @param text  The input text to analyze.
+     * @param words The words whose frequencies are to be calculated.
+     * @return The frequency of each word, keyed by the word as given, in the given order.
+     */
+    Map<String, Integer> calculateFrequenciesForWords(ByteBuffer text, List<String> words);
+
     /**
      * Calculates the most frequent N words in the given text.
      *
@@ -34,4 +117,190 @@ public interface WordFrequencyAnalyzer {
      * @return A list of WordFrequency objects representing the most frequent N words.
      */
     List<WordFrequency> calculateMostFrequentNWords(String text, int n);
+
+    /**
+     * Calculates the most frequent N words in a streamed text.
+     *
+     * @param text The input text to analyze.
+     * @param n    The number of most frequent words to return.
+     * @return A list of WordFrequency objects representing the most frequent N words.
+     * @throws IOException If reading the text fails.
+     */
+    List<WordFrequency> calculateMostFrequentNWords(Reader text, int n) throws IOException;
+
+    /**
+     * Calculates the most frequent N words in a UTF-8 text.
+     *
+     * @param text The input text to analyze.
+     * @param n    The number of most frequent words to return.
+     * @return A list of WordFrequency objects representing the most frequent N words.
+     */
+    List<WordFrequency> calculateMostFrequentNWords(ByteBuffer text, int n);
+
+    /**
+     * Ranks the most frequent N words in the given text like {@link #calculateMostFrequentNWords(String, int)}, without
+     * creating an object per word, for results too large to build as a list.
+     *
+     * @param text The input text to analyze.
+     * @param n    The number of most frequent words to return.
+     * @return The most frequent N words, by rank.
+     */
+    RankedWords rankMostFrequentNWords(String text, int n);
+
+    /**
+     * Ranks the most frequent N words in a streamed text.
+     *
+     * @param text The input text to analyze.
+     * @param n    The number of most frequent words to return.
+     * @return The most frequent N words, by rank.
+     * @throws IOException If reading the text fails.
+     */
+    RankedWords rankMostFrequentNWords(Reader text, int n) throws IOException;
+
+    /**
+     * Ranks the most frequent N words in a UTF-8 text.
+     *
+     * @param text The input text to analyze.
+     * @param n    The number of most frequent words to return.
+     * @return The most frequent N words, by rank.
+     */
+    RankedWords rankMostFrequentNWords(ByteBuffer text, int n);
+
+    /**
+     * Calculates the highest frequency of any n-gram (run of {@code length} consecutive words) in the given text.
+     * <p>
+     * Words are the tokens the other methods count. With {@code excludeStopWords}, n-grams containing one of the
+     * configured stop words are not counted; for a length of 1 this gives the frequencies of the remaining words.
+     *
+     * @param text             The input text to analyze.
+     * @param length           The number of words per n-gram.
+     * @param excludeStopWords Whether to skip n-grams containing a stop word.
+     * @return The highest frequency of any n-gram in the text.
+     * @throws IllegalArgumentException If the length is not supported.
+     */
+    int calculateHighestNGramFrequency(String text, int length, boolean excludeStopWords);
+
+    /**
+     * Calculates the highest frequency of any n-gram in a streamed text.
+     *
+     * @param text             The input text to analyze.
+     * @param length           The number of words per n-gram.
+     * @param excludeStopWords Whether to skip n-grams containing a stop word.
+     * @return The highest frequency of any n-gram in the text.
+     * @throws IOException If reading the text fails.
+     */
+    int calculateHighestNGramFrequency(Reader text, int length, boolean excludeStopWords) throws IOException;
+
+    /**
+     * Calculates the highest frequency of any n-gram in a UTF-8 text.
+     *
+     * @param text             The input text to analyze.
+     * @param length           The number of words per n-gram.
+     * @param excludeStopWords Whether to skip n-grams containing a stop word.
+     * @return The highest frequency of any n-gram in the text.
+     * @throws IllegalArgumentException If the length is not supported.
+     */
+    int calculateHighestNGramFrequency(ByteBuffer text, int length, boolean excludeStopWords);
+
+    /**
+     * Calculates the most frequent N n-grams in the given text, ordered like the most frequent words: by frequency
+     * descending, then alphabetically. Each n-gram is returned as its words separated by single spaces.
+     *
+     * @param text             The input text to analyze.
+     * @param length           The number of words per n-gram.
+     * @param n                The number of most frequent n-grams to return.
+     * @param excludeStopWords Whether to skip n-grams containing a stop word.
+     * @return A list of WordFrequency objects representing the most frequent N n-grams.
+     * @throws IllegalArgumentException If the length is not supported.
+     */
+    List<WordFrequency> calculateMostFrequentNGrams(String text, int length, int n, boolean excludeStopWords);
+
+    /**
+     * Calculates the most frequent N n-grams in a streamed text.
+     *
+     * @param text             The input text to analyze.
+     * @param length           The number of words per n-gram.
+     * @param n                The number of most frequent n-grams to return.
+     * @param excludeStopWords Whether to skip n-grams containing a stop word.
+     * @return A list of WordFrequency objects representing the most frequent N n-grams.
+     * @throws IOException If reading the text fails.
+     */
+    List<WordFrequency> calculateMostFrequentNGrams(Reader text, int length, int n, boolean excludeStopWords)
+            throws IOException;
+
+    /**
+     * Calculates the most frequent N n-grams in a UTF-8 text.
+     *
+     * @param text             The input text to analyze.
+     * @param length           The number of words per n-gram.
+     * @param n                The number of most frequent n-grams to return.
+     * @param excludeStopWords Whether to skip n-grams containing a stop word.
+     * @return A list of WordFrequency objects representing the most frequent N n-grams.
+     * @throws IllegalArgumentException If the length is not supported.
+     */
+    List<WordFrequency> calculateMostFrequentNGrams(ByteBuffer text, int length, int n, boolean excludeStopWords);
+
+    /**
+     * Computes several results for the given text from a single tokenization and counting pass.
+     *
+     * @param text The input text to analyze.
+     * @param spec The results to compute.
+     * @return The requested results; the others are null.
+     */
+    AnalysisResult analyze(String text, AnalysisSpec spec);
+
+    /**
+     * Computes several results for a streamed text from a single tokenization and counting pass.
+     *
+     * @param text The input text to analyze.
+     * @param spec The results to compute.
+     * @return The requested results; the others are null.
+     * @throws IOException If reading the text fails.
+     */
+    AnalysisResult analyze(Reader text, AnalysisSpec spec) throws IOException;
+
+    /**
+     * Computes several results for a UTF-8 text from a single tokenization and counting pass.
+     *
+     * @param text The input text to analyze.
+     * @param spec The results to compute.
+     * @return The requested results; the others are null.
+     */
+    AnalysisResult analyze(ByteBuffer text, AnalysisSpec spec);
+
+    /**
+     * Estimates the highest frequency and the most frequent N words in the given text, in memory bounded by the
+     * requested accuracy instead of the vocabulary of the text.
+     * <p>
+     * Frequencies are never underestimated, and overestimated by at most {@code epsilon} times the number of words in
+     * the text; the result reports the bound actually reached. An epsilon below the configured minimum is raised to
+     * it, which bounds the memory of one request.
+     *
+     * @param text    The input text to analyze.
+     * @param n       The number of most frequent words to return, or 0 for the highest frequency only.
+     * @param epsilon The largest overestimation allowed, as a fraction of the number of words.
+     * @return The estimates and their error guarantees.
+     */
+    ApproximateResult estimateMostFrequentNWords(String text, int n, double epsilon);
+
+    /**
+     * Estimates the highest frequency and the most frequent N words in a streamed text, in bounded memory.
+     *
+     * @param text    The input text to analyze.
+     * @param n       The number of most frequent words to return, or 0 for the highest frequency only.
+     * @param epsilon The largest overestimation allowed, as a fraction of the number of words.
+     * @return The estimates and their error guarantees.
+     * @throws IOException If reading the text fails.
+     */
+    ApproximateResult estimateMostFrequentNWords(Reader text, int n, double epsilon) throws IOException;
+
+    /**
+     * Estimates the highest frequency and the most frequent N words in a UTF-8 text, in bounded memory.
+     *
+     * @param text    The input text to analyze.
+     * @param n       The number of most frequent words to return, or 0 for the highest frequency only.
+     * @param epsilon The largest overestimation allowed, as a fraction of the number of words.
+     * @return The estimates and their error guarantees.
+     */
+    ApproximateResult estimateMostFrequentNWords(ByteBuffer text, int n, double epsilon);
 }
@@ -0,0 +1,53 @@
+package com.anva.controllers;
+
+import com.anva.ApplicationBoot;
+import com.anva.models.CacheStatisticsImpl;
+import com.anva.services.interfaces.AnalysisCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AnalysisCacheController.class)
+@ContextConfiguration(classes = ApplicationBoot.class)
+class AnalysisCacheControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AnalysisCache analysisCache;
+
+    private static final String BASE_URL = "/documents/cache";
+
+    @Test
+    void getStatistics_ShouldReturnStatistics() throws Exception {
+        // Given
+        when(analysisCache.getStatistics()).thenReturn(new CacheStatisticsImpl(5, 2, 1, 0, 2, 4096, 65536));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(5))
+                .andExpect(jsonPath("$.misses").value(2))
+                .andExpect(jsonPath("$.coalesced").value(1))
+                .andExpect(jsonPath("$.entries").value(2))
+                .andExpect(jsonPath("$.estimatedBytes").value(4096));
+    }
+
+    @Test
+    void clear_ShouldClearCache() throws Exception {
+        // When & Then
+        mockMvc.perform(delete(BASE_URL))
+                .andExpect(status().isNoContent());
+        verify(analysisCache).clear();
+    }
+}
@@ -0,0 +1,111 @@
+package com.anva.controllers;
+
+import com.anva.ApplicationBoot;
+import com.anva.models.AnalysisResultImpl;
+import com.anva.models.BatchResultImpl;
+import com.anva.models.interfaces.BatchDocument;
+import com.anva.models.interfaces.BatchResult;
+import com.anva.services.interfaces.BatchAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BatchController.class)
+@ContextConfiguration(classes = ApplicationBoot.class)
+class BatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BatchAnalyzer batchAnalyzer;
+
+    private static final String BASE_URL = "/documents/batch";
+
+    @Test
+    void analyzeNdjson_ShouldStreamOneLinePerDocumentAndAggregate() throws Exception {
+        // Given
+        when(batchAnalyzer.analyze(any(), any(), eq(true), any())).thenAnswer(invocation -> {
+            Iterator<? extends BatchDocument> documents = invocation.getArgument(0);
+            Consumer<BatchResult> results = invocation.getArgument(3);
+            while (documents.hasNext()) {
+                BatchDocument document = documents.next();
+                results.accept(new BatchResultImpl(document.getIndex(), document.getId(),
+                        new AnalysisResultImpl(document.getText() == null ? null : document.getText().length(), null, null),
+                        null));
+            }
+            return new AnalysisResultImpl(9, null, null);
+        });
+
+        // When
+        MvcResult result = mockMvc.perform(post(BASE_URL)
+                        .param("highestFrequency", "true")
+                        .param("aggregate", "true")
+                        .contentType(BatchController.NDJSON)
+                        .content("{\"id\":\"a\",\"text\":\"one\"}\n\n{\"id\":\"b\",\"text\":\"three\"}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BatchController.NDJSON))
+                .andExpect(content().string("{\"index\":0,\"id\":\"a\",\"result\":{\"highestFrequency\":3}}\n"
+                        + "{\"index\":1,\"id\":\"b\",\"result\":{\"highestFrequency\":5}}\n"
+                        + "{\"aggregate\":{\"highestFrequency\":9}}\n"));
+    }
+
+    @Test
+    void analyzeMultipart_ShouldUseFileNamesAsIds() throws Exception {
+        // Given
+        when(batchAnalyzer.analyze(any(), any(), anyBoolean(), any())).thenAnswer(invocation -> {
+            Iterator<? extends BatchDocument> documents = invocation.getArgument(0);
+            Consumer<BatchResult> results = invocation.getArgument(3);
+            while (documents.hasNext()) {
+                BatchDocument document = documents.next();
+                results.accept(new BatchResultImpl(document.getIndex(), document.getId(), null, document.getText()));
+            }
+            return null;
+        });
+
+        // When
+        MvcResult result = mockMvc.perform(multipart(BASE_URL)
+                        .file(new MockMultipartFile("documents", "a.txt", "text/plain", "alpha".getBytes()))
+                        .file(new MockMultipartFile("documents", "b.txt", "text/plain", "beta".getBytes()))
+                        .param("words", "alpha"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"index\":0,\"id\":\"a.txt\",\"error\":\"alpha\"}\n"
+                        + "{\"index\":1,\"id\":\"b.txt\",\"error\":\"beta\"}\n"));
+    }
+
+    @Test
+    void analyzeNdjson_ShouldReturnBadRequest_WhenNothingRequested() throws Exception {
+        mockMvc.perform(post(BASE_URL)
+                        .contentType(BatchController.NDJSON)
+                        .content("{\"text\":\"one\"}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,96 @@
+package com.anva.controllers;
+
+import com.anva.ApplicationBoot;
+import com.anva.models.WordFrequencyImpl;
+import com.anva.services.interfaces.WordFrequencyAnalyzer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Requests whose body exceeds the buffered-body limit (here: any non-empty body) are streamed to the analyzer.
+ */
+@WebMvcTest(controllers = DocumentController.class, properties = "anva.documents.buffered-body-limit=0")
+@ContextConfiguration(classes = ApplicationBoot.class)
+@Import(SimpleMeterRegistry.class)
+class DocumentControllerStreamingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private WordFrequencyAnalyzer wordFrequencyAnalyzer;
+
+    private static final String BASE_URL = "/documents";
+
+    @Test
+    void calculateHighestFrequency_ShouldStreamBody_WhenBodyExceedsLimit() throws Exception {
+        // Given
+        when(wordFrequencyAnalyzer.calculateHighestFrequency(any(Reader.class))).thenReturn(2);
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/highest-frequency")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("The quick brown fox jumps over the lazy dog"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+        verify(wordFrequencyAnalyzer, never()).calculateHighestFrequency(any(ByteBuffer.class));
+    }
+
+    @Test
+    void calculateFrequencyForWord_ShouldStreamBody_WhenBodyExceedsLimit() throws Exception {
+        // Given
+        when(wordFrequencyAnalyzer.calculateFrequencyForWord(any(Reader.class), eq("the"))).thenReturn(2);
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/word-frequency")
+                        .param("word", "the")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("The quick brown fox jumps over the lazy dog"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+    }
+
+    @Test
+    void calculateFrequencyForWord_ShouldReturnBadRequest_WhenStreamedBodyIsBlank() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/word-frequency")
+                        .param("word", "the")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("  \n\t "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void calculateMostFrequentNWords_ShouldStreamBody_WhenBodyExceedsLimit() throws Exception {
+        // Given
+        when(wordFrequencyAnalyzer.calculateMostFrequentNWords(any(Reader.class), eq(1)))
+                .thenReturn(List.of(new WordFrequencyImpl("the", 2)));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/most-frequent-words")
+                        .param("n", "1")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("The quick brown fox jumps over the lazy dog"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].word").value("the"))
+                .andExpect(jsonPath("$[0].frequency").value(2));
+    }
+}
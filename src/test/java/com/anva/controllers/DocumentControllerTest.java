@@ -2,31 +2,54 @@ package com.anva.controllers;
 
 import com.anva.ApplicationBoot;
 import com.anva.controllers.DocumentController;
+import com.anva.models.AnalysisResultImpl;
+import com.anva.models.ApproximateResultImpl;
+import com.anva.models.ApproximateWordFrequencyImpl;
 import com.anva.models.interfaces.WordFrequency;
 import com.anva.models.WordFrequencyImpl;
+import com.anva.services.interfaces.AnalysisRejectedException;
+import com.anva.services.interfaces.RankedWords;
 import com.anva.services.interfaces.WordFrequencyAnalyzer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(DocumentController.class)
 @ContextConfiguration(classes = ApplicationBoot.class)
+@Import(SimpleMeterRegistry.class)
 class DocumentControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @MockitoBean
     private WordFrequencyAnalyzer wordFrequencyAnalyzer;
 
@@ -37,7 +60,7 @@ class DocumentControllerTest {
         // Given
         String inputText = "The quick brown fox jumps over the lazy dog";
         int expectedFrequency = 2;
-        when(wordFrequencyAnalyzer.calculateHighestFrequency(inputText)).thenReturn(expectedFrequency);
+        when(wordFrequencyAnalyzer.calculateHighestFrequency(utf8(inputText))).thenReturn(expectedFrequency);
 
         // When & Then
         mockMvc.perform(post(BASE_URL + "/highest-frequency")
@@ -53,7 +76,7 @@ class DocumentControllerTest {
         // Given
         String inputText = "";
         int expectedFrequency = 0;
-        when(wordFrequencyAnalyzer.calculateHighestFrequency(inputText)).thenReturn(expectedFrequency);
+        when(wordFrequencyAnalyzer.calculateHighestFrequency(utf8(inputText))).thenReturn(expectedFrequency);
 
         // When & Then
         mockMvc.perform(post(BASE_URL + "/highest-frequency")
@@ -69,7 +92,7 @@ class DocumentControllerTest {
         String inputText = "The quick brown fox jumps over the lazy dog";
         String word = "the";
         int expectedFrequency = 2;
-        when(wordFrequencyAnalyzer.calculateFrequencyForWord(inputText, word)).thenReturn(expectedFrequency);
+        when(wordFrequencyAnalyzer.calculateFrequencyForWord(utf8(inputText), word)).thenReturn(expectedFrequency);
 
         // When & Then
         mockMvc.perform(post(BASE_URL + "/word-frequency")
@@ -87,7 +110,7 @@ class DocumentControllerTest {
         String inputText = "The quick brown fox jumps over the lazy dog";
         String word = "elephant";
         int expectedFrequency = 0;
-        when(wordFrequencyAnalyzer.calculateFrequencyForWord(inputText, word)).thenReturn(expectedFrequency);
+        when(wordFrequencyAnalyzer.calculateFrequencyForWord(utf8(inputText), word)).thenReturn(expectedFrequency);
 
         // When & Then
         mockMvc.perform(post(BASE_URL + "/word-frequency")
@@ -120,7 +143,7 @@ class DocumentControllerTest {
                 new WordFrequencyImpl("quick", 2),
                 new WordFrequencyImpl("fox", 2)
         );
-        when(wordFrequencyAnalyzer.calculateMostFrequentNWords(inputText, n)).thenReturn(expectedWords);
+        when(wordFrequencyAnalyzer.calculateMostFrequentNWords(utf8(inputText), n)).thenReturn(expectedWords);
 
         // When & Then
         mockMvc.perform(post(BASE_URL + "/most-frequent-words")
@@ -144,7 +167,7 @@ class DocumentControllerTest {
         String inputText = "";
         int n = 5;
         List<WordFrequency> expectedWords = List.of();
-        when(wordFrequencyAnalyzer.calculateMostFrequentNWords(inputText, n)).thenReturn(expectedWords);
+        when(wordFrequencyAnalyzer.calculateMostFrequentNWords(utf8(inputText), n)).thenReturn(expectedWords);
 
         // When & Then
         mockMvc.perform(post(BASE_URL + "/most-frequent-words")
@@ -174,7 +197,7 @@ class DocumentControllerTest {
         String inputText = "The quick brown fox";
         int n = 0;
         List<WordFrequency> expectedWords = List.of();
-        when(wordFrequencyAnalyzer.calculateMostFrequentNWords(inputText, n)).thenReturn(expectedWords);
+        when(wordFrequencyAnalyzer.calculateMostFrequentNWords(utf8(inputText), n)).thenReturn(expectedWords);
 
         // When & Then
         mockMvc.perform(post(BASE_URL + "/most-frequent-words")
@@ -190,7 +213,7 @@ class DocumentControllerTest {
         // Given
         String inputText = "Hello, world! How are you? I'm fine, thanks.";
         int expectedFrequency = 1;
-        when(wordFrequencyAnalyzer.calculateHighestFrequency(inputText)).thenReturn(expectedFrequency);
+        when(wordFrequencyAnalyzer.calculateHighestFrequency(utf8(inputText))).thenReturn(expectedFrequency);
 
         // When & Then
         mockMvc.perform(post(BASE_URL + "/highest-frequency")
@@ -199,4 +222,304 @@ class DocumentControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("1"));
     }
+
+    @Test
+    void analyze_ShouldReturnAllRequestedResults_WhenSpecProvided() throws Exception {
+        // Given
+        String inputText = "The quick brown fox jumps over the lazy dog";
+        when(wordFrequencyAnalyzer.analyze(eq(utf8(inputText)), argThat(spec -> spec.isHighestFrequency()
+                && spec.getMostFrequentWords() == 1 && spec.getWords().equals(List.of("fox", "cat")))))
+                .thenReturn(new AnalysisResultImpl(2, List.of(new WordFrequencyImpl("the", 2)),
+                        Map.of("fox", 1, "cat", 0)));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/analyze")
+                        .param("highestFrequency", "true")
+                        .param("n", "1")
+                        .param("words", "fox", "cat")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(inputText))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.highestFrequency").value(2))
+                .andExpect(jsonPath("$.mostFrequentWords[0].word").value("the"))
+                .andExpect(jsonPath("$.wordFrequencies.fox").value(1))
+                .andExpect(jsonPath("$.wordFrequencies.cat").value(0));
+    }
+
+    @Test
+    void analyze_ShouldOmitResultsNotRequested() throws Exception {
+        // Given
+        when(wordFrequencyAnalyzer.analyze(eq(utf8("a b a")), any()))
+                .thenReturn(new AnalysisResultImpl(2, null, null));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/analyze")
+                        .param("highestFrequency", "true")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("a b a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.highestFrequency").value(2))
+                .andExpect(jsonPath("$.mostFrequentWords").doesNotExist());
+    }
+
+    @Test
+    void analyze_ShouldPassTokenizer_WhenRequested() throws Exception {
+        // Given
+        when(wordFrequencyAnalyzer.analyze(eq(utf8("café cafe")),
+                argThat(spec -> "unicode".equals(spec.getTokenizer()))))
+                .thenReturn(new AnalysisResultImpl(1, null, null));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/analyze")
+                        .param("highestFrequency", "true")
+                        .param("tokenizer", "unicode")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("café cafe"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.highestFrequency").value(1));
+    }
+
+    @Test
+    void analyze_ShouldReturnBadRequest_WhenTokenizerUnknown() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/analyze")
+                        .param("highestFrequency", "true")
+                        .param("tokenizer", "klingon")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("a b a"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Error: Invalid input - Unknown tokenizer: klingon (expected ascii or unicode)"));
+    }
+
+    @Test
+    void analyze_ShouldReturnBadRequest_WhenNothingRequested() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/analyze")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("a b a"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void calculateFrequenciesForWords_ShouldReturnFrequencies_WhenWordsProvided() throws Exception {
+        // Given
+        String inputText = "The quick brown fox jumps over the lazy dog";
+        when(wordFrequencyAnalyzer.calculateFrequenciesForWords(utf8(inputText), List.of("the", "cat")))
+                .thenReturn(Map.of("the", 2, "cat", 0));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/word-frequencies")
+                        .param("words", "the", "cat")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(inputText))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.the").value(2))
+                .andExpect(jsonPath("$.cat").value(0));
+    }
+
+    @Test
+    void calculateFrequenciesForWords_ShouldReturnBadRequest_WhenWordIsBlank() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/word-frequencies")
+                        .param("words", "the", " ")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("the"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void calculateHighestFrequency_ShouldReturnTooManyRequests_WhenAnalysisIsRejected() throws Exception {
+        // Given
+        when(wordFrequencyAnalyzer.calculateHighestFrequency(utf8("busy text")))
+                .thenThrow(new AnalysisRejectedException(AnalysisRejectedException.Reason.QUEUE_FULL, 2, "Too many analyses are waiting"));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/highest-frequency")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("busy text"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    void calculateMostFrequentNWords_ShouldReturnServiceUnavailable_WhenAnalysisTimesOut() throws Exception {
+        // Given
+        when(wordFrequencyAnalyzer.calculateMostFrequentNWords(utf8("busy text"), 1))
+                .thenThrow(new AnalysisRejectedException(AnalysisRejectedException.Reason.QUEUE_TIMEOUT, 1, "Timed out"));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/most-frequent-words")
+                        .param("n", "1")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("busy text"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void calculateHighestFrequency_ShouldRecordReadStage_WhenBodyIsBuffered() throws Exception {
+        // Given
+        String inputText = "metered text";
+        when(wordFrequencyAnalyzer.calculateHighestFrequency(utf8(inputText))).thenReturn(1);
+        long reads = meterRegistry.get("anva.request.read").timer().count();
+        double bytes = meterRegistry.get("anva.request.body").summary().totalAmount();
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/highest-frequency")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(inputText))
+                .andExpect(status().isOk());
+        assertEquals(reads + 1, meterRegistry.get("anva.request.read").timer().count());
+        assertEquals(bytes + inputText.length(), meterRegistry.get("anva.request.body").summary().totalAmount());
+    }
+
+    @Test
+    void estimateMostFrequentNWords_ShouldReturnEstimatesWithGuarantees() throws Exception {
+        // Given
+        when(wordFrequencyAnalyzer.estimateMostFrequentNWords(utf8("cat bat cat"), 1, 0.01))
+                .thenReturn(new ApproximateResultImpl(2, List.of(new ApproximateWordFrequencyImpl("cat", 2, 1)), 3, 100, 1));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/approximate/most-frequent-words")
+                        .param("n", "1")
+                        .param("epsilon", "0.01")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("cat bat cat"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.highestFrequency").value(2))
+                .andExpect(jsonPath("$.mostFrequentWords[0].word").value("cat"))
+                .andExpect(jsonPath("$.mostFrequentWords[0].minFrequency").value(1))
+                .andExpect(jsonPath("$.maxError").value(1))
+                .andExpect(jsonPath("$.exact").value(false));
+    }
+
+    @Test
+    void calculateMostFrequentNGrams_ShouldReturnPhrases() throws Exception {
+        // Given
+        when(wordFrequencyAnalyzer.calculateMostFrequentNGrams(utf8("new york, new york"), 2, 1, true))
+                .thenReturn(List.of(new WordFrequencyImpl("new york", 2)));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/ngrams/most-frequent")
+                        .param("n", "1")
+                        .param("excludeStopWords", "true")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("new york, new york"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].word").value("new york"))
+                .andExpect(jsonPath("$[0].frequency").value(2));
+    }
+
+    @Test
+    void calculateHighestNGramFrequency_ShouldReturnBadRequest_WhenLengthIsInvalid() throws Exception {
+        // Given
+        when(wordFrequencyAnalyzer.calculateHighestNGramFrequency(utf8("a b"), 9, false))
+                .thenThrow(new IllegalArgumentException("N-gram length must be between 1 and 5: 9"));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/ngrams/highest-frequency")
+                        .param("length", "9")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("a b"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Error: Invalid input - N-gram length must be between 1 and 5: 9"));
+    }
+
+    @Test
+    void estimateHighestFrequency_ShouldReturnBadRequest_WhenEpsilonIsInvalid() throws Exception {
+        // Given
+        when(wordFrequencyAnalyzer.estimateMostFrequentNWords(utf8("cat"), 0, 2.0))
+                .thenThrow(new IllegalArgumentException("Epsilon must be between 0 and 1: 2.0"));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/approximate/highest-frequency")
+                        .param("epsilon", "2")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("cat"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static RankedWords rankedWords(String[] words, int[] frequencies) {
+        return new RankedWords() {
+            @Override
+            public int size() {
+                return words.length;
+            }
+
+            @Override
+            public int frequencyAt(int rank) {
+                return frequencies[rank];
+            }
+
+            @Override
+            public int wordLengthAt(int rank) {
+                return words[rank].length();
+            }
+
+            @Override
+            public void copyWordAt(int rank, byte[] target) {
+                byte[] bytes = words[rank].getBytes(StandardCharsets.US_ASCII);
+                System.arraycopy(bytes, 0, target, 0, bytes.length);
+            }
+        };
+    }
+
+    @Test
+    void calculateMostFrequentNWords_ShouldStreamBinary_WhenBinaryAccepted() throws Exception {
+        // Given
+        String inputText = "the cat saw the dog";
+        when(wordFrequencyAnalyzer.rankMostFrequentNWords(utf8(inputText), 2))
+                .thenReturn(rankedWords(new String[]{"the", "cat"}, new int[]{2, 1}));
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(expected);
+        data.writeInt(2);
+        data.writeInt(3);
+        data.writeBytes("the");
+        data.writeInt(2);
+        data.writeInt(3);
+        data.writeBytes("cat");
+        data.writeInt(1);
+
+        // When
+        MvcResult result = mockMvc.perform(post(BASE_URL + "/most-frequent-words")
+                        .param("n", "2")
+                        .accept("application/vnd.anva.word-frequencies")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(inputText))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.anva.word-frequencies"))
+                .andExpect(content().bytes(expected.toByteArray()));
+    }
+
+    @Test
+    void calculateMostFrequentNWords_ShouldStreamNdjson_WhenNdjsonAccepted() throws Exception {
+        // Given
+        String inputText = "the cat saw the dog";
+        when(wordFrequencyAnalyzer.rankMostFrequentNWords(utf8(inputText), 2))
+                .thenReturn(rankedWords(new String[]{"the", "cat"}, new int[]{2, 1}));
+
+        // When
+        MvcResult result = mockMvc.perform(post(BASE_URL + "/most-frequent-words")
+                        .param("n", "2")
+                        .accept("application/x-ndjson")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(inputText))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"word\":\"the\",\"frequency\":2}\n{\"word\":\"cat\",\"frequency\":1}\n"));
+    }
+
+    /**
+     * Buffered bodies reach the analyzer as UTF-8 bytes; buffers are equal when their contents are.
+     */
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,146 @@
+package com.anva.controllers;
+
+import com.anva.ApplicationBoot;
+import com.anva.models.AnalysisResultImpl;
+import com.anva.models.JobStatusImpl;
+import com.anva.models.WordFrequencyImpl;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.models.interfaces.JobStatus.State;
+import com.anva.services.interfaces.AsyncAnalyzer;
+import com.anva.services.interfaces.TextTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(JobController.class)
+@ContextConfiguration(classes = ApplicationBoot.class)
+class JobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AsyncAnalyzer asyncAnalyzer;
+
+    private static final String BASE_URL = "/documents/jobs";
+    private static final String ID = "1b2c3d4e-5f6a-4b7c-8d9e-0f1a2b3c4d5e";
+
+    @Test
+    void submit_ShouldReturnAccepted_WhenJobIsQueued() throws Exception {
+        // Given
+        when(asyncAnalyzer.submit(any(InputStream.class), any(Charset.class),
+                argThat((AnalysisSpec spec) -> spec.getMostFrequentWords() == 5 && spec.getWords().equals(List.of("cat")))))
+                .thenReturn(new JobStatusImpl(ID, State.QUEUED, 7, 0, 0, null));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL)
+                        .param("n", "5")
+                        .param("words", "cat")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("the cat"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", BASE_URL + "/" + ID))
+                .andExpect(jsonPath("$.id").value(ID))
+                .andExpect(jsonPath("$.state").value("QUEUED"))
+                .andExpect(jsonPath("$.totalBytes").value(7))
+                .andExpect(jsonPath("$.error").doesNotExist());
+    }
+
+    @Test
+    void submit_ShouldReturnBadRequest_WhenNothingIsRequested() throws Exception {
+        // When & Then
+        mockMvc.perform(post(BASE_URL)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("the cat"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(asyncAnalyzer);
+    }
+
+    @Test
+    void submit_ShouldReturnContentTooLarge_WhenBodyExceedsLimit() throws Exception {
+        // Given
+        when(asyncAnalyzer.submit(any(InputStream.class), any(Charset.class), any(AnalysisSpec.class)))
+                .thenThrow(new TextTooLargeException(4, "The text exceeds the limit of 4 bytes"));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL)
+                        .param("highestFrequency", "true")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("the cat"))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void getStatus_ShouldReturnProgress_WhenJobIsRunning() throws Exception {
+        // Given
+        when(asyncAnalyzer.getStatus(ID)).thenReturn(new JobStatusImpl(ID, State.RUNNING, 100, 40, 8, null));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/" + ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.processedBytes").value(40))
+                .andExpect(jsonPath("$.processedTokens").value(8));
+    }
+
+    @Test
+    void getStatus_ShouldReturnNotFound_WhenJobIsUnknown() throws Exception {
+        // Given
+        when(asyncAnalyzer.getStatus(ID)).thenThrow(new NoSuchElementException(ID));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/" + ID))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getResult_ShouldReturnResults_WhenJobHasSucceeded() throws Exception {
+        // Given
+        when(asyncAnalyzer.getResult(ID)).thenReturn(new AnalysisResultImpl(null,
+                List.of(new WordFrequencyImpl("cat", 2)), Map.of("dog", 1)));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/" + ID + "/result"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mostFrequentWords[0].word").value("cat"))
+                .andExpect(jsonPath("$.wordFrequencies.dog").value(1));
+    }
+
+    @Test
+    void getResult_ShouldReturnConflict_WhenJobHasNotSucceeded() throws Exception {
+        // Given
+        when(asyncAnalyzer.getResult(ID)).thenThrow(new IllegalStateException("Job " + ID + " is RUNNING"));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/" + ID + "/result"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void cancel_ShouldReturnStatus() throws Exception {
+        // Given
+        when(asyncAnalyzer.cancel(ID)).thenReturn(new JobStatusImpl(ID, State.CANCELLED, 100, 0, 0, null));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/" + ID + "/cancel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("CANCELLED"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.anva.controllers;
+
+import com.anva.ApplicationBoot;
+import com.anva.models.WordFrequencyImpl;
+import com.anva.services.interfaces.LocalDocumentAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(LocalDocumentController.class)
+@ContextConfiguration(classes = ApplicationBoot.class)
+class LocalDocumentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LocalDocumentAnalyzer localDocumentAnalyzer;
+
+    private static final String BASE_URL = "/documents/files";
+
+    @Test
+    void calculateHighestFrequency_ShouldReturnHighestFrequency_WhenDocumentExists() throws Exception {
+        // Given
+        when(localDocumentAnalyzer.calculateHighestFrequency("books/a.txt")).thenReturn(7);
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/highest-frequency").param("path", "books/a.txt"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("7"));
+    }
+
+    @Test
+    void calculateMostFrequentNWords_ShouldReturnTopWords_WhenDocumentExists() throws Exception {
+        // Given
+        when(localDocumentAnalyzer.calculateMostFrequentNWords("a.txt", 1))
+                .thenReturn(List.of(new WordFrequencyImpl("the", 7)));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/most-frequent-words").param("path", "a.txt").param("n", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].word").value("the"))
+                .andExpect(jsonPath("$[0].frequency").value(7));
+    }
+
+    @Test
+    void calculateFrequencyForWord_ShouldReturnNotFound_WhenDocumentMissing() throws Exception {
+        // Given
+        when(localDocumentAnalyzer.calculateFrequencyForWord("missing.txt", "the"))
+                .thenThrow(new NoSuchFileException("missing.txt"));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/word-frequency").param("path", "missing.txt").param("word", "the"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void calculateHighestFrequency_ShouldReturnBadRequest_WhenPathOutsideRoot() throws Exception {
+        // Given
+        when(localDocumentAnalyzer.calculateHighestFrequency("../etc/passwd"))
+                .thenThrow(new IllegalArgumentException("Path must be inside the document root"));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/highest-frequency").param("path", "../etc/passwd"))
+                .andExpect(status().isBadRequest());
+    }
+}
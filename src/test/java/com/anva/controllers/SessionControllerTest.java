@@ -0,0 +1,106 @@
+package com.anva.controllers;
+
+import com.anva.ApplicationBoot;
+import com.anva.models.WordFrequencyImpl;
+import com.anva.services.interfaces.AnalysisRejectedException;
+import com.anva.services.interfaces.SessionAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SessionController.class)
+@ContextConfiguration(classes = ApplicationBoot.class)
+class SessionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private SessionAnalyzer sessionAnalyzer;
+
+    private static final String BASE_URL = "/documents/sessions";
+    private static final String ID = "9a0c1d2e-3f4a-4b5c-8d6e-7f8a9b0c1d2e";
+
+    @Test
+    void createSession_ShouldReturnId() throws Exception {
+        // Given
+        when(sessionAnalyzer.createSession()).thenReturn(ID);
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", BASE_URL + "/" + ID))
+                .andExpect(jsonPath("$.id").value(ID));
+    }
+
+    @Test
+    void createSession_ShouldReturnTooManyRequests_WhenTooManySessionsAreOpen() throws Exception {
+        // Given
+        when(sessionAnalyzer.createSession()).thenThrow(new AnalysisRejectedException(
+                AnalysisRejectedException.Reason.QUEUE_FULL, 2, "Too many analysis sessions are open"));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    void append_ShouldReturnNoContent_WhenTextIsAppended() throws Exception {
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/" + ID + "/append")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("the cat"))
+                .andExpect(status().isNoContent());
+        verify(sessionAnalyzer).append(eq(ID), any(Reader.class));
+    }
+
+    @Test
+    void calculateMostFrequentNWords_ShouldReturnTopWords_WhenSessionExists() throws Exception {
+        // Given
+        when(sessionAnalyzer.calculateMostFrequentNWords(ID, 1))
+                .thenReturn(List.of(new WordFrequencyImpl("cat", 2)));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/" + ID + "/most-frequent-words").param("n", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].word").value("cat"))
+                .andExpect(jsonPath("$[0].frequency").value(2));
+    }
+
+    @Test
+    void calculateHighestFrequency_ShouldReturnNotFound_WhenSessionIsUnknown() throws Exception {
+        // Given
+        when(sessionAnalyzer.calculateHighestFrequency(ID)).thenThrow(new NoSuchElementException(ID));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/" + ID + "/highest-frequency"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void closeSession_ShouldReturnNotFound_WhenSessionIsUnknown() throws Exception {
+        // Given
+        doThrow(new NoSuchElementException(ID)).when(sessionAnalyzer).closeSession(ID);
+
+        // When & Then
+        mockMvc.perform(delete(BASE_URL + "/" + ID))
+                .andExpect(status().isNotFound());
+    }
+}
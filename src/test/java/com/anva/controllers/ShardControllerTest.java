@@ -0,0 +1,144 @@
+package com.anva.controllers;
+
+import com.anva.ApplicationBoot;
+import com.anva.models.AnalysisResultImpl;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.services.interfaces.ShardAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StreamCorruptedException;
+import java.net.URI;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ShardController.class)
+@ContextConfiguration(classes = ApplicationBoot.class)
+class ShardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ShardAnalyzer shardAnalyzer;
+
+    private static final String BASE_URL = "/documents/shards";
+
+    @Test
+    void countTable_ShouldStreamEncodedTable() throws Exception {
+        // Given
+        when(shardAnalyzer.countTable(any(Reader.class))).thenReturn(new ShardAnalyzer.PartialTable() {
+            @Override
+            public int size() {
+                return 1;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(new byte[]{1, 2, 3});
+            }
+        });
+
+        // When
+        MvcResult result = mockMvc.perform(post(BASE_URL + "/table")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("the cat"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ShardAnalyzer.TABLE_MEDIA_TYPE))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void mergeTables_ShouldReturnResults() throws Exception {
+        // Given
+        when(shardAnalyzer.mergeTables(any(InputStream.class), any(AnalysisSpec.class)))
+                .thenReturn(new AnalysisResultImpl(4, null, null));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/merge")
+                        .param("highestFrequency", "true")
+                        .contentType(ShardAnalyzer.TABLE_MEDIA_TYPE)
+                        .content(new byte[]{0x41, 0x4E, 0x56, 0x54, 1, 0}))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.highestFrequency").value(4));
+    }
+
+    @Test
+    void mergeTables_ShouldReturnBadRequest_WhenTablesAreMalformed() throws Exception {
+        // Given
+        when(shardAnalyzer.mergeTables(any(InputStream.class), any(AnalysisSpec.class)))
+                .thenThrow(new StreamCorruptedException("Not a word count table"));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/merge")
+                        .param("highestFrequency", "true")
+                        .contentType(ShardAnalyzer.TABLE_MEDIA_TYPE)
+                        .content(new byte[]{1, 2, 3}))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Error: Invalid input - Not a word count table"));
+    }
+
+    @Test
+    void analyzeSharded_ShouldPassPeersToAnalyzer() throws Exception {
+        // Given
+        List<URI> peers = List.of(URI.create("http://localhost:8081"), URI.create("http://localhost:8082"));
+        when(shardAnalyzer.analyzeSharded(any(Reader.class), eq(peers), any(AnalysisSpec.class)))
+                .thenReturn(new AnalysisResultImpl(2, null, null));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/analyze")
+                        .param("highestFrequency", "true")
+                        .param("peers", "http://localhost:8081,http://localhost:8082")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("the cat saw the dog"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.highestFrequency").value(2));
+    }
+
+    @Test
+    void analyzeSharded_ShouldReturnBadGateway_WhenPeerFails() throws Exception {
+        // Given
+        when(shardAnalyzer.analyzeSharded(any(Reader.class), any(), any(AnalysisSpec.class)))
+                .thenThrow(new IOException("Peer http://localhost:8081 answered 500"));
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/analyze")
+                        .param("highestFrequency", "true")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("the cat"))
+                .andExpect(status().isBadGateway())
+                .andExpect(content().string("Error: Counting the shards failed - Peer http://localhost:8081 answered 500"));
+    }
+
+    @Test
+    void analyzeSharded_ShouldReturnBadRequest_WhenNothingIsRequested() throws Exception {
+        // When & Then
+        mockMvc.perform(post(BASE_URL + "/analyze")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("the cat"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(shardAnalyzer);
+    }
+}
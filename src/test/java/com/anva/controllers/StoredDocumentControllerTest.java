@@ -0,0 +1,100 @@
+package com.anva.controllers;
+
+import com.anva.ApplicationBoot;
+import com.anva.models.DocumentFrequencyImpl;
+import com.anva.services.interfaces.DocumentStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.Reader;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StoredDocumentController.class)
+@ContextConfiguration(classes = ApplicationBoot.class)
+class StoredDocumentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private DocumentStore documentStore;
+
+    private static final String BASE_URL = "/documents/store";
+    private static final String ID = "3f2b8e1c-7d4a-4b5e-9c6d-0a1b2c3d4e5f";
+
+    @Test
+    void store_ShouldReturnId_WhenDocumentIsStored() throws Exception {
+        // Given
+        when(documentStore.store(any(Reader.class))).thenReturn(ID);
+
+        // When & Then
+        mockMvc.perform(post(BASE_URL)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("the cat"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", BASE_URL + "/" + ID))
+                .andExpect(jsonPath("$.id").value(ID));
+    }
+
+    @Test
+    void calculateHighestFrequency_ShouldReturnNotFound_WhenIdIsUnknown() throws Exception {
+        // Given
+        when(documentStore.calculateHighestFrequency(ID)).thenThrow(new NoSuchFileException("Unknown document ID: " + ID));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/" + ID + "/highest-frequency"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void calculateFrequencyForWord_ShouldReturnFrequency_WhenDocumentExists() throws Exception {
+        // Given
+        when(documentStore.calculateFrequencyForWord(ID, "cat")).thenReturn(3);
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/" + ID + "/word-frequency").param("word", "cat"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("3"));
+    }
+
+    @Test
+    void findDocuments_ShouldReturnDocumentFrequencies() throws Exception {
+        // Given
+        when(documentStore.findDocuments("cat")).thenReturn(List.of(new DocumentFrequencyImpl(ID, 2)));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/search").param("word", "cat"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].documentId").value(ID))
+                .andExpect(jsonPath("$[0].frequency").value(2));
+    }
+
+    @Test
+    void delete_ShouldReturnNotFound_WhenIdIsUnknown() throws Exception {
+        // Given
+        doThrow(new NoSuchFileException("Unknown document ID: " + ID)).when(documentStore).delete(ID);
+
+        // When & Then
+        mockMvc.perform(delete(BASE_URL + "/" + ID))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void analyze_ShouldReturnBadRequest_WhenNothingIsRequested() throws Exception {
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/" + ID + "/analyze"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,80 @@
+package com.anva.controllers;
+
+import com.anva.ApplicationBoot;
+import com.anva.models.ApproximateResultImpl;
+import com.anva.models.ApproximateWordFrequencyImpl;
+import com.anva.services.interfaces.TrendingWords;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TrendingController.class)
+@ContextConfiguration(classes = ApplicationBoot.class)
+class TrendingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TrendingWords trendingWords;
+
+    private static final String BASE_URL = "/documents/trending";
+
+    @Test
+    void getTrendingWords_ShouldReturnWordsOfWindow() throws Exception {
+        // Given
+        when(trendingWords.mostFrequentNWords("1m", 2))
+                .thenReturn(new ApproximateResultImpl(7, List.of(new ApproximateWordFrequencyImpl("cat", 7, 5),
+                        new ApproximateWordFrequencyImpl("dog", 3, 1)), 40, 1024, 2));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL).param("window", "1m").param("n", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mostFrequentWords[0].word").value("cat"))
+                .andExpect(jsonPath("$.mostFrequentWords[1].minFrequency").value(1))
+                .andExpect(jsonPath("$.maxError").value(2));
+    }
+
+    @Test
+    void getTrendingWords_ShouldReturnBadRequest_WhenWindowIsUnknown() throws Exception {
+        // Given
+        when(trendingWords.mostFrequentNWords("1w", 10))
+                .thenThrow(new IllegalArgumentException("Unknown window: 1w (expected one of 1m, 1h, 1d)"));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL).param("window", "1w"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Error: Invalid input - Unknown window: 1w (expected one of 1m, 1h, 1d)"));
+    }
+
+    @Test
+    void getTrendingWords_ShouldReturnServiceUnavailable_WhenDisabled() throws Exception {
+        // Given
+        when(trendingWords.mostFrequentNWords("1h", 10))
+                .thenThrow(new IllegalStateException("Trending words are disabled"));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void getWindows_ShouldReturnConfiguredWindows() throws Exception {
+        // Given
+        when(trendingWords.getWindows()).thenReturn(List.of("1m", "1h", "1d"));
+
+        // When & Then
+        mockMvc.perform(get(BASE_URL + "/windows"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[2]").value("1d"));
+    }
+}
@@ -0,0 +1,138 @@
+package com.anva.services;
+
+import com.anva.services.interfaces.AnalysisRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisSchedulerTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(8);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings("try") // Permits are held, and released, without being referenced.
+    void testParallelismBudget_isShareOfPoolAmongRunningAnalyses() {
+        AnalysisScheduler scheduler = AnalysisScheduler.bounded(pool, 16, 16, 0, 1);
+        assertEquals(8, scheduler.parallelismBudget());
+
+        try (AnalysisScheduler.Permit first = scheduler.admit()) {
+            assertEquals(8, scheduler.parallelismBudget());
+            try (AnalysisScheduler.Permit second = scheduler.admit();
+                 AnalysisScheduler.Permit third = scheduler.admit()) {
+                assertEquals(2, scheduler.parallelismBudget());
+                assertEquals(3, scheduler.running());
+            }
+        }
+        assertEquals(0, scheduler.running());
+    }
+
+    @Test
+    @SuppressWarnings("try") // Permits are held, and released, without being referenced.
+    void testAdmit_rejectsAfterTimeoutWhenAllSlotsAreTaken() {
+        AnalysisScheduler scheduler = AnalysisScheduler.bounded(pool, 1, 4, 10, 3);
+
+        try (AnalysisScheduler.Permit permit = scheduler.admit()) {
+            AnalysisRejectedException e = assertThrows(AnalysisRejectedException.class, scheduler::admit);
+            assertEquals(AnalysisRejectedException.Reason.QUEUE_TIMEOUT, e.getReason());
+            assertEquals(3, e.getRetryAfterSeconds());
+            assertEquals(0, scheduler.queued());
+        }
+        scheduler.admit().close();
+    }
+
+    @Test
+    @SuppressWarnings("try") // Permits are held, and released, without being referenced.
+    void testAdmit_rejectsImmediatelyWhenQueueIsFull() throws Exception {
+        AnalysisScheduler scheduler = AnalysisScheduler.bounded(pool, 1, 1, 10_000, 1);
+        CountDownLatch waiting = new CountDownLatch(1);
+
+        try (AnalysisScheduler.Permit permit = scheduler.admit()) {
+            Thread waiter = new Thread(() -> {
+                waiting.countDown();
+                scheduler.admit().close();
+            });
+            waiter.start();
+            assertTrue(waiting.await(10, TimeUnit.SECONDS));
+            while (scheduler.queued() == 0) {
+                Thread.onSpinWait();
+            }
+
+            AnalysisRejectedException e = assertThrows(AnalysisRejectedException.class, scheduler::admit);
+            assertEquals(AnalysisRejectedException.Reason.QUEUE_FULL, e.getReason());
+            permit.close();
+            waiter.join(10_000);
+            assertFalse(waiter.isAlive());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("try") // Permits are held, and released, without being referenced.
+    void testEngine_countsWithinBudgetUnderLoad() {
+        AnalysisScheduler scheduler = AnalysisScheduler.bounded(pool, 8, 8, 0, 1);
+        WordCountEngine engine = new WordCountEngine(0, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, scheduler);
+        String text = "alpha beta gamma ".repeat(100_000);
+
+        int expected = engine.countWords(text).maxCount();
+        try (AnalysisScheduler.Permit busy = scheduler.admit();
+             AnalysisScheduler.Permit busier = scheduler.admit()) {
+            assertEquals(expected, engine.countWords(text).maxCount());
+        }
+    }
+
+    @Test
+    void testEngine_streamedCountHoldsNoSlotWhileReading() throws Exception {
+        AnalysisScheduler scheduler = AnalysisScheduler.bounded(pool, 1, 1, 0, 1);
+        WordCountEngine engine = new WordCountEngine(Integer.MAX_VALUE, 16, false, scheduler);
+        CountDownLatch waiting = new CountDownLatch(1);
+        CountDownLatch arrived = new CountDownLatch(1);
+        // A body whose first part has arrived, and whose end is still on the network.
+        Reader body = new Reader() {
+            private final Reader head = new StringReader("slow body ".repeat(10));
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = head.read(buffer, offset, length);
+                if (read != -1) {
+                    return read;
+                }
+                waiting.countDown();
+                try {
+                    if (!arrived.await(10, TimeUnit.SECONDS)) {
+                        throw new IOException("The rest of the body never arrived");
+                    }
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return -1;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        FutureTask<WordCountTable> streamed = new FutureTask<>(() -> engine.countWords(body));
+        new Thread(streamed).start();
+        assertTrue(waiting.await(10, TimeUnit.SECONDS));
+
+        assertEquals(0, scheduler.running());
+        assertEquals(1, engine.countWords("fast text").maxCount());
+        arrived.countDown();
+        assertEquals(10, streamed.get(10, TimeUnit.SECONDS).maxCount());
+    }
+}
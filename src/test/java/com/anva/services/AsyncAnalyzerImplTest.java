@@ -0,0 +1,231 @@
+package com.anva.services;
+
+import com.anva.models.AnalysisSpecImpl;
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.JobStatus;
+import com.anva.models.interfaces.JobStatus.State;
+import com.anva.services.interfaces.AnalysisRejectedException;
+import com.anva.services.interfaces.TextTooLargeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncAnalyzerImplTest {
+
+    @TempDir
+    Path spool;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+    private final List<AsyncAnalyzerImpl> analyzers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        analyzers.forEach(AsyncAnalyzerImpl::shutdown);
+        pool.shutdownNow();
+    }
+
+    private AsyncAnalyzerImpl analyzer(AnalysisScheduler scheduler, int maxRunning, int maxPending, long ttlNanos,
+                                       long maxResultBytes) throws IOException {
+        WordCountEngine engine = new WordCountEngine(0, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, scheduler);
+        AsyncAnalyzerImpl analyzer = new AsyncAnalyzerImpl(engine, spool, maxRunning, maxPending, Long.MAX_VALUE,
+                ttlNanos, maxResultBytes, 1);
+        analyzers.add(analyzer);
+        return analyzer;
+    }
+
+    private AsyncAnalyzerImpl analyzer() throws IOException {
+        return analyzer(AnalysisScheduler.unbounded(pool), 2, 16, TimeUnit.HOURS.toNanos(1), 1 << 20);
+    }
+
+    private static InputStream utf8(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static JobStatus awaitState(AsyncAnalyzerImpl analyzer, String id, State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        JobStatus status = analyzer.getStatus(id);
+        while (status.getState() != state) {
+            assertTrue(System.nanoTime() < deadline, "job stuck in " + status.getState());
+            Thread.sleep(5);
+            status = analyzer.getStatus(id);
+        }
+        return status;
+    }
+
+    private static void awaitEvicted(AsyncAnalyzerImpl analyzer, String id) throws InterruptedException {
+        // Finished jobs are evicted right after they complete, which may be just after their state is visible.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            try {
+                analyzer.getStatus(id);
+            } catch (NoSuchElementException e) {
+                return;
+            }
+            assertTrue(System.nanoTime() < deadline, "job " + id + " was not evicted");
+            Thread.sleep(5);
+        }
+    }
+
+    private long spooledFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spool)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testSubmit_runsInBackgroundAndKeepsResult() throws Exception {
+        AsyncAnalyzerImpl analyzer = analyzer();
+        String text = "Straße cat dog cat ".repeat(200_000);
+        AnalysisSpecImpl spec = new AnalysisSpecImpl(true, 2, List.of("dog", "straße"), "unicode");
+        JobStatus submitted = analyzer.submit(utf8(text), StandardCharsets.UTF_8, spec);
+
+        JobStatus status = awaitState(analyzer, submitted.getId(), State.SUCCEEDED);
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, status.getTotalBytes());
+        assertEquals(status.getTotalBytes(), status.getProcessedBytes());
+        assertEquals(800_000, status.getProcessedTokens());
+        assertNull(status.getError());
+
+        AnalysisResult result = analyzer.getResult(submitted.getId());
+        assertEquals(400_000, result.getHighestFrequency());
+        assertEquals("cat", result.getMostFrequentWords().get(0).getWord());
+        assertEquals(200_000, result.getWordFrequencies().get("straße"));
+        assertEquals(0, spooledFiles());
+    }
+
+    @Test
+    void testSubmit_transcodesOtherCharsets() throws Exception {
+        AsyncAnalyzerImpl analyzer = analyzer();
+        Charset latin1 = StandardCharsets.ISO_8859_1;
+        JobStatus submitted = analyzer.submit(new ByteArrayInputStream("café café".getBytes(latin1)), latin1,
+                new AnalysisSpecImpl(false, 0, List.of("café"), "unicode"));
+
+        awaitState(analyzer, submitted.getId(), State.SUCCEEDED);
+        assertEquals(2, analyzer.getResult(submitted.getId()).getWordFrequencies().get("café"));
+    }
+
+    @Test
+    @SuppressWarnings("try") // Permits are held, and released, without being referenced.
+    void testCancel_stopsWaitingAndQueuedJobs() throws Exception {
+        AnalysisScheduler scheduler = AnalysisScheduler.bounded(pool, 1, 4, TimeUnit.MINUTES.toMillis(1), 1);
+        AsyncAnalyzerImpl analyzer = analyzer(scheduler, 1, 16, TimeUnit.HOURS.toNanos(1), 1 << 20);
+        AnalysisSpecImpl spec = new AnalysisSpecImpl(true, 0, null);
+
+        try (AnalysisScheduler.Permit busy = scheduler.admit()) {
+            String waiting = analyzer.submit(utf8("a b c"), StandardCharsets.UTF_8, spec).getId();
+            String queued = analyzer.submit(utf8("a b c"), StandardCharsets.UTF_8, spec).getId();
+            awaitState(analyzer, waiting, State.RUNNING);
+            assertEquals(State.QUEUED, analyzer.getStatus(queued).getState());
+
+            assertEquals(State.CANCELLED, analyzer.cancel(queued).getState());
+            analyzer.cancel(waiting);
+            awaitState(analyzer, waiting, State.CANCELLED);
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> analyzer.getResult(waiting));
+            assertTrue(e.getMessage().contains("CANCELLED"));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (spooledFiles() > 0) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("try") // Permits are held, and released, without being referenced.
+    void testSubmit_rejectsWhenTooManyPending() throws Exception {
+        AnalysisScheduler scheduler = AnalysisScheduler.bounded(pool, 1, 4, TimeUnit.MINUTES.toMillis(1), 1);
+        AsyncAnalyzerImpl analyzer = analyzer(scheduler, 1, 1, TimeUnit.HOURS.toNanos(1), 1 << 20);
+        AnalysisSpecImpl spec = new AnalysisSpecImpl(true, 0, null);
+
+        try (AnalysisScheduler.Permit busy = scheduler.admit()) {
+            String first = analyzer.submit(utf8("a"), StandardCharsets.UTF_8, spec).getId();
+            AnalysisRejectedException e = assertThrows(AnalysisRejectedException.class,
+                    () -> analyzer.submit(utf8("b"), StandardCharsets.UTF_8, spec));
+            assertEquals(AnalysisRejectedException.Reason.QUEUE_FULL, e.getReason());
+            analyzer.cancel(first);
+        }
+    }
+
+    @Test
+    void testSubmit_rejectsTooLongBodiesAndDeletesTheirFiles() throws Exception {
+        WordCountEngine engine = new WordCountEngine(0, StreamWordScanner.DEFAULT_BUFFER_SIZE);
+        AsyncAnalyzerImpl analyzer = new AsyncAnalyzerImpl(engine, spool, 1, 16, 8, TimeUnit.HOURS.toNanos(1),
+                1 << 20, 1);
+        analyzers.add(analyzer);
+        AnalysisSpecImpl spec = new AnalysisSpecImpl(true, 0, null);
+
+        TextTooLargeException e = assertThrows(TextTooLargeException.class,
+                () -> analyzer.submit(utf8("one two three"), StandardCharsets.UTF_8, spec));
+        assertEquals(8, e.getMaxBytes());
+        // Transcoded bodies are limited by the bytes received, too.
+        assertThrows(TextTooLargeException.class, () -> analyzer.submit(
+                new ByteArrayInputStream("one two three".getBytes(StandardCharsets.UTF_16LE)),
+                StandardCharsets.UTF_16LE, spec));
+        assertEquals(0, spooledFiles());
+        assertEquals(0, analyzer.jobCount());
+
+        String id = analyzer.submit(utf8("one two"), StandardCharsets.UTF_8, spec).getId();
+        assertEquals(2, awaitState(analyzer, id, State.SUCCEEDED).getProcessedTokens());
+    }
+
+    @Test
+    void testResults_expireWithoutFurtherRequests() throws Exception {
+        AsyncAnalyzerImpl analyzer = analyzer(AnalysisScheduler.unbounded(pool), 1, 16,
+                TimeUnit.MILLISECONDS.toNanos(200), 1 << 20);
+        analyzer.submit(utf8("a b a"), StandardCharsets.UTF_8, new AnalysisSpecImpl(true, 0, null));
+
+        // Nothing is submitted or polled: the periodic sweep alone drops the finished job.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (analyzer.jobCount() > 0) {
+            assertTrue(System.nanoTime() < deadline, "the finished job was not swept");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void testSubmit_leavesNothingBehindWhenRejectedAfterShutdown() throws Exception {
+        AsyncAnalyzerImpl analyzer = analyzer();
+        analyzer.shutdown();
+
+        assertThrows(RejectedExecutionException.class,
+                () -> analyzer.submit(utf8("a b"), StandardCharsets.UTF_8, new AnalysisSpecImpl(true, 0, null)));
+        assertEquals(0, spooledFiles());
+    }
+
+    @Test
+    void testResults_areBoundedByTtlAndBudget() throws Exception {
+        AsyncAnalyzerImpl expiring = analyzer(AnalysisScheduler.unbounded(pool), 1, 16, 0, 1 << 20);
+        String id = expiring.submit(utf8("a b a"), StandardCharsets.UTF_8, new AnalysisSpecImpl(true, 0, null)).getId();
+        awaitEvicted(expiring, id);
+
+        AsyncAnalyzerImpl small = analyzer(AnalysisScheduler.unbounded(pool), 1, 16, TimeUnit.HOURS.toNanos(1), 500);
+        String large = small.submit(utf8("alpha beta gamma delta epsilon zeta eta theta iota kappa"),
+                StandardCharsets.UTF_8, new AnalysisSpecImpl(false, 10, null)).getId();
+        JobStatus failed = awaitState(small, large, State.FAILED);
+        assertTrue(failed.getError().contains("memory budget"));
+
+        String first = small.submit(utf8("a"), StandardCharsets.UTF_8, new AnalysisSpecImpl(false, 1, null)).getId();
+        awaitState(small, first, State.SUCCEEDED);
+        String second = small.submit(utf8("b"), StandardCharsets.UTF_8, new AnalysisSpecImpl(false, 1, null)).getId();
+        awaitState(small, second, State.SUCCEEDED);
+        // Two small results do not fit together: the older one goes first.
+        awaitEvicted(small, first);
+        assertNotNull(small.getResult(second));
+    }
+}
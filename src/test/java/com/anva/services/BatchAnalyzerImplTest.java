@@ -0,0 +1,118 @@
+package com.anva.services;
+
+import com.anva.models.AnalysisSpecImpl;
+import com.anva.models.BatchDocumentImpl;
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.BatchDocument;
+import com.anva.models.interfaces.BatchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchAnalyzerImplTest {
+
+    private final WordCountEngine engine = new WordCountEngine(WordCountEngine.DEFAULT_PARALLEL_THRESHOLD,
+            StreamWordScanner.DEFAULT_BUFFER_SIZE);
+    private final BatchAnalyzerImpl batchAnalyzer = new BatchAnalyzerImpl(engine, 4);
+
+    @AfterEach
+    void tearDown() {
+        batchAnalyzer.shutdown();
+    }
+
+    @Test
+    void testAnalyze_reportsEveryDocumentAndAggregate() throws Exception {
+        Random random = new Random(11);
+        List<BatchDocument> documents = new ArrayList<>();
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 1 + random.nextInt(40); j++) {
+                text.append((char) ('a' + random.nextInt(5))).append((char) ('a' + random.nextInt(3))).append(' ');
+            }
+            documents.add(new BatchDocumentImpl(i, "doc-" + i, text.toString()));
+            all.append(text).append(' ');
+        }
+        documents.add(new BatchDocumentImpl(500, "broken", null));
+
+        List<BatchResult> results = new ArrayList<>();
+        AnalysisSpecImpl spec = new AnalysisSpecImpl(true, 3, List.of("aa", "bc"));
+        AnalysisResult aggregate = batchAnalyzer.analyze(documents.iterator(), spec, true, results::add);
+
+        assertEquals(501, results.size());
+        results.sort(Comparator.comparingInt(BatchResult::getIndex));
+        WordFrequencyAnalyzerImpl analyzer = new WordFrequencyAnalyzerImpl();
+        for (int i = 0; i < 500; i++) {
+            BatchResult result = results.get(i);
+            assertEquals("doc-" + i, result.getId());
+            assertNull(result.getError());
+            String text = documents.get(i).getText();
+            assertEquals(analyzer.calculateHighestFrequency(text), result.getResult().getHighestFrequency());
+            assertEquals(analyzer.calculateFrequencyForWord(text, "aa"), result.getResult().getWordFrequencies().get("aa"));
+        }
+        assertNotNull(results.get(500).getError());
+
+        AnalysisResult expected = analyzer.analyze(all.toString(), spec);
+        assertEquals(expected.getHighestFrequency(), aggregate.getHighestFrequency());
+        assertEquals(expected.getWordFrequencies(), aggregate.getWordFrequencies());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected.getMostFrequentWords().get(i).getWord(), aggregate.getMostFrequentWords().get(i).getWord());
+        }
+    }
+
+    @Test
+    void testAnalyze_pullsDocumentsOnlyAsFastAsTheyAreAnalyzed() throws Exception {
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        AtomicInteger reported = new AtomicInteger();
+        Iterator<BatchDocument> documents = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return pulled.get() < 200;
+            }
+
+            @Override
+            public BatchDocument next() {
+                maxAhead.accumulateAndGet(pulled.get() - reported.get(), Math::max);
+                int index = pulled.getAndIncrement();
+                return new BatchDocumentImpl(index, null, "word " + index);
+            }
+        };
+
+        assertNull(batchAnalyzer.analyze(documents, new AnalysisSpecImpl(true, 0, null), false, result -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            reported.incrementAndGet();
+        }));
+
+        assertEquals(200, reported.get());
+        // At most twice the concurrency in flight.
+        assertTrue(maxAhead.get() <= 8, "in flight: " + maxAhead.get());
+    }
+
+    @Test
+    void testAnalyze_stopsWhenResultsCannotBeDelivered() {
+        List<BatchDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            documents.add(new BatchDocumentImpl(i, null, "text"));
+        }
+
+        assertThrows(UncheckedIOException.class, () -> batchAnalyzer.analyze(documents.iterator(),
+                new AnalysisSpecImpl(true, 0, null), false, result -> {
+                    throw new UncheckedIOException(new IOException("Broken pipe"));
+                }));
+    }
+}
@@ -0,0 +1,135 @@
+package com.anva.services;
+
+import com.anva.models.AnalysisSpecImpl;
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.DocumentFrequency;
+import com.anva.models.interfaces.WordFrequency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DocumentStoreImplTest {
+
+    @TempDir
+    Path directory;
+
+    private final WordCountEngine engine = new WordCountEngine(WordCountEngine.DEFAULT_PARALLEL_THRESHOLD,
+            StreamWordScanner.DEFAULT_BUFFER_SIZE);
+
+    @Test
+    void testStoredDocument_matchesInMemoryAnalysis() throws Exception {
+        String text = randomText(new Random(9), 20_000);
+        WordFrequencyAnalyzerImpl inMemory = new WordFrequencyAnalyzerImpl();
+        DocumentStoreImpl store = new DocumentStoreImpl(engine, directory);
+
+        String id = store.store(new StringReader(text));
+
+        assertEquals(inMemory.calculateHighestFrequency(text), store.calculateHighestFrequency(id));
+        for (String word : List.of("ab", "BA", "abc", "zzz", "a1")) {
+            assertEquals(inMemory.calculateFrequencyForWord(text, word), store.calculateFrequencyForWord(id, word));
+        }
+        assertSameWords(inMemory.calculateMostFrequentNWords(text, 50), store.calculateMostFrequentNWords(id, 50));
+        assertSameWords(inMemory.calculateMostFrequentNWords(text, 100_000), store.calculateMostFrequentNWords(id, 100_000));
+    }
+
+    @Test
+    void testIndex_survivesRestart() throws Exception {
+        String id = new DocumentStoreImpl(engine, directory).store(new StringReader("The cat and the hat"));
+
+        DocumentStoreImpl reopened = new DocumentStoreImpl(engine, directory);
+        AnalysisResult result = reopened.analyze(id, new AnalysisSpecImpl(true, 1, List.of("HAT", "dog")));
+
+        assertEquals(2, result.getHighestFrequency());
+        assertEquals("the", result.getMostFrequentWords().get(0).getWord());
+        assertEquals(1, result.getWordFrequencies().get("HAT"));
+        assertEquals(0, result.getWordFrequencies().get("dog"));
+    }
+
+    @Test
+    void testIndex_skipsUnreadableSegmentsOnRestart() throws Exception {
+        String id = new DocumentStoreImpl(engine, directory).store(new StringReader("The cat"));
+        String corrupt = UUID.randomUUID().toString();
+        Files.write(directory.resolve(corrupt + ".seg"), new byte[]{1, 2, 3});
+
+        DocumentStoreImpl reopened = new DocumentStoreImpl(engine, directory);
+
+        assertEquals(1, reopened.calculateFrequencyForWord(id, "cat"));
+        assertThrows(NoSuchFileException.class, () -> reopened.calculateHighestFrequency(corrupt));
+    }
+
+    @Test
+    void testFindDocuments_acrossDocuments() throws Exception {
+        DocumentStoreImpl store = new DocumentStoreImpl(engine, directory);
+        String once = store.store(new StringReader("a cat"));
+        String twice = store.store(new StringReader("cat CAT dog"));
+        store.store(new StringReader("dog"));
+
+        List<DocumentFrequency> documents = store.findDocuments("Cat");
+
+        assertEquals(2, documents.size());
+        assertEquals(twice, documents.get(0).getDocumentId());
+        assertEquals(2, documents.get(0).getFrequency());
+        assertEquals(once, documents.get(1).getDocumentId());
+        assertEquals(1, documents.get(1).getFrequency());
+        assertEquals(List.of(), store.findDocuments("bird"));
+    }
+
+    @Test
+    void testEmptyDocument() throws Exception {
+        DocumentStoreImpl store = new DocumentStoreImpl(engine, directory);
+        String id = store.store(new StringReader(""));
+
+        assertEquals(0, store.calculateHighestFrequency(id));
+        assertEquals(0, store.calculateFrequencyForWord(id, "word"));
+        assertEquals(List.of(), store.calculateMostFrequentNWords(id, 3));
+    }
+
+    @Test
+    void testUnknownAndInvalidIds() throws Exception {
+        DocumentStoreImpl store = new DocumentStoreImpl(engine, directory);
+        String id = store.store(new StringReader("text"));
+        store.delete(id);
+
+        assertThrows(NoSuchFileException.class, () -> store.calculateHighestFrequency(id));
+        assertThrows(NoSuchFileException.class, () -> store.delete(id));
+        assertThrows(IllegalArgumentException.class, () -> store.calculateHighestFrequency("../" + id));
+        assertEquals(List.of(), new DocumentStoreImpl(engine, directory).findDocuments("text"));
+    }
+
+    @Test
+    void testDisabledWithoutDirectory() throws Exception {
+        DocumentStoreImpl store = new DocumentStoreImpl(engine, "");
+        assertThrows(IllegalStateException.class, () -> store.store(new StringReader("text")));
+    }
+
+    private static void assertSameWords(List<WordFrequency> expected, List<WordFrequency> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getWord(), actual.get(i).getWord());
+            assertEquals(expected.get(i).getFrequency(), actual.get(i).getFrequency());
+        }
+    }
+
+    private static String randomText(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int length = 1 + random.nextInt(4);
+            for (int j = 0; j < length; j++) {
+                char letter = (char) ('a' + random.nextInt(6));
+                text.append(random.nextInt(10) == 0 ? Character.toUpperCase(letter) : letter);
+            }
+            text.append(random.nextInt(8) == 0 ? ", " : " ");
+        }
+        return text.toString();
+    }
+}
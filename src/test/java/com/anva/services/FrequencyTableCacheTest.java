@@ -0,0 +1,159 @@
+package com.anva.services;
+
+import com.anva.models.interfaces.CacheStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrequencyTableCacheTest {
+
+    private final WordCountEngine engine = new WordCountEngine(WordCountEngine.DEFAULT_PARALLEL_THRESHOLD,
+            StreamWordScanner.DEFAULT_BUFFER_SIZE);
+
+    @Test
+    void testGet_reusesTableOfEqualText() {
+        FrequencyTableCache cache = new FrequencyTableCache(FrequencyTableCache.DEFAULT_MAX_BYTES);
+        AtomicInteger counted = new AtomicInteger();
+        Function<CharSequence, WordCountTable> counter = text -> {
+            counted.incrementAndGet();
+            return engine.countWords(text);
+        };
+
+        WordCountTable first = cache.get("the cat and the hat", counter);
+        WordCountTable second = cache.get(new StringBuilder("the cat and the hat").toString(), counter);
+        WordCountTable other = cache.get("the cat and the bat", counter);
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(2, counted.get());
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getHits());
+        assertEquals(2, statistics.getMisses());
+        assertEquals(2, statistics.getEntries());
+        assertTrue(statistics.getEstimatedBytes() > 0);
+    }
+
+    @Test
+    void testGet_evictsLeastRecentlyUsedTablesBeyondByteBudget() {
+        long tableBytes = engine.countWords("a").estimatedBytes();
+        // Room for two small tables, not three.
+        FrequencyTableCache cache = new FrequencyTableCache(tableBytes * 2 + 400);
+
+        cache.get("one", engine::countWords);
+        cache.get("two", engine::countWords);
+        cache.get("one", engine::countWords);
+        cache.get("three", engine::countWords);
+
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getEvictions());
+        assertEquals(2, statistics.getEntries());
+        assertTrue(statistics.getEstimatedBytes() <= statistics.getMaxBytes());
+
+        // "two" was the least recently used table.
+        cache.get("one", engine::countWords);
+        cache.get("two", engine::countWords);
+        assertEquals(2, cache.getStatistics().getHits());
+        assertEquals(4, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    void testGet_doesNotCacheTablesLargerThanBudget() {
+        FrequencyTableCache cache = new FrequencyTableCache(16);
+
+        cache.get("one", engine::countWords);
+        cache.get("one", engine::countWords);
+
+        assertEquals(0, cache.getStatistics().getEntries());
+        assertEquals(2, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    void testGet_coalescesConcurrentComputations() throws Exception {
+        FrequencyTableCache cache = new FrequencyTableCache(FrequencyTableCache.DEFAULT_MAX_BYTES);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger counted = new AtomicInteger();
+        Function<CharSequence, WordCountTable> slowCounter = text -> {
+            counted.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return engine.countWords(text);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<WordCountTable> owner = executor.submit(() -> cache.get("same text", slowCounter));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Future<WordCountTable> waiter1 = executor.submit(() -> cache.get("same text", slowCounter));
+            Future<WordCountTable> waiter2 = executor.submit(() -> cache.get("same text", slowCounter));
+            while (cache.getStatistics().getCoalesced() < 2) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertSame(owner.get(), waiter1.get());
+            assertSame(owner.get(), waiter2.get());
+            assertEquals(1, counted.get());
+            assertEquals(1, cache.getStatistics().getMisses());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testGet_failedComputationIsNotCached() {
+        FrequencyTableCache cache = new FrequencyTableCache(FrequencyTableCache.DEFAULT_MAX_BYTES);
+
+        assertThrows(IllegalStateException.class, () -> cache.get("text", text -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(0, cache.getStatistics().getEntries());
+
+        assertEquals(1, cache.get("text", engine::countWords).maxCount());
+    }
+
+    @Test
+    void testClear_removesEntries() {
+        FrequencyTableCache cache = new FrequencyTableCache(FrequencyTableCache.DEFAULT_MAX_BYTES);
+        cache.get("text", engine::countWords);
+
+        cache.clear();
+
+        assertEquals(0, cache.getStatistics().getEntries());
+        assertEquals(0, cache.getStatistics().getEstimatedBytes());
+    }
+
+    @Test
+    void testContentHash_distinguishesTextsDifferingInTail() {
+        String base = "abcdefghijklmnopqrstuvwxyz";
+        for (int length = 0; length < base.length(); length++) {
+            ContentHash hash = ContentHash.of(base.substring(0, length));
+            assertEquals(hash, ContentHash.of(new StringBuilder(base.substring(0, length))));
+            assertNotEquals(hash, ContentHash.of(base.substring(0, length) + "a"));
+            assertNotEquals(hash, ContentHash.of(base.substring(0, length) + "\0"));
+
+            ContentHash bytes = ContentHash.of(utf8(base.substring(0, length)));
+            assertEquals(bytes, ContentHash.of(utf8(base.substring(0, length))));
+            assertNotEquals(bytes, ContentHash.of(utf8(base.substring(0, length) + "a")));
+            assertNotEquals(bytes, ContentHash.of(utf8(base.substring(0, length) + "\0")));
+        }
+    }
+
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
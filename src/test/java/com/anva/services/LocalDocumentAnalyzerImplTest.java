@@ -0,0 +1,64 @@
+package com.anva.services;
+
+import com.anva.models.interfaces.WordFrequency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocalDocumentAnalyzerImplTest {
+
+    @TempDir
+    Path root;
+
+    private final WordCountEngine engine = new WordCountEngine(0, StreamWordScanner.DEFAULT_BUFFER_SIZE);
+
+    @Test
+    void testMappedAnalysis_matchesInMemoryAnalysisForAnyRegionSize() throws Exception {
+        String text = "The café sells tea; the TEA is hot.\nnaïve tea_time 1tea teá tea 😀tea the end";
+        Files.writeString(root.resolve("doc.txt"), text, StandardCharsets.UTF_8);
+        WordFrequencyAnalyzerImpl inMemory = new WordFrequencyAnalyzerImpl();
+
+        for (long regionSize = 10; regionSize <= text.length() * 2L; regionSize++) {
+            LocalDocumentAnalyzerImpl analyzer = new LocalDocumentAnalyzerImpl(engine, root, regionSize);
+            assertEquals(inMemory.calculateHighestFrequency(text), analyzer.calculateHighestFrequency("doc.txt"));
+            assertEquals(inMemory.calculateFrequencyForWord(text, "tea"), analyzer.calculateFrequencyForWord("doc.txt", "tea"));
+
+            List<WordFrequency> expected = inMemory.calculateMostFrequentNWords(text, 5);
+            List<WordFrequency> actual = analyzer.calculateMostFrequentNWords("doc.txt", 5);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getWord(), actual.get(i).getWord());
+                assertEquals(expected.get(i).getFrequency(), actual.get(i).getFrequency());
+            }
+        }
+    }
+
+    @Test
+    void testEmptyFile() throws Exception {
+        Files.writeString(root.resolve("empty.txt"), "");
+        LocalDocumentAnalyzerImpl analyzer = new LocalDocumentAnalyzerImpl(engine, root, MappedRegions.MAX_REGION_SIZE);
+        assertEquals(0, analyzer.calculateHighestFrequency("empty.txt"));
+    }
+
+    @Test
+    void testPathsOutsideRootAreRejected() {
+        LocalDocumentAnalyzerImpl analyzer = new LocalDocumentAnalyzerImpl(engine, root, MappedRegions.MAX_REGION_SIZE);
+        assertThrows(IllegalArgumentException.class, () -> analyzer.calculateHighestFrequency("../outside.txt"));
+        assertThrows(IllegalArgumentException.class, () -> analyzer.calculateHighestFrequency("/etc/hostname"));
+        assertThrows(NoSuchFileException.class, () -> analyzer.calculateHighestFrequency("missing.txt"));
+    }
+
+    @Test
+    void testDisabledWithoutRoot() {
+        LocalDocumentAnalyzerImpl analyzer = new LocalDocumentAnalyzerImpl(engine, "");
+        assertThrows(IllegalStateException.class, () -> analyzer.calculateHighestFrequency("doc.txt"));
+    }
+}
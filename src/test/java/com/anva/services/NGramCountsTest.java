@@ -0,0 +1,127 @@
+package com.anva.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NGramCountsTest {
+
+    private static final String[] WORDS = {"alpha", "Beta", "the", "GAMMA", "of", "delta", "x"};
+    private static final List<String> STOP_WORDS = List.of("the", "OF");
+
+    private static List<String> randomWords(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return words;
+    }
+
+    private static String join(List<String> words, long seed) {
+        String[] separators = {" ", ", ", ".\n", "  "};
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (String word : words) {
+            text.append(word).append(separators[random.nextInt(separators.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Counts the n-grams of the words by building their phrases, skipping those with a stop word.
+     */
+    private static Map<String, Integer> reference(List<String> words, int length, boolean excludeStopWords) {
+        Map<String, Integer> counts = new HashMap<>();
+        Set<String> stopWords = Set.of("the", "of");
+        int run = 0;
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i).toLowerCase();
+            run = excludeStopWords && stopWords.contains(word) ? 0 : run + 1;
+            if (run >= length) {
+                String phrase = String.join(" ", words.subList(i - length + 1, i + 1)).toLowerCase();
+                counts.merge(phrase, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static Map<String, Integer> toMap(NGramCounts counts) {
+        WordCountTable table = counts.toTable(Integer.MAX_VALUE);
+        Map<String, Integer> map = new HashMap<>();
+        for (int id = 0; id < table.size(); id++) {
+            map.put(table.wordAt(id), table.countAt(id));
+        }
+        return map;
+    }
+
+    @Test
+    void testMerge_countsNGramsAcrossArbitraryCuts() {
+        List<String> words = randomWords(2_000, 3);
+        String text = join(words, 4);
+        Random random = new Random(5);
+
+        for (int length = 1; length <= 4; length++) {
+            for (boolean excludeStopWords : new boolean[]{false, true}) {
+                WatchList stopList = excludeStopWords ? WatchList.compile(STOP_WORDS, TokenizerType.ASCII) : null;
+                // Cut anywhere, also inside words and into pieces holding no word at all.
+                List<NGramCounts> pieces = new ArrayList<>();
+                int from = 0;
+                while (from < text.length()) {
+                    int to = Math.min(text.length(), from + random.nextInt(40));
+                    NGramCounts piece = new NGramCounts(length, stopList, new WordCountTable());
+                    TokenizerType.ASCII.newTokenizer().tokenize(text, from, to, piece);
+                    pieces.add(piece);
+                    from = to;
+                }
+                // Merge adjacent pieces in random order, so that either side may be folded into the other.
+                while (pieces.size() > 1) {
+                    int i = random.nextInt(pieces.size() - 1);
+                    pieces.set(i, NGramCounts.merge(pieces.get(i), pieces.remove(i + 1)));
+                }
+
+                assertEquals(reference(words, length, excludeStopWords), toMap(pieces.get(0)),
+                        "length " + length + ", stop words excluded: " + excludeStopWords);
+            }
+        }
+    }
+
+    @Test
+    void testCount_parallelMatchesReference() {
+        List<String> words = randomWords(400_000, 8);
+        String text = join(words, 9);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            WordCountEngine engine = new WordCountEngine(0, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool);
+            WatchList stopList = WatchList.compile(STOP_WORDS, TokenizerType.ASCII);
+            for (int length = 2; length <= 3; length++) {
+                int n = length;
+                NGramCounts counts = engine.count(text, () -> new NGramCounts(n, stopList, engine.newTable()),
+                        NGramCounts::merge);
+                Map<String, Integer> expected = reference(words, length, true);
+                assertEquals(expected, toMap(counts));
+                assertEquals(expected.values().stream().mapToInt(Integer::intValue).max().orElse(0), counts.maxCount());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testToTable_keepsEveryNGramTiedWithTheNth() {
+        NGramCounts counts = new NGramCounts(2, null, new WordCountTable());
+        TokenizerType.ASCII.newTokenizer().tokenize("a b a b a b c d c d e f g h", 0, 27, counts);
+        // "a b" 3, "b a" 2, "c d" 2, and eight bigrams seen once.
+        assertEquals(3, counts.toTable(2).size());
+        assertEquals(1, counts.toTable(1).size());
+        assertEquals(counts.size(), counts.toTable(4).size());
+    }
+}
@@ -0,0 +1,136 @@
+package com.anva.services;
+
+import com.anva.models.interfaces.WordFrequency;
+import com.anva.services.interfaces.AnalysisRejectedException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionAnalyzerImplTest {
+
+    private final WordCountEngine engine = new WordCountEngine(WordCountEngine.DEFAULT_PARALLEL_THRESHOLD,
+            StreamWordScanner.DEFAULT_BUFFER_SIZE);
+    private final WordFrequencyAnalyzerImpl inMemory = new WordFrequencyAnalyzerImpl();
+
+    @Test
+    void testAppend_matchesAnalysisOfAccumulatedText() throws Exception {
+        Random random = new Random(15);
+        String text = randomText(random, 5_000);
+        SessionAnalyzerImpl sessions = new SessionAnalyzerImpl(engine, 16, 3600);
+        String id = sessions.createSession();
+
+        int end = 0;
+        while (end < text.length()) {
+            // Cut anywhere, including inside words and surrogate pairs.
+            int next = Math.min(text.length(), end + 1 + random.nextInt(300));
+            sessions.append(id, new StringReader(text.substring(end, next)));
+            end = next;
+
+            String accumulated = text.substring(0, end);
+            assertEquals(inMemory.calculateHighestFrequency(accumulated), sessions.calculateHighestFrequency(id));
+            for (String word : List.of("ab", "BA", "abc", "f")) {
+                assertEquals(inMemory.calculateFrequencyForWord(accumulated, word),
+                        sessions.calculateFrequencyForWord(id, word));
+            }
+            assertSameWords(inMemory.calculateMostFrequentNWords(accumulated, 7), sessions.calculateMostFrequentNWords(id, 7));
+        }
+        assertSameWords(inMemory.calculateMostFrequentNWords(text, 100_000), sessions.calculateMostFrequentNWords(id, 100_000));
+    }
+
+    @Test
+    void testAppend_wordSplitAcrossAppendsIsCountedOnce() throws Exception {
+        SessionAnalyzerImpl sessions = new SessionAnalyzerImpl(engine, StreamWordScanner.DEFAULT_BUFFER_SIZE, 3600);
+        String id = sessions.createSession();
+
+        sessions.append(id, new StringReader("the ca"));
+        assertEquals(1, sessions.calculateFrequencyForWord(id, "ca"));
+        sessions.append(id, new StringReader("t sat on the "));
+        sessions.append(id, new StringReader("cat"));
+
+        assertEquals(0, sessions.calculateFrequencyForWord(id, "ca"));
+        assertEquals(2, sessions.calculateFrequencyForWord(id, "cat"));
+        List<WordFrequency> top = sessions.calculateMostFrequentNWords(id, 3);
+        assertEquals(List.of("cat", "the", "on"), top.stream().map(WordFrequency::getWord).toList());
+    }
+
+    @Test
+    void testSessions_unknownClosedAndIdleSessionsAreRejected() throws Exception {
+        SessionAnalyzerImpl sessions = new SessionAnalyzerImpl(engine, StreamWordScanner.DEFAULT_BUFFER_SIZE, 0);
+        String closed = sessions.createSession();
+        sessions.closeSession(closed);
+        assertThrows(NoSuchElementException.class, () -> sessions.calculateHighestFrequency(closed));
+        assertThrows(NoSuchElementException.class, () -> sessions.closeSession(closed));
+
+        String idle = sessions.createSession();
+        Thread.sleep(5);
+        sessions.createSession();
+        assertThrows(NoSuchElementException.class, () -> sessions.append(idle, new StringReader("late")));
+    }
+
+    @Test
+    void testCreateSession_rejectsBeyondTheLimitUntilOneIsClosed() throws Exception {
+        SessionAnalyzerImpl sessions = new SessionAnalyzerImpl(engine, StreamWordScanner.DEFAULT_BUFFER_SIZE, 3600, 2, 3,
+                TrendingWordsTracker.disabled());
+        try {
+            String first = sessions.createSession();
+            sessions.createSession();
+            AnalysisRejectedException e = assertThrows(AnalysisRejectedException.class, sessions::createSession);
+            assertEquals(AnalysisRejectedException.Reason.QUEUE_FULL, e.getReason());
+            assertEquals(3, e.getRetryAfterSeconds());
+
+            sessions.closeSession(first);
+            sessions.createSession();
+        } finally {
+            sessions.shutdown();
+        }
+    }
+
+    @Test
+    void testSessions_idleSessionsAreSweptWithoutFurtherRequests() throws Exception {
+        SessionAnalyzerImpl sessions = new SessionAnalyzerImpl(engine, StreamWordScanner.DEFAULT_BUFFER_SIZE, 0, 16, 1,
+                TrendingWordsTracker.disabled());
+        try {
+            sessions.createSession();
+            assertEquals(1, sessions.sessionCount());
+
+            // Nothing is created or queried: the periodic sweep alone closes the idle session.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (sessions.sessionCount() > 0) {
+                assertTrue(System.nanoTime() < deadline, "the idle session was not swept");
+                Thread.sleep(20);
+            }
+        } finally {
+            sessions.shutdown();
+        }
+    }
+
+    private static void assertSameWords(List<WordFrequency> expected, List<WordFrequency> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getWord(), actual.get(i).getWord());
+            assertEquals(expected.get(i).getFrequency(), actual.get(i).getFrequency());
+        }
+    }
+
+    private static String randomText(Random random, int words) {
+        String[] separators = {" ", ", ", "\n", "é", "1", "😀", "́"};
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int length = 1 + random.nextInt(4);
+            for (int j = 0; j < length; j++) {
+                char letter = (char) ('a' + random.nextInt(6));
+                text.append(random.nextInt(10) == 0 ? Character.toUpperCase(letter) : letter);
+            }
+            text.append(random.nextInt(6) == 0 ? separators[random.nextInt(separators.length)] : " ");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,221 @@
+package com.anva.services;
+
+import com.anva.models.AnalysisSpecImpl;
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.AnalysisSpec;
+import com.anva.models.interfaces.WordFrequency;
+import com.anva.services.interfaces.ShardAnalyzer;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StreamCorruptedException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardAnalyzerImplTest {
+
+    private final WordCountEngine engine = new WordCountEngine(WordCountEngine.DEFAULT_PARALLEL_THRESHOLD,
+            StreamWordScanner.DEFAULT_BUFFER_SIZE);
+    private final List<HttpServer> peers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        peers.forEach(peer -> peer.stop(0));
+    }
+
+    /**
+     * Starts a peer on localhost that counts shards like the table endpoint of another instance.
+     */
+    private URI startPeer(ShardAnalyzer analyzer, AtomicInteger shards) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(ShardAnalyzer.TABLE_PATH, exchange -> {
+            shards.incrementAndGet();
+            ByteArrayOutputStream table = new ByteArrayOutputStream();
+            analyzer.countTable(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)).writeTo(table);
+            exchange.getResponseHeaders().add("Content-Type", ShardAnalyzer.TABLE_MEDIA_TYPE);
+            exchange.sendResponseHeaders(200, table.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                table.writeTo(out);
+            }
+        });
+        server.start();
+        peers.add(server);
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    private static byte[] encode(ShardAnalyzer analyzer, String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        analyzer.countTable(text).writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static List<String> describe(List<WordFrequency> frequencies) {
+        return frequencies.stream().map(f -> f.getWord() + "=" + f.getFrequency()).toList();
+    }
+
+    @Test
+    void testMergeTables_combinesConcatenatedTables() throws IOException {
+        ShardAnalyzer analyzer = new ShardAnalyzerImpl(engine, "", 1024);
+        ByteArrayOutputStream tables = new ByteArrayOutputStream();
+        tables.write(encode(analyzer, "The cat saw the dog."));
+        tables.write(encode(analyzer, "The dog ran; a cat sat."));
+        tables.write(encode(analyzer, ""));
+
+        AnalysisSpec spec = new AnalysisSpecImpl(true, 2, List.of("cat", "bird"));
+        AnalysisResult result = analyzer.mergeTables(new ByteArrayInputStream(tables.toByteArray()), spec);
+
+        AnalysisResult expected = new WordFrequencyAnalyzerImpl()
+                .analyze("The cat saw the dog. The dog ran; a cat sat.", spec);
+        assertEquals(3, result.getHighestFrequency());
+        assertEquals(describe(expected.getMostFrequentWords()), describe(result.getMostFrequentWords()));
+        assertEquals(Map.of("cat", 2, "bird", 0), result.getWordFrequencies());
+    }
+
+    @Test
+    void testMergeTables_rejectsMalformedTables() throws IOException {
+        ShardAnalyzer analyzer = new ShardAnalyzerImpl(engine, "", 1024);
+        AnalysisSpec spec = new AnalysisSpecImpl(true, 0, null);
+        byte[] table = encode(analyzer, "alpha beta beta");
+
+        assertThrows(StreamCorruptedException.class, () -> analyzer.mergeTables(
+                new ByteArrayInputStream("alpha beta".getBytes(StandardCharsets.US_ASCII)), spec));
+        assertThrows(EOFException.class, () -> analyzer.mergeTables(
+                new ByteArrayInputStream(Arrays.copyOf(table, table.length - 1)), spec));
+        byte[] upperCase = table.clone();
+        upperCase[7] = 'A';
+        assertThrows(StreamCorruptedException.class, () -> analyzer.mergeTables(
+                new ByteArrayInputStream(upperCase), spec));
+        assertThrows(IllegalArgumentException.class, () -> analyzer.mergeTables(
+                new ByteArrayInputStream(new byte[0]), spec));
+    }
+
+    @Test
+    void testAnalyzeSharded_matchesSingleInstance() throws IOException, InterruptedException {
+        StringBuilder text = new StringBuilder();
+        String[] words = {"alpha", "beta", "gamma", "delta", "über", "epsilon-zeta", "eta's"};
+        for (int i = 0; i < 5_000; i++) {
+            text.append(words[(i * 7 + i / 13) % words.length]).append(i % 11 == 0 ? ",\n" : " ");
+        }
+        AtomicInteger shardsFirst = new AtomicInteger();
+        AtomicInteger shardsSecond = new AtomicInteger();
+        URI first = startPeer(new ShardAnalyzerImpl(engine, "", 1024), shardsFirst);
+        URI second = startPeer(new ShardAnalyzerImpl(engine, "", 1024), shardsSecond);
+
+        // Small pieces, so the text is spread over many shards on both peers.
+        ShardAnalyzer coordinator = new ShardAnalyzerImpl(engine, first + "," + second + "/", 997);
+        AnalysisSpec spec = new AnalysisSpecImpl(true, 5, List.of("beta", "uber"));
+        AnalysisResult result = coordinator.analyzeSharded(new StringReader(text.toString()), List.of(), spec);
+
+        AnalysisResult expected = new WordFrequencyAnalyzerImpl().analyze(text.toString(), spec);
+        assertEquals(expected.getHighestFrequency(), result.getHighestFrequency());
+        assertEquals(describe(expected.getMostFrequentWords()), describe(result.getMostFrequentWords()));
+        assertEquals(expected.getWordFrequencies(), result.getWordFrequencies());
+        assertTrue(shardsFirst.get() > 1 && shardsSecond.get() > 1);
+    }
+
+    @Test
+    void testAnalyzeSharded_usesConfiguredPeersAndFailsOnPeerErrors() throws IOException {
+        HttpServer failing = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        failing.createContext(ShardAnalyzer.TABLE_PATH, exchange -> {
+            byte[] body = "internal details".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(429, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        failing.start();
+        peers.add(failing);
+
+        ShardAnalyzer coordinator = new ShardAnalyzerImpl(engine,
+                " http://localhost:" + failing.getAddress().getPort() + " ,", 1024);
+        AnalysisSpec spec = new AnalysisSpecImpl(true, 0, null);
+        IOException e = assertThrows(IOException.class,
+                () -> coordinator.analyzeSharded(new StringReader("some words"), List.of(), spec));
+        assertTrue(e.getMessage().contains("429"));
+        assertFalse(e.getMessage().contains("internal details"));
+
+        assertThrows(IllegalArgumentException.class, () -> new ShardAnalyzerImpl(engine, "", 1024)
+                .analyzeSharded(new StringReader("some words"), List.of(), spec));
+    }
+
+    @Test
+    void testAnalyzeSharded_sendsShardsToConfiguredPeersOnly() throws IOException {
+        AtomicInteger shards = new AtomicInteger();
+        URI peer = startPeer(new ShardAnalyzerImpl(engine, "", 1024), shards);
+        ShardAnalyzer coordinator = new ShardAnalyzerImpl(engine, peer.toString(), 1024);
+        AnalysisSpec spec = new AnalysisSpecImpl(true, 0, null);
+
+        assertThrows(IllegalArgumentException.class, () -> coordinator.analyzeSharded(new StringReader("some words"),
+                List.of(URI.create("http://localhost:1")), spec));
+        assertThrows(IllegalArgumentException.class, () -> coordinator.analyzeSharded(new StringReader("some words"),
+                List.of(peer, URI.create("http://169.254.169.254")), spec));
+        assertEquals(0, shards.get());
+    }
+
+    @Test
+    void testAnalyzeSharded_stopsAfterAShardTimesOut() throws IOException {
+        // A peer that accepts every shard but does not answer.
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger received = new AtomicInteger();
+        HttpServer hanging = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        hanging.setExecutor(Executors.newCachedThreadPool());
+        hanging.createContext(ShardAnalyzer.TABLE_PATH, exchange -> {
+            received.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        hanging.start();
+        peers.add(hanging);
+
+        ShardAnalyzer coordinator = new ShardAnalyzerImpl(engine,
+                "http://localhost:" + hanging.getAddress().getPort(), 16, 200);
+        try {
+            assertThrows(HttpTimeoutException.class, () -> coordinator.analyzeSharded(
+                    new StringReader("some words ".repeat(1_000)), List.of(), new AnalysisSpecImpl(true, 0, null)));
+            // Two pieces were in flight when the first timed out; none of the other several hundred was sent.
+            assertTrue(received.get() <= 2, "shards sent: " + received.get());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testPieces_cutsBetweenWords() throws IOException {
+        ShardAnalyzerImpl.Pieces pieces = new ShardAnalyzerImpl.Pieces(
+                new StringReader("one two threefourfive six"), 6);
+        List<String> cut = new ArrayList<>();
+        String piece;
+        while ((piece = pieces.next()) != null) {
+            cut.add(piece);
+        }
+        // The third piece grows until the end of the text, as it has no separator but its first character.
+        assertEquals(List.of("one", " two", " threefourfive six"), cut);
+    }
+}
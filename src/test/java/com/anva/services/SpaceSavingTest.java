@@ -0,0 +1,161 @@
+package com.anva.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Zipf-like text: word {@code w<i>} is drawn with probability proportional to 1 / (i + 1).
+     */
+    private static String skewedText(int words, int vocabulary, long seed) {
+        double[] cumulative = new double[vocabulary];
+        double sum = 0;
+        for (int i = 0; i < vocabulary; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int rank = java.util.Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            rank = rank < 0 ? -rank - 1 : rank;
+            text.append('w');
+            for (int r = rank; r > 0; r /= 26) {
+                text.append((char) ('a' + r % 26));
+            }
+            text.append(' ');
+        }
+        return text.toString();
+    }
+
+    private static void assertBounds(WordCountTable exact, SpaceSaving summary) {
+        long total = 0;
+        for (int id = 0; id < exact.size(); id++) {
+            total += exact.countAt(id);
+        }
+        assertEquals(total, summary.total());
+        assertTrue(summary.maxError() <= total / summary.capacity());
+
+        WordCountTable estimates = summary.toTable();
+        for (int slot = 0; slot < summary.size(); slot++) {
+            byte[] word = WordTokenizer.normalize(estimates.wordAt(slot));
+            int actual = exact.get(word, word.length, WordHash.hash(word, word.length));
+            assertTrue(summary.countAt(slot) >= actual);
+            assertTrue(summary.countAt(slot) - summary.errorAt(slot) <= actual);
+            assertTrue(summary.countAt(slot) - actual <= summary.maxError());
+        }
+        for (int id = 0; id < exact.size(); id++) {
+            if (exact.countAt(id) > summary.maxError()) {
+                byte[] word = WordTokenizer.normalize(exact.wordAt(id));
+                assertTrue(estimates.find(word, word.length, WordHash.hash(word, word.length)) >= 0, exact.wordAt(id));
+            }
+        }
+    }
+
+    @Test
+    void testSummary_exactWhileVocabularyFits() {
+        String text = skewedText(20_000, 50, 1);
+        WordCountEngine engine = new WordCountEngine(0, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool);
+        WordCountTable exact = engine.countWords(text);
+        SpaceSaving summary = engine.count(text, () -> new SpaceSaving(64), SpaceSaving::merge);
+
+        assertEquals(0, summary.maxError());
+        assertEquals(exact.size(), summary.size());
+        assertBounds(exact, summary);
+        for (int slot = 0; slot < summary.size(); slot++) {
+            assertEquals(0, summary.errorAt(slot));
+        }
+    }
+
+    @Test
+    void testSummary_boundsHoldSequentialAndMerged() {
+        String text = skewedText(200_000, 20_000, 2);
+        WordCountTable exact = new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool)
+                .countWords(text);
+
+        SpaceSaving sequential = new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool)
+                .count(text, () -> new SpaceSaving(500), SpaceSaving::merge);
+        SpaceSaving merged = new WordCountEngine(0, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool)
+                .count(text, () -> new SpaceSaving(500), SpaceSaving::merge);
+
+        assertFalse(sequential.maxError() == 0);
+        assertBounds(exact, sequential);
+        assertBounds(exact, merged);
+        assertEquals(exact.maxCount(), sequential.toTable().maxCount());
+    }
+
+    @Test
+    void testSummary_growsItsCountersWithTheVocabulary() {
+        String text = skewedText(100_000, 5_000, 3);
+        WordCountTable exact = new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool)
+                .countWords(text);
+
+        // The largest capacity, but only as many counters as words arrive, across several doublings and merges.
+        SpaceSaving sequential = new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool)
+                .count(text, () -> new SpaceSaving(SpaceSaving.MAX_CAPACITY), SpaceSaving::merge);
+        SpaceSaving merged = new WordCountEngine(0, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool)
+                .count(text, () -> new SpaceSaving(SpaceSaving.MAX_CAPACITY), SpaceSaving::merge);
+
+        for (SpaceSaving summary : new SpaceSaving[]{sequential, merged}) {
+            assertEquals(0, summary.maxError());
+            assertEquals(exact.size(), summary.size());
+            assertBounds(exact, summary);
+        }
+
+        // A summary that grows up to a capacity that is not a power of two, and then overflows it.
+        SpaceSaving small = new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool)
+                .count(text, () -> new SpaceSaving(300), SpaceSaving::merge);
+        assertEquals(300, small.size());
+        assertBounds(exact, small);
+    }
+
+    @Test
+    void testAdd_weightedCountsOfDocumentsKeepBounds() {
+        WordCountEngine engine = new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool);
+        StringBuilder all = new StringBuilder();
+        SpaceSaving summary = new SpaceSaving(500);
+        byte[] word = new byte[64];
+        for (int document = 0; document < 20; document++) {
+            String text = skewedText(10_000, 20_000, 10 + document);
+            all.append(text);
+            // Add each document table as weighted counts, like the trending words tracker does.
+            WordCountTable table = engine.countWords(text);
+            for (int id = 0; id < table.size(); id++) {
+                table.copyWord(id, word);
+                summary.add(word, table.lengthAt(id), table.hashAt(id), table.countAt(id));
+            }
+        }
+
+        assertFalse(summary.maxError() == 0);
+        assertBounds(engine.countWords(all.toString()), summary);
+    }
+
+    @Test
+    void testCapacityFor_rejectsInvalidEpsilon() {
+        assertEquals(10_000, SpaceSaving.capacityFor(0.0001));
+        assertThrows(IllegalArgumentException.class, () -> SpaceSaving.capacityFor(0));
+        assertThrows(IllegalArgumentException.class, () -> SpaceSaving.capacityFor(1));
+        assertThrows(IllegalArgumentException.class, () -> SpaceSaving.capacityFor(1e-9));
+    }
+}
@@ -0,0 +1,78 @@
+package com.anva.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopWordsTest {
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    private static WordCountTable randomTable(int distinctWords, int maxCount, long seed) {
+        Random random = new Random(seed);
+        WordCountTable table = new WordCountTable();
+        for (int i = 0; i < distinctWords; i++) {
+            byte[] word = lettersOf(i).getBytes(StandardCharsets.US_ASCII);
+            // Few distinct counts, so that the word tie-break matters.
+            table.add(word, word.length, WordHash.hash(word, word.length), 1 + random.nextInt(maxCount));
+        }
+        return table;
+    }
+
+    private static String lettersOf(int number) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return sb.toString();
+    }
+
+    private static int[] fullSort(WordCountTable table, int n) {
+        Comparator<Integer> byRank = Comparator.<Integer>comparingInt(table::countAt).reversed()
+                .thenComparing(table::wordAt);
+        return IntStream.range(0, table.size()).boxed().sorted(byRank).limit(n).mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void testSelect_matchesFullSortForAllStrategies() {
+        WordCountTable table = randomTable(5_000, 20, 3);
+        for (int n : new int[]{1, 2, 10, 100, 624, 625, 1_000, 4_999, 5_000, 10_000}) {
+            int[] expected = fullSort(table, n);
+            assertArrayEquals(expected, TopWords.select(table, n, pool, Integer.MAX_VALUE), "sequential n=" + n);
+            assertArrayEquals(expected, TopWords.select(table, n, pool, 64), "parallel n=" + n);
+        }
+    }
+
+    @Test
+    void testSelect_emptyTableAndNonPositiveN() {
+        assertEquals(0, TopWords.select(new WordCountTable(), 5, pool, 64).length);
+        assertEquals(0, TopWords.select(randomTable(10, 3, 1), 0, pool, 64).length);
+    }
+
+    @Test
+    void testToWordFrequencies() {
+        WordCountTable table = randomTable(3, 1, 1);
+        List<?> result = TopWords.toWordFrequencies(table, TopWords.select(table, 2, pool, 64));
+        assertEquals(2, result.size());
+    }
+}
@@ -0,0 +1,201 @@
+package com.anva.services;
+
+import com.anva.models.AnalysisSpecImpl;
+import com.anva.models.interfaces.ApproximateResult;
+import com.anva.models.interfaces.ApproximateWordFrequency;
+import com.anva.models.interfaces.JobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingWordsTrackerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final WordCountEngine engine =
+            new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE);
+    private final List<TrendingWordsTracker> trackers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        trackers.forEach(TrendingWordsTracker::shutdown);
+    }
+
+    private TrendingWordsTracker tracker(String windows, int queueSize) {
+        TrendingWordsTracker tracker = new TrendingWordsTracker(windows, 60, 64, queueSize, clock::get);
+        trackers.add(tracker);
+        return tracker;
+    }
+
+    private void advance(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private static List<String> words(ApproximateResult result) {
+        return result.getMostFrequentWords().stream().map(ApproximateWordFrequency::getWord).toList();
+    }
+
+    private static List<Integer> frequencies(ApproximateResult result) {
+        return result.getMostFrequentWords().stream().map(ApproximateWordFrequency::getFrequency).toList();
+    }
+
+    @Test
+    void testMostFrequentNWords_documentsLeaveTheWindowBucketByBucket() throws InterruptedException {
+        TrendingWordsTracker tracker = tracker("1h, 1m", 16);
+        assertEquals(List.of("1m", "1h"), tracker.getWindows());
+
+        tracker.record(engine.countWords("cat cat dog"));
+        advance(30);
+        tracker.record(engine.countWords("Dog dog. DOG!"));
+        tracker.flush();
+
+        ApproximateResult minute = tracker.mostFrequentNWords("1m", 5);
+        assertEquals(List.of("dog", "cat"), words(minute));
+        assertEquals(List.of(4, 2), frequencies(minute));
+        assertEquals(6, minute.getTotalWords());
+        assertTrue(minute.isExact());
+
+        // The bucket of the first document has left the last minute, but not the last hour.
+        advance(31);
+        assertEquals(List.of("dog"), words(tracker.mostFrequentNWords("1m", 5)));
+        assertEquals(List.of(3), frequencies(tracker.mostFrequentNWords("1m", 5)));
+        assertEquals(List.of("dog", "cat"), words(tracker.mostFrequentNWords("1h", 5)));
+
+        advance(TimeUnit.HOURS.toSeconds(1));
+        ApproximateResult hour = tracker.mostFrequentNWords("1h", 5);
+        assertEquals(List.of(), hour.getMostFrequentWords());
+        assertEquals(0, hour.getTotalWords());
+    }
+
+    @Test
+    void testMostFrequentNWords_mergesBucketsWithinBounds() throws InterruptedException {
+        TrendingWordsTracker tracker = tracker("1h", 64);
+        // Every document has a common word and a tail of words of its own, far more than the counters can hold.
+        for (int document = 0; document < 40; document++) {
+            StringBuilder text = new StringBuilder("common ".repeat(50));
+            for (int i = 0; i < 30; i++) {
+                text.append('x').append((char) ('a' + document % 26)).append((char) ('a' + document / 26))
+                        .append((char) ('a' + i)).append(' ');
+            }
+            tracker.record(engine.countWords(text.toString()));
+            advance(60);
+        }
+        tracker.flush();
+
+        ApproximateResult result = tracker.mostFrequentNWords("1h", 1);
+        ApproximateWordFrequency common = result.getMostFrequentWords().get(0);
+        assertEquals("common", common.getWord());
+        assertTrue(common.getFrequency() >= 40 * 50 && common.getMinFrequency() <= 40 * 50);
+        assertEquals(40 * 80, result.getTotalWords());
+        assertFalse(result.isExact());
+        assertTrue(result.getMaxError() <= result.getTotalWords() / result.getCounters());
+    }
+
+    @Test
+    void testRecord_reducesLargeTablesBeforeQueuingThem() throws InterruptedException {
+        TrendingWordsTracker tracker = tracker("1m", 16);
+        // One document with a common word and a tail of 200 words of its own, more than the 64 counters of a bucket.
+        StringBuilder text = new StringBuilder("common ".repeat(300));
+        for (int i = 0; i < 200; i++) {
+            text.append('x').append((char) ('a' + i % 26)).append((char) ('a' + i / 26)).append(' ');
+        }
+        tracker.record(engine.countWords(text.toString()));
+        tracker.record(engine.countWords("common word"));
+        tracker.flush();
+
+        ApproximateResult result = tracker.mostFrequentNWords("1m", 2);
+        ApproximateWordFrequency common = result.getMostFrequentWords().get(0);
+        assertEquals("common", common.getWord());
+        assertTrue(common.getFrequency() >= 301 && common.getMinFrequency() <= 301);
+        assertEquals(502, result.getTotalWords());
+        assertFalse(result.isExact());
+        assertTrue(result.getMaxError() <= result.getTotalWords() / result.getCounters());
+    }
+
+    @Test
+    void testRecord_dropsTablesWhileTheAggregatorIsBehind() throws InterruptedException {
+        TrendingWordsTracker tracker = tracker("1m", 1);
+        WordCountTable table = engine.countWords("cat");
+        synchronized (tracker) {
+            // The aggregator blocks on the first table, the second fills the queue, and the third is dropped.
+            tracker.record(table);
+            tracker.record(table);
+            tracker.record(table);
+        }
+        tracker.flush();
+
+        assertEquals(2, tracker.recorded());
+        assertEquals(1, tracker.dropped());
+        assertEquals(List.of(2), frequencies(tracker.mostFrequentNWords("1m", 1)));
+    }
+
+    @Test
+    void testAnalyzer_recordsEveryCountedDocument() throws Exception {
+        for (long cacheBytes : new long[]{0, 1 << 20}) {
+            TrendingWordsTracker tracker = tracker("1m", 16);
+            WordFrequencyAnalyzerImpl analyzer = new WordFrequencyAnalyzerImpl(engine,
+                    new FrequencyTableCache(cacheBytes), new WatchListCache(WatchListCache.DEFAULT_MAX_ENTRIES),
+                    WordFrequencyAnalyzerImpl.DEFAULT_STOP_WORDS, tracker);
+
+            analyzer.calculateMostFrequentNWords("the cat sat", 1);
+            analyzer.calculateHighestFrequency(new StringReader("the dog"));
+            // Single-word queries are not recorded, also when the cache counts a whole table for them.
+            analyzer.calculateFrequencyForWord("the end", "end");
+            tracker.flush();
+
+            assertEquals(List.of("the", "cat", "dog", "sat"), words(tracker.mostFrequentNWords("1m", 10)),
+                    "cache bytes " + cacheBytes);
+            assertEquals(2, tracker.recorded());
+        }
+    }
+
+    @Test
+    void testSessionsJobsAndStore_recordTheirDocuments(@TempDir Path directory) throws Exception {
+        TrendingWordsTracker tracker = tracker("1m", 16);
+
+        SessionAnalyzerImpl sessions = new SessionAnalyzerImpl(engine, 16, 3600, tracker);
+        String session = sessions.createSession();
+        sessions.append(session, new StringReader("log li"));
+        // The word split across the appends is recorded once, with the append that completes it.
+        sessions.append(session, new StringReader("ne "));
+
+        AsyncAnalyzerImpl jobs = new AsyncAnalyzerImpl(engine, directory.resolve("spool"), 1, 4, Long.MAX_VALUE,
+                TimeUnit.HOURS.toNanos(1), 1 << 20, 1, tracker);
+        try {
+            String id = jobs.submit(new ByteArrayInputStream("job log".getBytes(StandardCharsets.UTF_8)),
+                    StandardCharsets.UTF_8, new AnalysisSpecImpl(true, 0, null)).getId();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (jobs.getStatus(id).getState() != JobStatus.State.SUCCEEDED) {
+                assertTrue(System.nanoTime() < deadline, "job did not finish");
+                Thread.sleep(5);
+            }
+        } finally {
+            jobs.shutdown();
+        }
+
+        new DocumentStoreImpl(engine, directory.resolve("store"), tracker).store(new StringReader("stored log"));
+        tracker.flush();
+
+        assertEquals(List.of("log", "job", "line", "stored"), words(tracker.mostFrequentNWords("1m", 10)));
+        assertEquals(List.of(3, 1, 1, 1), frequencies(tracker.mostFrequentNWords("1m", 10)));
+    }
+
+    @Test
+    void testMostFrequentNWords_rejectsUnknownWindows() {
+        TrendingWordsTracker tracker = tracker("1m", 16);
+
+        assertThrows(IllegalArgumentException.class, () -> tracker.mostFrequentNWords("1d", 10));
+        assertThrows(IllegalArgumentException.class, () -> tracker("5x", 16));
+        assertThrows(IllegalStateException.class, () -> TrendingWordsTracker.disabled().mostFrequentNWords("1m", 10));
+    }
+}
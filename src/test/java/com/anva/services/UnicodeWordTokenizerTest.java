@@ -0,0 +1,97 @@
+package com.anva.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UnicodeWordTokenizerTest {
+
+    private static List<String> tokenize(Tokenizer tokenizer, String text) {
+        List<String> words = new ArrayList<>();
+        tokenizer.tokenize(text, 0, text.length(), (word, length, hash) -> {
+            assertEquals(WordHash.hash(word, length), hash);
+            words.add(new String(word, 0, length, StandardCharsets.UTF_8));
+        });
+        return words;
+    }
+
+    private static List<String> tokenizeBytes(String text, int split) {
+        List<String> words = new ArrayList<>();
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        int cut = UnicodeWordTokenizer.nextBoundary(bytes, Math.min(split, bytes.limit()));
+        UnicodeWordTokenizer tokenizer = new UnicodeWordTokenizer();
+        WordSink sink = (word, length, hash) -> {
+            assertEquals(WordHash.hash(word, length), hash);
+            words.add(new String(word, 0, length, StandardCharsets.UTF_8));
+        };
+        tokenizer.tokenize(bytes, 0, cut, sink);
+        tokenizer.tokenize(bytes, cut, bytes.limit(), sink);
+        return words;
+    }
+
+    @Test
+    void testTokenize_lettersOfAnyScript() {
+        assertEquals(List.of("café", "straße", "naïve", "中文", "привет"),
+                tokenize(new UnicodeWordTokenizer(), "Café, Straße; naïve 中文 ПРИВЕТ!"));
+    }
+
+    @Test
+    void testTokenize_combiningMarksStayInWords() {
+        // "e" followed by a combining acute accent is one word; a leading mark does not start one.
+        assertEquals(List.of("café"), tokenize(new UnicodeWordTokenizer(), "café ́abc"));
+    }
+
+    @Test
+    void testTokenize_digitsAndUnderscoreSuppressWords() {
+        assertEquals(List.of("ok"), tokenize(new UnicodeWordTokenizer(), "café1 _straße 1abc über_ ok"));
+    }
+
+    @Test
+    void testTokenize_matchesAsciiTokenizerOnAsciiText() {
+        char[] alphabet = "abcXYZ  .,_09-'".toCharArray();
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            char[] chars = new char[random.nextInt(64)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String text = new String(chars);
+            assertEquals(tokenize(new WordTokenizer(), text), tokenize(new UnicodeWordTokenizer(), text), text);
+        }
+    }
+
+    @Test
+    void testTokenizeUtf8Bytes_matchesCharsAtEverySplit() {
+        char[] alphabet = "abcXYZ  .,_09éÉßд中́-'".toCharArray();
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(48);
+            while (sb.length() < length) {
+                sb.append(random.nextInt(10) == 0 ? "😀" : String.valueOf(alphabet[random.nextInt(alphabet.length)]));
+            }
+            String text = sb.toString();
+            List<String> expected = tokenize(new UnicodeWordTokenizer(), text);
+            int bytes = text.getBytes(StandardCharsets.UTF_8).length;
+            for (int split = 0; split <= bytes; split++) {
+                assertEquals(expected, tokenizeBytes(text, split), text + " split at " + split);
+            }
+        }
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("straße", new String(UnicodeWordTokenizer.normalize("STRAßE"), StandardCharsets.UTF_8));
+        assertEquals("apple", new String(UnicodeWordTokenizer.normalize("ApPlE"), StandardCharsets.UTF_8));
+        assertNull(UnicodeWordTokenizer.normalize("don't"));
+        assertNull(UnicodeWordTokenizer.normalize("́abc"));
+        assertNull(UnicodeWordTokenizer.normalize(""));
+    }
+}
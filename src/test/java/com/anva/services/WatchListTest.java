@@ -0,0 +1,56 @@
+package com.anva.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class WatchListTest {
+
+    @Test
+    void testWatchList_matchesTableForManyWordsAndChunks() {
+        Random random = new Random(10);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 300_000; i++) {
+            text.append(word(random)).append(random.nextInt(5) == 0 ? ". " : " ");
+        }
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            words.add(word(random).toUpperCase());
+        }
+
+        WordCountEngine engine = new WordCountEngine(0, StreamWordScanner.DEFAULT_BUFFER_SIZE);
+        WatchList watchList = WatchList.compile(words, TokenizerType.ASCII);
+        Map<String, Integer> frequencies = watchList.frequencies(
+                engine.count(text, watchList::newCounter, WatchList.Counter::merge));
+
+        WordCountTable table = engine.countWords(text);
+        for (String word : words) {
+            assertEquals(AnalysisResults.frequencyOf(TokenizerType.ASCII, table, word), frequencies.get(word), word);
+        }
+    }
+
+    @Test
+    void testWatchListCache_reusesCompiledLists() {
+        WatchListCache cache = new WatchListCache(1);
+        WatchList first = cache.get(List.of("a", "b"), TokenizerType.ASCII);
+
+        assertSame(first, cache.get(new ArrayList<>(List.of("a", "b")), TokenizerType.ASCII));
+        cache.get(List.of("c"), TokenizerType.ASCII);
+        assertNotSame(first, cache.get(List.of("a", "b"), TokenizerType.ASCII));
+    }
+
+    private static String word(Random random) {
+        char[] letters = new char[1 + random.nextInt(3)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(8));
+        }
+        return new String(letters);
+    }
+}
@@ -0,0 +1,217 @@
+package com.anva.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WordCountEngineTest {
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    private static String randomText(int length, long seed) {
+        String[] words = {"alpha", "Beta", "GAMMA", "delta", "x", "a1", "café", "under_score"};
+        String[] separators = {" ", ", ", ".\n", "-", "  "};
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(length + 16);
+        while (sb.length() < length) {
+            sb.append(words[random.nextInt(words.length)]).append(separators[random.nextInt(separators.length)]);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void testCountWords_parallelMatchesSequential() {
+        String text = randomText(1_000_000, 7);
+        WordCountTable sequential = new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool).countWords(text);
+        WordCountTable parallel = new WordCountEngine(0, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool).countWords(text);
+
+        assertEquals(sequential.size(), parallel.size());
+        for (int id = 0; id < sequential.size(); id++) {
+            byte[] word = WordTokenizer.normalize(sequential.wordAt(id));
+            assertEquals(sequential.countAt(id), parallel.get(word, word.length, WordHash.hash(word, word.length)));
+        }
+    }
+
+    @Test
+    void testCountWords_singleHugeWord() {
+        String text = "a".repeat(500_000);
+        WordCountTable table = new WordCountEngine(0, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool).countWords(text);
+        assertEquals(1, table.size());
+        assertEquals(1, table.maxCount());
+    }
+
+    @Test
+    void testCountWords_streamedMatchesInMemory() throws Exception {
+        char[] alphabet = "abcXYZ  .,_09é́中😀-'".toCharArray();
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            char[] chars = new char[random.nextInt(200)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String text = new String(chars);
+
+            WordCountTable expected = new WordCountEngine(Integer.MAX_VALUE, 2, false, pool).countWords(text);
+            for (int bufferSize : new int[]{2, 3, 8, 64}) {
+                WordCountTable streamed = new WordCountEngine(Integer.MAX_VALUE, bufferSize, false, pool)
+                        .countWords(new StringReader(text));
+                assertEquals(expected.size(), streamed.size(), text);
+                for (int id = 0; id < expected.size(); id++) {
+                    byte[] word = WordTokenizer.normalize(expected.wordAt(id));
+                    assertEquals(expected.countAt(id), streamed.get(word, word.length, WordHash.hash(word, word.length)), text);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCountWords_dictionaryMatchesPlainTables() throws Exception {
+        String text = randomText(1_000_000, 13) + " rare words only seen once zebra";
+        WordCountTable expected = new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool).countWords(text);
+        // A dictionary too small for the vocabulary, so that words are counted both ways.
+        WordDictionary dictionary = new WordDictionary(3);
+        for (int threshold : new int[]{0, Integer.MAX_VALUE}) {
+            WordCountEngine engine = new WordCountEngine(threshold, 64, false, TokenizerType.ASCII, dictionary,
+                    AnalysisScheduler.unbounded(pool), AnalysisMetrics.disabled());
+            for (WordCountTable table : new WordCountTable[]{engine.countWords(text), engine.countWords(new StringReader(text))}) {
+                assertEquals(expected.size(), table.size());
+                for (int id = 0; id < expected.size(); id++) {
+                    byte[] word = WordTokenizer.normalize(expected.wordAt(id));
+                    assertEquals(expected.countAt(id), table.get(word, word.length, WordHash.hash(word, word.length)));
+                }
+            }
+        }
+        assertEquals(3, dictionary.size());
+    }
+
+    @Test
+    void testCountWords_sparseAndDenseDictionaryCountsMatchPlainTables() throws Exception {
+        Random random = new Random(19);
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            large.append('w');
+            for (int rank = random.nextInt(3000); rank > 0; rank /= 26) {
+                large.append((char) ('a' + rank % 26));
+            }
+            large.append(' ');
+        }
+        // Admits words on their first text, and fills up with most of the vocabulary.
+        WordDictionary dictionary = new WordDictionary(2000, 1);
+        WordCountEngine plain = new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool);
+        WordCountEngine parallel = new WordCountEngine(0, 64, false, TokenizerType.ASCII, dictionary,
+                AnalysisScheduler.unbounded(pool), AnalysisMetrics.disabled());
+        parallel.countWords(large);
+        assertEquals(2000, dictionary.size());
+
+        // The first forty ids, counted densely, and then one far above them, which switches back to sparse counts.
+        StringBuilder lowThenHigh = new StringBuilder();
+        for (int id = 0; id < 40; id++) {
+            lowThenHigh.append(new String(dictionary.wordAt(id), StandardCharsets.US_ASCII)).append(' ');
+        }
+        lowThenHigh.append(new String(dictionary.wordAt(1999), StandardCharsets.US_ASCII));
+
+        // Chunks count sparsely and switch to dense counts as their ids fill up; a small text stays sparse throughout.
+        for (String text : new String[]{large.toString(), "wb wc wb zebra", lowThenHigh.toString()}) {
+            WordCountTable expected = plain.countWords(text);
+            for (WordCountTable table : new WordCountTable[]{parallel.countWords(text),
+                    parallel.countWords(new StringReader(text))}) {
+                assertEquals(expected.size(), table.size());
+                for (int id = 0; id < expected.size(); id++) {
+                    byte[] word = WordTokenizer.normalize(expected.wordAt(id));
+                    assertEquals(expected.countAt(id), table.get(word, word.length, WordHash.hash(word, word.length)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCountWords_reportsProgressAndStopsWhenCancelled() {
+        String text = randomText(8 * WordCountEngine.PROGRESS_SLICE, 17);
+        List<ScanSource> sources = List.of(ScanSource.of(text));
+        long words = 0;
+        WordCountTable expected = new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool).countWords(text);
+        for (int id = 0; id < expected.size(); id++) {
+            words += expected.countAt(id);
+        }
+
+        for (int threshold : new int[]{0, Integer.MAX_VALUE}) {
+            WordCountEngine engine = new WordCountEngine(threshold, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool);
+            AnalysisProgress progress = new AnalysisProgress();
+            assertEquals(expected.size(), engine.countWords(sources, progress).size());
+            assertEquals(text.length(), progress.scanned());
+            assertEquals(words, progress.tokens());
+
+            // The first word cancels the count; every task stops at its next slice.
+            AnalysisProgress cancelled = new AnalysisProgress();
+            assertThrows(CancellationException.class, () -> engine.count(sources,
+                    () -> (WordSink) (word, length, hash) -> cancelled.cancel(), (left, right) -> left, cancelled));
+            assertTrue(cancelled.scanned() < text.length(), "scanned " + cancelled.scanned());
+        }
+    }
+
+    @Test
+    void testAppend_wordsSplitAcrossChunks() {
+        WordCountTable table = new WordCountTable();
+        StreamWordScanner scanner = new StreamWordScanner(table, 4);
+        scanner.append("hel");
+        scanner.append("lo wor");
+        assertEquals(1, table.size()); // "wor" is held back until its end is known
+        scanner.append("ld hello");
+        scanner.finish();
+
+        byte[] hello = WordTokenizer.normalize("hello");
+        byte[] world = WordTokenizer.normalize("world");
+        assertEquals(2, table.get(hello, hello.length, WordHash.hash(hello, hello.length)));
+        assertEquals(1, table.get(world, world.length, WordHash.hash(world, world.length)));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void testCountWords_recordsMetricsByMode() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        AnalysisMetrics metrics = new AnalysisMetrics(registry);
+        String text = randomText(1_000_000, 11);
+        WordCountTable expected = new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE, false, pool).countWords(text);
+        long words = 0;
+        for (int id = 0; id < expected.size(); id++) {
+            words += expected.countAt(id);
+        }
+
+        new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE, false,
+                AnalysisScheduler.unbounded(pool), metrics).countWords(text);
+        WordCountEngine parallel = new WordCountEngine(0, StreamWordScanner.DEFAULT_BUFFER_SIZE, false,
+                AnalysisScheduler.unbounded(pool), metrics);
+        parallel.topWords(parallel.countWords(text), 3);
+        parallel.countWords(new StringReader(text));
+
+        for (String mode : new String[]{"sequential", "parallel", "streamed"}) {
+            assertEquals(1, registry.get("anva.analysis.count").tag("mode", mode).timer().count());
+        }
+        assertEquals(3.0 * words, registry.get("anva.analysis.tokens").counter().count());
+        assertEquals(3.0 * text.length(), registry.get("anva.analysis.input").counter().count());
+        assertEquals(3.0 * expected.size(), registry.get("anva.analysis.vocabulary").summary().totalAmount());
+        assertEquals(1, registry.get("anva.analysis.select").timer().count());
+    }
+}
@@ -0,0 +1,74 @@
+package com.anva.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WordCountTableTest {
+
+    private static void add(WordCountTable table, String word, int count) {
+        byte[] bytes = word.getBytes(StandardCharsets.US_ASCII);
+        table.add(bytes, bytes.length, WordHash.hash(bytes, bytes.length), count);
+    }
+
+    private static int get(WordCountTable table, String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.US_ASCII);
+        return table.get(bytes, bytes.length, WordHash.hash(bytes, bytes.length));
+    }
+
+    private static String lettersOf(int number) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return sb.toString();
+    }
+
+    private static void assertCountsAndGrowth(WordArena arena) {
+        WordCountTable table = new WordCountTable(4, arena);
+        for (int i = 0; i < 10_000; i++) {
+            add(table, "w" + lettersOf(i), 1);
+        }
+        add(table, "apple", 2);
+        add(table, "apple", 3);
+
+        assertEquals(5, get(table, "apple"));
+        assertEquals(0, get(table, "banana"));
+        int id = table.find("apple".getBytes(StandardCharsets.US_ASCII), 5, WordHash.hash("apple".getBytes(StandardCharsets.US_ASCII), 5));
+        assertEquals("apple", table.wordAt(id));
+        assertEquals(5, table.lengthAt(id));
+        assertEquals(5, table.maxCount());
+        assertEquals(10_001, table.size());
+        assertTrue(table.estimatedBytes() > 0);
+    }
+
+    @Test
+    void testHeapArena() {
+        assertCountsAndGrowth(WordArena.onHeap());
+    }
+
+    @Test
+    void testOffHeapArena() {
+        assertCountsAndGrowth(WordArena.offHeap());
+    }
+
+    @Test
+    void testAddAll_mergesAcrossArenaKinds() {
+        WordCountTable heap = new WordCountTable(4, WordArena.onHeap());
+        WordCountTable offHeap = new WordCountTable(4, WordArena.offHeap());
+        add(heap, "cat", 2);
+        add(heap, "dog", 1);
+        add(offHeap, "cat", 3);
+        add(offHeap, "bat", 4);
+
+        heap.addAll(offHeap);
+        assertEquals(3, heap.size());
+        assertEquals(5, get(heap, "cat"));
+        assertEquals(4, get(heap, "bat"));
+        assertTrue(heap.compareWords(0, 1) < 0); // "cat" < "dog"
+    }
+}
@@ -0,0 +1,108 @@
+package com.anva.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WordDictionaryTest {
+
+    private static int intern(WordDictionary dictionary, String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        return dictionary.intern(bytes, bytes.length, WordHash.hash(bytes, bytes.length));
+    }
+
+    private static int find(WordDictionary dictionary, String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        return dictionary.find(bytes, bytes.length, WordHash.hash(bytes, bytes.length));
+    }
+
+    @Test
+    void testIntern_assignsDenseStableIds() {
+        WordDictionary dictionary = new WordDictionary(3);
+        assertEquals(0, intern(dictionary, "the"));
+        assertEquals(1, intern(dictionary, "of"));
+        assertEquals(0, intern(dictionary, "the"));
+        assertEquals(-1, find(dictionary, "and"));
+        assertEquals(2, intern(dictionary, "and"));
+
+        // Full: new words fall back, known words keep their ids.
+        assertEquals(-1, intern(dictionary, "zebra"));
+        assertEquals(1, intern(dictionary, "of"));
+        assertEquals(3, dictionary.size());
+        assertArrayEquals("and".getBytes(StandardCharsets.UTF_8), dictionary.wordAt(2));
+    }
+
+    @Test
+    void testOffer_admitsWordsSeenInEnoughTexts() {
+        WordDictionary dictionary = new WordDictionary(8, 2);
+        WordCountEngine engine = new WordCountEngine(Integer.MAX_VALUE, StreamWordScanner.DEFAULT_BUFFER_SIZE);
+
+        // A burst of words seen once takes no slots.
+        dictionary.offer(engine.countWords("the once only words of a single text"));
+        assertEquals(0, dictionary.size());
+
+        dictionary.offer(engine.countWords("the the the second text"));
+        assertEquals(2, dictionary.size());
+        assertTrue(find(dictionary, "the") >= 0);
+        assertTrue(find(dictionary, "text") >= 0);
+        assertEquals(-1, find(dictionary, "once"));
+
+        // Long words are never admitted, however often they are seen.
+        String longWord = "a".repeat(WordDictionary.MAX_WORD_LENGTH + 1);
+        dictionary.offer(engine.countWords(longWord));
+        dictionary.offer(engine.countWords(longWord));
+        assertEquals(-1, find(dictionary, longWord));
+    }
+
+    @Test
+    void testIntern_rejectsLongWords() {
+        WordDictionary dictionary = new WordDictionary(8);
+        assertEquals(-1, intern(dictionary, "a".repeat(WordDictionary.MAX_WORD_LENGTH + 1)));
+        assertEquals(0, intern(dictionary, "a".repeat(WordDictionary.MAX_WORD_LENGTH)));
+    }
+
+    @Test
+    void testIntern_disabled() {
+        WordDictionary dictionary = new WordDictionary(0);
+        assertFalse(dictionary.isEnabled());
+        assertEquals(-1, intern(dictionary, "the"));
+    }
+
+    @Test
+    void testIntern_concurrentAdmissionsAgree() throws Exception {
+        WordDictionary dictionary = new WordDictionary(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                results.add(executor.submit(() -> {
+                    int[] ids = new int[2000];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = intern(dictionary, "w" + i);
+                    }
+                    return ids;
+                }));
+            }
+            int[] first = results.get(0).get();
+            for (Future<int[]> result : results) {
+                assertArrayEquals(first, result.get());
+            }
+            assertEquals(1000, dictionary.size());
+            for (int i = 0; i < first.length; i++) {
+                assertEquals(first[i], find(dictionary, "w" + i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.anva.services;
 
+import com.anva.models.AnalysisSpecImpl;
+import com.anva.models.interfaces.AnalysisResult;
+import com.anva.models.interfaces.ApproximateResult;
 import com.anva.models.interfaces.WordFrequency;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class WordFrequencyAnalyzerImplTest {
     private WordFrequencyAnalyzerImpl analyzer;
@@ -42,6 +52,13 @@ class WordFrequencyAnalyzerImplTest {
         assertEquals(3, freq);
     }
 
+    @Test
+    void testCalculateFrequencyForWord_caseInsensitiveWholeWords() {
+        String text = "Apple apple APPLE pineapple apple1 apples";
+        assertEquals(3, analyzer.calculateFrequencyForWord(text, "aPPle"));
+        assertEquals(0, analyzer.calculateFrequencyForWord(text, "apple1"));
+    }
+
     @Test
     void testCalculateMostFrequentNWords_basic() {
         String text = "cat bat cat dog bat cat";
@@ -54,4 +71,155 @@ class WordFrequencyAnalyzerImplTest {
         assertEquals("bat", result.get(1).getWord());
         assertEquals(2, result.get(1).getFrequency());
     }
+
+    @Test
+    void testStreamedOverloads_matchInMemoryResults() throws Exception {
+        String text = "cat bat cat dog bat cat";
+        assertEquals(3, analyzer.calculateHighestFrequency(new StringReader(text)));
+        assertEquals(2, analyzer.calculateFrequencyForWord(new StringReader(text), "bat"));
+        List<WordFrequency> result = analyzer.calculateMostFrequentNWords(new StringReader(text), 2);
+        assertEquals("cat", result.get(0).getWord());
+        assertEquals("bat", result.get(1).getWord());
+    }
+
+    @Test
+    void testByteOverloads_matchInMemoryResults() {
+        // Long enough to be counted in parallel chunks, with separators, digits and multi-byte neighbours across blocks.
+        String text = "Cat bat, cat dog_bat café x1 CAT naïve Straße ".repeat(8_000) + "bat";
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        WordFrequencyAnalyzerImpl cached = new WordFrequencyAnalyzerImpl(
+                new WordCountEngine(WordCountEngine.DEFAULT_PARALLEL_THRESHOLD, StreamWordScanner.DEFAULT_BUFFER_SIZE),
+                new FrequencyTableCache(1 << 20), new WatchListCache(WatchListCache.DEFAULT_MAX_ENTRIES));
+
+        for (WordFrequencyAnalyzerImpl analyzer : List.of(this.analyzer, cached)) {
+            assertEquals(analyzer.calculateHighestFrequency(text), analyzer.calculateHighestFrequency(bytes));
+            assertEquals(analyzer.calculateFrequencyForWord(text, "bat"),
+                    analyzer.calculateFrequencyForWord(bytes, "bat"));
+            assertEquals(words(analyzer.calculateMostFrequentNWords(text, 10)),
+                    words(analyzer.calculateMostFrequentNWords(bytes, 10)));
+            assertEquals(analyzer.calculateFrequenciesForWords(text, List.of("cat", "dog", "naïve")),
+                    analyzer.calculateFrequenciesForWords(bytes, List.of("cat", "dog", "naïve")));
+            assertEquals(analyzer.calculateHighestNGramFrequency(text, 2, false),
+                    analyzer.calculateHighestNGramFrequency(bytes, 2, false));
+            assertEquals(words(analyzer.calculateMostFrequentNGrams(text, 2, 3, true)),
+                    words(analyzer.calculateMostFrequentNGrams(bytes, 2, 3, true)));
+            AnalysisSpecImpl unicode = new AnalysisSpecImpl(true, 5, List.of("CAFÉ"), "unicode");
+            assertEquals(words(analyzer.analyze(text, unicode).getMostFrequentWords()),
+                    words(analyzer.analyze(bytes, unicode).getMostFrequentWords()));
+            assertEquals(analyzer.analyze(text, unicode).getWordFrequencies(),
+                    analyzer.analyze(bytes, unicode).getWordFrequencies());
+            assertEquals(analyzer.estimateMostFrequentNWords(text, 1, 0.01).getTotalWords(),
+                    analyzer.estimateMostFrequentNWords(bytes, 1, 0.01).getTotalWords());
+        }
+    }
+
+    @Test
+    void testAnalyze_computesRequestedResultsOnly() {
+        String text = "cat bat cat dog bat cat";
+        AnalysisResult result = analyzer.analyze(text, new AnalysisSpecImpl(true, 2, List.of("Dog", "fish", "c-t")));
+        assertEquals(3, result.getHighestFrequency());
+        assertEquals("cat", result.getMostFrequentWords().get(0).getWord());
+        assertEquals("bat", result.getMostFrequentWords().get(1).getWord());
+        assertEquals(1, result.getWordFrequencies().get("Dog"));
+        assertEquals(0, result.getWordFrequencies().get("fish"));
+        assertEquals(0, result.getWordFrequencies().get("c-t"));
+
+        AnalysisResult highestOnly = analyzer.analyze(text, new AnalysisSpecImpl(true, 0, null));
+        assertNull(highestOnly.getMostFrequentWords());
+        assertNull(highestOnly.getWordFrequencies());
+    }
+
+    @Test
+    void testAnalyze_countsWithTheTokenizerOfTheSpec() throws Exception {
+        String text = "Straße strasse STRASSE café Café naïve";
+        AnalysisResult ascii = analyzer.analyze(text, new AnalysisSpecImpl(true, 1, List.of("café")));
+        assertEquals(List.of("strasse"), ascii.getMostFrequentWords().stream().map(WordFrequency::getWord).toList());
+        assertEquals(0, ascii.getWordFrequencies().get("café"));
+
+        AnalysisSpecImpl spec = new AnalysisSpecImpl(true, 3, List.of("CAFÉ", "straße"), "unicode");
+        AnalysisResult unicode = analyzer.analyze(text, spec);
+        assertEquals(2, unicode.getHighestFrequency());
+        assertEquals(List.of("café", "strasse", "naïve"),
+                unicode.getMostFrequentWords().stream().map(WordFrequency::getWord).toList());
+        assertEquals(2, unicode.getWordFrequencies().get("CAFÉ"));
+        assertEquals(1, unicode.getWordFrequencies().get("straße"));
+
+        AnalysisResult streamed = analyzer.analyze(new StringReader(text), spec);
+        assertEquals(unicode.getWordFrequencies(), streamed.getWordFrequencies());
+        assertEquals(Map.of("CAFÉ", 2), analyzer.analyze(text, new AnalysisSpecImpl(false, 0, List.of("CAFÉ"), "Unicode"))
+                .getWordFrequencies());
+    }
+
+    @Test
+    void testCalculateFrequenciesForWords_countsWatchListInOnePass() throws Exception {
+        String text = "Apple apple APPLE pineapple apple1 apples, banana; cherry-apple";
+        List<String> words = List.of("apple", "Banana", "APPLE", "kiwi", "c-t", "cherry");
+        Map<String, Integer> frequencies = analyzer.calculateFrequenciesForWords(text, words);
+
+        assertEquals(List.of("apple", "Banana", "APPLE", "kiwi", "c-t", "cherry"), List.copyOf(frequencies.keySet()));
+        assertEquals(4, frequencies.get("apple"));
+        assertEquals(1, frequencies.get("Banana"));
+        assertEquals(4, frequencies.get("APPLE"));
+        assertEquals(0, frequencies.get("kiwi"));
+        assertEquals(0, frequencies.get("c-t"));
+        assertEquals(1, frequencies.get("cherry"));
+        for (String word : words) {
+            assertEquals(analyzer.calculateFrequencyForWord(text, word), frequencies.get(word));
+        }
+        assertEquals(frequencies, analyzer.calculateFrequenciesForWords(new StringReader(text), words));
+    }
+
+    @Test
+    void testEstimateMostFrequentNWords_reportsErrorGuarantees() throws Exception {
+        String text = "cat bat cat dog bat cat";
+        ApproximateResult exact = analyzer.estimateMostFrequentNWords(text, 2, 0.1);
+        assertTrue(exact.isExact());
+        assertEquals(3, exact.getHighestFrequency());
+        assertEquals(6, exact.getTotalWords());
+        assertEquals(10, exact.getCounters());
+        assertEquals("cat", exact.getMostFrequentWords().get(0).getWord());
+        assertEquals(3, exact.getMostFrequentWords().get(0).getMinFrequency());
+        assertEquals("bat", exact.getMostFrequentWords().get(1).getWord());
+
+        // Two counters for three words: "cat" keeps its counter, the others may be overestimated.
+        ApproximateResult bounded = analyzer.estimateMostFrequentNWords(new StringReader(text), 0, 0.5);
+        assertNull(bounded.getMostFrequentWords());
+        assertEquals(2, bounded.getCounters());
+        assertTrue(bounded.getMaxError() <= 3);
+        assertTrue(bounded.getHighestFrequency() >= 3);
+
+        // An epsilon below the floor is raised to it rather than sizing every summary for it.
+        ApproximateResult clamped = analyzer.estimateMostFrequentNWords(text, 1, 1e-9);
+        assertEquals(100_000, clamped.getCounters());
+        assertTrue(clamped.isExact());
+        assertThrows(IllegalArgumentException.class, () -> analyzer.estimateMostFrequentNWords(text, 1, 0));
+    }
+
+    @Test
+    void testCalculateMostFrequentNGrams_ranksPhrasesLikeWords() throws Exception {
+        String text = "New York is big. new york, New Jersey is near new YORK; the city of New Jersey";
+        List<WordFrequency> bigrams = analyzer.calculateMostFrequentNGrams(text, 2, 3, false);
+        assertEquals(List.of("new york", "new jersey", "big new"),
+                bigrams.stream().map(WordFrequency::getWord).toList());
+        assertEquals(List.of(3, 2, 1), bigrams.stream().map(WordFrequency::getFrequency).toList());
+        assertEquals(3, analyzer.calculateHighestNGramFrequency(text, 2, false));
+        assertEquals(List.of("new york", "new jersey", "big new"),
+                analyzer.calculateMostFrequentNGrams(new StringReader(text), 2, 3, false).stream()
+                        .map(WordFrequency::getWord).toList());
+
+        // Stop words break phrases: nothing containing "is", "the" or "of" is counted.
+        List<WordFrequency> filtered = analyzer.calculateMostFrequentNGrams(text, 2, 10, true);
+        assertEquals(List.of("new york", "new jersey", "big new", "near new", "york new"),
+                filtered.stream().map(WordFrequency::getWord).toList());
+        assertEquals(1, analyzer.calculateHighestNGramFrequency(new StringReader(text), 3, true));
+        assertEquals(2, analyzer.calculateMostFrequentNGrams(text, 1, 3, true).get(2).getFrequency());
+
+        assertEquals(List.of(), analyzer.calculateMostFrequentNGrams(text, 2, 0, false));
+        assertThrows(IllegalArgumentException.class, () -> analyzer.calculateHighestNGramFrequency(text, 6, false));
+        assertThrows(IllegalArgumentException.class, () -> analyzer.calculateMostFrequentNGrams(text, 0, 3, false));
+    }
+
+    private static List<String> words(List<WordFrequency> frequencies) {
+        return frequencies.stream().map(frequency -> frequency.getWord() + "=" + frequency.getFrequency()).toList();
+    }
 }
@@ -0,0 +1,155 @@
+package com.anva.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WordTokenizerTest {
+
+    private static final Pattern WORD_PATTERN = Pattern.compile("\\b[a-zA-Z]+\\b");
+
+    private static List<String> tokenize(String text, int... splits) {
+        List<String> words = new ArrayList<>();
+        WordTokenizer tokenizer = new WordTokenizer();
+        int from = 0;
+        for (int split : splits) {
+            tokenizer.tokenize(text, from, split, (word, length, hash) -> {
+                assertEquals(WordHash.hash(word, length), hash);
+                words.add(new String(word, 0, length, StandardCharsets.US_ASCII));
+            });
+            from = split;
+        }
+        tokenizer.tokenize(text, from, text.length(),
+                (word, length, hash) -> words.add(new String(word, 0, length, StandardCharsets.US_ASCII)));
+        return words;
+    }
+
+    private static List<String> regexTokenize(String text) {
+        return WORD_PATTERN.matcher(text).results().map(it -> it.group().toLowerCase()).toList();
+    }
+
+    @Test
+    void testTokenize_basic() {
+        assertEquals(List.of("hello", "world", "i", "m", "fine"), tokenize("Hello, WORLD! I'm fine."));
+    }
+
+    @Test
+    void testTokenize_wordCharactersSuppressBoundaries() {
+        // Digits, '_' and non-ASCII letters are word characters for \b, so these runs are not words.
+        assertEquals(List.of("ok"), tokenize("abc1 _abc abc_ 1abc café naïve ok"));
+    }
+
+    @Test
+    void testTokenize_combiningMarks() {
+        // A combining mark after a letter is a word character; on its own it is not.
+        String text = "éabc abć ́abc";
+        assertEquals(regexTokenize(text), tokenize(text));
+    }
+
+    @Test
+    void testTokenize_surrogatePairs() {
+        String text = "𝐀abc 😀abc abc😀";
+        assertEquals(regexTokenize(text), tokenize(text));
+    }
+
+    @Test
+    void testTokenize_splitRangesDoNotLoseOrDuplicateWords() {
+        String text = "alpha beta gamma delta";
+        for (int split = 0; split <= text.length(); split++) {
+            assertEquals(regexTokenize(text), tokenize(text, split), "split at " + split);
+        }
+    }
+
+    @Test
+    void testTokenize_matchesRegexOnRandomText() {
+        char[] alphabet = "abcXYZ  .,_09é́中😀-'".toCharArray();
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            char[] chars = new char[random.nextInt(64)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String text = new String(chars);
+            assertEquals(regexTokenize(text), tokenize(text), text);
+        }
+    }
+
+    @Test
+    void testTokenizeUtf8Bytes_matchesRegexOnRandomText() {
+        char[] alphabet = "abcXYZ  .,_09é́中😀𝐀-'".toCharArray();
+        Random random = new Random(43);
+        for (int round = 0; round < 500; round++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(64);
+            while (sb.length() < length) {
+                char c = alphabet[random.nextInt(alphabet.length)];
+                if (Character.isHighSurrogate(c)) {
+                    // Keep surrogate pairs intact; lone surrogates cannot be encoded as UTF-8.
+                    c = 'a';
+                } else if (Character.isLowSurrogate(c)) {
+                    sb.append(random.nextBoolean() ? "😀" : "𝐀");
+                    continue;
+                }
+                sb.append(c);
+            }
+            String text = sb.toString();
+
+            List<String> words = new ArrayList<>();
+            ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+            new WordTokenizer().tokenize(bytes, 0, bytes.limit(),
+                    (word, wordLength, hash) -> words.add(new String(word, 0, wordLength, StandardCharsets.US_ASCII)));
+            assertEquals(regexTokenize(text), words, text);
+        }
+    }
+
+    @Test
+    void testLetterMask_matchesScalarClassification() {
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int offset = 0; offset + AsciiBlocks.SIZE <= bytes.length; offset += 7) {
+            long expected = 0;
+            for (int i = 0; i < AsciiBlocks.SIZE; i++) {
+                if (WordTokenizer.isAsciiLetter(bytes[offset + i])) {
+                    expected |= 1L << i;
+                }
+            }
+            assertEquals(expected, AsciiBlocks.letterMask(buffer, offset), "offset " + offset);
+        }
+    }
+
+    @Test
+    void testTokenizeUtf8Bytes_longRunsAcrossBlocks() {
+        // Words and separator runs longer than a block, and words ending exactly at block edges.
+        String text = "a".repeat(150) + " ,.".repeat(50) + "Hello " + "b".repeat(58) + " x" + "é".repeat(40) + " end";
+        for (int split : new int[]{0, 1, 63, 64, 65, 200, text.length()}) {
+            ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+            int cut = WordTokenizer.nextBoundary(bytes, Math.min(split, bytes.limit()));
+            List<String> words = new ArrayList<>();
+            WordTokenizer tokenizer = new WordTokenizer();
+            tokenizer.tokenize(bytes, 0, cut,
+                    (word, length, hash) -> words.add(new String(word, 0, length, StandardCharsets.US_ASCII)));
+            tokenizer.tokenize(bytes, cut, bytes.limit(), (word, length, hash) -> {
+                assertEquals(WordHash.hash(word, length), hash);
+                words.add(new String(word, 0, length, StandardCharsets.US_ASCII));
+            });
+            assertEquals(regexTokenize(text), words, "split at " + split);
+        }
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("apple", new String(WordTokenizer.normalize("ApPlE"), StandardCharsets.US_ASCII));
+        assertEquals(null, WordTokenizer.normalize("don't"));
+        assertEquals(null, WordTokenizer.normalize(""));
+    }
+}